@@ -1,6 +1,7 @@
 package cms.gov.madie.measure;
 
 import cms.gov.madie.measure.services.LogInterceptor;
+import cms.gov.madie.measure.services.RequestDeadlineInterceptor;
 import gov.cms.madie.models.validators.ValidLibraryNameValidator;
 import io.mongock.runner.springboot.EnableMongock;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,13 +30,16 @@ public class MeasureServiceApplication {
   }
 
   @Bean
-  public WebMvcConfigurer corsConfigurer(@Autowired LogInterceptor logInterceptor) {
+  public WebMvcConfigurer corsConfigurer(
+      @Autowired LogInterceptor logInterceptor,
+      @Autowired RequestDeadlineInterceptor requestDeadlineInterceptor) {
     return new WebMvcConfigurer() {
 
       @Override
       public void addInterceptors(InterceptorRegistry registry) {
         WebMvcConfigurer.super.addInterceptors(registry);
         registry.addInterceptor(logInterceptor);
+        registry.addInterceptor(requestDeadlineInterceptor);
       }
 
       @Override
@@ -0,0 +1,72 @@
+package cms.gov.madie.measure.config;
+
+import cms.gov.madie.measure.dto.MeasureSetAccess;
+import gov.cms.madie.models.measure.MeasureSet;
+import io.mongock.api.annotations.ChangeUnit;
+import io.mongock.api.annotations.Execution;
+import io.mongock.api.annotations.RollbackExecution;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Builds the access list of every existing measure set. Measure sets are streamed with a cursor
+ * and their access lists upserted in batches, so the change unit can simply be executed again.
+ */
+@Slf4j
+@ChangeUnit(id = "add_measure_set_access", order = "1", author = "madie_dev")
+public class AddMeasureSetAccessChangeUnit {
+  static final int BATCH_SIZE = 500;
+
+  @Execution
+  public void addMeasureSetAccess(MongoTemplate mongoTemplate) {
+    Query query = new Query();
+    query.fields().include("measureSetId", "owner", "acls");
+    query.cursorBatchSize(BATCH_SIZE);
+
+    List<MeasureSetAccess> batch = new ArrayList<>();
+    int added = 0;
+    try (Stream<MeasureSet> measureSets = mongoTemplate.stream(query, MeasureSet.class)) {
+      Iterator<MeasureSet> iterator = measureSets.iterator();
+      while (iterator.hasNext()) {
+        batch.add(MeasureSetAccess.of(iterator.next()));
+        if (batch.size() >= BATCH_SIZE) {
+          added += batch.size();
+          writeBatch(mongoTemplate, batch);
+        }
+      }
+    }
+    added += batch.size();
+    writeBatch(mongoTemplate, batch);
+    log.info("Added the access lists of {} measure sets", added);
+  }
+
+  private void writeBatch(MongoTemplate mongoTemplate, List<MeasureSetAccess> batch) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    BulkOperations operations =
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MeasureSetAccess.class);
+    batch.forEach(
+        access ->
+            operations.replaceOne(
+                new Query(Criteria.where("_id").is(access.getMeasureSetId())),
+                access,
+                FindAndReplaceOptions.options().upsert()));
+    operations.execute();
+    batch.clear();
+  }
+
+  @RollbackExecution
+  public void rollbackExecution(MongoTemplate mongoTemplate) {
+    mongoTemplate.dropCollection(MeasureSetAccess.class);
+  }
+}
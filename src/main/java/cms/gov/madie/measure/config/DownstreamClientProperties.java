@@ -0,0 +1,64 @@
+package cms.gov.madie.measure.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Settings of the rest template of one downstream service: its bulkhead, its pooled HTTP client
+ * and its retries and circuit breaker. Bound once per downstream, under the prefix of that
+ * service's configuration.
+ */
+@Data
+@Validated
+public class DownstreamClientProperties {
+
+  @Valid private BulkheadProperties bulkhead = new BulkheadProperties();
+  @Valid private HttpClientProperties httpClient = new HttpClientProperties();
+  @Valid private ResilienceProperties resilience = new ResilienceProperties();
+
+  @Data
+  public static class BulkheadProperties {
+    @Min(1)
+    private int maxConcurrentCalls;
+
+    @Min(0)
+    private int maxQueuedCalls;
+
+    @Min(0)
+    private long maxWaitMs;
+  }
+
+  @Data
+  public static class HttpClientProperties {
+    @Min(1)
+    private int maxConnectionsPerRoute;
+
+    @Min(1)
+    private long connectTimeoutMs;
+
+    @Min(1)
+    private long readTimeoutMs;
+
+    @Min(1)
+    private long acquireTimeoutMs;
+
+    private boolean compressRequests;
+  }
+
+  @Data
+  public static class ResilienceProperties {
+    @Min(1)
+    private int maxAttempts;
+
+    @Min(0)
+    private long backoffMs;
+
+    @Min(1)
+    private int failureRateThreshold;
+
+    @Min(1)
+    private long openDurationMs;
+  }
+}
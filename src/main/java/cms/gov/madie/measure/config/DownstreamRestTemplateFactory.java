@@ -0,0 +1,67 @@
+package cms.gov.madie.measure.config;
+
+import cms.gov.madie.measure.services.AccessTokenRejectionInterceptor;
+import cms.gov.madie.measure.services.Bulkhead;
+import cms.gov.madie.measure.services.CircuitBreaker;
+import cms.gov.madie.measure.services.GzipRequestInterceptor;
+import cms.gov.madie.measure.services.RejectedAccessTokens;
+import cms.gov.madie.measure.services.ResilienceInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Builds the rest template of a downstream service: a {@link PooledHttpClient}, request bodies
+ * compressed if the service accepts them, access tokens the service rejects recorded, retries and a
+ * circuit breaker, and a bulkhead around each attempt.
+ */
+@Component
+@RequiredArgsConstructor
+public class DownstreamRestTemplateFactory {
+
+  private final MeterRegistry meterRegistry;
+  private final RejectedAccessTokens rejectedAccessTokens;
+
+  /**
+   * @param name the name of the downstream service, that its metrics are tagged with
+   */
+  public RestTemplate create(String name, DownstreamClientProperties properties) {
+    DownstreamClientProperties.HttpClientProperties httpClient = properties.getHttpClient();
+    DownstreamClientProperties.BulkheadProperties bulkhead = properties.getBulkhead();
+    DownstreamClientProperties.ResilienceProperties resilience = properties.getResilience();
+    RestTemplate restTemplate =
+        new RestTemplate(
+            PooledHttpClient.builder()
+                .maxConnectionsPerRoute(httpClient.getMaxConnectionsPerRoute())
+                .connectTimeoutMillis(httpClient.getConnectTimeoutMs())
+                .readTimeoutMillis(httpClient.getReadTimeoutMs())
+                .acquireTimeoutMillis(httpClient.getAcquireTimeoutMs())
+                .build()
+                .requestFactory());
+    if (httpClient.isCompressRequests()) {
+      restTemplate.getInterceptors().add(new GzipRequestInterceptor());
+    }
+    restTemplate.getInterceptors().add(new AccessTokenRejectionInterceptor(rejectedAccessTokens));
+    // last, as a retry does not go through the interceptors that come after it
+    restTemplate
+        .getInterceptors()
+        .add(
+            new ResilienceInterceptor(
+                new CircuitBreaker(
+                    name,
+                    resilience.getFailureRateThreshold(),
+                    resilience.getOpenDurationMs(),
+                    meterRegistry),
+                new Bulkhead(
+                    name,
+                    bulkhead.getMaxConcurrentCalls(),
+                    bulkhead.getMaxQueuedCalls(),
+                    bulkhead.getMaxWaitMs(),
+                    meterRegistry),
+                resilience.getMaxAttempts(),
+                resilience.getBackoffMs(),
+                meterRegistry));
+    return restTemplate;
+  }
+}
@@ -2,6 +2,7 @@ package cms.gov.madie.measure.config;
 
 import lombok.Getter;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
@@ -20,7 +21,13 @@ public class ElmTranslatorClientConfig {
   private String cqlElmServiceElmJsonUri;
 
   @Bean
-  public RestTemplate elmTranslatorRestTemplate() {
-    return new RestTemplate();
+  @ConfigurationProperties("madie.cql-elm.service")
+  public DownstreamClientProperties elmTranslatorClientProperties() {
+    return new DownstreamClientProperties();
+  }
+
+  @Bean
+  public RestTemplate elmTranslatorRestTemplate(DownstreamRestTemplateFactory restTemplateFactory) {
+    return restTemplateFactory.create("elm-translator", elmTranslatorClientProperties());
   }
 }
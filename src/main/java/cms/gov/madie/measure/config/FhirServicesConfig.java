@@ -2,6 +2,7 @@ package cms.gov.madie.measure.config;
 
 import lombok.Getter;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.converter.ByteArrayHttpMessageConverter;
@@ -27,8 +28,15 @@ public class FhirServicesConfig {
   public String madieFhirServiceTestCaseUri;
 
   @Bean
-  public RestTemplate fhirServicesRestTemplate() {
-    RestTemplate restTemplate = new RestTemplate();
+  @ConfigurationProperties("madie.fhir.service")
+  public DownstreamClientProperties fhirServicesClientProperties() {
+    return new DownstreamClientProperties();
+  }
+
+  @Bean
+  public RestTemplate fhirServicesRestTemplate(DownstreamRestTemplateFactory restTemplateFactory) {
+    RestTemplate restTemplate =
+        restTemplateFactory.create("fhir-services", fhirServicesClientProperties());
     restTemplate.getMessageConverters().add(new ByteArrayHttpMessageConverter());
     return restTemplate;
   }
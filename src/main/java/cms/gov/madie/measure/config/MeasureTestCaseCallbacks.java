@@ -0,0 +1,23 @@
+package cms.gov.madie.measure.config;
+
+import gov.cms.madie.models.measure.Measure;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.mapping.event.BeforeSaveCallback;
+import org.springframework.stereotype.Component;
+
+/**
+ * Test cases live in their own collection and are only written through {@code
+ * TestCaseRepository}. Keeps them out of the measure document on every save; test cases carried by
+ * a saved measure are not written, the measure may have been read before they were changed.
+ */
+@Component
+public class MeasureTestCaseCallbacks implements BeforeSaveCallback<Measure> {
+
+  static final String TEST_CASES = "testCases";
+
+  @Override
+  public Measure onBeforeSave(Measure entity, Document document, String collection) {
+    document.remove(TEST_CASES);
+    return entity;
+  }
+}
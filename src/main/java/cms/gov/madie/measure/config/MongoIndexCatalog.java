@@ -0,0 +1,97 @@
+package cms.gov.madie.measure.config;
+
+import gov.cms.madie.models.cqm.CqmMeasure;
+import gov.cms.madie.models.measure.Export;
+import gov.cms.madie.models.measure.Measure;
+import gov.cms.madie.models.measure.MeasureSet;
+import lombok.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.index.Index;
+
+import java.util.List;
+
+/**
+ * The indexes the repository queries rely on, for collections whose documents are mapped from the
+ * shared models and so cannot declare them with annotations. Documents owned by this service
+ * declare their indexes on their classes instead, for example {@code MeasureTestCase}. The catalog
+ * is reconciled against Mongo at startup by {@link MongoIndexReconciler}.
+ */
+public final class MongoIndexCatalog {
+
+  public static final List<CatalogIndex> INDEXES =
+      List.of(
+          // MeasureRepository: existsByMeasureSetIdAndActiveAndMeasureMetaDataDraft,
+          // findAllByMeasureSetIdInAndActiveAndMeasureMetaDataDraft, findAllByMeasureSetIdAndActive
+          new CatalogIndex(
+              Measure.class,
+              new Index()
+                  .on("measureSetId", Sort.Direction.ASC)
+                  .on("active", Sort.Direction.ASC)
+                  .on("measureMetaData.draft", Sort.Direction.ASC)
+                  .named("measureSetId_active_draft")),
+          // MeasureVersionRepositoryImpl: highest version of a measure set
+          new CatalogIndex(
+              Measure.class,
+              new Index()
+                  .on("measureSetId", Sort.Direction.ASC)
+                  .on("version.major", Sort.Direction.DESC)
+                  .on("version.minor", Sort.Direction.DESC)
+                  .on("version.revisionNumber", Sort.Direction.DESC)
+                  .named("measureSetId_version")),
+          // MeasureRepository: existsByCqlLibraryNameAndActive
+          new CatalogIndex(
+              Measure.class,
+              new Index()
+                  .on("cqlLibraryName", Sort.Direction.ASC)
+                  .on("active", Sort.Direction.ASC)
+                  .named("cqlLibraryName_active")),
+          // MeasureRepository: findGroupById
+          new CatalogIndex(
+              Measure.class, new Index().on("groups._id", Sort.Direction.ASC).named("groups_id")),
+          // MeasureSearchServiceImpl: measure listing and search, most recently modified first
+          new CatalogIndex(
+              Measure.class,
+              new Index()
+                  .on("active", Sort.Direction.ASC)
+                  .on("lastModifiedAt", Sort.Direction.DESC)
+                  .on("_id", Sort.Direction.DESC)
+                  .named("active_lastModifiedAt")),
+          // MeasureSearchServiceImpl: findLibraryUsageByLibraryName
+          new CatalogIndex(
+              Measure.class,
+              new Index()
+                  .on("includedLibraries.name", Sort.Direction.ASC)
+                  .named("includedLibraries_name")),
+          // MeasureCmsIdRepositoryImpl, MeasureRepository: findAllByModel
+          new CatalogIndex(
+              Measure.class, new Index().on("model", Sort.Direction.ASC).named("model")),
+          // MeasureSetRepository, and the joins of measures to their measure sets
+          new CatalogIndex(
+              MeasureSet.class,
+              new Index().on("measureSetId", Sort.Direction.ASC).named("measureSetId")),
+          // MeasureCmsIdRepositoryImpl and search by cmsId
+          new CatalogIndex(
+              MeasureSet.class, new Index().on("cmsId", Sort.Direction.ASC).named("cmsId")),
+          // ExportRepository: findByMeasureId
+          new CatalogIndex(
+              Export.class, new Index().on("measureId", Sort.Direction.ASC).named("measureId")),
+          // CqmMeasureRepository: findByHqmfSetIdAndHqmfVersionNumber
+          new CatalogIndex(
+              CqmMeasure.class,
+              new Index()
+                  .on("hqmf_set_id", Sort.Direction.ASC)
+                  .on("hqmf_version_number", Sort.Direction.ASC)
+                  .named("hqmfSetId_hqmfVersionNumber")));
+
+  private MongoIndexCatalog() {}
+
+  @Value
+  public static class CatalogIndex {
+    Class<?> entityClass;
+    Index index;
+
+    public String getName() {
+      return index.getIndexOptions().getString("name");
+    }
+  }
+}
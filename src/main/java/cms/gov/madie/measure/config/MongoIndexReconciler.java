@@ -0,0 +1,137 @@
+package cms.gov.madie.measure.config;
+
+import cms.gov.madie.measure.config.MongoIndexCatalog.CatalogIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Compares the {@link MongoIndexCatalog} with the indexes in Mongo once the application has
+ * started, and migrations have run. In create mode missing indexes are created, in report mode they
+ * are only logged. Indexes are matched on their keys, so an index created under another name counts
+ * as present. Indexes are never dropped or changed, and a failure is logged rather than stopping
+ * the service.
+ */
+@Slf4j
+@Component
+public class MongoIndexReconciler {
+
+  enum Mode {
+    CREATE,
+    REPORT,
+    DISABLED
+  }
+
+  private final MongoTemplate mongoTemplate;
+  private final Mode mode;
+
+  public MongoIndexReconciler(
+      MongoTemplate mongoTemplate, @Value("${madie.mongo.index-catalog.mode}") String mode) {
+    this(mongoTemplate, Mode.valueOf(mode.toUpperCase(Locale.ROOT)));
+  }
+
+  MongoIndexReconciler(MongoTemplate mongoTemplate, Mode mode) {
+    this.mongoTemplate = mongoTemplate;
+    this.mode = mode;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    if (mode == Mode.DISABLED) {
+      return;
+    }
+    try {
+      reconcile(MongoIndexCatalog.INDEXES);
+    } catch (RuntimeException e) {
+      log.error("Unable to reconcile the Mongo index catalog", e);
+    }
+  }
+
+  /** @return the catalog indexes that were missing from Mongo */
+  List<CatalogIndex> reconcile(List<CatalogIndex> catalog) {
+    Map<Class<?>, List<IndexInfo>> existingIndexes = new HashMap<>();
+    List<CatalogIndex> missing = new ArrayList<>();
+    for (CatalogIndex catalogIndex : catalog) {
+      String collection = mongoTemplate.getCollectionName(catalogIndex.getEntityClass());
+      List<IndexInfo> existing =
+          existingIndexes.computeIfAbsent(
+              catalogIndex.getEntityClass(),
+              entityClass -> mongoTemplate.indexOps(entityClass).getIndexInfo());
+      List<String> keys = getKeys(catalogIndex.getIndex().getIndexKeys());
+      if (existing.stream().anyMatch(indexInfo -> keys.equals(getKeys(indexInfo)))) {
+        continue;
+      }
+      missing.add(catalogIndex);
+
+      Optional<IndexInfo> sameName =
+          existing.stream()
+              .filter(indexInfo -> catalogIndex.getName().equals(indexInfo.getName()))
+              .findFirst();
+      if (sameName.isPresent()) {
+        log.warn(
+            "Index [{}] on [{}] has keys {} but the catalog declares {}, it is left as it is",
+            catalogIndex.getName(),
+            collection,
+            getKeys(sameName.get()),
+            keys);
+      } else if (mode == Mode.CREATE) {
+        createIndex(catalogIndex, collection, keys);
+      } else {
+        log.warn(
+            "Index [{}] on [{}] with keys {} is missing", catalogIndex.getName(), collection, keys);
+      }
+    }
+    log.info(
+        "Mongo index catalog has {} indexes, {} were missing in {} mode",
+        catalog.size(),
+        missing.size(),
+        mode);
+    return missing;
+  }
+
+  private void createIndex(CatalogIndex catalogIndex, String collection, List<String> keys) {
+    try {
+      mongoTemplate.indexOps(catalogIndex.getEntityClass()).ensureIndex(catalogIndex.getIndex());
+      log.info("Created index [{}] on [{}] with keys {}", catalogIndex.getName(), collection, keys);
+    } catch (RuntimeException e) {
+      log.warn(
+          "Unable to create index [{}] on [{}] with keys {}",
+          catalogIndex.getName(),
+          collection,
+          keys,
+          e);
+    }
+  }
+
+  private List<String> getKeys(Document indexKeys) {
+    return indexKeys.entrySet().stream()
+        .map(key -> key.getKey() + ":" + key.getValue())
+        .toList();
+  }
+
+  private List<String> getKeys(IndexInfo indexInfo) {
+    return indexInfo.getIndexFields().stream().map(this::getKey).toList();
+  }
+
+  private String getKey(IndexField indexField) {
+    if (indexField.getDirection() == null) {
+      // text, geo and hashed keys are never declared in the catalog
+      return indexField.getKey() + ":special";
+    }
+    return indexField.getKey() + ":" + (indexField.getDirection() == Sort.Direction.ASC ? 1 : -1);
+  }
+}
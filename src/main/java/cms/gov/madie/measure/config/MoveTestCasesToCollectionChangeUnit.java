@@ -0,0 +1,133 @@
+package cms.gov.madie.measure.config;
+
+import cms.gov.madie.measure.dto.MeasureTestCase;
+import io.mongock.api.annotations.ChangeUnit;
+import io.mongock.api.annotations.Execution;
+import io.mongock.api.annotations.RollbackExecution;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Moves the test cases embedded in measure documents into the measureTestCase collection. Measures
+ * are streamed with a cursor and written in batches so that no more than one batch of test cases
+ * is held in memory at a time. Each batch is upserted before the test cases are unset from their
+ * measures, so an interrupted run can simply be executed again.
+ */
+@Slf4j
+@ChangeUnit(id = "move_test_cases_to_collection", order = "1", author = "madie_dev")
+public class MoveTestCasesToCollectionChangeUnit {
+  static final String MEASURE_COLLECTION = "measure";
+  static final String TEST_CASES = "testCases";
+  static final int BATCH_SIZE = 500;
+
+  @Execution
+  public void moveTestCases(MongoTemplate mongoTemplate) {
+    Query query = new Query(Criteria.where(TEST_CASES).exists(true));
+    query.fields().include(TEST_CASES);
+    query.cursorBatchSize(BATCH_SIZE);
+
+    List<Document> testCaseBatch = new ArrayList<>();
+    List<Object> measureIdBatch = new ArrayList<>();
+    int movedTestCases = 0;
+    int updatedMeasures = 0;
+    try (Stream<Document> measures =
+        mongoTemplate.stream(query, Document.class, MEASURE_COLLECTION)) {
+      Iterator<Document> iterator = measures.iterator();
+      while (iterator.hasNext()) {
+        Document measure = iterator.next();
+        Object measureId = measure.get("_id");
+        List<Document> testCases = measure.getList(TEST_CASES, Document.class);
+        if (testCases != null) {
+          testCases.forEach(
+              testCase -> testCaseBatch.add(toMeasureTestCase(measureId.toString(), testCase)));
+        }
+        measureIdBatch.add(measureId);
+        if (testCaseBatch.size() >= BATCH_SIZE) {
+          movedTestCases += testCaseBatch.size();
+          updatedMeasures += measureIdBatch.size();
+          writeBatch(mongoTemplate, testCaseBatch, measureIdBatch);
+        }
+      }
+    }
+    movedTestCases += testCaseBatch.size();
+    updatedMeasures += measureIdBatch.size();
+    writeBatch(mongoTemplate, testCaseBatch, measureIdBatch);
+    log.info(
+        "Moved {} test cases from {} measures into the {} collection",
+        movedTestCases,
+        updatedMeasures,
+        MeasureTestCase.COLLECTION);
+  }
+
+  private void writeBatch(
+      MongoTemplate mongoTemplate, List<Document> testCaseBatch, List<Object> measureIdBatch) {
+    if (!testCaseBatch.isEmpty()) {
+      BulkOperations testCaseOperations =
+          mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MeasureTestCase.COLLECTION);
+      testCaseBatch.forEach(
+          testCase ->
+              testCaseOperations.replaceOne(
+                  new Query(Criteria.where("_id").is(testCase.get("_id"))),
+                  testCase,
+                  FindAndReplaceOptions.options().upsert()));
+      testCaseOperations.execute();
+    }
+    if (!measureIdBatch.isEmpty()) {
+      BulkOperations measureOperations =
+          mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MEASURE_COLLECTION);
+      measureOperations.updateMulti(
+          new Query(Criteria.where("_id").in(measureIdBatch)), new Update().unset(TEST_CASES));
+      measureOperations.execute();
+    }
+    testCaseBatch.clear();
+    measureIdBatch.clear();
+  }
+
+  private Document toMeasureTestCase(String measureId, Document testCase) {
+    Object testCaseId = testCase.get("_id");
+    if (testCaseId == null) {
+      testCaseId = ObjectId.get();
+      testCase.put("_id", testCaseId);
+    } else if (testCaseId instanceof String id && ObjectId.isValid(id)) {
+      // stored the same way the mapping layer writes MeasureTestCase ids
+      testCaseId = new ObjectId(id);
+    }
+    return new Document("_id", testCaseId)
+        .append("measureId", measureId)
+        .append("testCase", testCase)
+        .append("_class", MeasureTestCase.class.getName());
+  }
+
+  @RollbackExecution
+  public void rollbackExecution(MongoTemplate mongoTemplate) {
+    List<String> measureIds =
+        mongoTemplate.findDistinct(
+            new Query(), "measureId", MeasureTestCase.COLLECTION, String.class);
+    for (String measureId : measureIds) {
+      Query testCaseQuery = new Query(Criteria.where("measureId").is(measureId));
+      List<Document> testCases =
+          mongoTemplate.find(testCaseQuery, Document.class, MeasureTestCase.COLLECTION).stream()
+              .map(measureTestCase -> measureTestCase.get("testCase", Document.class))
+              .toList();
+      Object id = ObjectId.isValid(measureId) ? new ObjectId(measureId) : measureId;
+      mongoTemplate.updateFirst(
+          new Query(Criteria.where("_id").is(id)),
+          new Update().set(TEST_CASES, testCases),
+          MEASURE_COLLECTION);
+      mongoTemplate.remove(testCaseQuery, MeasureTestCase.COLLECTION);
+    }
+    log.info("Moved test cases of {} measures back into the measure documents", measureIds.size());
+  }
+}
@@ -0,0 +1,77 @@
+package cms.gov.madie.measure.config;
+
+import cms.gov.madie.measure.services.RequestDeadline;
+import lombok.Builder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+/**
+ * Settings of the HTTP client behind the rest template of a downstream service. Connections are
+ * pooled per route and kept alive between calls, and gzip or deflate encoded responses are
+ * decompressed by the client. The read and acquire timeouts of every call are cut to what is left
+ * of the {@link RequestDeadline}.
+ */
+@Builder
+public class PooledHttpClient {
+
+  // a downstream client talks to one or two hosts, this leaves room for a few more
+  private static final int ROUTES = 4;
+  private static final TimeValue VALIDATE_AFTER_INACTIVITY = TimeValue.ofSeconds(2);
+  private static final TimeValue MAX_IDLE_TIME = TimeValue.ofSeconds(30);
+
+  private final int maxConnectionsPerRoute;
+  private final long connectTimeoutMillis;
+  private final long readTimeoutMillis;
+  private final long acquireTimeoutMillis;
+
+  public ClientHttpRequestFactory requestFactory() {
+    PoolingHttpClientConnectionManager connectionManager =
+        PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnPerRoute(maxConnectionsPerRoute)
+            .setMaxConnTotal(maxConnectionsPerRoute * ROUTES)
+            .setDefaultConnectionConfig(
+                ConnectionConfig.custom()
+                    .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMillis))
+                    .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMillis))
+                    .setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY)
+                    .build())
+            .build();
+    RequestConfig requestConfig =
+        RequestConfig.custom()
+            .setConnectionRequestTimeout(Timeout.ofMilliseconds(acquireTimeoutMillis))
+            .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMillis))
+            .build();
+    CloseableHttpClient httpClient =
+        HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(requestConfig)
+            .evictIdleConnections(MAX_IDLE_TIME)
+            .build();
+    HttpComponentsClientHttpRequestFactory requestFactory =
+        new HttpComponentsClientHttpRequestFactory(httpClient);
+    requestFactory.setHttpContextFactory(
+        (method, uri) -> {
+          HttpClientContext context = HttpClientContext.create();
+          context.setRequestConfig(
+              RequestConfig.copy(requestConfig)
+                  .setConnectionRequestTimeout(withinDeadline(acquireTimeoutMillis))
+                  .setResponseTimeout(withinDeadline(readTimeoutMillis))
+                  .build());
+          return context;
+        });
+    return requestFactory;
+  }
+
+  private static Timeout withinDeadline(long timeoutMillis) {
+    return Timeout.ofMilliseconds(Math.max(1, RequestDeadline.remainingMillis(timeoutMillis)));
+  }
+}
@@ -2,6 +2,7 @@ package cms.gov.madie.measure.config;
 
 import lombok.Getter;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
@@ -25,7 +26,13 @@ public class QdmServiceConfig {
   private String humanReadableUrn;
 
   @Bean
-  public RestTemplate qdmServiceRestTemplate() {
-    return new RestTemplate();
+  @ConfigurationProperties("madie.qdm-service")
+  public DownstreamClientProperties qdmServiceClientProperties() {
+    return new DownstreamClientProperties();
+  }
+
+  @Bean
+  public RestTemplate qdmServiceRestTemplate(DownstreamRestTemplateFactory restTemplateFactory) {
+    return restTemplateFactory.create("qdm-service", qdmServiceClientProperties());
   }
 }
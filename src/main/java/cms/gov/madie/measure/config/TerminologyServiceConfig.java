@@ -2,6 +2,7 @@ package cms.gov.madie.measure.config;
 
 import lombok.Getter;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
@@ -20,7 +21,13 @@ public class TerminologyServiceConfig {
   private String validateCodeUrl;
 
   @Bean
-  public RestTemplate terminologyRestTemplate() {
-    return new RestTemplate();
+  @ConfigurationProperties("madie.terminology.service")
+  public DownstreamClientProperties terminologyClientProperties() {
+    return new DownstreamClientProperties();
+  }
+
+  @Bean
+  public RestTemplate terminologyRestTemplate(DownstreamRestTemplateFactory restTemplateFactory) {
+    return restTemplateFactory.create("terminology-service", terminologyClientProperties());
   }
 }
@@ -2,6 +2,7 @@ package cms.gov.madie.measure.config;
 
 import lombok.Getter;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
@@ -23,7 +24,13 @@ public class VirusScanConfig {
   private boolean scanDisabled;
 
   @Bean
-  public RestTemplate virusScanRestTemplate() {
-    return new RestTemplate();
+  @ConfigurationProperties("madie.virus-scan.service")
+  public DownstreamClientProperties virusScanClientProperties() {
+    return new DownstreamClientProperties();
+  }
+
+  @Bean
+  public RestTemplate virusScanRestTemplate(DownstreamRestTemplateFactory restTemplateFactory) {
+    return restTemplateFactory.create("virus-scan", virusScanClientProperties());
   }
 }
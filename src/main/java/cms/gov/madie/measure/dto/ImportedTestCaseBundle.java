@@ -0,0 +1,23 @@
+package cms.gov.madie.measure.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** What a test case import needs from an uploaded bundle, read from the bundle once. */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportedTestCaseBundle {
+  private String patientId;
+  private String familyName;
+  private String givenName;
+  private String description;
+  // QI-Core only, the first MeasureReport in the bundle
+  private JsonNode measureReport;
+  // the test case JSON to store, without MeasureReports for QI-Core
+  private String json;
+}
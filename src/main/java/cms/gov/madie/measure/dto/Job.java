@@ -0,0 +1,45 @@
+package cms.gov.madie.measure.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * A long-running operation run in the background by the job service. Progress, and the checkpoint
+ * to resume from, are written as the job runs, and its results are stored in {@link
+ * JobResultChunk}s as they are produced. The instance running a job renews its heartbeat; a
+ * running job whose heartbeat has lapsed was lost with its instance and is marked interrupted.
+ */
+@Data
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = Job.COLLECTION)
+@CompoundIndex(name = "status_heartbeatAt", def = "{'status': 1, 'heartbeatAt': 1}")
+public class Job {
+  public static final String COLLECTION = "job";
+
+  @Id private String id;
+  private String type;
+  private JobStatus status;
+  private Map<String, Object> parameters;
+  private String submittedBy;
+  private Instant submittedAt;
+  private Instant startedAt;
+  private Instant heartbeatAt;
+  private Instant finishedAt;
+  private String runBy;
+  private long total;
+  private long processed;
+  private long failed;
+  private int resultChunks;
+  private String checkpoint;
+  private String error;
+}
@@ -0,0 +1,27 @@
+package cms.gov.madie.measure.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.List;
+
+/** A batch of the results of a {@link Job}, numbered from 0 in the order they were produced. */
+@Data
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = JobResultChunk.COLLECTION)
+@CompoundIndex(name = "jobId_sequence", def = "{'jobId': 1, 'sequence': 1}", unique = true)
+public class JobResultChunk {
+  public static final String COLLECTION = "jobResultChunk";
+
+  @Id private String id;
+  private String jobId;
+  private int sequence;
+  private List<Object> results;
+}
@@ -2,9 +2,16 @@ package cms.gov.madie.measure.dto;
 
 public enum JobStatus {
   PENDING,
+  RUNNING,
+  INTERRUPTED,
   SKIPPED,
   CANCELLED,
   COMPLETED,
   COMPLETED_WITH_ERRORS,
-  FAILED
+  FAILED;
+
+  /** Whether a job in this status has stopped for good. */
+  public boolean isFinished() {
+    return this != PENDING && this != RUNNING && this != INTERRUPTED;
+  }
 }
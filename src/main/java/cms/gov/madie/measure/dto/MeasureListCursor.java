@@ -0,0 +1,60 @@
+package cms.gov.madie.measure.dto;
+
+import cms.gov.madie.measure.exceptions.InvalidRequestException;
+import lombok.Value;
+import org.apache.commons.lang3.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Position of the last measure of a window of measures, in lastModifiedAt then id order, both
+ * descending. The next window starts right after it, so measures added in the meantime do not
+ * shift the windows that follow. Handed to clients as an opaque token.
+ */
+@Value
+public class MeasureListCursor {
+  private static final String SEPARATOR = ":";
+
+  Instant lastModifiedAt;
+  String id;
+
+  public static MeasureListCursor of(MeasureListDTO measure) {
+    return new MeasureListCursor(measure.getLastModifiedAt(), measure.getId());
+  }
+
+  public String encode() {
+    String position =
+        (lastModifiedAt == null ? "" : String.valueOf(lastModifiedAt.toEpochMilli()))
+            + SEPARATOR
+            + id;
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(position.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * @param token a token produced by {@link #encode()}
+   * @return the cursor, or null if no token is given
+   * @throws InvalidRequestException if the token was not produced by {@link #encode()}
+   */
+  public static MeasureListCursor decode(String token) {
+    if (StringUtils.isBlank(token)) {
+      return null;
+    }
+    try {
+      String position = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      String lastModifiedAt = StringUtils.substringBefore(position, SEPARATOR);
+      String id = StringUtils.substringAfter(position, SEPARATOR);
+      if (StringUtils.isBlank(id)) {
+        throw new IllegalArgumentException("no measure id");
+      }
+      return new MeasureListCursor(
+          lastModifiedAt.isEmpty() ? null : Instant.ofEpochMilli(Long.parseLong(lastModifiedAt)),
+          id);
+    } catch (IllegalArgumentException e) {
+      throw new InvalidRequestException("Invalid cursor: " + token);
+    }
+  }
+}
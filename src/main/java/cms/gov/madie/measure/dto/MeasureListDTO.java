@@ -16,6 +16,8 @@ import lombok.experimental.SuperBuilder;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.DocumentReference;
 
+import java.time.Instant;
+
 @Data
 @Document
 @SuperBuilder(toBuilder = true)
@@ -52,4 +54,6 @@ public class MeasureListDTO {
   private String ecqmTitle;
 
   private MeasureMetaData measureMetaData;
+
+  private Instant lastModifiedAt;
 }
@@ -0,0 +1,22 @@
+package cms.gov.madie.measure.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A window of measures and the cursor to request the next one with. The cursor is null for the
+ * last window.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class MeasureListWindow {
+
+  private List<MeasureListDTO> content;
+  private String nextCursor;
+}
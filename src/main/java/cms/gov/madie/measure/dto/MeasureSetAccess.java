@@ -0,0 +1,57 @@
+package cms.gov.madie.measure.dto;
+
+import gov.cms.madie.models.access.AclSpecification;
+import gov.cms.madie.models.access.RoleEnum;
+import gov.cms.madie.models.measure.MeasureSet;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * The users who can access the measures of a measure set: its owner and the users it is shared
+ * with, lower-cased. Finding the measures of a user is then an indexed equality match, rather than
+ * a case-insensitive regex over the owner and ACLs of every measure set. The document id is the
+ * measure set id. Kept up to date by the measure set service whenever ownership or ACLs change.
+ */
+@Data
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = MeasureSetAccess.COLLECTION)
+public class MeasureSetAccess {
+  public static final String COLLECTION = "measureSetAccess";
+
+  @Id private String measureSetId;
+  @Indexed private List<String> userIds;
+
+  public static MeasureSetAccess of(MeasureSet measureSet) {
+    Stream<String> sharedWith =
+        measureSet.getAcls() == null
+            ? Stream.empty()
+            : measureSet.getAcls().stream()
+                .filter(acl -> acl.getRoles() != null)
+                .filter(acl -> acl.getRoles().contains(RoleEnum.SHARED_WITH))
+                .map(AclSpecification::getUserId);
+    List<String> userIds =
+        Stream.concat(Stream.of(measureSet.getOwner()), sharedWith)
+            .filter(StringUtils::isNotBlank)
+            .map(MeasureSetAccess::normalize)
+            .distinct()
+            .toList();
+    return new MeasureSetAccess(measureSet.getMeasureSetId(), userIds);
+  }
+
+  public static String normalize(String userId) {
+    return Objects.requireNonNull(userId).toLowerCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,38 @@
+package cms.gov.madie.measure.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Map;
+
+/**
+ * The highest version numbers allocated in a measure set, advanced atomically when a measure is
+ * versioned so that two concurrent requests can never be given the same version. The document id
+ * is the measure set id. Minor numbers are kept per major version, and revision numbers per major
+ * and minor version, keyed by {@link #minorKey} and {@link #revisionNumberKey}.
+ */
+@Data
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = MeasureSetVersionCounter.COLLECTION)
+public class MeasureSetVersionCounter {
+  public static final String COLLECTION = "measureSetVersionCounter";
+
+  @Id private String measureSetId;
+  private Integer major;
+  private Map<String, Integer> minor;
+  private Map<String, Integer> revisionNumber;
+
+  public static String minorKey(int majorVersion) {
+    return String.valueOf(majorVersion);
+  }
+
+  public static String revisionNumberKey(int majorVersion, int minorVersion) {
+    return majorVersion + "_" + minorVersion;
+  }
+}
@@ -0,0 +1,41 @@
+package cms.gov.madie.measure.dto;
+
+import gov.cms.madie.models.measure.TestCase;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * A single test case stored in its own document, outside of the owning measure. The document id is
+ * the id of the test case.
+ */
+@Data
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = MeasureTestCase.COLLECTION)
+@CompoundIndex(name = "measureId_patientId", def = "{'measureId': 1, 'testCase.patientId': 1}")
+public class MeasureTestCase {
+  public static final String COLLECTION = "measureTestCase";
+
+  @Id private String id;
+  private String measureId;
+  private TestCase testCase;
+
+  // when the stored validation outcome was last refreshed without the test case being modified
+  private Instant validatedAt;
+
+  public static MeasureTestCase of(String measureId, TestCase testCase) {
+    return MeasureTestCase.builder()
+        .id(testCase.getId())
+        .measureId(measureId)
+        .testCase(testCase)
+        .build();
+  }
+}
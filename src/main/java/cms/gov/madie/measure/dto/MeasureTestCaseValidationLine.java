@@ -0,0 +1,35 @@
+package cms.gov.madie.measure.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One line of a streamed test case revalidation: the report of a measure as soon as it has been
+ * revalidated, and a summary of the impacted measures once every measure has been.
+ */
+@Data
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MeasureTestCaseValidationLine {
+  public enum Type {
+    REPORT,
+    SUMMARY
+  }
+
+  private Type type;
+  private MeasureTestCaseValidationReport report;
+
+  // every measure up to this ID has been revalidated, a run resumes after it
+  private String checkpoint;
+
+  private Long processed;
+  private Long failed;
+  private List<ImpactedMeasureValidationReport> impactedMeasures;
+}
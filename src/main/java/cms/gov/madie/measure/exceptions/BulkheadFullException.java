@@ -0,0 +1,10 @@
+package cms.gov.madie.measure.exceptions;
+
+public class BulkheadFullException extends DownstreamUnavailableException {
+  private static final String MESSAGE =
+      "The %s service is handling too many requests, please try again later.";
+
+  public BulkheadFullException(String downstream) {
+    super(String.format(MESSAGE, downstream));
+  }
+}
@@ -0,0 +1,10 @@
+package cms.gov.madie.measure.exceptions;
+
+public class CircuitBreakerOpenException extends DownstreamUnavailableException {
+  private static final String MESSAGE =
+      "The %s service is currently unavailable, please try again later.";
+
+  public CircuitBreakerOpenException(String downstream) {
+    super(String.format(MESSAGE, downstream));
+  }
+}
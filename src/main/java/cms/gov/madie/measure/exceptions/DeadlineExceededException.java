@@ -0,0 +1,10 @@
+package cms.gov.madie.measure.exceptions;
+
+public class DeadlineExceededException extends DownstreamUnavailableException {
+  private static final String MESSAGE =
+      "The request ran out of time before the %s service could be called.";
+
+  public DeadlineExceededException(String downstream) {
+    super(String.format(MESSAGE, downstream));
+  }
+}
@@ -0,0 +1,7 @@
+package cms.gov.madie.measure.exceptions;
+
+public class DownstreamUnavailableException extends RuntimeException {
+  public DownstreamUnavailableException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,12 @@
+package cms.gov.madie.measure.exceptions;
+
+public class MeasureConflictException extends RuntimeException {
+
+  private static final String MESSAGE =
+      "Measure with ID %s has been changed since it was loaded. "
+          + "Please reload the measure and make the changes again.";
+
+  public MeasureConflictException(String id) {
+    super(String.format(MESSAGE, id));
+  }
+}
@@ -0,0 +1,12 @@
+package cms.gov.madie.measure.exceptions;
+
+public class TestCaseConflictException extends RuntimeException {
+
+  private static final String MESSAGE =
+      "Test case with ID %s has been changed since it was loaded. "
+          + "Please reload the test case and make the changes again.";
+
+  public TestCaseConflictException(String id) {
+    super(String.format(MESSAGE, id));
+  }
+}
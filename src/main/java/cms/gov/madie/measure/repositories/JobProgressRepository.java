@@ -0,0 +1,46 @@
+package cms.gov.madie.measure.repositories;
+
+import cms.gov.madie.measure.dto.Job;
+import cms.gov.madie.measure.dto.JobStatus;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+/**
+ * Atomic updates of the state of a {@link Job}. Every update made while a job runs is conditional
+ * on the job still running on the given instance, so an instance that has lost a job, because it
+ * was cancelled or marked interrupted, can no longer change it.
+ */
+public interface JobProgressRepository {
+
+  /** Starts running the job on the instance, if it is in one of the given statuses. */
+  Optional<Job> claim(String jobId, String runBy, Collection<JobStatus> fromStatuses, Instant now);
+
+  /** Renews the heartbeat of the given jobs, queued or running on the instance. */
+  long heartbeat(Collection<String> jobIds, String runBy, Instant now);
+
+  boolean recordTotal(String jobId, String runBy, long total);
+
+  /** Reserves the sequence number of the next result chunk of the job. */
+  OptionalInt nextResultChunk(String jobId, String runBy);
+
+  /** Adds to the progress counters and moves the checkpoint the job would resume from. */
+  boolean recordProgress(
+      String jobId, String runBy, long processed, long failed, String checkpoint, Instant now);
+
+  boolean finish(String jobId, String runBy, JobStatus status, String error, Instant now);
+
+  /** Stops the job running on the instance as interrupted, so that it can be resumed. */
+  boolean interrupt(String jobId, String runBy);
+
+  /** Cancels the job, unless it has already finished. */
+  boolean cancel(String jobId, Instant now);
+
+  /** Marks queued and running jobs whose heartbeat is older than the given time as interrupted. */
+  long markInterrupted(Instant heartbeatBefore);
+
+  /** Marks the jobs queued or running on the instance as interrupted, when it shuts down. */
+  long markInterrupted(String runBy);
+}
@@ -0,0 +1,155 @@
+package cms.gov.madie.measure.repositories;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import cms.gov.madie.measure.dto.Job;
+import cms.gov.madie.measure.dto.JobStatus;
+
+@Repository
+public class JobProgressRepositoryImpl implements JobProgressRepository {
+
+  // a job is pending from when it is submitted until a thread of the instance picks it up
+  private static final List<JobStatus> ACTIVE_STATUSES =
+      List.of(JobStatus.PENDING, JobStatus.RUNNING);
+
+  private final MongoTemplate mongoTemplate;
+
+  public JobProgressRepositoryImpl(MongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  @Override
+  public Optional<Job> claim(
+      String jobId, String runBy, Collection<JobStatus> fromStatuses, Instant now) {
+    return Optional.ofNullable(
+        mongoTemplate.findAndModify(
+            new Query(Criteria.where("_id").is(jobId).and("status").in(fromStatuses)),
+            new Update()
+                .set("status", JobStatus.RUNNING)
+                .set("runBy", runBy)
+                .set("startedAt", now)
+                .set("heartbeatAt", now)
+                .unset("error"),
+            FindAndModifyOptions.options().returnNew(true),
+            Job.class));
+  }
+
+  @Override
+  public long heartbeat(Collection<String> jobIds, String runBy, Instant now) {
+    return mongoTemplate
+        .updateMulti(
+            new Query(
+                Criteria.where("_id")
+                    .in(jobIds)
+                    .and("runBy")
+                    .is(runBy)
+                    .and("status")
+                    .in(ACTIVE_STATUSES)),
+            new Update().set("heartbeatAt", now),
+            Job.class)
+        .getMatchedCount();
+  }
+
+  @Override
+  public boolean recordTotal(String jobId, String runBy, long total) {
+    return update(jobId, runBy, new Update().set("total", total));
+  }
+
+  @Override
+  public OptionalInt nextResultChunk(String jobId, String runBy) {
+    Job job =
+        mongoTemplate.findAndModify(
+            running(jobId, runBy),
+            new Update().inc("resultChunks", 1),
+            FindAndModifyOptions.options().returnNew(true),
+            Job.class);
+    return job == null ? OptionalInt.empty() : OptionalInt.of(job.getResultChunks() - 1);
+  }
+
+  @Override
+  public boolean recordProgress(
+      String jobId, String runBy, long processed, long failed, String checkpoint, Instant now) {
+    return update(
+        jobId,
+        runBy,
+        new Update()
+            .inc("processed", processed)
+            .inc("failed", failed)
+            .set("checkpoint", checkpoint)
+            .set("heartbeatAt", now));
+  }
+
+  @Override
+  public boolean finish(String jobId, String runBy, JobStatus status, String error, Instant now) {
+    Update update = new Update().set("status", status).set("finishedAt", now);
+    if (error != null) {
+      update.set("error", error);
+    }
+    return update(jobId, runBy, update);
+  }
+
+  @Override
+  public boolean interrupt(String jobId, String runBy) {
+    return update(jobId, runBy, new Update().set("status", JobStatus.INTERRUPTED));
+  }
+
+  @Override
+  public boolean cancel(String jobId, Instant now) {
+    return mongoTemplate
+            .updateFirst(
+                new Query(
+                    Criteria.where("_id")
+                        .is(jobId)
+                        .and("status")
+                        .in(List.of(JobStatus.PENDING, JobStatus.RUNNING, JobStatus.INTERRUPTED))),
+                new Update().set("status", JobStatus.CANCELLED).set("finishedAt", now),
+                Job.class)
+            .getMatchedCount()
+        > 0;
+  }
+
+  @Override
+  public long markInterrupted(Instant heartbeatBefore) {
+    return mongoTemplate
+        .updateMulti(
+            new Query(
+                Criteria.where("status")
+                    .in(ACTIVE_STATUSES)
+                    .and("heartbeatAt")
+                    .lt(heartbeatBefore)),
+            new Update().set("status", JobStatus.INTERRUPTED),
+            Job.class)
+        .getModifiedCount();
+  }
+
+  @Override
+  public long markInterrupted(String runBy) {
+    return mongoTemplate
+        .updateMulti(
+            new Query(Criteria.where("status").in(ACTIVE_STATUSES).and("runBy").is(runBy)),
+            new Update().set("status", JobStatus.INTERRUPTED),
+            Job.class)
+        .getModifiedCount();
+  }
+
+  private boolean update(String jobId, String runBy, Update update) {
+    return mongoTemplate.updateFirst(running(jobId, runBy), update, Job.class).getMatchedCount()
+        > 0;
+  }
+
+  private Query running(String jobId, String runBy) {
+    return new Query(
+        Criteria.where("_id").is(jobId).and("runBy").is(runBy).and("status").is(JobStatus.RUNNING));
+  }
+}
@@ -0,0 +1,6 @@
+package cms.gov.madie.measure.repositories;
+
+import cms.gov.madie.measure.dto.Job;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface JobRepository extends MongoRepository<Job, String>, JobProgressRepository {}
@@ -0,0 +1,11 @@
+package cms.gov.madie.measure.repositories;
+
+import cms.gov.madie.measure.dto.JobResultChunk;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.Optional;
+
+public interface JobResultChunkRepository extends MongoRepository<JobResultChunk, String> {
+
+  Optional<JobResultChunk> findByJobIdAndSequence(String jobId, int sequence);
+}
@@ -5,5 +5,6 @@ import gov.cms.madie.models.measure.Measure;
 import java.util.List;
 
 public interface MeasureCmsIdRepository {
+  /** Finds the measures of the model whose measure set has the CMS ID, without their test cases. */
   List<Measure> findAllByModelAndCmsId(String modelName, Integer qdmCmsId);
 }
@@ -4,7 +4,6 @@ import gov.cms.madie.models.measure.Measure;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.aggregation.Aggregation;
 import org.springframework.data.mongodb.core.aggregation.LookupOperation;
-import org.springframework.data.mongodb.core.aggregation.MatchOperation;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Repository;
 
@@ -36,10 +35,9 @@ public class MeasureCmsIdRepositoryImpl implements MeasureCmsIdRepository {
     // prepare measure set search criteria
     Criteria measureSetCriteria = Criteria.where("measureSet.cmsId").is(qdmCmsId);
 
-    // combine measure and measure set criteria
-    MatchOperation matchOperation =
-        match(new Criteria().andOperator(measureCriteria, measureSetCriteria));
-    Aggregation pipeline = newAggregation(lookupOperation, matchOperation);
+    // measures are matched on model before the join, so only those are joined to measure sets
+    Aggregation pipeline =
+        newAggregation(match(measureCriteria), lookupOperation, match(measureSetCriteria));
     return mongoTemplate.aggregate(pipeline, Measure.class, Measure.class).getMappedResults();
   }
 }
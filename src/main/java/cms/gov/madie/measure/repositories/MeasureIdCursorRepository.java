@@ -0,0 +1,16 @@
+package cms.gov.madie.measure.repositories;
+
+import java.util.stream.Stream;
+
+public interface MeasureIdCursorRepository {
+
+  /**
+   * Streams the IDs of the active measures in ascending order, from a cursor rather than loading
+   * them all at once. The stream must be closed to release the cursor.
+   *
+   * @param afterId only IDs after this one are streamed, or all of them when null
+   */
+  Stream<String> streamActiveMeasureIds(boolean draftOnly, String afterId);
+
+  long countActiveMeasures(boolean draftOnly);
+}
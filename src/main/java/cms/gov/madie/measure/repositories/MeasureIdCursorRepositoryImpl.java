@@ -0,0 +1,47 @@
+package cms.gov.madie.measure.repositories;
+
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+
+import gov.cms.madie.models.measure.Measure;
+
+@Repository
+public class MeasureIdCursorRepositoryImpl implements MeasureIdCursorRepository {
+
+  private final MongoTemplate mongoTemplate;
+
+  public MeasureIdCursorRepositoryImpl(MongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  @Override
+  public Stream<String> streamActiveMeasureIds(boolean draftOnly, String afterId) {
+    Criteria criteria = activeMeasures(draftOnly);
+    if (afterId != null) {
+      criteria.and("_id").gt(afterId);
+    }
+    Query query = new Query(criteria).with(Sort.by(Sort.Direction.ASC, "_id"));
+    query.fields().include("_id");
+    // the caller works through the IDs slowly, so the cursor may sit idle for a long time
+    query.noCursorTimeout();
+    return mongoTemplate.stream(query, Measure.class).map(Measure::getId);
+  }
+
+  @Override
+  public long countActiveMeasures(boolean draftOnly) {
+    return mongoTemplate.count(new Query(activeMeasures(draftOnly)), Measure.class);
+  }
+
+  private Criteria activeMeasures(boolean draftOnly) {
+    Criteria criteria = Criteria.where("active").is(true);
+    if (draftOnly) {
+      criteria.and("measureMetaData.draft").is(true);
+    }
+    return criteria;
+  }
+}
@@ -15,11 +15,24 @@ public interface MeasureRepository
     extends MongoRepository<Measure, String>,
         MeasureVersionRepository,
         MeasureSearchService,
-        MeasureCmsIdRepository {
-  @Query("{cqlLibraryName : ?0, active : true}")
-  List<Measure> findAllByCqlLibraryName(String cqlLibraryName);
+        MeasureCmsIdRepository,
+        MeasureTestCaseRepository,
+        MeasureUpdateRepository,
+        MeasureIdCursorRepository {
+  // projections for internal checks that have no use for the CQL translation or test cases
+  String METADATA_FIELDS = "{elmJson: 0, elmXml: 0, groups: 0, testCases: 0}";
+  String GROUPS_FIELDS =
+      "{_class: 1, measureSetId: 1, model: 1, active: 1, measureMetaData: 1, groups: 1}";
 
-  Optional<Measure> findByIdAndActive(String id, Boolean active);
+  boolean existsByCqlLibraryNameAndActive(String cqlLibraryName, boolean active);
+
+  /** Finds the measure without its ELM, groups or test cases. */
+  @Query(value = "{_id: ?0}", fields = METADATA_FIELDS)
+  Optional<Measure> findMetaDataById(String id);
+
+  /** Finds the groups of the measure along with the fields needed to authorize changes to them. */
+  @Query(value = "{_id: ?0}", fields = GROUPS_FIELDS)
+  Optional<Measure> findGroupsById(String id);
 
   Page<MeasureListDTO> findAllByActive(Boolean active, Pageable page);
 
@@ -32,15 +45,13 @@ public interface MeasureRepository
       })
   List<Measure> findOldestMeasureSet();
 
-  @Query(value = "{_id: ?0}", fields = "{'testCases.series': 1, _id: 0}")
-  Optional<Measure> findAllTestCaseSeriesByMeasureId(String measureId);
-
   @Query(value = "{active : true}", fields = "{_id: 1, model: 1}")
   List<Measure> findAllMeasureIdsByActive();
 
   @Query(value = "{active : true, 'measureMetaData.draft': ?0}", fields = "{_id: 1, model: 1}")
   List<Measure> findAllMeasureIdsByActiveAndMeasureMetaDataDraft(boolean draft);
 
+  /** Finds the measure the group belongs to, without its test cases. */
   @Query(value = "{'groups._id': ?0}")
   Optional<Measure> findGroupById(String groupId);
 
@@ -50,10 +61,12 @@ public interface MeasureRepository
   // Map measureSetId, boolean (ie.,
   // id 1 - drafted , 2 - versioned  setId 4 4, false
   // id 1 - versioned , 2 - versioned setId 4 4, true
+  @Query(
+      value = "{measureSetId: {$in: ?0}, active: ?1, 'measureMetaData.draft': ?2}",
+      fields = "{_id: 1, measureSetId: 1}")
   List<Measure> findAllByMeasureSetIdInAndActiveAndMeasureMetaDataDraft(
       List<String> setIds, boolean active, boolean draft);
 
+  /** Finds the measures of the model, without their test cases. */
   List<Measure> findAllByModel(String model);
-
-  List<Measure> findAllByMeasureSetIdAndActive(String measureSetId, boolean isActive);
 }
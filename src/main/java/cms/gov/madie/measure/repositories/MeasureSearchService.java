@@ -1,6 +1,8 @@
 package cms.gov.madie.measure.repositories;
 
+import cms.gov.madie.measure.dto.MeasureListCursor;
 import cms.gov.madie.measure.dto.MeasureListDTO;
+import cms.gov.madie.measure.dto.MeasureListWindow;
 
 import cms.gov.madie.measure.dto.MeasureSearchCriteria;
 import gov.cms.madie.models.dto.LibraryUsage;
@@ -21,6 +23,22 @@ public interface MeasureSearchService {
       MeasureSearchCriteria searchCriteria,
       boolean filterByCurrentUser);
 
+  /**
+   * Finds the measures in windows that resume from a cursor rather than a page number, so each
+   * window costs the same however deep into the measures it is.
+   *
+   * @param userId- current user
+   * @param limit- maximum number of measures in the window
+   * @param cursor- position to resume from, null for the first window
+   * @return window of active measures based on searchCriteria, most recently modified first
+   */
+  MeasureListWindow scrollMeasuresByCriteria(
+      String userId,
+      int limit,
+      MeasureListCursor cursor,
+      MeasureSearchCriteria searchCriteria,
+      boolean filterByCurrentUser);
+
   /**
    * Get all the measures(name, version and owner) if they include any version of given library name
    *
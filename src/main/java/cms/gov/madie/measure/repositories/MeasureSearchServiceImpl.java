@@ -1,12 +1,15 @@
 package cms.gov.madie.measure.repositories;
 
 import cms.gov.madie.measure.dto.FacetDTO;
+import cms.gov.madie.measure.dto.MeasureListCursor;
 import cms.gov.madie.measure.dto.MeasureListDTO;
+import cms.gov.madie.measure.dto.MeasureListWindow;
 import cms.gov.madie.measure.dto.MeasureSearchCriteria;
-import gov.cms.madie.models.access.RoleEnum;
+import cms.gov.madie.measure.dto.MeasureSetAccess;
 import gov.cms.madie.models.common.Version;
 import gov.cms.madie.models.dto.LibraryUsage;
 import gov.cms.madie.models.measure.Measure;
+import gov.cms.madie.models.measure.MeasureSet;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -14,9 +17,11 @@ import org.apache.commons.lang3.StringUtils;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.aggregation.*;
 import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
@@ -33,6 +38,8 @@ public class MeasureSearchServiceImpl implements MeasureSearchService {
     this.mongoTemplate = mongoTemplate;
   }
 
+  // measure lists are not joined to their measure sets here, MeasureController loads the sets of
+  // a whole page with one query
   private LookupOperation getLookupOperation() {
     return LookupOperation.newLookup()
         .from("measureSet")
@@ -41,6 +48,25 @@ public class MeasureSearchServiceImpl implements MeasureSearchService {
         .as("measureSet");
   }
 
+  // the measure sets the user owns or that are shared with them
+  private List<String> findMeasureSetIdsByUserId(String userId) {
+    Query query = new Query(Criteria.where("userIds").is(MeasureSetAccess.normalize(userId)));
+    query.fields().include("_id");
+    return mongoTemplate.find(query, MeasureSetAccess.class).stream()
+        .map(MeasureSetAccess::getMeasureSetId)
+        .toList();
+  }
+
+  // resolving the cmsId up front keeps the search criteria on the measure collection, which is all
+  // the search pipeline reads
+  private List<String> findMeasureSetIdsByCmsId(int cmsId) {
+    Query query = new Query(Criteria.where("cmsId").is(cmsId));
+    query.fields().include("measureSetId");
+    return mongoTemplate.find(query, MeasureSet.class).stream()
+        .map(MeasureSet::getMeasureSetId)
+        .toList();
+  }
+
   private void appendAdditionalSearchCriteriaOmittingcmsId(
       Criteria measureCriteria, MeasureSearchCriteria measureSearchCriteria) {
     // Ensure optionalSearchProperties exists and isn’t empty
@@ -96,7 +122,9 @@ public class MeasureSearchServiceImpl implements MeasureSearchService {
           String searchField = measureSearchCriteria.getSearchField();
           if (isNumeric(searchField)) {
             int number = Integer.parseInt(searchField);
-            orConditions.add(Criteria.where("measureSet.cmsId").is(number));
+            // added even when no measure set has the cmsId, so that no measure matches it
+            orConditions.add(
+                Criteria.where("measureSetId").in(findMeasureSetIdsByCmsId(number)));
           }
         } else {
           orConditions.add(
@@ -111,14 +139,8 @@ public class MeasureSearchServiceImpl implements MeasureSearchService {
     }
   }
 
-  @Override
-  public Page<MeasureListDTO> searchMeasuresByCriteria(
-      String userId,
-      Pageable pageable,
-      MeasureSearchCriteria measureSearchCriteria,
-      boolean filterByCurrentUser) {
-    // join measure and measure_set to lookup owner and ACL info
-    LookupOperation lookupOperation = getLookupOperation();
+  private Criteria getMeasureCriteria(
+      String userId, MeasureSearchCriteria measureSearchCriteria, boolean filterByCurrentUser) {
     Criteria measureCriteria = Criteria.where("active").is(true);
     if (measureSearchCriteria != null) {
       // If query is given, search for the query string in measureName and ecqmTitle
@@ -153,22 +175,39 @@ public class MeasureSearchServiceImpl implements MeasureSearchService {
       }
     }
 
-    // prepare measure set search criteria(user is either owner or shared with)
-    Criteria measureSetCriteria = new Criteria();
+    // the measures of the current user are found through the access list of their measure sets, so
+    // every criterion is matched on the measure collection and only the page is joined
     if (filterByCurrentUser) {
-      measureSetCriteria =
-          new Criteria()
-              .orOperator(
-                  Criteria.where("measureSet.owner").regex("^\\Q" + userId + "\\E$", "i"),
-                  Criteria.where("measureSet.acls.userId")
-                      .regex("^\\Q" + userId + "\\E$", "i")
-                      .and("measureSet.acls.roles")
-                      .in(RoleEnum.SHARED_WITH));
+      measureCriteria.and("measureSetId").in(findMeasureSetIdsByUserId(userId));
     }
+    return measureCriteria;
+  }
 
-    MatchOperation matchOperation =
-        match(new Criteria().andOperator(measureCriteria, measureSetCriteria));
+  // measures without lastModifiedAt sort after all others
+  private Criteria getCursorCriteria(MeasureListCursor cursor) {
+    Criteria sameLastModifiedAt =
+        Criteria.where("lastModifiedAt")
+            .is(cursor.getLastModifiedAt())
+            .and("_id")
+            .lt(cursor.getId());
+    if (cursor.getLastModifiedAt() == null) {
+      return sameLastModifiedAt;
+    }
+    return new Criteria()
+        .orOperator(
+            Criteria.where("lastModifiedAt").lt(cursor.getLastModifiedAt()),
+            sameLastModifiedAt,
+            Criteria.where("lastModifiedAt").is(null));
+  }
 
+  @Override
+  public Page<MeasureListDTO> searchMeasuresByCriteria(
+      String userId,
+      Pageable pageable,
+      MeasureSearchCriteria measureSearchCriteria,
+      boolean filterByCurrentUser) {
+    Criteria measureCriteria =
+        getMeasureCriteria(userId, measureSearchCriteria, filterByCurrentUser);
     FacetOperation facets =
         facet(sortByCount("id"))
             .as("count")
@@ -178,8 +217,7 @@ public class MeasureSearchServiceImpl implements MeasureSearchService {
                 limit(pageable.getPageSize()),
                 project(MeasureListDTO.class))
             .as("queryResults");
-
-    Aggregation pipeline = newAggregation(lookupOperation, matchOperation, facets);
+    Aggregation pipeline = newAggregation(match(measureCriteria), facets);
 
     List<FacetDTO> results =
         mongoTemplate.aggregate(pipeline, Measure.class, FacetDTO.class).getMappedResults();
@@ -188,6 +226,37 @@ public class MeasureSearchServiceImpl implements MeasureSearchService {
         results.get(0).getQueryResults(), pageable, results.get(0).getCount().size());
   }
 
+  @Override
+  public MeasureListWindow scrollMeasuresByCriteria(
+      String userId,
+      int limit,
+      MeasureListCursor cursor,
+      MeasureSearchCriteria measureSearchCriteria,
+      boolean filterByCurrentUser) {
+    List<AggregationOperation> operations = new ArrayList<>();
+    operations.add(match(getMeasureCriteria(userId, measureSearchCriteria, filterByCurrentUser)));
+    if (cursor != null) {
+      operations.add(match(getCursorCriteria(cursor)));
+    }
+    operations.add(sort(Sort.by(Sort.Direction.DESC, "lastModifiedAt", "_id")));
+    // one more than asked for, to tell whether there is another window after this one
+    operations.add(limit(limit + 1L));
+    operations.add(project(MeasureListDTO.class));
+
+    List<MeasureListDTO> measures =
+        mongoTemplate
+            .aggregate(newAggregation(operations), Measure.class, MeasureListDTO.class)
+            .getMappedResults();
+    if (measures.size() <= limit) {
+      return MeasureListWindow.builder().content(measures).build();
+    }
+    List<MeasureListDTO> content = measures.subList(0, limit);
+    return MeasureListWindow.builder()
+        .content(content)
+        .nextCursor(MeasureListCursor.of(content.get(limit - 1)).encode())
+        .build();
+  }
+
   @Override
   public List<LibraryUsage> findLibraryUsageByLibraryName(String name) {
     LookupOperation lookupOperation = getLookupOperation();
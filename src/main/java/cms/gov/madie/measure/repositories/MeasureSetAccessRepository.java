@@ -0,0 +1,6 @@
+package cms.gov.madie.measure.repositories;
+
+import cms.gov.madie.measure.dto.MeasureSetAccess;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface MeasureSetAccessRepository extends MongoRepository<MeasureSetAccess, String> {}
@@ -2,6 +2,9 @@ package cms.gov.madie.measure.repositories;
 
 import gov.cms.madie.models.measure.MeasureSet;
 import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface MeasureSetRepository extends MongoRepository<MeasureSet, String> {
@@ -9,4 +12,6 @@ public interface MeasureSetRepository extends MongoRepository<MeasureSet, String
   boolean existsByMeasureSetId(String measureSetId);
 
   Optional<MeasureSet> findByMeasureSetId(String measureSetId);
+
+  List<MeasureSet> findAllByMeasureSetIdIn(Collection<String> measureSetIds);
 }
@@ -0,0 +1,31 @@
+package cms.gov.madie.measure.repositories;
+
+import java.util.List;
+import java.util.Optional;
+
+import gov.cms.madie.models.measure.Measure;
+
+/**
+ * Reads that expose the full measure. Test cases are stored in their own collection, these attach
+ * them to the measures read, so that callers keep getting a complete measure. Only these do: every
+ * other finder of {@link MeasureRepository} returning a measure, such as {@code findGroupById},
+ * {@code findAllByModel} or {@code findAllByModelAndCmsId}, returns it without test cases.
+ *
+ * <p>Saving a measure never writes its test cases, whichever finder loaded it. Test cases are
+ * written through {@link TestCaseRepository} only, as {@link MeasureUpdateRepository#saveChanges}
+ * does for the test cases that changed.
+ */
+public interface MeasureTestCaseRepository {
+
+  /** Finds the measure by ID and attaches its test cases. */
+  Optional<Measure> findById(String id);
+
+  /** Finds the measure by ID and active flag and attaches its test cases. */
+  Optional<Measure> findByIdAndActive(String id, Boolean active);
+
+  /** Finds the measures of the measure set and attaches their test cases. */
+  List<Measure> findAllByMeasureSetIdAndActive(String measureSetId, boolean active);
+
+  /** Finds the measure by ID without loading any of its test cases. */
+  Optional<Measure> findWithoutTestCasesById(String id);
+}
@@ -0,0 +1,92 @@
+package cms.gov.madie.measure.repositories;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+
+import cms.gov.madie.measure.dto.MeasureTestCase;
+import gov.cms.madie.models.measure.Measure;
+import gov.cms.madie.models.measure.TestCase;
+
+@Repository
+public class MeasureTestCaseRepositoryImpl implements MeasureTestCaseRepository {
+
+  private final MongoTemplate mongoTemplate;
+
+  public MeasureTestCaseRepositoryImpl(MongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  @Override
+  public Optional<Measure> findById(String id) {
+    Optional<Measure> measure = findWithoutTestCasesById(id);
+    measure.ifPresent(m -> attachTestCases(List.of(m)));
+    return measure;
+  }
+
+  @Override
+  public Optional<Measure> findByIdAndActive(String id, Boolean active) {
+    Measure measure =
+        mongoTemplate.findOne(
+            withoutTestCases(Criteria.where("_id").is(id).and("active").is(active)),
+            Measure.class);
+    if (measure != null) {
+      attachTestCases(List.of(measure));
+    }
+    return Optional.ofNullable(measure);
+  }
+
+  @Override
+  public List<Measure> findAllByMeasureSetIdAndActive(String measureSetId, boolean active) {
+    List<Measure> measures =
+        mongoTemplate.find(
+            withoutTestCases(
+                Criteria.where("measureSetId").is(measureSetId).and("active").is(active)),
+            Measure.class);
+    attachTestCases(measures);
+    return measures;
+  }
+
+  @Override
+  public Optional<Measure> findWithoutTestCasesById(String id) {
+    return Optional.ofNullable(
+        mongoTemplate.findOne(withoutTestCases(Criteria.where("_id").is(id)), Measure.class));
+  }
+
+  private Query withoutTestCases(Criteria criteria) {
+    Query query = new Query(criteria);
+    query.fields().exclude("testCases");
+    return query;
+  }
+
+  // the test cases of all the measures are read in one query
+  private void attachTestCases(List<Measure> measures) {
+    if (measures.isEmpty()) {
+      return;
+    }
+    Map<String, List<TestCase>> testCasesByMeasureId =
+        mongoTemplate
+            .find(
+                new Query(
+                    Criteria.where("measureId").in(measures.stream().map(Measure::getId).toList())),
+                MeasureTestCase.class)
+            .stream()
+            .collect(
+                Collectors.groupingBy(
+                    MeasureTestCase::getMeasureId,
+                    Collectors.mapping(MeasureTestCase::getTestCase, Collectors.toList())));
+    measures.forEach(
+        measure -> {
+          List<TestCase> testCases = testCasesByMeasureId.get(measure.getId());
+          if (testCases != null) {
+            measure.setTestCases(testCases);
+          }
+        });
+  }
+}
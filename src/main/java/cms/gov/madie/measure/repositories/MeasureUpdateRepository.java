@@ -0,0 +1,27 @@
+package cms.gov.madie.measure.repositories;
+
+import org.bson.Document;
+
+import cms.gov.madie.measure.exceptions.MeasureConflictException;
+import gov.cms.madie.models.measure.Measure;
+
+public interface MeasureUpdateRepository {
+
+  /**
+   * Captures the stored form of a loaded measure. Must be taken before the measure is modified so
+   * the changes can later be written with {@link #saveChanges(Document, Measure)}.
+   */
+  Document snapshot(Measure measure);
+
+  /**
+   * Writes only the paths of the measure that differ from the snapshot, using targeted $set,
+   * $unset, $push and $pull operations instead of replacing the whole document. Test cases are
+   * compared individually and only the fields that changed are written.
+   *
+   * <p>Both are written only if they have not been modified since the snapshot was taken, and the
+   * write moves their lastModifiedAt on. A test case modified in the meantime keeps that change.
+   *
+   * @throws MeasureConflictException if the measure was modified since the snapshot was taken
+   */
+  Measure saveChanges(Document snapshot, Measure measure);
+}
@@ -0,0 +1,199 @@
+package cms.gov.madie.measure.repositories;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import com.mongodb.client.result.UpdateResult;
+
+import cms.gov.madie.measure.exceptions.MeasureConflictException;
+import cms.gov.madie.measure.repositories.TestCaseBulkRepository.TestCaseUpdate;
+import gov.cms.madie.models.measure.Measure;
+import gov.cms.madie.models.measure.TestCase;
+
+@Slf4j
+@Repository
+public class MeasureUpdateRepositoryImpl implements MeasureUpdateRepository {
+
+  private static final String ID = "_id";
+  private static final String TEST_CASES = "testCases";
+  private static final String LAST_MODIFIED_AT = "lastModifiedAt";
+  // the field of the test case document holding the test case
+  private static final String STORED_TEST_CASE = "testCase";
+  private static final String STORED_LAST_MODIFIED_AT = STORED_TEST_CASE + "." + LAST_MODIFIED_AT;
+
+  private final MongoTemplate mongoTemplate;
+  private final TestCaseRepository testCaseRepository;
+
+  public MeasureUpdateRepositoryImpl(
+      MongoTemplate mongoTemplate, TestCaseRepository testCaseRepository) {
+    this.mongoTemplate = mongoTemplate;
+    this.testCaseRepository = testCaseRepository;
+  }
+
+  @Override
+  public Document snapshot(Measure measure) {
+    Document document = new Document();
+    mongoTemplate.getConverter().write(measure, document);
+    return document;
+  }
+
+  @Override
+  public Measure saveChanges(Document snapshot, Measure measure) {
+    if (snapshot == null || snapshot.get(ID) == null) {
+      // nothing stored to compare against, the measure and its test cases are new
+      Measure savedMeasure = mongoTemplate.save(measure);
+      testCaseRepository.saveTestCasesIfUnmodified(
+          savedMeasure.getId(), savedMeasure.getTestCases(), Map.of());
+      return savedMeasure;
+    }
+    Document current = snapshot(measure);
+    List<Document> previousTestCases = snapshot.getList(TEST_CASES, Document.class);
+    List<Document> currentTestCases = current.getList(TEST_CASES, Document.class);
+    snapshot = new Document(snapshot);
+    snapshot.remove(TEST_CASES);
+    current.remove(TEST_CASES);
+
+    Update update = new Update();
+    diffDocuments(null, snapshot, current, update);
+    if (!update.getUpdateObject().isEmpty()) {
+      if (!update.modifies(LAST_MODIFIED_AT)) {
+        // every write moves the time on, so that no write based on an older read can follow it
+        measure.setLastModifiedAt(Instant.now());
+        update.set(LAST_MODIFIED_AT, Date.from(measure.getLastModifiedAt()));
+      }
+      // list elements are addressed by their position in the measure as read, so the measure is
+      // only updated if it was not modified since then
+      UpdateResult result =
+          mongoTemplate.updateFirst(
+              new Query(
+                  Criteria.where(ID)
+                      .is(snapshot.get(ID))
+                      .and(LAST_MODIFIED_AT)
+                      .is(snapshot.get(LAST_MODIFIED_AT))),
+              update,
+              mongoTemplate.getCollectionName(Measure.class));
+      if (result.getMatchedCount() == 0) {
+        throw new MeasureConflictException(measure.getId());
+      }
+    }
+    if (measure.getTestCases() != null) {
+      saveChangedTestCases(measure, previousTestCases, currentTestCases);
+    }
+    return measure;
+  }
+
+  private void saveChangedTestCases(
+      Measure measure, List<Document> previousTestCases, List<Document> currentTestCases) {
+    Map<Object, Document> previousById = new HashMap<>();
+    if (previousTestCases != null) {
+      previousTestCases.forEach(testCase -> previousById.put(testCase.get(ID), testCase));
+    }
+    List<TestCase> addedTestCases = new ArrayList<>();
+    List<TestCaseUpdate> testCaseUpdates = new ArrayList<>();
+    for (int i = 0; i < currentTestCases.size(); i++) {
+      Document current = currentTestCases.get(i);
+      Document previous = previousById.remove(current.get(ID));
+      if (previous == null) {
+        addedTestCases.add(measure.getTestCases().get(i));
+      } else if (!previous.equals(current)) {
+        testCaseUpdates.add(testCaseUpdate(previous, current, measure.getTestCases().get(i)));
+      }
+    }
+    testCaseRepository.saveTestCasesIfUnmodified(measure.getId(), addedTestCases, Map.of());
+    Set<String> modifiedTestCaseIds =
+        testCaseRepository.updateTestCasesIfUnmodified(measure.getId(), testCaseUpdates);
+    if (!modifiedTestCaseIds.isEmpty()) {
+      log.info(
+          "Test cases {} of measure [{}] were modified since they were read and were not saved",
+          modifiedTestCaseIds,
+          measure.getId());
+    }
+    if (!previousById.isEmpty()) {
+      testCaseRepository.deleteAllByMeasureIdAndIdIn(
+          measure.getId(), previousById.keySet().stream().map(Object::toString).toList());
+    }
+  }
+
+  // sets only the changed fields of the stored test case, if it was not modified since it was read
+  private TestCaseUpdate testCaseUpdate(Document previous, Document current, TestCase testCase) {
+    Update update = new Update();
+    diffDocuments(STORED_TEST_CASE, previous, current, update);
+    if (!update.modifies(STORED_LAST_MODIFIED_AT)) {
+      testCase.setLastModifiedAt(Instant.now());
+      update.set(STORED_LAST_MODIFIED_AT, Date.from(testCase.getLastModifiedAt()));
+    }
+    return new TestCaseUpdate(
+        testCase.getId(),
+        lastModifiedAt(previous.get(LAST_MODIFIED_AT)),
+        testCase.getLastModifiedAt(),
+        update);
+  }
+
+  private Instant lastModifiedAt(Object storedValue) {
+    return storedValue instanceof Date date ? date.toInstant() : (Instant) storedValue;
+  }
+
+  private void diffDocuments(String path, Document before, Document after, Update update) {
+    after.forEach(
+        (key, value) -> {
+          if (before.containsKey(key)) {
+            diffValues(path(path, key), before.get(key), value, update);
+          } else {
+            update.set(path(path, key), value);
+          }
+        });
+    before.keySet().stream()
+        .filter(key -> !after.containsKey(key))
+        .forEach(key -> update.unset(path(path, key)));
+  }
+
+  private void diffValues(String path, Object before, Object after, Update update) {
+    if (Objects.equals(before, after)) {
+      return;
+    }
+    if (before instanceof Document beforeDocument && after instanceof Document afterDocument) {
+      diffDocuments(path, beforeDocument, afterDocument, update);
+    } else if (before instanceof List<?> beforeList && after instanceof List<?> afterList) {
+      diffLists(path, beforeList, afterList, update);
+    } else {
+      update.set(path, after);
+    }
+  }
+
+  private void diffLists(String path, List<?> before, List<?> after, Update update) {
+    if (before.size() == after.size()) {
+      for (int i = 0; i < after.size(); i++) {
+        diffValues(path(path, String.valueOf(i)), before.get(i), after.get(i), update);
+      }
+    } else if (after.size() > before.size() && after.subList(0, before.size()).equals(before)) {
+      update.push(path).each(after.subList(before.size(), after.size()).toArray());
+    } else if (after.size() < before.size() && isRemovalOnly(before, after)) {
+      update.pullAll(path, before.stream().filter(value -> !after.contains(value)).toArray());
+    } else {
+      update.set(path, after);
+    }
+  }
+
+  // true when dropping every element missing from the new list yields exactly the new list
+  private boolean isRemovalOnly(List<?> before, List<?> after) {
+    return before.stream().filter(after::contains).toList().equals(after);
+  }
+
+  private String path(String parent, String key) {
+    return parent == null ? key : parent + "." + key;
+  }
+}
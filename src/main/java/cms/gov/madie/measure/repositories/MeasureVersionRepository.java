@@ -13,4 +13,19 @@ public interface MeasureVersionRepository {
 
   Optional<Version> findMaxRevisionNumberByMeasureSetIdAndVersionMajorAndMinor(
       String measureSetId, int majorVersion, int minorVersion);
+
+  /** Atomically allocates the next major version number of the measure set. */
+  int allocateMajorVersion(String measureSetId);
+
+  /** Atomically allocates the next minor version number within a major version. */
+  int allocateMinorVersion(String measureSetId, int majorVersion);
+
+  /** Atomically allocates the next revision number within a major and minor version. */
+  int allocateRevisionNumber(String measureSetId, int majorVersion, int minorVersion);
+
+  /**
+   * Gives back an allocated version that was never saved, provided no later version has been
+   * allocated in the meantime.
+   */
+  void releaseVersion(String measureSetId, Version version);
 }
@@ -1,19 +1,27 @@
 package cms.gov.madie.measure.repositories;
 
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
 
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Repository;
 
+import cms.gov.madie.measure.dto.MeasureSetVersionCounter;
 import gov.cms.madie.models.measure.Measure;
 import gov.cms.madie.models.common.Version;
 
 @Repository
 public class MeasureVersionRepositoryImpl implements MeasureVersionRepository {
 
+  private static final Sort VERSION_DESC =
+      Sort.by(Sort.Direction.DESC, "version.major", "version.minor", "version.revisionNumber");
+
   private final MongoTemplate mongoTemplate;
 
   public MeasureVersionRepositoryImpl(MongoTemplate mongoTemplate) {
@@ -22,69 +30,93 @@ public class MeasureVersionRepositoryImpl implements MeasureVersionRepository {
 
   @Override
   public Optional<Version> findMaxVersionByMeasureSetId(String measureSetId) {
-
-    Query q =
-        new Query(Criteria.where("measureSetId").is(measureSetId))
-            .with(
-                Sort.by(
-                    Sort.Direction.DESC,
-                    "version.major",
-                    "version.minor",
-                    "version.revisionNumber"))
-            .limit(1);
-    Measure one = mongoTemplate.findOne(q, Measure.class);
-
-    if (one == null || one.getVersion() == null) {
-      return Optional.empty();
-    } else {
-      return Optional.of(one.getVersion());
-    }
+    return findMaxVersion(Criteria.where("measureSetId").is(measureSetId));
   }
 
   @Override
   public Optional<Version> findMaxMinorVersionByMeasureSetIdAndVersionMajor(
       String measureSetId, int majorVersion) {
-    Query q =
-        new Query(
-                Criteria.where("measureSetId")
-                    .is(measureSetId)
-                    .and("version.major")
-                    .is(majorVersion))
-            .with(
-                Sort.by(
-                    Sort.Direction.DESC,
-                    "version.major",
-                    "version.minor",
-                    "version.revisionNumber"))
-            .limit(1);
-    Measure one = mongoTemplate.findOne(q, Measure.class);
-
-    if (one == null || one.getVersion() == null) {
-      return Optional.empty();
-    } else {
-      return Optional.of(one.getVersion());
-    }
+    return findMaxVersion(
+        Criteria.where("measureSetId").is(measureSetId).and("version.major").is(majorVersion));
   }
 
   @Override
   public Optional<Version> findMaxRevisionNumberByMeasureSetIdAndVersionMajorAndMinor(
       String measureSetId, int majorVersion, int minorVersion) {
+    return findMaxVersion(
+        Criteria.where("measureSetId")
+            .is(measureSetId)
+            .and("version.major")
+            .is(majorVersion)
+            .and("version.minor")
+            .is(minorVersion));
+  }
 
-    Query q =
-        new Query(
-                Criteria.where("measureSetId")
-                    .is(measureSetId)
-                    .and("version.major")
-                    .is(majorVersion)
-                    .and("version.minor")
-                    .is(minorVersion))
-            .with(
-                Sort.by(
-                    Sort.Direction.DESC,
-                    "version.major",
-                    "version.minor",
-                    "version.revisionNumber"))
-            .limit(1);
+  @Override
+  public int allocateMajorVersion(String measureSetId) {
+    return allocate(
+        measureSetId,
+        "major",
+        () -> findMaxVersionByMeasureSetId(measureSetId).map(Version::getMajor).orElse(0),
+        MeasureSetVersionCounter::getMajor);
+  }
+
+  @Override
+  public int allocateMinorVersion(String measureSetId, int majorVersion) {
+    String key = MeasureSetVersionCounter.minorKey(majorVersion);
+    return allocate(
+        measureSetId,
+        "minor." + key,
+        () ->
+            findMaxMinorVersionByMeasureSetIdAndVersionMajor(measureSetId, majorVersion)
+                .map(Version::getMinor)
+                .orElse(0),
+        counter -> counter.getMinor().get(key));
+  }
+
+  @Override
+  public int allocateRevisionNumber(String measureSetId, int majorVersion, int minorVersion) {
+    String key = MeasureSetVersionCounter.revisionNumberKey(majorVersion, minorVersion);
+    return allocate(
+        measureSetId,
+        "revisionNumber." + key,
+        () ->
+            findMaxRevisionNumberByMeasureSetIdAndVersionMajorAndMinor(
+                    measureSetId, majorVersion, minorVersion)
+                .map(Version::getRevisionNumber)
+                .orElse(0),
+        counter -> counter.getRevisionNumber().get(key));
+  }
+
+  @Override
+  public void releaseVersion(String measureSetId, Version version) {
+    String counter;
+    int allocated;
+    if (version.getMinor() == 0 && version.getRevisionNumber() == 0) {
+      counter = "major";
+      allocated = version.getMajor();
+    } else if (version.getRevisionNumber() == 0) {
+      counter = "minor." + MeasureSetVersionCounter.minorKey(version.getMajor());
+      allocated = version.getMinor();
+    } else {
+      counter =
+          "revisionNumber."
+              + MeasureSetVersionCounter.revisionNumberKey(version.getMajor(), version.getMinor());
+      allocated = version.getRevisionNumber();
+    }
+    // only if nothing was allocated since, otherwise the number is simply left unused
+    mongoTemplate.updateFirst(
+        new Query(Criteria.where("_id").is(measureSetId).and(counter).is(allocated)),
+        new Update().inc(counter, -1),
+        MeasureSetVersionCounter.class);
+  }
+
+  private Optional<Version> findMaxVersion(Criteria criteria) {
+    Query q = new Query(criteria).with(VERSION_DESC).limit(1);
+    // only the version, so the query is covered by the measureSetId_version index
+    q.fields()
+        .include("version.major", "version.minor", "version.revisionNumber")
+        .exclude("_id");
     Measure one = mongoTemplate.findOne(q, Measure.class);
 
     if (one == null || one.getVersion() == null) {
@@ -93,4 +125,28 @@ public class MeasureVersionRepositoryImpl implements MeasureVersionRepository {
       return Optional.of(one.getVersion());
     }
   }
+
+  private int allocate(
+      String measureSetId,
+      String counter,
+      IntSupplier highestSaved,
+      Function<MeasureSetVersionCounter, Integer> allocated) {
+    // measure sets versioned before the counters existed start from their highest saved version,
+    // $max keeps this safe when two first allocations race
+    Query initialized =
+        new Query(Criteria.where("_id").is(measureSetId).and(counter).exists(true));
+    if (!mongoTemplate.exists(initialized, MeasureSetVersionCounter.class)) {
+      mongoTemplate.upsert(
+          new Query(Criteria.where("_id").is(measureSetId)),
+          new Update().max(counter, highestSaved.getAsInt()),
+          MeasureSetVersionCounter.class);
+    }
+    MeasureSetVersionCounter counters =
+        mongoTemplate.findAndModify(
+            new Query(Criteria.where("_id").is(measureSetId)),
+            new Update().inc(counter, 1),
+            FindAndModifyOptions.options().returnNew(true).upsert(true),
+            MeasureSetVersionCounter.class);
+    return allocated.apply(counters);
+  }
 }
@@ -0,0 +1,68 @@
+package cms.gov.madie.measure.repositories;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.data.mongodb.core.query.Update;
+
+import cms.gov.madie.measure.dto.MeasureTestCase;
+import gov.cms.madie.models.measure.TestCase;
+
+public interface TestCaseBulkRepository {
+
+  /**
+   * Saves the given test cases of the measure in a single bulk write. New test cases are inserted,
+   * existing ones are replaced only if they have not been modified since they were read, as {@link
+   * #replaceTestCaseIfUnmodified} does.
+   *
+   * @param readLastModifiedAt when each existing test case was last modified as it was read, by
+   *     test case ID; the test cases missing from it are new
+   * @return the IDs of the existing test cases that were modified since they were read, and were
+   *     left as they are
+   */
+  Set<String> saveTestCasesIfUnmodified(
+      String measureId, List<TestCase> testCases, Map<String, Instant> readLastModifiedAt);
+
+  /**
+   * Applies the given updates to test cases of the measure in a single bulk write, leaving the
+   * fields they do not set as they are. Each test case is updated only if it has not been modified
+   * since it was read.
+   *
+   * @return the IDs of the test cases that were modified since they were read, and were left as
+   *     they are
+   */
+  Set<String> updateTestCasesIfUnmodified(String measureId, List<TestCaseUpdate> updates);
+
+  /**
+   * Replaces the test case only if it has not been modified since it was read, so that a concurrent
+   * edit is never silently overwritten.
+   *
+   * @return false if the test case was modified since it was read
+   */
+  boolean replaceTestCaseIfUnmodified(
+      String measureId, TestCase testCase, Instant readLastModifiedAt);
+
+  /**
+   * Stores the validation results of the given test cases in a single bulk write, leaving the rest
+   * of each test case as it is. A test case modified since it was read for validation is skipped,
+   * it was validated again when it was saved.
+   *
+   * @return the number of test cases updated
+   */
+  int updateValidationResults(String measureId, List<TestCase> testCases);
+
+  /**
+   * Finds the test cases of the measure whose stored validation outcome was produced before the
+   * given time, because neither the test case was saved nor its outcome refreshed since then.
+   */
+  List<MeasureTestCase> findAllValidatedBefore(String measureId, Instant validatedBefore);
+
+  /**
+   * Changes to the fields of a stored test case, which are under {@code testCase.}. The update sets
+   * the modification time of the test case to {@code lastModifiedAt}.
+   */
+  record TestCaseUpdate(
+      String testCaseId, Instant readLastModifiedAt, Instant lastModifiedAt, Update update) {}
+}
@@ -0,0 +1,166 @@
+package cms.gov.madie.measure.repositories;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apache.commons.collections4.CollectionUtils;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import cms.gov.madie.measure.dto.MeasureTestCase;
+import gov.cms.madie.models.measure.TestCase;
+
+@Repository
+public class TestCaseBulkRepositoryImpl implements TestCaseBulkRepository {
+
+  private final MongoTemplate mongoTemplate;
+
+  public TestCaseBulkRepositoryImpl(MongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  @Override
+  public Set<String> saveTestCasesIfUnmodified(
+      String measureId, List<TestCase> testCases, Map<String, Instant> readLastModifiedAt) {
+    if (CollectionUtils.isEmpty(testCases)) {
+      return Set.of();
+    }
+    BulkOperations bulkOperations =
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MeasureTestCase.class);
+    Map<String, Instant> writtenLastModifiedAt = new HashMap<>();
+    testCases.forEach(
+        testCase -> {
+          if (readLastModifiedAt.containsKey(testCase.getId())) {
+            writtenLastModifiedAt.put(testCase.getId(), testCase.getLastModifiedAt());
+            bulkOperations.replaceOne(
+                unmodifiedSince(
+                    measureId, testCase.getId(), readLastModifiedAt.get(testCase.getId())),
+                MeasureTestCase.of(measureId, testCase));
+          } else {
+            bulkOperations.insert(MeasureTestCase.of(measureId, testCase));
+          }
+        });
+    if (bulkOperations.execute().getMatchedCount() == writtenLastModifiedAt.size()) {
+      return Set.of();
+    }
+    return findNotWritten(measureId, writtenLastModifiedAt);
+  }
+
+  @Override
+  public Set<String> updateTestCasesIfUnmodified(String measureId, List<TestCaseUpdate> updates) {
+    if (CollectionUtils.isEmpty(updates)) {
+      return Set.of();
+    }
+    BulkOperations bulkOperations =
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MeasureTestCase.class);
+    Map<String, Instant> writtenLastModifiedAt = new HashMap<>();
+    updates.forEach(
+        testCaseUpdate -> {
+          writtenLastModifiedAt.put(testCaseUpdate.testCaseId(), testCaseUpdate.lastModifiedAt());
+          bulkOperations.updateOne(
+              unmodifiedSince(
+                  measureId, testCaseUpdate.testCaseId(), testCaseUpdate.readLastModifiedAt()),
+              testCaseUpdate.update());
+        });
+    if (bulkOperations.execute().getMatchedCount() == updates.size()) {
+      return Set.of();
+    }
+    return findNotWritten(measureId, writtenLastModifiedAt);
+  }
+
+  // the bulk result only counts the test cases written, those that were not are found by the
+  // modification time they hold now (Mongo keeps it to the millisecond)
+  private Set<String> findNotWritten(String measureId, Map<String, Instant> writtenLastModifiedAt) {
+    Query query =
+        new Query(
+            Criteria.where("_id")
+                .in(writtenLastModifiedAt.keySet())
+                .and("measureId")
+                .is(measureId));
+    query.fields().include("testCase.lastModifiedAt");
+    Map<String, Instant> storedLastModifiedAt = new HashMap<>();
+    mongoTemplate
+        .find(query, MeasureTestCase.class)
+        .forEach(
+            stored ->
+                storedLastModifiedAt.put(stored.getId(), stored.getTestCase().getLastModifiedAt()));
+    return writtenLastModifiedAt.keySet().stream()
+        .filter(
+            id ->
+                !storedLastModifiedAt.containsKey(id)
+                    || !Objects.equals(
+                        storedLastModifiedAt.get(id),
+                        truncatedToMillis(writtenLastModifiedAt.get(id))))
+        .collect(Collectors.toSet());
+  }
+
+  private Instant truncatedToMillis(Instant instant) {
+    return instant == null ? null : instant.truncatedTo(ChronoUnit.MILLIS);
+  }
+
+  @Override
+  public boolean replaceTestCaseIfUnmodified(
+      String measureId, TestCase testCase, Instant readLastModifiedAt) {
+    return mongoTemplate
+            .replace(
+                unmodifiedSince(measureId, testCase.getId(), readLastModifiedAt),
+                MeasureTestCase.of(measureId, testCase))
+            .getMatchedCount()
+        > 0;
+  }
+
+  @Override
+  public int updateValidationResults(String measureId, List<TestCase> testCases) {
+    if (CollectionUtils.isEmpty(testCases)) {
+      return 0;
+    }
+    BulkOperations bulkOperations =
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MeasureTestCase.class);
+    Instant validatedAt = Instant.now();
+    testCases.forEach(
+        testCase ->
+            bulkOperations.updateOne(
+                unmodifiedSince(measureId, testCase.getId(), testCase.getLastModifiedAt()),
+                new Update()
+                    .set("testCase.validResource", testCase.isValidResource())
+                    .set("testCase.hapiOperationOutcome", testCase.getHapiOperationOutcome())
+                    .set("validatedAt", validatedAt)));
+    return bulkOperations.execute().getMatchedCount();
+  }
+
+  @Override
+  public List<MeasureTestCase> findAllValidatedBefore(String measureId, Instant validatedBefore) {
+    // $not also matches documents where the time is missing, such as test cases never revalidated
+    return mongoTemplate.find(
+        new Query(
+            Criteria.where("measureId")
+                .is(measureId)
+                .and("testCase.lastModifiedAt")
+                .not()
+                .gte(validatedBefore)
+                .and("validatedAt")
+                .not()
+                .gte(validatedBefore)),
+        MeasureTestCase.class);
+  }
+
+  private Query unmodifiedSince(String measureId, String testCaseId, Instant lastModifiedAt) {
+    return new Query(
+        Criteria.where("_id")
+            .is(testCaseId)
+            .and("measureId")
+            .is(measureId)
+            .and("testCase.lastModifiedAt")
+            .is(lastModifiedAt));
+  }
+}
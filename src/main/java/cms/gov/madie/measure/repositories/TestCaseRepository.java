@@ -0,0 +1,30 @@
+package cms.gov.madie.measure.repositories;
+
+import cms.gov.madie.measure.dto.MeasureTestCase;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface TestCaseRepository
+    extends MongoRepository<MeasureTestCase, String>, TestCaseBulkRepository {
+
+  List<MeasureTestCase> findAllByMeasureId(String measureId);
+
+  Optional<MeasureTestCase> findByIdAndMeasureId(String id, String measureId);
+
+  @Query(
+      value = "{measureId: ?0}",
+      fields = "{'testCase._id': 1, 'testCase.title': 1, 'testCase.series': 1}")
+  List<MeasureTestCase> findAllTitleAndSeriesByMeasureId(String measureId);
+
+  boolean existsByMeasureId(String measureId);
+
+  boolean existsByMeasureIdAndTestCaseValidResource(String measureId, boolean validResource);
+
+  List<MeasureTestCase> deleteAllByMeasureIdAndIdIn(String measureId, Collection<String> ids);
+
+  long deleteAllByMeasureIdIn(Collection<String> measureIds);
+}
@@ -1,12 +1,11 @@
 package cms.gov.madie.measure.resources;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.security.Principal;
+import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 
 import cms.gov.madie.measure.exceptions.HarpIdMismatchException;
 import cms.gov.madie.measure.exceptions.ResourceNotFoundException;
@@ -20,20 +19,26 @@ import gov.cms.madie.models.common.ModelType;
 import gov.cms.madie.models.common.Version;
 import gov.cms.madie.models.cqm.CqmMeasure;
 import gov.cms.madie.models.measure.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.bson.Document;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.util.StopWatch;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import cms.gov.madie.measure.dto.ImpactedMeasureValidationReport;
+import cms.gov.madie.measure.dto.Job;
+import cms.gov.madie.measure.dto.MeasureTestCaseValidationLine;
 import cms.gov.madie.measure.dto.MeasureTestCaseValidationReport;
 import cms.gov.madie.measure.dto.MeasureTestCaseValidationReportSummary;
-import cms.gov.madie.measure.dto.TestCaseValidationReport;
 import cms.gov.madie.measure.repositories.MeasureRepository;
+import cms.gov.madie.measure.repositories.TestCaseRepository;
 import gov.cms.madie.models.common.ActionType;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
@@ -45,17 +50,16 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class AdminController {
   private final MeasureService measureService;
-  private final TestCaseService testCaseService;
-  private final MeasureSetService measureSetService;
   private final ActionLogService actionLogService;
   private final VersionService versionService;
+  private final JobService jobService;
+  private final TestCaseRevalidationService testCaseRevalidationService;
+  private final ObjectMapper objectMapper;
 
   private final MeasureRepository measureRepository;
   private final ExportRepository exportRepository;
   private final CqmMeasureRepository cqmMeasureRepository;
-
-  @Value("${madie.admin.concurrency-limit}")
-  private int concurrencyLimit;
+  private final TestCaseRepository testCaseRepository;
 
   @PutMapping("/measures/test-cases/validations")
   @PreAuthorize("#request.getHeader('api-key') == #apiKey")
@@ -64,51 +68,29 @@ public class AdminController {
       @Value("${admin-api-key}") String apiKey,
       Principal principal,
       @RequestHeader("Authorization") String accessToken,
-      @RequestParam(name = "draftOnly", defaultValue = "true") boolean draftOnly)
-      throws InterruptedException, ExecutionException {
+      @RequestParam(name = "draftOnly", defaultValue = "true") boolean draftOnly,
+      @RequestParam(name = "selective", defaultValue = "false") boolean selective,
+      @RequestParam(name = "after", required = false) String after)
+      throws InterruptedException {
     log.info("User [{}] - Starting admin task [validateAllMeasureTestCases]", principal.getName());
     StopWatch timer = new StopWatch();
     timer.start();
-    List<String> measureIds = measureService.getAllActiveMeasureIds(draftOnly);
-    List<Callable<MeasureTestCaseValidationReport>> tasks = new ArrayList<>();
+    Instant validatedBefore = testCaseRevalidationService.getValidatedBefore(selective);
     List<MeasureTestCaseValidationReport> reports = new ArrayList<>();
-    List<ImpactedMeasureValidationReport> impactedMeasures = new ArrayList<>();
-
-    log.info("User [{}] - Building callable tasks for [] measures", measureIds.size());
-    for (String measureId : measureIds) {
-      tasks.add(buildCallableForMeasureId(measureId, accessToken));
-    }
-
-    ExecutorService executorService = Executors.newFixedThreadPool(concurrencyLimit);
-    List<Future<MeasureTestCaseValidationReport>> futures = executorService.invokeAll(tasks);
-    executorService.shutdown();
-
-    for (Future<MeasureTestCaseValidationReport> f : futures) {
-      MeasureTestCaseValidationReport measureTestCaseValidationReport = f.get();
-      reports.add(measureTestCaseValidationReport);
-
-      int diffCount = 0;
-      for (TestCaseValidationReport tcValReport :
-          measureTestCaseValidationReport.getTestCaseValidationReports()) {
-        if (tcValReport.isPreviousValidResource() && !tcValReport.isCurrentValidResource()) {
-          diffCount++;
-        }
-      }
-      if (diffCount > 0) {
-        MeasureSet measureSet =
-            measureSetService.findByMeasureSetId(measureTestCaseValidationReport.getMeasureSetId());
-
-        impactedMeasures.add(
-            ImpactedMeasureValidationReport.builder()
-                .measureId(measureTestCaseValidationReport.getMeasureId())
-                .measureSetId(measureTestCaseValidationReport.getMeasureSetId())
-                .measureVersionId(measureTestCaseValidationReport.getMeasureVersionId())
-                .measureName(measureTestCaseValidationReport.getMeasureName())
-                .measureOwner(measureSet.getOwner())
-                .impactedTestCasesCount(diffCount)
-                .build());
-      }
-    }
+    MeasureTestCaseValidationLine summary =
+        testCaseRevalidationService.revalidate(
+            draftOnly,
+            validatedBefore,
+            after,
+            accessToken,
+            line -> {
+              if (line.getType() == MeasureTestCaseValidationLine.Type.REPORT) {
+                reports.add(line.getReport());
+              }
+              return true;
+            });
+    // measures finish in any order, the summary lists them in the order of their IDs
+    reports.sort(Comparator.comparing(MeasureTestCaseValidationReport::getMeasureId));
 
     timer.stop();
     log.info(
@@ -119,10 +101,90 @@ public class AdminController {
     return ResponseEntity.ok(
         MeasureTestCaseValidationReportSummary.builder()
             .reports(reports)
-            .impactedMeasures(impactedMeasures)
+            .impactedMeasures(summary.getImpactedMeasures())
             .build());
   }
 
+  /**
+   * Streams the revalidation as NDJSON, one line per measure as soon as it is done, then a summary
+   * line. Every line carries a checkpoint; pass the last one received as "after" to resume a run
+   * that was cut short.
+   */
+  @PutMapping(
+      value = "/measures/test-cases/validations",
+      produces = MediaType.APPLICATION_NDJSON_VALUE)
+  @PreAuthorize("#request.getHeader('api-key') == #apiKey")
+  public ResponseEntity<StreamingResponseBody> streamValidateAllMeasureTestCases(
+      HttpServletRequest request,
+      @Value("${admin-api-key}") String apiKey,
+      Principal principal,
+      @RequestHeader("Authorization") String accessToken,
+      @RequestParam(name = "draftOnly", defaultValue = "true") boolean draftOnly,
+      @RequestParam(name = "selective", defaultValue = "false") boolean selective,
+      @RequestParam(name = "after", required = false) String after) {
+    String username = principal.getName();
+    log.info(
+        "User [{}] - Starting admin task [streamValidateAllMeasureTestCases] after [{}]",
+        username,
+        after);
+    Instant validatedBefore = testCaseRevalidationService.getValidatedBefore(selective);
+    StreamingResponseBody body =
+        outputStream -> {
+          try {
+            testCaseRevalidationService.revalidate(
+                draftOnly,
+                validatedBefore,
+                after,
+                accessToken,
+                line -> {
+                  writeLine(outputStream, line);
+                  return true;
+                });
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn(
+                "User [{}] - Admin task [streamValidateAllMeasureTestCases] was interrupted",
+                username);
+          }
+        };
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+  }
+
+  private void writeLine(OutputStream outputStream, MeasureTestCaseValidationLine line) {
+    try {
+      outputStream.write(objectMapper.writeValueAsBytes(line));
+      outputStream.write('\n');
+      outputStream.flush();
+    } catch (IOException e) {
+      // most likely the client went away, which stops the run
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @PostMapping("/measures/test-cases/validations/jobs")
+  @PreAuthorize("#request.getHeader('api-key') == #apiKey")
+  public ResponseEntity<Job> submitValidateAllMeasureTestCasesJob(
+      HttpServletRequest request,
+      @Value("${admin-api-key}") String apiKey,
+      Principal principal,
+      @RequestHeader("Authorization") String accessToken,
+      @RequestParam(name = "draftOnly", defaultValue = "true") boolean draftOnly,
+      @RequestParam(name = "selective", defaultValue = "false") boolean selective) {
+    // rejects a selective run the job could not do, before it is submitted
+    testCaseRevalidationService.getValidatedBefore(selective);
+    Job job =
+        jobService.submit(
+            TestCaseRevalidationJobHandler.TYPE,
+            Map.of(
+                TestCaseRevalidationJobHandler.DRAFT_ONLY,
+                draftOnly,
+                TestCaseRevalidationJobHandler.SELECTIVE,
+                selective),
+            principal.getName(),
+            accessToken);
+    return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+  }
+
   @DeleteMapping("/measures/{id}")
   @PreAuthorize("#request.getHeader('api-key') == #apiKey")
   public ResponseEntity<Measure> permDeleteMeasure(
@@ -142,6 +204,7 @@ public class AdminController {
       }
 
       measureRepository.delete(measureToDelete);
+      testCaseRepository.deleteAllByMeasureIdIn(List.of(measureToDelete.getId()));
       actionLogService.logAction(id, Measure.class, ActionType.DELETED, principal.getName());
       return ResponseEntity.ok(measureToDelete);
     }
@@ -245,13 +308,15 @@ public class AdminController {
                 versionService.generateLibraryContentLine(
                     measureToCorrectVersion.getCqlLibraryName(), newDraftVersion));
 
+    Document snapshot = measureRepository.snapshot(measureToCorrectVersion);
     measureToCorrectVersion.setCql(newCql);
     measureToCorrectVersion.setVersion(newDraftVersion);
     measureToCorrectVersion.getMeasureMetaData().setDraft(true);
 
     deleteRelevantPackageData(id, measureToCorrectVersion);
 
-    Measure correctedVersionMeasure = measureRepository.save(measureToCorrectVersion);
+    Measure correctedVersionMeasure =
+        measureRepository.saveChanges(snapshot, measureToCorrectVersion);
     actionLogService.logAction(id, Measure.class, ActionType.UPDATED, principal.getName());
     return ResponseEntity.ok(correctedVersionMeasure);
   }
@@ -274,6 +339,7 @@ public class AdminController {
       throw new InvalidRequestException("Cannot overwrite differing measure versions.");
     }
 
+    Document snapshot = measureRepository.snapshot(targetMeasure);
     List<TestCase> targetTestCases = targetMeasure.getTestCases();
     List<TestCase> sourceTestCases = sourceMeasure.getTestCases();
 
@@ -289,7 +355,7 @@ public class AdminController {
       }
     }
 
-    measureRepository.save(targetMeasure);
+    measureRepository.saveChanges(snapshot, targetMeasure);
     actionLogService.logAction(
         id,
         Measure.class,
@@ -409,9 +475,4 @@ public class AdminController {
     // if all parts are equal, draftVersion is not less than correctVersion
     return false;
   }
-
-  private Callable<MeasureTestCaseValidationReport> buildCallableForMeasureId(
-      final String measureId, final String accessToken) {
-    return () -> testCaseService.updateTestCaseValidResourcesWithReport(measureId, accessToken);
-  }
 }
@@ -139,6 +139,8 @@ public class ErrorHandlingControllerAdvice {
     InvalidMeasureStateException.class,
     DuplicateMeasureException.class,
     UnsupportedTypeException.class,
+    TestCaseConflictException.class,
+    MeasureConflictException.class,
   })
   @ResponseStatus(HttpStatus.CONFLICT)
   @ResponseBody
@@ -209,6 +211,20 @@ public class ErrorHandlingControllerAdvice {
     return getErrorAttributes(request, HttpStatus.BAD_REQUEST);
   }
 
+  @ExceptionHandler(DownstreamUnavailableException.class)
+  @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+  @ResponseBody
+  Map<String, Object> onDownstreamUnavailableException(WebRequest request) {
+    return getErrorAttributes(request, HttpStatus.SERVICE_UNAVAILABLE);
+  }
+
+  @ExceptionHandler(DeadlineExceededException.class)
+  @ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+  @ResponseBody
+  Map<String, Object> onDeadlineExceededException(WebRequest request) {
+    return getErrorAttributes(request, HttpStatus.GATEWAY_TIMEOUT);
+  }
+
   private Map<String, Object> getErrorAttributes(WebRequest request, HttpStatus httpStatus) {
     // BINDING_ERRORS and STACK_TRACE are too detailed and confusing to parse
     // Let's just add a list of simplified validation errors
@@ -22,6 +22,7 @@ import org.springframework.web.bind.annotation.RestController;
 import cms.gov.madie.measure.exceptions.ResourceNotFoundException;
 import cms.gov.madie.measure.repositories.MeasureRepository;
 import cms.gov.madie.measure.services.FhirServicesClient;
+import cms.gov.madie.measure.services.NoRequestDeadline;
 import cms.gov.madie.measure.utils.ControllerUtil;
 import cms.gov.madie.measure.utils.ExportFileNamesUtil;
 import gov.cms.madie.models.measure.Measure;
@@ -38,6 +39,7 @@ public class ExportController {
   private final ExportService exportService;
   private final MeasureService measureService;
 
+  @NoRequestDeadline
   @GetMapping(path = "/measures/{id}/exports", produces = "application/zip")
   public ResponseEntity<byte[]> getZip(
       Principal principal,
@@ -63,6 +65,7 @@ public class ExportController {
         .body(packageDto.getExportPackage());
   }
 
+  @NoRequestDeadline
   @PutMapping(path = ControllerUtil.TEST_CASES + "/exports", produces = "application/zip")
   public ResponseEntity<byte[]> getTestCaseExport(
       Principal principal,
@@ -87,6 +90,7 @@ public class ExportController {
         measure, accessToken, testCaseId, bundleType.orElse(("COLLECTION").toUpperCase()));
   }
 
+  @NoRequestDeadline
   @PutMapping(path = "/measures/{id}/test-cases/qrda", produces = "application/zip")
   public ResponseEntity<byte[]> getQRDA(
       Principal principal,
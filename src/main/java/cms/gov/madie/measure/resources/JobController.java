@@ -0,0 +1,51 @@
+package cms.gov.madie.measure.resources;
+
+import cms.gov.madie.measure.dto.Job;
+import cms.gov.madie.measure.dto.JobResultChunk;
+import cms.gov.madie.measure.services.JobService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.security.Principal;
+
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/jobs")
+public class JobController {
+
+  private final JobService jobService;
+
+  @GetMapping("/{id}")
+  public ResponseEntity<Job> getJob(@PathVariable("id") String id, Principal principal) {
+    return ResponseEntity.ok(jobService.getJob(id, principal.getName()));
+  }
+
+  @GetMapping("/{id}/results/{sequence}")
+  public ResponseEntity<JobResultChunk> getJobResults(
+      @PathVariable("id") String id, @PathVariable("sequence") int sequence, Principal principal) {
+    return ResponseEntity.ok(jobService.getResults(id, sequence, principal.getName()));
+  }
+
+  @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamJobProgress(@PathVariable("id") String id, Principal principal) {
+    return jobService.streamProgress(id, principal.getName());
+  }
+
+  @PutMapping("/{id}/cancel")
+  public ResponseEntity<Job> cancelJob(@PathVariable("id") String id, Principal principal) {
+    return ResponseEntity.ok(jobService.cancel(id, principal.getName()));
+  }
+
+  @PutMapping("/{id}/resume")
+  public ResponseEntity<Job> resumeJob(
+      @PathVariable("id") String id,
+      Principal principal,
+      @RequestHeader("Authorization") String accessToken) {
+    return ResponseEntity.accepted().body(jobService.resume(id, principal.getName(), accessToken));
+  }
+}
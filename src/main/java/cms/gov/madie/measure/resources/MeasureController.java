@@ -1,6 +1,7 @@
 package cms.gov.madie.measure.resources;
 
 import cms.gov.madie.measure.dto.MeasureListDTO;
+import cms.gov.madie.measure.dto.MeasureListWindow;
 import cms.gov.madie.measure.dto.MeasureSearchCriteria;
 import cms.gov.madie.measure.exceptions.*;
 import cms.gov.madie.measure.repositories.MeasureRepository;
@@ -41,7 +42,11 @@ import jakarta.servlet.http.HttpServletRequest;
 import java.security.Principal;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @RestController
@@ -80,13 +85,21 @@ public class MeasureController {
     Page<MeasureListDTO> measures;
     final Pageable pageReq = PageRequest.of(page, limit, Sort.by("lastModifiedAt").descending());
     measures = measureService.getMeasuresByCriteria(null, filterByCurrentUser, pageReq, username);
-    measures.map(
-        measure -> {
-          MeasureSet measureSet =
-              measureSetRepository.findByMeasureSetId(measure.getMeasureSetId()).orElse(null);
-          measure.setMeasureSet(measureSet);
-          return measure;
-        });
+    setMeasureSets(measures.getContent());
+    return ResponseEntity.ok(measures);
+  }
+
+  @GetMapping("/measures/scroll")
+  public ResponseEntity<MeasureListWindow> scrollMeasures(
+      Principal principal,
+      @RequestParam(required = false, defaultValue = "false", name = "currentUser")
+          boolean filterByCurrentUser,
+      @RequestParam(required = false, defaultValue = "10", name = "limit") int limit,
+      @RequestParam(required = false, name = "cursor") String cursor) {
+    MeasureListWindow measures =
+        measureService.scrollMeasuresByCriteria(
+            null, filterByCurrentUser, limit, cursor, principal.getName());
+    setMeasureSets(measures.getContent());
     return ResponseEntity.ok(measures);
   }
 
@@ -315,17 +328,44 @@ public class MeasureController {
     Page<MeasureListDTO> measures =
         measureService.getMeasuresByCriteria(
             searchCriteria, filterByCurrentUser, pageReq, username);
-    measures.map(
-        measure -> {
-          MeasureSet measureSet =
-              measureSetRepository.findByMeasureSetId(measure.getMeasureSetId()).orElse(null);
-          measure.setMeasureSet(measureSet);
-          return measure;
-        });
+    setMeasureSets(measures.getContent());
+
+    return ResponseEntity.ok(measures);
+  }
 
+  @PutMapping("/measures/searches/scroll")
+  public ResponseEntity<MeasureListWindow> scrollMeasureSearchByCriteria(
+      Principal principal,
+      @RequestParam(required = false, defaultValue = "false", name = "currentUser")
+          boolean filterByCurrentUser,
+      @RequestBody(required = false) MeasureSearchCriteria searchCriteria,
+      @RequestParam(required = false, defaultValue = "10", name = "limit") int limit,
+      @RequestParam(required = false, name = "cursor") String cursor) {
+    MeasureListWindow measures =
+        measureService.scrollMeasuresByCriteria(
+            searchCriteria, filterByCurrentUser, limit, cursor, principal.getName());
+    setMeasureSets(measures.getContent());
     return ResponseEntity.ok(measures);
   }
 
+  // loads the measure sets of the whole page in one query, rather than one query per measure
+  private void setMeasureSets(List<MeasureListDTO> measures) {
+    Set<String> measureSetIds =
+        measures.stream()
+            .map(MeasureListDTO::getMeasureSetId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+    if (measureSetIds.isEmpty()) {
+      return;
+    }
+    Map<String, MeasureSet> measureSets =
+        measureSetRepository.findAllByMeasureSetIdIn(measureSetIds).stream()
+            .collect(
+                Collectors.toMap(
+                    MeasureSet::getMeasureSetId, Function.identity(), (first, second) -> first));
+    measures.forEach(measure -> measure.setMeasureSet(measureSets.get(measure.getMeasureSetId())));
+  }
+
   @PutMapping("/measures/{measureSetId}/create-cms-id")
   public ResponseEntity<MeasureSet> createCmsId(
       @PathVariable String measureSetId, Principal principal) {
@@ -1,6 +1,10 @@
 package cms.gov.madie.measure.resources;
 
+import cms.gov.madie.measure.dto.Job;
 import cms.gov.madie.measure.exceptions.InvalidIdException;
+import cms.gov.madie.measure.services.JobService;
+import cms.gov.madie.measure.services.MeasureVersionJobHandler;
+import cms.gov.madie.measure.services.NoRequestDeadline;
 import cms.gov.madie.measure.services.VersionService;
 import cms.gov.madie.measure.services.MeasureService;
 import gov.cms.madie.models.measure.Measure;
@@ -12,6 +16,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.security.Principal;
+import java.util.Map;
 
 import static cms.gov.madie.measure.services.VersionService.VersionValidationResult.TEST_CASE_ERROR;
 
@@ -23,7 +28,9 @@ public class MeasureVersionController {
 
   private final VersionService versionService;
   private final MeasureService measureService;
+  private final JobService jobService;
 
+  @NoRequestDeadline
   @PutMapping("/{id}/version")
   public ResponseEntity<Measure> createVersion(
       @PathVariable("id") String id,
@@ -35,6 +42,25 @@ public class MeasureVersionController {
         versionService.createVersion(id, versionType, principal.getName(), accessToken));
   }
 
+  @PostMapping("/{id}/version/jobs")
+  public ResponseEntity<Job> submitCreateVersionJob(
+      @PathVariable("id") String id,
+      @RequestParam String versionType,
+      Principal principal,
+      @RequestHeader("Authorization") String accessToken) {
+    Job job =
+        jobService.submit(
+            MeasureVersionJobHandler.TYPE,
+            Map.of(
+                MeasureVersionJobHandler.MEASURE_ID,
+                id,
+                MeasureVersionJobHandler.VERSION_TYPE,
+                versionType),
+            principal.getName(),
+            accessToken);
+    return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+  }
+
   @GetMapping("/{id}/version")
   public ResponseEntity<Void> checkValidVersion(
       @PathVariable("id") String id,
@@ -52,10 +78,11 @@ public class MeasureVersionController {
   @GetMapping("/{id}/next-version")
   public ResponseEntity<String> getNextVersionNumber(
       @PathVariable("id") String id, @RequestParam String versionType) {
-    Measure measure = measureService.findMeasureById(id);
+    Measure measure = measureService.findMeasureMetaDataById(id);
     return ResponseEntity.ok(versionService.getNextVersion(measure, versionType).toString());
   }
 
+  @NoRequestDeadline
   @PostMapping("/{id}/draft")
   public ResponseEntity<Measure> createDraft(
       @RequestHeader("Authorization") String accessToken,
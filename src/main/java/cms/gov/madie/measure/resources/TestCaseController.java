@@ -1,12 +1,16 @@
 package cms.gov.madie.measure.resources;
 
 import cms.gov.madie.measure.dto.CopyTestCaseResult;
+import cms.gov.madie.measure.dto.Job;
 import cms.gov.madie.measure.dto.ValidList;
 import cms.gov.madie.measure.exceptions.InvalidRequestException;
 import cms.gov.madie.measure.exceptions.ResourceNotFoundException;
 import cms.gov.madie.measure.repositories.MeasureRepository;
 import cms.gov.madie.measure.services.MeasureService;
+import cms.gov.madie.measure.services.JobService;
+import cms.gov.madie.measure.services.NoRequestDeadline;
 import cms.gov.madie.measure.services.QdmTestCaseShiftDatesService;
+import cms.gov.madie.measure.services.TestCaseImportJobHandler;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import gov.cms.madie.models.common.ModelType;
 import cms.gov.madie.measure.services.TestCaseService;
@@ -35,6 +39,8 @@ public class TestCaseController {
   private final MeasureRepository measureRepository;
   private final MeasureService measureService;
   private final QdmTestCaseShiftDatesService qdmTestCaseShiftDatesService;
+  private final JobService jobService;
+  private final TestCaseImportJobHandler testCaseImportJobHandler;
 
   @PostMapping(ControllerUtil.TEST_CASES)
   public ResponseEntity<TestCase> addTestCase(
@@ -137,6 +143,7 @@ public class TestCaseController {
         testCaseService.deleteTestCases(measureId, testCaseIds, principal.getName()));
   }
 
+  @NoRequestDeadline
   @PutMapping(ControllerUtil.TEST_CASES + "/imports")
   public ResponseEntity<List<TestCaseImportOutcome>> importTestCases(
       @RequestBody List<TestCaseImportRequest> testCaseImportRequests,
@@ -150,6 +157,7 @@ public class TestCaseController {
     return ResponseEntity.ok().body(testCaseImportOutcomes);
   }
 
+  @NoRequestDeadline
   @PutMapping(ControllerUtil.TEST_CASES + "/imports/qdm")
   public ResponseEntity<List<TestCaseImportOutcome>> importTestCasesQdm(
       @RequestBody List<TestCaseImportRequest> testCaseImportRequests,
@@ -157,7 +165,51 @@ public class TestCaseController {
       @RequestHeader("Authorization") String accessToken,
       Principal principal) {
     final String userName = principal.getName();
+    prepareQdmImportRequests(testCaseImportRequests, userName);
+    var testCaseImportOutcomes =
+        testCaseService.importTestCases(
+            testCaseImportRequests, measureId, userName, accessToken, ModelType.QDM_5_6.getValue());
+    return ResponseEntity.ok().body(testCaseImportOutcomes);
+  }
+
+  @PostMapping(ControllerUtil.TEST_CASES + "/imports/jobs")
+  public ResponseEntity<Job> submitImportTestCasesJob(
+      @RequestBody List<TestCaseImportRequest> testCaseImportRequests,
+      @PathVariable String measureId,
+      @RequestHeader("Authorization") String accessToken,
+      Principal principal) {
+    return submitImportJob(
+        testCaseImportRequests, measureId, ModelType.QI_CORE.getValue(), accessToken, principal);
+  }
+
+  @PostMapping(ControllerUtil.TEST_CASES + "/imports/qdm/jobs")
+  public ResponseEntity<Job> submitImportTestCasesQdmJob(
+      @RequestBody List<TestCaseImportRequest> testCaseImportRequests,
+      @PathVariable String measureId,
+      @RequestHeader("Authorization") String accessToken,
+      Principal principal) {
+    prepareQdmImportRequests(testCaseImportRequests, principal.getName());
+    return submitImportJob(
+        testCaseImportRequests, measureId, ModelType.QDM_5_6.getValue(), accessToken, principal);
+  }
+
+  private ResponseEntity<Job> submitImportJob(
+      List<TestCaseImportRequest> testCaseImportRequests,
+      String measureId,
+      String model,
+      String accessToken,
+      Principal principal) {
+    Job job =
+        jobService.submit(
+            TestCaseImportJobHandler.TYPE,
+            testCaseImportJobHandler.parameters(measureId, model, testCaseImportRequests),
+            principal.getName(),
+            accessToken);
+    return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+  }
 
+  private void prepareQdmImportRequests(
+      List<TestCaseImportRequest> testCaseImportRequests, String userName) {
     for (TestCaseImportRequest request : testCaseImportRequests) {
       request.setPatientId(UUID.randomUUID());
       // append given and family name to the import object to report to outcome
@@ -178,10 +230,6 @@ public class TestCaseController {
         throw new InvalidRequestException(ex.getMessage());
       }
     }
-    var testCaseImportOutcomes =
-        testCaseService.importTestCases(
-            testCaseImportRequests, measureId, userName, accessToken, ModelType.QDM_5_6.getValue());
-    return ResponseEntity.ok().body(testCaseImportOutcomes);
   }
 
   private TestCase sanitizeTestCase(TestCase testCase) {
@@ -0,0 +1,28 @@
+package cms.gov.madie.measure.services;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+
+/** Records the access token of every request the downstream service answers with 401. */
+@RequiredArgsConstructor
+public class AccessTokenRejectionInterceptor implements ClientHttpRequestInterceptor {
+
+  private final RejectedAccessTokens rejectedAccessTokens;
+
+  @Override
+  public ClientHttpResponse intercept(
+      HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+    ClientHttpResponse response = execution.execute(request, body);
+    if (response.getStatusCode().isSameCodeAs(HttpStatus.UNAUTHORIZED)) {
+      rejectedAccessTokens.reject(request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION));
+    }
+    return response;
+  }
+}
@@ -0,0 +1,103 @@
+package cms.gov.madie.measure.services;
+
+import cms.gov.madie.measure.exceptions.BulkheadFullException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits the number of calls made to one downstream service at once, so that a slow service ties
+ * up no more than its share of the request threads. A call that finds every permit taken waits in
+ * a bounded queue for at most the configured time. A call that finds the queue full, or that waits
+ * longer than that, is rejected with a {@link BulkheadFullException}.
+ */
+@Slf4j
+public class Bulkhead {
+
+  static final String ACTIVE_METRIC = "madie.bulkhead.calls.active";
+  static final String QUEUED_METRIC = "madie.bulkhead.calls.queued";
+  static final String REJECTED_METRIC = "madie.bulkhead.calls.rejected";
+  static final String DOWNSTREAM_TAG = "downstream";
+
+  @Getter private final String name;
+  private final Semaphore permits;
+  private final int maxQueuedCalls;
+  private final long maxWaitMillis;
+  private final AtomicInteger active = new AtomicInteger();
+  private final AtomicInteger queued = new AtomicInteger();
+  private final Counter rejected;
+
+  public Bulkhead(
+      String name,
+      int maxConcurrentCalls,
+      int maxQueuedCalls,
+      long maxWaitMillis,
+      MeterRegistry meterRegistry) {
+    this.name = name;
+    this.permits = new Semaphore(maxConcurrentCalls, true);
+    this.maxQueuedCalls = maxQueuedCalls;
+    this.maxWaitMillis = maxWaitMillis;
+    Gauge.builder(ACTIVE_METRIC, active, AtomicInteger::get)
+        .description("Calls to the downstream service in flight")
+        .tag(DOWNSTREAM_TAG, name)
+        .register(meterRegistry);
+    Gauge.builder(QUEUED_METRIC, queued, AtomicInteger::get)
+        .description("Calls waiting for a permit to call the downstream service")
+        .tag(DOWNSTREAM_TAG, name)
+        .register(meterRegistry);
+    this.rejected =
+        Counter.builder(REJECTED_METRIC)
+            .description("Calls rejected because the downstream service was saturated")
+            .tag(DOWNSTREAM_TAG, name)
+            .register(meterRegistry);
+  }
+
+  /**
+   * Takes a permit to call the downstream service, waiting in the queue if none is free. Every
+   * successful call must be paired with a call to {@link #release()}.
+   *
+   * @throws BulkheadFullException if the queue is full or no permit was freed in time
+   */
+  public void acquire() {
+    if (!permits.tryAcquire() && !awaitPermit()) {
+      rejected.increment();
+      log.warn("Rejected a call to the saturated [{}] service", name);
+      throw new BulkheadFullException(name);
+    }
+    active.incrementAndGet();
+  }
+
+  public void release() {
+    active.decrementAndGet();
+    permits.release();
+  }
+
+  public int getActiveCalls() {
+    return active.get();
+  }
+
+  public int getQueuedCalls() {
+    return queued.get();
+  }
+
+  private boolean awaitPermit() {
+    if (queued.incrementAndGet() > maxQueuedCalls) {
+      queued.decrementAndGet();
+      return false;
+    }
+    try {
+      return permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return false;
+    } finally {
+      queued.decrementAndGet();
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package cms.gov.madie.measure.services;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs a request through a {@link Bulkhead}; the {@link ResilienceInterceptor} runs each of its
+ * attempts through one. The permit is held until the response is closed, so reading a large
+ * response body still counts against the limit.
+ */
+@RequiredArgsConstructor
+public class BulkheadInterceptor implements ClientHttpRequestInterceptor {
+
+  private final Bulkhead bulkhead;
+
+  @Override
+  public ClientHttpResponse intercept(
+      HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+    bulkhead.acquire();
+    try {
+      return new ReleasingResponse(execution.execute(request, body));
+    } catch (IOException | RuntimeException ex) {
+      bulkhead.release();
+      throw ex;
+    }
+  }
+
+  private class ReleasingResponse implements ClientHttpResponse {
+    private final ClientHttpResponse response;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    ReleasingResponse(ClientHttpResponse response) {
+      this.response = response;
+    }
+
+    @Override
+    public HttpStatusCode getStatusCode() throws IOException {
+      return response.getStatusCode();
+    }
+
+    @Override
+    public String getStatusText() throws IOException {
+      return response.getStatusText();
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+      return response.getHeaders();
+    }
+
+    @Override
+    public InputStream getBody() throws IOException {
+      return response.getBody();
+    }
+
+    @Override
+    public void close() {
+      try {
+        response.close();
+      } finally {
+        if (released.compareAndSet(false, true)) {
+          bulkhead.release();
+        }
+      }
+    }
+  }
+}
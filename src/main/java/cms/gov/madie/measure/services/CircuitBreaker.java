@@ -0,0 +1,158 @@
+package cms.gov.madie.measure.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Clock;
+
+/**
+ * Stops calling a downstream service that keeps failing. The outcomes of the last calls are kept in
+ * a sliding window, and once enough of them failed the circuit opens and calls are rejected
+ * without being made. After the open duration a few probe calls are let through, half-open: the
+ * circuit closes again if all of them succeed and opens again as soon as one fails.
+ */
+@Slf4j
+public class CircuitBreaker {
+
+  public enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  static final String STATE_METRIC = "madie.circuit-breaker.state";
+  static final String REJECTED_METRIC = "madie.circuit-breaker.calls.rejected";
+  static final int WINDOW_SIZE = 20;
+  static final int MINIMUM_CALLS = 10;
+  static final int HALF_OPEN_CALLS = 3;
+
+  @Getter private final String name;
+  private final int failureRateThreshold;
+  private final long openDurationMillis;
+  private final Clock clock;
+  private final Counter rejected;
+
+  // outcomes of the last calls while closed, true for a failure
+  private final boolean[] window = new boolean[WINDOW_SIZE];
+  private int calls;
+  private int failures;
+  private int next;
+
+  @Getter private volatile State state = State.CLOSED;
+  private long openedAt;
+  private int probesStarted;
+  private int probesSucceeded;
+
+  public CircuitBreaker(
+      String name, int failureRateThreshold, long openDurationMillis, MeterRegistry meterRegistry) {
+    this(name, failureRateThreshold, openDurationMillis, meterRegistry, Clock.systemUTC());
+  }
+
+  CircuitBreaker(
+      String name,
+      int failureRateThreshold,
+      long openDurationMillis,
+      MeterRegistry meterRegistry,
+      Clock clock) {
+    this.name = name;
+    this.failureRateThreshold = failureRateThreshold;
+    this.openDurationMillis = openDurationMillis;
+    this.clock = clock;
+    Gauge.builder(STATE_METRIC, this, circuitBreaker -> circuitBreaker.state.ordinal())
+        .description("State of the circuit breaker: 0 closed, 1 open, 2 half-open")
+        .tag(Bulkhead.DOWNSTREAM_TAG, name)
+        .register(meterRegistry);
+    this.rejected =
+        Counter.builder(REJECTED_METRIC)
+            .description("Calls rejected because the circuit breaker was open")
+            .tag(Bulkhead.DOWNSTREAM_TAG, name)
+            .register(meterRegistry);
+  }
+
+  /**
+   * @return whether a call may be made now. Every permitted call must be followed by {@link
+   *     #onSuccess()}, {@link #onFailure()} or, if it was not made after all, {@link
+   *     #releasePermission()}.
+   */
+  public synchronized boolean tryAcquirePermission() {
+    if (state == State.OPEN) {
+      if (clock.millis() - openedAt < openDurationMillis) {
+        rejected.increment();
+        return false;
+      }
+      log.info("Circuit breaker of the [{}] service is half-open, probing", name);
+      state = State.HALF_OPEN;
+      probesStarted = 0;
+      probesSucceeded = 0;
+    }
+    if (state == State.HALF_OPEN) {
+      if (probesStarted >= HALF_OPEN_CALLS) {
+        rejected.increment();
+        return false;
+      }
+      probesStarted++;
+    }
+    return true;
+  }
+
+  public synchronized void onSuccess() {
+    if (state == State.HALF_OPEN) {
+      if (++probesSucceeded >= HALF_OPEN_CALLS) {
+        log.info("Circuit breaker of the [{}] service closed", name);
+        state = State.CLOSED;
+        resetWindow();
+      }
+    } else if (state == State.CLOSED) {
+      record(false);
+    }
+  }
+
+  public synchronized void onFailure() {
+    if (state == State.HALF_OPEN) {
+      open();
+    } else if (state == State.CLOSED) {
+      record(true);
+      if (calls >= MINIMUM_CALLS && failures * 100 >= failureRateThreshold * calls) {
+        open();
+      }
+    }
+  }
+
+  /** For a permitted call that was not made, which says nothing about the service. */
+  public synchronized void releasePermission() {
+    if (state == State.HALF_OPEN && probesStarted > probesSucceeded) {
+      probesStarted--;
+    }
+  }
+
+  private void record(boolean failed) {
+    if (calls == WINDOW_SIZE) {
+      if (window[next]) {
+        failures--;
+      }
+    } else {
+      calls++;
+    }
+    window[next] = failed;
+    if (failed) {
+      failures++;
+    }
+    next = (next + 1) % WINDOW_SIZE;
+  }
+
+  private void open() {
+    log.warn("Circuit breaker of the [{}] service opened", name);
+    state = State.OPEN;
+    openedAt = clock.millis();
+    resetWindow();
+  }
+
+  private void resetWindow() {
+    calls = 0;
+    failures = 0;
+    next = 0;
+  }
+}
@@ -0,0 +1,64 @@
+package cms.gov.madie.measure.services;
+
+import cms.gov.madie.measure.utils.BoundedCache;
+import cms.gov.madie.measure.utils.ContentHashUtil;
+import cms.gov.madie.measure.utils.ElmIndex;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Keeps the {@link ElmIndex} of recently seen ELM, so validating a measure parses its ELM once
+ * rather than once per group, supplemental data element and check. Indexes are keyed by a hash of
+ * the ELM JSON; the cache holds a bounded number of them and drops the least recently used first.
+ * The checks of one validation are all handed the same ELM string, so the string of the last
+ * lookup is remembered, weakly, and asking again with that same string skips the hash.
+ */
+@Service
+public class ElmIndexCache {
+
+  private final BoundedCache<String, ElmIndex> indexes;
+  private volatile LastLookup lastLookup;
+
+  public ElmIndexCache(@Value("${madie.cql-elm.index-cache.max-entries}") int maxEntries) {
+    this.indexes = new BoundedCache<>(maxEntries);
+  }
+
+  /**
+   * Returns the index of the ELM, parsing it only if the same ELM has not been indexed recently.
+   *
+   * @throws JsonProcessingException if the ELM is not valid JSON
+   */
+  public ElmIndex get(String elmJson) throws JsonProcessingException {
+    if (StringUtils.isBlank(elmJson)) {
+      return ElmIndex.EMPTY;
+    }
+    LastLookup last = lastLookup;
+    if (last != null && last.elmJson().get() == elmJson) {
+      return last.index();
+    }
+    String key = ContentHashUtil.sha256(elmJson);
+    ElmIndex index = indexes.get(key);
+    if (index == null) {
+      index = ElmIndex.parse(elmJson);
+      indexes.put(key, index);
+    }
+    lastLookup = new LastLookup(new WeakReference<>(elmJson), index);
+    return index;
+  }
+
+  public void clear() {
+    lastLookup = null;
+    indexes.clear();
+  }
+
+  int size() {
+    return indexes.size();
+  }
+
+  // weakly held, so the cache never keeps a large ELM string alive
+  private record LastLookup(WeakReference<String> elmJson, ElmIndex index) {}
+}
@@ -0,0 +1,91 @@
+package cms.gov.madie.measure.services;
+
+import cms.gov.madie.measure.utils.BoundedCache;
+import gov.cms.madie.models.measure.ElmJson;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Remembers recent CQL to ELM translations, so CQL that has not changed is not sent to the
+ * translator again when a measure is saved, versioned, bundled or exported. Identical translations
+ * requested at the same time share a single call to the translator. The cache holds a bounded
+ * number of results, each for a limited time; failed translations are not cached. Cached results
+ * are shared between callers and must not be modified.
+ */
+@Service
+public class ElmTranslationCache {
+
+  private final BoundedCache<String, ElmJson> translations;
+  private final ConcurrentMap<String, CompletableFuture<ElmJson>> inFlight =
+      new ConcurrentHashMap<>();
+
+  public ElmTranslationCache(
+      @Value("${madie.cql-elm.translation-cache.max-entries}") int maxEntries,
+      @Value("${madie.cql-elm.translation-cache.ttl-minutes}") long ttlMinutes) {
+    this(maxEntries, Duration.ofMinutes(ttlMinutes), Clock.systemUTC());
+  }
+
+  ElmTranslationCache(int maxEntries, Duration timeToLive, Clock clock) {
+    this.translations = new BoundedCache<>(maxEntries, timeToLive, clock);
+  }
+
+  /**
+   * Returns the cached translation for the key if there is one. Otherwise waits for a translation
+   * of the same key that is already running, or runs the given translation and caches its result.
+   */
+  public ElmJson get(String key, Supplier<ElmJson> translation) {
+    ElmJson cached = translations.get(key);
+    if (cached != null) {
+      return cached;
+    }
+    CompletableFuture<ElmJson> pending = new CompletableFuture<>();
+    CompletableFuture<ElmJson> running = inFlight.putIfAbsent(key, pending);
+    if (running != null) {
+      return await(running);
+    }
+    try {
+      // another caller may have finished the same translation since the lookup above
+      ElmJson elmJson = translations.get(key);
+      if (elmJson == null) {
+        elmJson = translation.get();
+        if (elmJson != null) {
+          translations.put(key, elmJson);
+        }
+      }
+      pending.complete(elmJson);
+      return elmJson;
+    } catch (RuntimeException ex) {
+      pending.completeExceptionally(ex);
+      throw ex;
+    } finally {
+      inFlight.remove(key, pending);
+    }
+  }
+
+  public void clear() {
+    translations.clear();
+  }
+
+  int size() {
+    return translations.size();
+  }
+
+  private ElmJson await(CompletableFuture<ElmJson> running) {
+    try {
+      return running.join();
+    } catch (CompletionException ex) {
+      if (ex.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw ex;
+    }
+  }
+}
@@ -2,10 +2,10 @@ package cms.gov.madie.measure.services;
 
 import cms.gov.madie.measure.config.ElmTranslatorClientConfig;
 import cms.gov.madie.measure.exceptions.CqlElmTranslationServiceException;
+import cms.gov.madie.measure.exceptions.DownstreamUnavailableException;
+import cms.gov.madie.measure.utils.ContentHashUtil;
 import gov.cms.madie.models.common.ModelType;
 import gov.cms.madie.models.measure.ElmJson;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
@@ -18,6 +18,7 @@ import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.net.URI;
+import java.util.Objects;
 
 @Slf4j
 @Service
@@ -26,14 +27,29 @@ public class ElmTranslatorClient {
 
   private ElmTranslatorClientConfig elmTranslatorClientConfig;
   private RestTemplate elmTranslatorRestTemplate;
+  private ElmIndexCache elmIndexCache;
+  private ElmTranslationCache elmTranslationCache;
 
+  /**
+   * Translates the CQL to ELM, reusing a recent translation of the same CQL for the same model and
+   * translator options when there is one. The returned ELM may be shared and must not be modified.
+   */
   public ElmJson getElmJson(final String cql, String measureModel, String accessToken) {
     try {
       URI uri = getElmJsonURI(measureModel);
-      HttpEntity<String> cqlEntity = getCqlHttpEntity(cql, accessToken, null, null);
-      return elmTranslatorRestTemplate
-          .exchange(uri, HttpMethod.PUT, cqlEntity, ElmJson.class)
-          .getBody();
+      // the translator URI carries the model specific service and its translation options
+      String key =
+          measureModel + ":" + uri + ":" + ContentHashUtil.sha256(StringUtils.defaultString(cql));
+      return elmTranslationCache.get(
+          key,
+          () -> {
+            HttpEntity<String> cqlEntity = getCqlHttpEntity(cql, accessToken, null, null);
+            return elmTranslatorRestTemplate
+                .exchange(uri, HttpMethod.PUT, cqlEntity, ElmJson.class)
+                .getBody();
+          });
+    } catch (DownstreamUnavailableException ex) {
+      throw ex;
     } catch (Exception ex) {
       log.error("An error occurred calling the CQL to ELM translation service", ex);
       throw new CqlElmTranslationServiceException(
@@ -46,9 +62,7 @@ public class ElmTranslatorClient {
       return true;
     }
     try {
-      ObjectMapper mapper = new ObjectMapper();
-      JsonNode jsonNode = mapper.readTree(elmJson.getJson());
-      return jsonNode.has("errorExceptions") && jsonNode.get("errorExceptions").size() > 0;
+      return elmIndexCache.get(Objects.requireNonNull(elmJson.getJson())).hasErrors();
     } catch (Exception ex) {
       log.error("An error occurred parsing the response from the CQL-ELM translation service", ex);
       throw new CqlElmTranslationServiceException(
@@ -2,6 +2,7 @@ package cms.gov.madie.measure.services;
 
 import cms.gov.madie.measure.config.FhirServicesConfig;
 import cms.gov.madie.measure.exceptions.UnsupportedTypeException;
+import cms.gov.madie.measure.utils.DownstreamPayloadUtil;
 import gov.cms.madie.models.common.BundleType;
 import gov.cms.madie.models.common.ModelType;
 import gov.cms.madie.models.dto.ExportDTO;
@@ -41,7 +42,8 @@ public class FhirServicesClient {
 
     HttpHeaders headers = new HttpHeaders();
     headers.set(HttpHeaders.AUTHORIZATION, accessToken);
-    HttpEntity<Measure> measureEntity = new HttpEntity<>(measure, headers);
+    HttpEntity<Measure> measureEntity =
+        new HttpEntity<>(DownstreamPayloadUtil.withoutTestCases(measure), headers);
     return fhirServicesRestTemplate
         .exchange(uri, HttpMethod.PUT, measureEntity, String.class)
         .getBody();
@@ -56,7 +58,8 @@ public class FhirServicesClient {
     headers.set(HttpHeaders.AUTHORIZATION, accessToken);
     headers.set(HttpHeaders.ACCEPT, MediaType.ALL_VALUE);
     headers.set(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
-    HttpEntity<Measure> measureEntity = new HttpEntity<>(measure, headers);
+    HttpEntity<Measure> measureEntity =
+        new HttpEntity<>(DownstreamPayloadUtil.withoutTestCases(measure), headers);
     return fhirServicesRestTemplate
         .exchange(uri, HttpMethod.PUT, measureEntity, byte[].class)
         .getBody();
@@ -97,7 +100,7 @@ public class FhirServicesClient {
 
     ExportDTO dto =
         ExportDTO.builder()
-            .measure(measure)
+            .measure(DownstreamPayloadUtil.withExportedTestCases(measure, testCaseId))
             .bundleType(BundleType.valueOf(bundleType))
             .testCaseIds(testCaseId)
             .build();
@@ -26,6 +26,7 @@ import gov.cms.madie.models.measure.TestCaseStratificationValue;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.bson.Document;
 import org.bson.types.ObjectId;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
@@ -56,6 +57,7 @@ public class GroupService {
     if (measure == null) {
       throw new ResourceNotFoundException("Measure", measureId);
     }
+    Document snapshot = measureRepository.snapshot(measure);
     if (!measure.getMeasureMetaData().isDraft()) {
       throw new InvalidDraftStatusException(measure.getId());
     }
@@ -109,7 +111,7 @@ public class GroupService {
 
     measure.setLastModifiedBy(username);
     measure.setLastModifiedAt(Instant.now());
-    measureRepository.save(measure);
+    measureRepository.saveChanges(snapshot, measure);
     return group;
   }
 
@@ -164,6 +166,7 @@ public class GroupService {
     if (measure == null) {
       throw new ResourceNotFoundException("Measure", measureId);
     }
+    Document snapshot = measureRepository.snapshot(measure);
 
     if (!measure.getMeasureMetaData().isDraft()) {
       throw new InvalidDraftStatusException(measure.getId());
@@ -191,7 +194,7 @@ public class GroupService {
         measure.getId());
     List<TestCase> testCases = measure.getTestCases();
     removeGroupFromTestCases(groupId, testCases);
-    return measureRepository.save(measure);
+    return measureRepository.saveChanges(snapshot, measure);
   }
 
   public void updateTestCaseGroupWithMeasureGroup(
@@ -471,10 +474,11 @@ public class GroupService {
 
   public Stratification createOrUpdateStratification(
       String groupId, String measureId, Stratification stratification, String username) {
-    Measure measure = measureRepository.findById(measureId).orElse(null);
+    Measure measure = measureRepository.findWithoutTestCasesById(measureId).orElse(null);
     if (measure == null) {
       throw new ResourceNotFoundException("Measure", measureId);
     }
+    Document snapshot = measureRepository.snapshot(measure);
     if (!measure.getMeasureMetaData().isDraft()) {
       throw new InvalidDraftStatusException(measure.getId());
     }
@@ -515,7 +519,7 @@ public class GroupService {
 
     measure.setLastModifiedBy(username);
     measure.setLastModifiedAt(Instant.now());
-    measureRepository.save(measure);
+    measureRepository.saveChanges(snapshot, measure);
     return stratification;
   }
 
@@ -525,10 +529,11 @@ public class GroupService {
     if (measureId == null || measureId.trim().isEmpty()) {
       throw new InvalidIdException("Measure Id cannot be null");
     }
-    Measure measure = measureService.findMeasureById(measureId);
+    Measure measure = measureRepository.findGroupsById(measureId).orElse(null);
     if (measure == null) {
       throw new ResourceNotFoundException("Measure", measureId);
     }
+    Document snapshot = measureRepository.snapshot(measure);
 
     if (!measure.getMeasureMetaData().isDraft()) {
       throw new InvalidDraftStatusException(measure.getId());
@@ -563,6 +568,10 @@ public class GroupService {
         username,
         groupId,
         measure.getId());
-    return measureRepository.save(measure);
+    measureRepository.saveChanges(snapshot, measure);
+    // the measure was read with its groups only, the client is given the full measure
+    return measureRepository
+        .findById(measureId)
+        .orElseThrow(() -> new ResourceNotFoundException("Measure", measureId));
   }
 }
@@ -0,0 +1,43 @@
+package cms.gov.madie.measure.services;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Sends request bodies gzip compressed. Bodies smaller than the minimum size, and bodies that are
+ * already encoded, are sent as they are. Only for downstream services that decode gzip request
+ * bodies.
+ */
+public class GzipRequestInterceptor implements ClientHttpRequestInterceptor {
+
+  static final int MIN_SIZE = 8 * 1024;
+  private static final String GZIP = "gzip";
+
+  @Override
+  public ClientHttpResponse intercept(
+      HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+    HttpHeaders headers = request.getHeaders();
+    if (body.length < MIN_SIZE || headers.containsKey(HttpHeaders.CONTENT_ENCODING)) {
+      return execution.execute(request, body);
+    }
+    byte[] compressed = gzip(body);
+    headers.set(HttpHeaders.CONTENT_ENCODING, GZIP);
+    headers.setContentLength(compressed.length);
+    return execution.execute(request, compressed);
+  }
+
+  private byte[] gzip(byte[] body) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      gzip.write(body);
+    }
+    return out.toByteArray();
+  }
+}
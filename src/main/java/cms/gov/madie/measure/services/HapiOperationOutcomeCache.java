@@ -0,0 +1,130 @@
+package cms.gov.madie.measure.services;
+
+import cms.gov.madie.measure.utils.BoundedCache;
+import cms.gov.madie.measure.utils.ContentHashUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import gov.cms.madie.models.common.ModelType;
+import gov.cms.madie.models.measure.HapiOperationOutcome;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Remembers the outcome of validating a test case bundle against the FHIR service, so a bundle
+ * that has not changed is not sent for validation again. Entries are keyed by model type and a
+ * hash of the bundle JSON with insignificant whitespace and property order removed. The cache
+ * holds a bounded number of entries, each for a limited time, and is cleared whenever the FHIR
+ * service reports a different validator version. The version is only seen on a cache miss, so after
+ * an upgrade of the validator a cached outcome can still be returned for up to the time to live.
+ * Callers get their own copy of the cached outcome.
+ */
+@Slf4j
+@Service
+public class HapiOperationOutcomeCache {
+
+  private final FhirServicesClient fhirServicesClient;
+  private final String validatorVersionHeader;
+  private final ObjectMapper canonicalMapper =
+      JsonMapper.builder().enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS).build();
+  private final ObjectMapper copyMapper = new ObjectMapper();
+  private final BoundedCache<String, HapiOperationOutcome> outcomes;
+  private String validatorVersion;
+
+  public HapiOperationOutcomeCache(
+      FhirServicesClient fhirServicesClient,
+      @Value("${madie.fhir.service.hapi-fhir.validation.cache.max-entries}") int maxEntries,
+      @Value("${madie.fhir.service.hapi-fhir.validation.cache.ttl-minutes}") long ttlMinutes,
+      @Value("${madie.fhir.service.hapi-fhir.validation.cache.validator-version-header}")
+          String validatorVersionHeader) {
+    this(
+        fhirServicesClient,
+        maxEntries,
+        Duration.ofMinutes(ttlMinutes),
+        validatorVersionHeader,
+        Clock.systemUTC());
+  }
+
+  HapiOperationOutcomeCache(
+      FhirServicesClient fhirServicesClient,
+      int maxEntries,
+      Duration timeToLive,
+      String validatorVersionHeader,
+      Clock clock) {
+    this.fhirServicesClient = fhirServicesClient;
+    this.validatorVersionHeader = validatorVersionHeader;
+    this.outcomes = new BoundedCache<>(maxEntries, timeToLive, clock);
+  }
+
+  /**
+   * Returns the cached outcome for the bundle if there is one, otherwise validates the bundle with
+   * the FHIR service and caches the outcome. Errors from the FHIR service are not cached.
+   */
+  public HapiOperationOutcome validate(String bundleJson, ModelType modelType, String accessToken) {
+    String key = key(bundleJson, modelType);
+    HapiOperationOutcome cached = outcomes.get(key);
+    if (cached != null) {
+      return copy(cached);
+    }
+    ResponseEntity<HapiOperationOutcome> response =
+        fhirServicesClient.validateBundle(bundleJson, modelType, accessToken);
+    HapiOperationOutcome outcome = response.getBody();
+    if (outcome != null) {
+      put(key, outcome, response.getHeaders().getFirst(validatorVersionHeader));
+    }
+    return outcome;
+  }
+
+  public void clear() {
+    outcomes.clear();
+  }
+
+  int size() {
+    return outcomes.size();
+  }
+
+  private synchronized void put(String key, HapiOperationOutcome outcome, String version) {
+    if (version != null && !Objects.equals(version, validatorVersion)) {
+      if (validatorVersion != null) {
+        log.info(
+            "FHIR validator version changed from [{}] to [{}], clearing [{}] cached outcomes",
+            validatorVersion,
+            version,
+            outcomes.size());
+        outcomes.clear();
+      }
+      validatorVersion = version;
+    }
+    outcomes.put(key, copy(outcome));
+  }
+
+  // the outcome response is a tree of maps and lists, so it is copied through JSON
+  private HapiOperationOutcome copy(HapiOperationOutcome outcome) {
+    try {
+      return copyMapper.treeToValue(copyMapper.valueToTree(outcome), HapiOperationOutcome.class);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Validation outcome could not be copied", e);
+    }
+  }
+
+  private String key(String bundleJson, ModelType modelType) {
+    return modelType + ":" + ContentHashUtil.sha256(normalize(bundleJson));
+  }
+
+  private String normalize(String bundleJson) {
+    try {
+      Object bundle = canonicalMapper.readValue(bundleJson, Object.class);
+      return canonicalMapper.writeValueAsString(bundle);
+    } catch (JsonProcessingException e) {
+      // not valid JSON, the FHIR service will say so; cache it by its exact content
+      return bundleJson;
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package cms.gov.madie.measure.services;
+
+import cms.gov.madie.measure.dto.JobResultChunk;
+import cms.gov.madie.measure.repositories.JobRepository;
+import cms.gov.madie.measure.repositories.JobResultChunkRepository;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+
+/**
+ * Given to a {@link JobHandler} while it runs a job, to record progress and results. The access
+ * token of the user who submitted or resumed the job is only ever held in memory. Once a downstream
+ * service rejects that token, no further step is recorded and the job is stopped as interrupted,
+ * to be resumed with a fresh token.
+ */
+public class JobContext {
+
+  private final String jobId;
+  private final String runBy;
+  @Getter private final String username;
+  @Getter private final String accessToken;
+  private final JobRepository jobRepository;
+  private final JobResultChunkRepository jobResultChunkRepository;
+  private final RejectedAccessTokens rejectedAccessTokens;
+  @Getter private volatile boolean stopped;
+
+  JobContext(
+      String jobId,
+      String runBy,
+      String username,
+      String accessToken,
+      JobRepository jobRepository,
+      JobResultChunkRepository jobResultChunkRepository,
+      RejectedAccessTokens rejectedAccessTokens) {
+    this.jobId = jobId;
+    this.runBy = runBy;
+    this.username = username;
+    this.accessToken = accessToken;
+    this.jobRepository = jobRepository;
+    this.jobResultChunkRepository = jobResultChunkRepository;
+    this.rejectedAccessTokens = rejectedAccessTokens;
+  }
+
+  /** @return false if the job has stopped, because it was cancelled or marked interrupted */
+  public boolean setTotal(long total) {
+    return record(jobRepository.recordTotal(jobId, runBy, total));
+  }
+
+  /**
+   * Stores the results of a step as the next result chunk, adds to the progress counters and moves
+   * the checkpoint the job resumes from past the step.
+   *
+   * @return false if the job has stopped, because it was cancelled or marked interrupted, or its
+   *     access token was rejected
+   */
+  public boolean completeStep(List<?> results, long processed, long failed, String checkpoint) {
+    // the step is not recorded, as its results are failures caused by the rejected token
+    if (stopped || interruptIfAccessTokenRejected()) {
+      return false;
+    }
+    if (!results.isEmpty()) {
+      OptionalInt sequence = jobRepository.nextResultChunk(jobId, runBy);
+      if (sequence.isEmpty()) {
+        return record(false);
+      }
+      jobResultChunkRepository.insert(
+          JobResultChunk.builder()
+              .jobId(jobId)
+              .sequence(sequence.getAsInt())
+              .results(new ArrayList<>(results))
+              .build());
+    }
+    return record(
+        jobRepository.recordProgress(jobId, runBy, processed, failed, checkpoint, Instant.now()));
+  }
+
+  /**
+   * Stops the job as interrupted if a downstream service rejected its access token.
+   *
+   * @return whether the token was rejected
+   */
+  boolean interruptIfAccessTokenRejected() {
+    if (!rejectedAccessTokens.isRejected(accessToken)) {
+      return false;
+    }
+    jobRepository.interrupt(jobId, runBy);
+    stopped = true;
+    return true;
+  }
+
+  private boolean record(boolean running) {
+    if (!running) {
+      stopped = true;
+    }
+    return running;
+  }
+}
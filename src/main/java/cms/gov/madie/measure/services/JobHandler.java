@@ -0,0 +1,21 @@
+package cms.gov.madie.measure.services;
+
+import cms.gov.madie.measure.dto.Job;
+import cms.gov.madie.measure.dto.JobStatus;
+
+/** Runs one type of background {@link Job} for the {@link JobService}. */
+public interface JobHandler {
+
+  /** The job type, as given when a job is submitted. */
+  String getType();
+
+  /**
+   * Runs the job in steps, recording each one with {@link JobContext#completeStep}. A resumed job
+   * carries the checkpoint of the last step that was recorded, and the handler continues after it.
+   * A step that was running when the job was interrupted is run again, so steps must be safe to
+   * repeat. The handler should return as soon as recording a step reports that the job stopped.
+   *
+   * @return the status the job finished with
+   */
+  JobStatus run(Job job, JobContext context) throws Exception;
+}
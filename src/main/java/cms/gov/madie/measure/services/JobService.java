@@ -0,0 +1,275 @@
+package cms.gov.madie.measure.services;
+
+import cms.gov.madie.measure.dto.Job;
+import cms.gov.madie.measure.dto.JobResultChunk;
+import cms.gov.madie.measure.dto.JobStatus;
+import cms.gov.madie.measure.exceptions.InvalidRequestException;
+import cms.gov.madie.measure.exceptions.InvalidResourceStateException;
+import cms.gov.madie.measure.exceptions.ResourceNotFoundException;
+import cms.gov.madie.measure.exceptions.UnauthorizedException;
+import cms.gov.madie.measure.repositories.JobRepository;
+import cms.gov.madie.measure.repositories.JobResultChunkRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Runs long operations as background jobs stored in Mongo, so the request that submits one returns
+ * at once and the caller polls the job, or follows its progress as server-sent events. Jobs run on
+ * a pool of bounded size. The instance running a job renews its heartbeat, and a job whose
+ * instance stopped is marked interrupted by whichever instance notices first. An interrupted job
+ * is resumed from its checkpoint when its submitter asks for it, with a fresh access token, since
+ * tokens are never stored. A job whose access token is rejected by a downstream service, most
+ * likely because it expired while the job ran, is interrupted in the same way rather than failed.
+ */
+@Slf4j
+@Service
+public class JobService {
+
+  private final JobRepository jobRepository;
+  private final JobResultChunkRepository jobResultChunkRepository;
+  private final RejectedAccessTokens rejectedAccessTokens;
+  private final Map<String, JobHandler> handlers;
+  private final ExecutorService executorService;
+  // heartbeats get a thread of their own, so that slow progress clients cannot delay them
+  private final ScheduledExecutorService heartbeatScheduler;
+  private final ScheduledExecutorService progressScheduler;
+  private final Duration heartbeatTimeout;
+  private final long progressIntervalMillis;
+  private final String instanceId = UUID.randomUUID().toString();
+  private final Set<String> heldJobIds = ConcurrentHashMap.newKeySet();
+
+  public JobService(
+      JobRepository jobRepository,
+      JobResultChunkRepository jobResultChunkRepository,
+      RejectedAccessTokens rejectedAccessTokens,
+      List<JobHandler> handlers,
+      @Value("${madie.jobs.concurrency}") int concurrency,
+      @Value("${madie.jobs.heartbeat-timeout-seconds}") long heartbeatTimeoutSeconds,
+      @Value("${madie.jobs.progress-interval-ms}") long progressIntervalMillis) {
+    this.jobRepository = jobRepository;
+    this.jobResultChunkRepository = jobResultChunkRepository;
+    this.rejectedAccessTokens = rejectedAccessTokens;
+    this.handlers =
+        handlers.stream().collect(Collectors.toMap(JobHandler::getType, Function.identity()));
+    this.executorService =
+        Executors.newFixedThreadPool(concurrency, new CustomizableThreadFactory("job-"));
+    this.heartbeatScheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            new CustomizableThreadFactory("job-heartbeat-"));
+    this.progressScheduler =
+        Executors.newScheduledThreadPool(2, new CustomizableThreadFactory("job-progress-"));
+    this.heartbeatTimeout = Duration.ofSeconds(heartbeatTimeoutSeconds);
+    this.progressIntervalMillis = progressIntervalMillis;
+    long heartbeatMillis = heartbeatTimeout.toMillis() / 4;
+    heartbeatScheduler.scheduleAtFixedRate(
+        this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+  }
+
+  public Job submit(
+      String type, Map<String, Object> parameters, String username, String accessToken) {
+    if (!handlers.containsKey(type)) {
+      throw new InvalidRequestException("Unknown job type " + type);
+    }
+    Job job =
+        jobRepository.insert(
+            Job.builder()
+                .type(type)
+                .status(JobStatus.PENDING)
+                .parameters(parameters)
+                .submittedBy(username)
+                .submittedAt(Instant.now())
+                .runBy(instanceId)
+                .heartbeatAt(Instant.now())
+                .build());
+    log.info("User [{}] submitted job [{}] of type [{}]", username, job.getId(), type);
+    start(job.getId(), JobStatus.PENDING, username, accessToken);
+    return job;
+  }
+
+  public Job getJob(String jobId, String username) {
+    Job job =
+        jobRepository
+            .findById(jobId)
+            .orElseThrow(() -> new ResourceNotFoundException("Job", jobId));
+    if (!StringUtils.equalsIgnoreCase(job.getSubmittedBy(), username)) {
+      throw new UnauthorizedException("Job", jobId, username);
+    }
+    return job;
+  }
+
+  public JobResultChunk getResults(String jobId, int sequence, String username) {
+    getJob(jobId, username);
+    return jobResultChunkRepository
+        .findByJobIdAndSequence(jobId, sequence)
+        .orElseThrow(
+            () -> new ResourceNotFoundException("Job result chunk", jobId + "/" + sequence));
+  }
+
+  public Job cancel(String jobId, String username) {
+    getJob(jobId, username);
+    if (!jobRepository.cancel(jobId, Instant.now())) {
+      throw new InvalidResourceStateException("Job", jobId, "since it has already finished.");
+    }
+    log.info("User [{}] cancelled job [{}]", username, jobId);
+    return getJob(jobId, username);
+  }
+
+  public Job resume(String jobId, String username, String accessToken) {
+    Job job = getJob(jobId, username);
+    if (job.getStatus() != JobStatus.INTERRUPTED) {
+      throw new InvalidResourceStateException("Job", jobId, "since it was not interrupted.");
+    }
+    log.info("User [{}] resumed job [{}] from [{}]", username, jobId, job.getCheckpoint());
+    start(jobId, JobStatus.INTERRUPTED, username, accessToken);
+    return job;
+  }
+
+  /**
+   * Sends the job as a progress event at a fixed interval, until the job finishes. Sending blocks
+   * on the client, so it is only ever done on the progress threads.
+   */
+  public SseEmitter streamProgress(String jobId, String username) {
+    getJob(jobId, username);
+    SseEmitter emitter = new SseEmitter(0L);
+    AtomicReference<ScheduledFuture<?>> polling = new AtomicReference<>();
+    Runnable stop =
+        () -> {
+          ScheduledFuture<?> future = polling.get();
+          if (future != null) {
+            future.cancel(false);
+          }
+        };
+    emitter.onCompletion(stop);
+    emitter.onError(error -> stop.run());
+    polling.set(
+        progressScheduler.scheduleWithFixedDelay(
+            () -> {
+              try {
+                Optional<Job> job = jobRepository.findById(jobId);
+                if (job.isEmpty()) {
+                  emitter.complete();
+                  stop.run();
+                  return;
+                }
+                emitter.send(SseEmitter.event().name("progress").data(job.get()));
+                if (job.get().getStatus().isFinished()) {
+                  emitter.complete();
+                  stop.run();
+                }
+              } catch (Exception e) {
+                // most likely the client went away
+                log.debug("Stopped sending progress of job [{}]", jobId, e);
+                emitter.completeWithError(e);
+                stop.run();
+              }
+            },
+            0,
+            progressIntervalMillis,
+            TimeUnit.MILLISECONDS));
+    return emitter;
+  }
+
+  @Scheduled(fixedDelayString = "${madie.jobs.sweep-interval-ms}")
+  public void markInterruptedJobs() {
+    long interrupted = jobRepository.markInterrupted(Instant.now().minus(heartbeatTimeout));
+    if (interrupted > 0) {
+      log.warn("Marked [{}] jobs whose heartbeat lapsed as interrupted", interrupted);
+    }
+  }
+
+  private void start(String jobId, JobStatus fromStatus, String username, String accessToken) {
+    heldJobIds.add(jobId);
+    executorService.execute(() -> run(jobId, fromStatus, username, accessToken));
+  }
+
+  void run(String jobId, JobStatus fromStatus, String username, String accessToken) {
+    try {
+      Optional<Job> claimed =
+          jobRepository.claim(jobId, instanceId, List.of(fromStatus), Instant.now());
+      if (claimed.isEmpty()) {
+        log.info("Job [{}] was cancelled, or started elsewhere, before it could start", jobId);
+        return;
+      }
+      run(claimed.get(), username, accessToken);
+    } finally {
+      heldJobIds.remove(jobId);
+    }
+  }
+
+  private void run(Job job, String username, String accessToken) {
+    String jobId = job.getId();
+    JobContext context =
+        new JobContext(
+            jobId,
+            instanceId,
+            username,
+            accessToken,
+            jobRepository,
+            jobResultChunkRepository,
+            rejectedAccessTokens);
+    try {
+      JobStatus status = handlers.get(job.getType()).run(job, context);
+      if (context.isStopped()) {
+        log.info("Job [{}] stopped after it was cancelled or interrupted", jobId);
+      } else {
+        jobRepository.finish(jobId, instanceId, status, null, Instant.now());
+        log.info("Job [{}] of type [{}] finished with status [{}]", jobId, job.getType(), status);
+      }
+    } catch (Exception e) {
+      if (context.interruptIfAccessTokenRejected()) {
+        log.warn("Job [{}] interrupted, a downstream service rejected its access token", jobId);
+        return;
+      }
+      log.error("Job [{}] of type [{}] failed", jobId, job.getType(), e);
+      jobRepository.finish(jobId, instanceId, JobStatus.FAILED, e.getMessage(), Instant.now());
+    }
+  }
+
+  // one write renews every job this instance has queued or running
+  private void heartbeat() {
+    if (heldJobIds.isEmpty()) {
+      return;
+    }
+    try {
+      jobRepository.heartbeat(List.copyOf(heldJobIds), instanceId, Instant.now());
+    } catch (RuntimeException e) {
+      log.warn("Unable to renew the heartbeat of the jobs of this instance", e);
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    // mark the jobs first, so that any write the interrupted handlers still make is refused
+    try {
+      jobRepository.markInterrupted(instanceId);
+    } catch (RuntimeException e) {
+      log.warn("Unable to mark the jobs of this instance as interrupted", e);
+    }
+    executorService.shutdownNow();
+    heartbeatScheduler.shutdownNow();
+    progressScheduler.shutdownNow();
+  }
+}
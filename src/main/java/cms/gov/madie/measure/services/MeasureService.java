@@ -1,10 +1,13 @@
 package cms.gov.madie.measure.services;
 
+import cms.gov.madie.measure.dto.MeasureListCursor;
 import cms.gov.madie.measure.dto.MeasureListDTO;
+import cms.gov.madie.measure.dto.MeasureListWindow;
 import cms.gov.madie.measure.dto.MeasureSearchCriteria;
 import cms.gov.madie.measure.exceptions.*;
 import cms.gov.madie.measure.repositories.MeasureRepository;
 import cms.gov.madie.measure.repositories.MeasureSetRepository;
+import cms.gov.madie.measure.repositories.TestCaseRepository;
 import cms.gov.madie.measure.resources.DuplicateKeyException;
 import cms.gov.madie.measure.utils.MeasureUtil;
 import gov.cms.madie.models.access.AclOperation;
@@ -18,6 +21,7 @@ import gov.cms.madie.models.measure.*;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.bson.Document;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -34,6 +38,9 @@ import java.util.stream.Collectors;
 @Service
 @AllArgsConstructor
 public class MeasureService {
+  // the most measures a window of the measure list is given, larger limits are cut to it
+  static final int MAX_SCROLL_LIMIT = 100;
+
   private final MeasureRepository measureRepository;
   private final MeasureSetRepository measureSetRepository;
   private final ElmTranslatorClient elmTranslatorClient;
@@ -43,6 +50,7 @@ public class MeasureService {
   private final CqlTemplateConfigService cqlTemplateConfigService;
 
   private final TerminologyValidationService terminologyValidationService;
+  private final TestCaseRepository testCaseRepository;
 
   public void verifyAuthorizationByMeasureSetId(
       String username, String measureSetId, boolean ownerOnly) {
@@ -118,6 +126,11 @@ public class MeasureService {
         .orElse(null);
   }
 
+  /** Finds the measure without its ELM, groups or test cases. */
+  public Measure findMeasureMetaDataById(final String id) {
+    return measureRepository.findMetaDataById(id).orElse(null);
+  }
+
   public Measure createMeasure(
       Measure measure, final String username, String accessToken, boolean addDefaultCQL) {
     log.info("User [{}] is attempting to create a new measure", username);
@@ -199,6 +212,7 @@ public class MeasureService {
       final String username,
       final Measure updatingMeasure,
       final String accessToken) {
+    final Document snapshot = measureRepository.snapshot(existingMeasure);
     if (measureUtil.isCqlLibraryNameChanged(updatingMeasure, existingMeasure)) {
       checkDuplicateCqlLibraryName(updatingMeasure.getCqlLibraryName());
     }
@@ -263,6 +277,8 @@ public class MeasureService {
       outputMeasure.setErrors(existingMeasure.getErrors());
     }
 
+    // test cases are persisted on their own, a measure update must not overwrite them
+    outputMeasure.setTestCases(null);
     // clear testcase groups for qdm when scoring or patient basis is changed.
     // for QDM, scoring and patient basis are present outside the group
     // therefor we need to clear testcase groups while updating measure
@@ -294,7 +310,11 @@ public class MeasureService {
     // prevent users from overwriting versionId and measureSetId
     outputMeasure.setVersionId(existingMeasure.getVersionId());
     outputMeasure.setMeasureSetId(existingMeasure.getMeasureSetId());
-    return measureRepository.save(outputMeasure);
+    Measure savedMeasure = measureRepository.saveChanges(snapshot, outputMeasure);
+    if (savedMeasure != null && savedMeasure.getTestCases() == null) {
+      savedMeasure.setTestCases(existingMeasure.getTestCases());
+    }
+    return savedMeasure;
   }
 
   public Measure deactivateMeasure(final String id, final String username) {
@@ -315,6 +335,7 @@ public class MeasureService {
       throw new ResourceNotFoundException("Measure not found during delete action.");
     }
 
+    final Document snapshot = measureRepository.snapshot(existingMeasure);
     existingMeasure.setActive(false);
     existingMeasure.setLastModifiedBy(username);
     existingMeasure.setLastModifiedAt(Instant.now());
@@ -324,7 +345,7 @@ public class MeasureService {
     // prevent users from overwriting versionId and measureSetId
     existingMeasure.setVersionId(existingMeasure.getVersionId());
     existingMeasure.setMeasureSetId(existingMeasure.getMeasureSetId());
-    Measure saveMeasure = measureRepository.save(existingMeasure);
+    Measure saveMeasure = measureRepository.saveChanges(snapshot, existingMeasure);
     actionLogService.logAction(id, Measure.class, ActionType.DELETED, username);
     return saveMeasure;
   }
@@ -343,8 +364,7 @@ public class MeasureService {
 
   public void checkDuplicateCqlLibraryName(String cqlLibraryName) {
     if (StringUtils.isNotEmpty(cqlLibraryName)) {
-      List<Measure> measureList = measureRepository.findAllByCqlLibraryName(cqlLibraryName);
-      if (!measureList.isEmpty()) {
+      if (measureRepository.existsByCqlLibraryNameAndActive(cqlLibraryName, true)) {
         throw new DuplicateKeyException(
             "cqlLibraryName", "CQL library with given name already exists.");
       }
@@ -497,6 +517,29 @@ public class MeasureService {
         username, pageReq, searchCriteria, filterByCurrentUser);
   }
 
+  /**
+   * @param limit number of measures in the window, at most {@value #MAX_SCROLL_LIMIT}
+   * @param cursor token handed out with the previous window, blank for the first window
+   * @throws InvalidRequestException if the limit is below 1 or the cursor is not one handed out
+   *     with a window
+   */
+  public MeasureListWindow scrollMeasuresByCriteria(
+      MeasureSearchCriteria searchCriteria,
+      boolean filterByCurrentUser,
+      int limit,
+      String cursor,
+      String username) {
+    if (limit < 1) {
+      throw new InvalidRequestException("Limit must be at least 1, was " + limit);
+    }
+    return measureRepository.scrollMeasuresByCriteria(
+        username,
+        Math.min(limit, MAX_SCROLL_LIMIT),
+        MeasureListCursor.decode(cursor),
+        searchCriteria,
+        filterByCurrentUser);
+  }
+
   protected void updateReferenceId(MeasureMetaData metaData) {
     if (metaData != null && !CollectionUtils.isEmpty(metaData.getReferences())) {
       List<Reference> references =
@@ -557,6 +600,8 @@ public class MeasureService {
       String deletedMeasureIds =
           versionedMeasures.stream().map(Measure::getId).collect(Collectors.joining(","));
       measureRepository.deleteAll(versionedMeasures);
+      testCaseRepository.deleteAllByMeasureIdIn(
+          versionedMeasures.stream().map(Measure::getId).toList());
       log.info("Versioned Measure IDs [{}] are deleted.", deletedMeasureIds);
     }
   }
@@ -647,6 +692,7 @@ public class MeasureService {
     MeasureSet measureSet = qiCoreMeasure.getMeasureSet();
     measureSet.setCmsId(qdmMeasure.getMeasureSet().getCmsId());
     measureSetRepository.save(measureSet);
+    measureSetService.evictMeasureSet(measureSet.getMeasureSetId());
     log.info(
         "User [{}] successfully associated the measures [{}], [{}] with CMS ID [{}]",
         username,
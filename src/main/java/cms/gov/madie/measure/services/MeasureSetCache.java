@@ -0,0 +1,85 @@
+package cms.gov.madie.measure.services;
+
+import cms.gov.madie.measure.utils.BoundedCache;
+import gov.cms.madie.models.access.AclSpecification;
+import gov.cms.madie.models.measure.MeasureSet;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.stream.Collectors;
+
+/**
+ * Recently read measure sets by measureSetId, so the owner and ACL checks made by nearly every
+ * request do not each query Mongo. Every write in {@link MeasureSetService} evicts the set it
+ * changed. Entries also expire after a short time, which bounds how long a change made by another
+ * instance of the service can go unseen. Callers get their own copy of the cached set.
+ *
+ * <p>A set read from Mongo is put with the {@link #generation()} taken before the read, so a read
+ * that raced a write is not cached over the write's eviction.
+ */
+@Service
+public class MeasureSetCache {
+
+  private final BoundedCache<String, MeasureSet> measureSets;
+
+  public MeasureSetCache(
+      @Value("${madie.measure-set.cache.max-entries}") int maxEntries,
+      @Value("${madie.measure-set.cache.ttl-seconds}") long ttlSeconds) {
+    this(maxEntries, Duration.ofSeconds(ttlSeconds), Clock.systemUTC());
+  }
+
+  MeasureSetCache(int maxEntries, Duration timeToLive, Clock clock) {
+    this.measureSets = new BoundedCache<>(maxEntries, timeToLive, clock);
+  }
+
+  /** Returns a copy of the cached measure set, or null if it is not cached. */
+  public MeasureSet get(String measureSetId) {
+    MeasureSet cached = measureSets.get(measureSetId);
+    return cached == null ? null : copy(cached);
+  }
+
+  public void put(MeasureSet measureSet) {
+    measureSets.put(measureSet.getMeasureSetId(), copy(measureSet));
+  }
+
+  /** Puts a copy of the measure set, unless a set was evicted since the given generation. */
+  public void put(MeasureSet measureSet, long generation) {
+    measureSets.put(measureSet.getMeasureSetId(), copy(measureSet), generation);
+  }
+
+  public long generation() {
+    return measureSets.generation();
+  }
+
+  public void evict(String measureSetId) {
+    measureSets.evict(measureSetId);
+  }
+
+  public void clear() {
+    measureSets.clear();
+  }
+
+  int size() {
+    return measureSets.size();
+  }
+
+  // the ACLs are copied too, sharing and revoking edit them in place
+  private MeasureSet copy(MeasureSet measureSet) {
+    if (measureSet.getAcls() == null) {
+      return measureSet.toBuilder().build();
+    }
+    return measureSet.toBuilder()
+        .acls(measureSet.getAcls().stream().map(this::copy).collect(Collectors.toList()))
+        .build();
+  }
+
+  private AclSpecification copy(AclSpecification acl) {
+    AclSpecification copy = new AclSpecification();
+    copy.setUserId(acl.getUserId());
+    copy.setRoles(acl.getRoles() == null ? null : new HashSet<>(acl.getRoles()));
+    return copy;
+  }
+}
@@ -1,10 +1,13 @@
 package cms.gov.madie.measure.services;
 
 import cms.gov.madie.measure.dto.MeasureListDTO;
+import cms.gov.madie.measure.dto.MeasureSetAccess;
 import cms.gov.madie.measure.exceptions.*;
 import cms.gov.madie.measure.repositories.GeneratorRepository;
 import cms.gov.madie.measure.repositories.MeasureRepository;
+import cms.gov.madie.measure.repositories.MeasureSetAccessRepository;
 import cms.gov.madie.measure.repositories.MeasureSetRepository;
+import com.mongodb.bulk.BulkWriteResult;
 import gov.cms.madie.models.access.AclOperation;
 import gov.cms.madie.models.access.AclSpecification;
 import gov.cms.madie.models.common.ActionType;
@@ -13,16 +16,28 @@ import gov.cms.madie.models.measure.MeasureSet;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.BulkOperations;
 import org.springframework.data.mongodb.core.aggregation.Aggregation;
 import org.springframework.data.mongodb.core.aggregation.LookupOperation;
 import org.springframework.data.mongodb.core.aggregation.MatchOperation;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
 import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
@@ -31,12 +46,16 @@ import static org.springframework.data.mongodb.core.aggregation.Aggregation.newA
 @Service
 @RequiredArgsConstructor
 public class MeasureSetService {
+  static final int ACCESS_WRITE_ATTEMPTS = 3;
+  static final int ACCESS_REPAIR_BATCH_SIZE = 500;
 
   private final MeasureRepository measureRepository;
   private final MeasureSetRepository measureSetRepository;
   private final GeneratorRepository generatorRepository;
   private final ActionLogService actionLogService;
   private final MongoTemplate mongoTemplate;
+  private final MeasureSetCache measureSetCache;
+  private final MeasureSetAccessRepository measureSetAccessRepository;
 
   public void createMeasureSet(
       final String harpId, final String measureId, final String savedMeasureSetId, String cmsId) {
@@ -50,6 +69,8 @@ public class MeasureSetService {
               .cmsId((cmsId != null && !cmsId.equals("0")) ? Integer.parseInt(cmsId) : null)
               .build();
       MeasureSet savedMeasureSet = measureSetRepository.save(measureSet);
+      measureSetCache.evict(savedMeasureSetId);
+      saveMeasureSetAccess(measureSet);
       log.info(
           "Measure set [{}] is successfully created for the measure [{}]",
           savedMeasureSet.getId(),
@@ -110,6 +131,8 @@ public class MeasureSetService {
                 });
       }
       MeasureSet updatedMeasureSet = measureSetRepository.save(measureSet);
+      measureSetCache.evict(measureSetId);
+      saveMeasureSetAccess(measureSet);
       log.info("ACL updated for Measure set [{}]", updatedMeasureSet.getId());
       return updatedMeasureSet;
     } else {
@@ -128,6 +151,8 @@ public class MeasureSetService {
       MeasureSet measureSet = OptionalMeasureSet.get();
       measureSet.setOwner(userId);
       MeasureSet updatedMeasureSet = measureSetRepository.save(measureSet);
+      measureSetCache.evict(measureSetId);
+      saveMeasureSetAccess(measureSet);
       log.info("Owner changed in Measure set [{}]", updatedMeasureSet.getId());
       return updatedMeasureSet;
     } else {
@@ -154,6 +179,7 @@ public class MeasureSetService {
     int generatedSequenceNumber = generatorRepository.findAndModify("cms_id");
     measureSet.get().setCmsId(generatedSequenceNumber);
     MeasureSet updatedMeasureSet = measureSetRepository.save(measureSet.get());
+    measureSetCache.evict(measureSetId);
     log.info("cms id for the Measure set [{}] is successfully created", updatedMeasureSet.getId());
     actionLogService.logAction(
         updatedMeasureSet.getId(), Measure.class, ActionType.CREATED, username);
@@ -209,6 +235,7 @@ public class MeasureSetService {
 
       measureSet.setCmsId(null);
       measureSetRepository.save(measureSet);
+      measureSetCache.evict(measureSetId);
 
       log.info(
           "With the measure id of [{}], successfully queried "
@@ -226,8 +253,165 @@ public class MeasureSetService {
     }
   }
 
+  /**
+   * Finds the measure set, from the cache of recently read sets when possible. A set read while
+   * another request changed it is returned but not cached.
+   */
   public MeasureSet findByMeasureSetId(final String measureSetId) {
-    return measureSetRepository.findByMeasureSetId(measureSetId).orElse(null);
+    MeasureSet cached = measureSetCache.get(measureSetId);
+    if (cached != null) {
+      return cached;
+    }
+    long generation = measureSetCache.generation();
+    MeasureSet measureSet = measureSetRepository.findByMeasureSetId(measureSetId).orElse(null);
+    if (measureSet != null) {
+      measureSetCache.put(measureSet, generation);
+    }
+    return measureSet;
+  }
+
+  /**
+   * Finds the measure sets, taking the cached ones from the cache and the rest with a single
+   * query. Measure sets that do not exist are left out.
+   */
+  public List<MeasureSet> findAllByMeasureSetIds(final Collection<String> measureSetIds) {
+    List<MeasureSet> measureSets = new ArrayList<>();
+    List<String> uncached = new ArrayList<>();
+    for (String measureSetId : new LinkedHashSet<>(measureSetIds)) {
+      MeasureSet cached = measureSetCache.get(measureSetId);
+      if (cached != null) {
+        measureSets.add(cached);
+      } else {
+        uncached.add(measureSetId);
+      }
+    }
+    if (!uncached.isEmpty()) {
+      long generation = measureSetCache.generation();
+      for (MeasureSet measureSet : measureSetRepository.findAllByMeasureSetIdIn(uncached)) {
+        measureSetCache.put(measureSet, generation);
+        measureSets.add(measureSet);
+      }
+    }
+    return measureSets;
+  }
+
+  /** For writes to a measure set made outside this service. */
+  public void evictMeasureSet(final String measureSetId) {
+    measureSetCache.evict(measureSetId);
+  }
+
+  /**
+   * Rebuilds the access lists that no longer match their measure set. The access list is written
+   * after the measure set, and without a transaction a failure in between leaves the two apart;
+   * this puts them back together. Only the access lists that differ are written. The measure sets
+   * whose access list differs are read again before it is rebuilt, and an access list is only
+   * replaced while it still holds what it was compared against, so a change made to the set or its
+   * access list during the repair is never overwritten with an older one.
+   *
+   * @return the number of access lists that were rebuilt
+   */
+  @Scheduled(
+      fixedDelayString = "${madie.measure-set.access-repair-interval-ms}",
+      initialDelayString = "${madie.measure-set.access-repair-interval-ms}")
+  public int repairMeasureSetAccess() {
+    Query query = new Query();
+    query.fields().include("measureSetId", "owner", "acls");
+    query.cursorBatchSize(ACCESS_REPAIR_BATCH_SIZE);
+
+    int repaired = 0;
+    List<MeasureSetAccess> batch = new ArrayList<>();
+    try (Stream<MeasureSet> measureSets = mongoTemplate.stream(query, MeasureSet.class)) {
+      Iterator<MeasureSet> iterator = measureSets.iterator();
+      while (iterator.hasNext()) {
+        batch.add(MeasureSetAccess.of(iterator.next()));
+        if (batch.size() >= ACCESS_REPAIR_BATCH_SIZE) {
+          repaired += repairBatch(batch);
+        }
+      }
+    }
+    repaired += repairBatch(batch);
+    if (repaired > 0) {
+      log.warn("Rebuilt the access lists of {} measure sets", repaired);
+    }
+    return repaired;
+  }
+
+  private int repairBatch(List<MeasureSetAccess> batch) {
+    if (batch.isEmpty()) {
+      return 0;
+    }
+    Map<String, MeasureSetAccess> saved =
+        findMeasureSetAccess(batch.stream().map(MeasureSetAccess::getMeasureSetId).toList());
+    List<String> differing =
+        batch.stream()
+            .filter(access -> !access.equals(saved.get(access.getMeasureSetId())))
+            .map(MeasureSetAccess::getMeasureSetId)
+            .toList();
+    batch.clear();
+    if (differing.isEmpty()) {
+      return 0;
+    }
+    // the streamed sets may be older than the access lists read above, so read them again
+    List<MeasureSetAccess> stale =
+        measureSetRepository.findAllByMeasureSetIdIn(differing).stream()
+            .map(MeasureSetAccess::of)
+            .filter(access -> !access.equals(saved.get(access.getMeasureSetId())))
+            .toList();
+    if (stale.isEmpty()) {
+      return 0;
+    }
+    BulkOperations operations =
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MeasureSetAccess.class);
+    stale.forEach(
+        access -> {
+          MeasureSetAccess compared = saved.get(access.getMeasureSetId());
+          if (compared == null) {
+            operations.upsert(
+                new Query(Criteria.where("_id").is(access.getMeasureSetId())),
+                new Update().setOnInsert("userIds", access.getUserIds()));
+          } else {
+            operations.replaceOne(
+                new Query(
+                    Criteria.where("_id")
+                        .is(access.getMeasureSetId())
+                        .and("userIds")
+                        .is(compared.getUserIds())),
+                access);
+          }
+        });
+    BulkWriteResult result = operations.execute();
+    return result.getModifiedCount() + result.getUpserts().size();
+  }
+
+  private Map<String, MeasureSetAccess> findMeasureSetAccess(List<String> measureSetIds) {
+    return mongoTemplate
+        .find(new Query(Criteria.where("_id").in(measureSetIds)), MeasureSetAccess.class)
+        .stream()
+        .collect(Collectors.toMap(MeasureSetAccess::getMeasureSetId, access -> access));
+  }
+
+  // the access list is derived from the measure set alone, so writing it again is always safe
+  private void saveMeasureSetAccess(MeasureSet measureSet) {
+    for (int attempt = 1; ; attempt++) {
+      try {
+        measureSetAccessRepository.save(MeasureSetAccess.of(measureSet));
+        return;
+      } catch (DataAccessException ex) {
+        if (attempt >= ACCESS_WRITE_ATTEMPTS) {
+          log.error(
+              "Access list of measure set [{}] could not be saved, "
+                  + "it is left to the next access repair",
+              measureSet.getMeasureSetId(),
+              ex);
+          throw ex;
+        }
+        log.warn(
+            "Saving the access list of measure set [{}] failed, attempt {} of {}",
+            measureSet.getMeasureSetId(),
+            attempt,
+            ACCESS_WRITE_ATTEMPTS);
+      }
+    }
   }
 
   private AclSpecification findAclSpecificationByUserId(MeasureSet measureSet, String userId) {
@@ -0,0 +1,54 @@
+package cms.gov.madie.measure.services;
+
+import cms.gov.madie.measure.dto.Job;
+import cms.gov.madie.measure.dto.JobStatus;
+import gov.cms.madie.models.measure.Measure;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Versions a measure as a job, in a single step whose result is the id and version of the
+ * versioned measure. Only a draft is versioned, so running the step again after the measure was
+ * versioned fails rather than versioning it twice.
+ */
+@Service
+@RequiredArgsConstructor
+public class MeasureVersionJobHandler implements JobHandler {
+
+  public static final String TYPE = "measure-version";
+  public static final String MEASURE_ID = "measureId";
+  public static final String VERSION_TYPE = "versionType";
+  private static final String VERSIONED = "versioned";
+
+  private final VersionService versionService;
+
+  @Override
+  public String getType() {
+    return TYPE;
+  }
+
+  @Override
+  public JobStatus run(Job job, JobContext context) throws Exception {
+    if (VERSIONED.equals(job.getCheckpoint())) {
+      return JobStatus.COMPLETED;
+    }
+    if (!context.setTotal(1)) {
+      return JobStatus.CANCELLED;
+    }
+    Measure measure =
+        versionService.createVersion(
+            (String) job.getParameters().get(MEASURE_ID),
+            (String) job.getParameters().get(VERSION_TYPE),
+            context.getUsername(),
+            context.getAccessToken());
+    Map<String, String> result =
+        Map.of("measureId", measure.getId(), "version", String.valueOf(measure.getVersion()));
+    if (!context.completeStep(List.of(result), 1, 0, VERSIONED)) {
+      return JobStatus.CANCELLED;
+    }
+    return JobStatus.COMPLETED;
+  }
+}
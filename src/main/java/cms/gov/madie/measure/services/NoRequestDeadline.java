@@ -0,0 +1,14 @@
+package cms.gov.madie.measure.services;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an endpoint that is expected to outlast the {@link RequestDeadline}, such as a synchronous
+ * import, versioning or export. Its outbound calls are bounded by their own timeouts only.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface NoRequestDeadline {}
@@ -7,6 +7,7 @@ import cms.gov.madie.measure.exceptions.HQMFServiceException;
 import cms.gov.madie.measure.exceptions.InternalServerException;
 import cms.gov.madie.measure.exceptions.InvalidRequestException;
 import cms.gov.madie.measure.repositories.ExportRepository;
+import cms.gov.madie.measure.utils.DownstreamPayloadUtil;
 import gov.cms.madie.models.cqm.CqmMeasure;
 import gov.cms.madie.models.measure.Export;
 import gov.cms.madie.models.measure.Measure;
@@ -48,7 +49,8 @@ public class QdmPackageService implements PackageService {
     headers.set(HttpHeaders.AUTHORIZATION, accessToken);
     headers.set(HttpHeaders.ACCEPT, MediaType.ALL_VALUE);
     headers.set(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
-    HttpEntity<Measure> entity = new HttpEntity<>(measure, headers);
+    HttpEntity<Measure> entity =
+        new HttpEntity<>(DownstreamPayloadUtil.withoutTestCases(measure), headers);
     try {
       log.info("Requesting measure package for measure [{}] from QDM service", measure.getId());
       byte[] exportPackage =
@@ -106,7 +108,8 @@ public class QdmPackageService implements PackageService {
     headers.set(HttpHeaders.AUTHORIZATION, accessToken);
     headers.set(HttpHeaders.ACCEPT, MediaType.ALL_VALUE);
     headers.set(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
-    HttpEntity<Measure> entity = new HttpEntity<>(measure, headers);
+    HttpEntity<Measure> entity =
+        new HttpEntity<>(DownstreamPayloadUtil.withoutTestCases(measure), headers);
     try {
       log.info("Requesting human readable for measure [{}] from QDM service", measure.getId());
       byte[] exportPackage =
@@ -139,7 +142,8 @@ public class QdmPackageService implements PackageService {
     headers.set(HttpHeaders.AUTHORIZATION, accessToken);
     headers.set(HttpHeaders.ACCEPT, MediaType.ALL_VALUE);
     headers.set(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
-    HttpEntity<Measure> entity = new HttpEntity<>(measure, headers);
+    HttpEntity<Measure> entity =
+        new HttpEntity<>(DownstreamPayloadUtil.withoutTestCases(measure), headers);
     try {
       log.info("requesting CqmConversion for measure [{}] from qdm service", measure.getId());
       ResponseEntity<CqmMeasure> result =
@@ -0,0 +1,34 @@
+package cms.gov.madie.measure.services;
+
+import cms.gov.madie.measure.utils.BoundedCache;
+import cms.gov.madie.measure.utils.ContentHashUtil;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * The access tokens that a downstream service answered with 401 Unauthorized, most likely because
+ * they expired. A background job checks its token against them, since the services it calls turn
+ * a rejected call into a failed test case or measure rather than an error. Only hashes of the
+ * tokens are kept, for a limited time.
+ */
+@Component
+public class RejectedAccessTokens {
+
+  static final int MAX_ENTRIES = 10_000;
+  static final Duration TIME_TO_LIVE = Duration.ofHours(1);
+
+  private final BoundedCache<String, Boolean> rejected =
+      new BoundedCache<>(MAX_ENTRIES, TIME_TO_LIVE, Clock.systemUTC());
+
+  public void reject(String accessToken) {
+    if (accessToken != null) {
+      rejected.put(ContentHashUtil.sha256(accessToken), Boolean.TRUE);
+    }
+  }
+
+  public boolean isRejected(String accessToken) {
+    return accessToken != null && rejected.get(ContentHashUtil.sha256(accessToken)) != null;
+  }
+}
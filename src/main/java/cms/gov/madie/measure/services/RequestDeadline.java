@@ -0,0 +1,60 @@
+package cms.gov.madie.measure.services;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The time by which the request handled on the current thread must be answered. Every outbound
+ * call made for the request waits at most the time that is left, so nested and retried calls
+ * together cannot outlast the request. Work handed to another thread on behalf of the request
+ * takes the deadline along with {@link #wrap(Runnable)}.
+ */
+public class RequestDeadline {
+
+  private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+  public static void start(long timeoutMillis) {
+    DEADLINE.set(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+  }
+
+  public static void clear() {
+    DEADLINE.remove();
+  }
+
+  /**
+   * @return the milliseconds left before the deadline, or the given timeout when that is shorter
+   *     or there is no deadline on this thread
+   */
+  public static long remainingMillis(long timeoutMillis) {
+    Long deadline = DEADLINE.get();
+    if (deadline == null) {
+      return timeoutMillis;
+    }
+    return Math.min(timeoutMillis, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+  }
+
+  public static boolean isExpired() {
+    Long deadline = DEADLINE.get();
+    return deadline != null && deadline - System.nanoTime() <= 0;
+  }
+
+  /** Runs the task under the deadline of the current thread, on whichever thread runs it. */
+  public static Runnable wrap(Runnable task) {
+    Long deadline = DEADLINE.get();
+    if (deadline == null) {
+      return task;
+    }
+    return () -> {
+      Long previous = DEADLINE.get();
+      DEADLINE.set(deadline);
+      try {
+        task.run();
+      } finally {
+        if (previous == null) {
+          DEADLINE.remove();
+        } else {
+          DEADLINE.set(previous);
+        }
+      }
+    };
+  }
+}
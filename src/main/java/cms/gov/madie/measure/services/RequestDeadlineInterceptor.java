@@ -0,0 +1,47 @@
+package cms.gov.madie.measure.services;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Starts the {@link RequestDeadline} of every request, other than those for endpoints marked
+ * {@link NoRequestDeadline}, and clears it once the request is done.
+ */
+@Component
+public class RequestDeadlineInterceptor implements AsyncHandlerInterceptor {
+
+  private final long deadlineMillis;
+
+  public RequestDeadlineInterceptor(@Value("${madie.request-deadline-ms}") long deadlineMillis) {
+    this.deadlineMillis = deadlineMillis;
+  }
+
+  @Override
+  public boolean preHandle(
+      HttpServletRequest request, HttpServletResponse response, Object handler) {
+    if (handler instanceof HandlerMethod handlerMethod
+        && handlerMethod.hasMethodAnnotation(NoRequestDeadline.class)) {
+      RequestDeadline.clear();
+    } else {
+      RequestDeadline.start(deadlineMillis);
+    }
+    return true;
+  }
+
+  @Override
+  public void afterCompletion(
+      HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+    RequestDeadline.clear();
+  }
+
+  @Override
+  public void afterConcurrentHandlingStarted(
+      HttpServletRequest request, HttpServletResponse response, Object handler) {
+    // streamed responses are written on another thread, without a deadline
+    RequestDeadline.clear();
+  }
+}
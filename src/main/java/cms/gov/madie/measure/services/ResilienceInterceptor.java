@@ -0,0 +1,131 @@
+package cms.gov.madie.measure.services;
+
+import cms.gov.madie.measure.exceptions.BulkheadFullException;
+import cms.gov.madie.measure.exceptions.CircuitBreakerOpenException;
+import cms.gov.madie.measure.exceptions.DeadlineExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Guards the calls of a rest template to one downstream service with a {@link CircuitBreaker} and
+ * retries the ones that failed. Only idempotent requests are retried, and only when no connection
+ * could be made or the service answered that it is unavailable, never after a timeout. Retries wait
+ * for an exponential backoff with full jitter, and neither an attempt nor a backoff goes past the
+ * {@link RequestDeadline}. Each attempt runs through the {@link Bulkhead} of the service, so it
+ * holds a permit while it runs and none while backing off. The bulkhead is applied here rather than
+ * by an interceptor further down the chain, as the rest template goes through its interceptors only
+ * once and a retry would skip them. For the same reason this has to be the last interceptor. A call
+ * the bulkhead rejects was never made, so it is neither retried nor counted against the service.
+ */
+@Slf4j
+public class ResilienceInterceptor implements ClientHttpRequestInterceptor {
+
+  static final String RETRIES_METRIC = "madie.resilience.retries";
+  private static final Set<HttpMethod> IDEMPOTENT_METHODS =
+      Set.of(
+          HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS, HttpMethod.PUT, HttpMethod.DELETE);
+  private static final Set<Integer> RETRYABLE_STATUSES = Set.of(502, 503, 504);
+
+  private final CircuitBreaker circuitBreaker;
+  private final BulkheadInterceptor bulkheadInterceptor;
+  private final int maxAttempts;
+  private final long backoffMillis;
+  private final Counter retries;
+
+  public ResilienceInterceptor(
+      CircuitBreaker circuitBreaker,
+      Bulkhead bulkhead,
+      int maxAttempts,
+      long backoffMillis,
+      MeterRegistry meterRegistry) {
+    this.circuitBreaker = circuitBreaker;
+    this.bulkheadInterceptor = new BulkheadInterceptor(bulkhead);
+    this.maxAttempts = maxAttempts;
+    this.backoffMillis = backoffMillis;
+    this.retries =
+        Counter.builder(RETRIES_METRIC)
+            .description("Calls to the downstream service that were retried")
+            .tag(Bulkhead.DOWNSTREAM_TAG, circuitBreaker.getName())
+            .register(meterRegistry);
+  }
+
+  @Override
+  public ClientHttpResponse intercept(
+      HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+    int attempts = IDEMPOTENT_METHODS.contains(request.getMethod()) ? maxAttempts : 1;
+    for (int attempt = 1; ; attempt++) {
+      if (RequestDeadline.isExpired()) {
+        throw new DeadlineExceededException(circuitBreaker.getName());
+      }
+      if (!circuitBreaker.tryAcquirePermission()) {
+        throw new CircuitBreakerOpenException(circuitBreaker.getName());
+      }
+
+      ClientHttpResponse response;
+      try {
+        response = bulkheadInterceptor.intercept(request, body, execution);
+      } catch (BulkheadFullException ex) {
+        circuitBreaker.releasePermission();
+        throw ex;
+      } catch (IOException | RuntimeException ex) {
+        circuitBreaker.onFailure();
+        if (!(ex instanceof IOException)
+            || ex instanceof InterruptedIOException
+            || !backOff(request, attempt, attempts)) {
+          throw ex;
+        }
+        continue;
+      }
+
+      int status = response.getStatusCode().value();
+      if (status < 500) {
+        circuitBreaker.onSuccess();
+        return response;
+      }
+      circuitBreaker.onFailure();
+      if (!RETRYABLE_STATUSES.contains(status) || !backOff(request, attempt, attempts)) {
+        return response;
+      }
+      response.close();
+    }
+  }
+
+  /**
+   * @return whether the request is to be attempted again, after the backoff
+   */
+  private boolean backOff(HttpRequest request, int attempt, int attempts) {
+    if (attempt >= attempts) {
+      return false;
+    }
+    long backoff = ThreadLocalRandom.current().nextLong((backoffMillis << (attempt - 1)) + 1);
+    if (backoff >= RequestDeadline.remainingMillis(Long.MAX_VALUE)) {
+      return false;
+    }
+    log.info(
+        "Retrying [{} {}] in {} ms, attempt {} of {}",
+        request.getMethod(),
+        request.getURI().getPath(),
+        backoff,
+        attempt + 1,
+        attempts);
+    try {
+      Thread.sleep(backoff);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+    retries.increment();
+    return true;
+  }
+}
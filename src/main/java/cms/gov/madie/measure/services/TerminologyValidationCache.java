@@ -0,0 +1,80 @@
+package cms.gov.madie.measure.services;
+
+import cms.gov.madie.measure.utils.BoundedCache;
+import gov.cms.madie.models.cql.terminology.CqlCode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * Remembers value sets and codes the terminology service has recently found valid, so saving a
+ * measure only sends terminology to the service that it has not already checked. Only valid
+ * results are kept: a failed value set search does not say which value set was at fault, and an
+ * invalid code is worth checking again once it has been corrected in VSAC. The cache holds a
+ * bounded number of entries, each for a limited time.
+ */
+@Service
+public class TerminologyValidationCache {
+
+  private final BoundedCache<String, Boolean> valid;
+
+  public TerminologyValidationCache(
+      @Value("${madie.terminology.validation-cache.max-entries}") int maxEntries,
+      @Value("${madie.terminology.validation-cache.ttl-minutes}") long ttlMinutes) {
+    this(maxEntries, Duration.ofMinutes(ttlMinutes), Clock.systemUTC());
+  }
+
+  TerminologyValidationCache(int maxEntries, Duration timeToLive, Clock clock) {
+    this.valid = new BoundedCache<>(maxEntries, timeToLive, clock);
+  }
+
+  public boolean isValueSetValid(String oid) {
+    return isValid(valueSetKey(oid));
+  }
+
+  public void putValidValueSets(Collection<String> oids) {
+    oids.forEach(oid -> putValid(valueSetKey(oid)));
+  }
+
+  public boolean isCodeValid(CqlCode cqlCode) {
+    return isValid(codeKey(cqlCode));
+  }
+
+  public void putValidCodes(Collection<CqlCode> cqlCodes) {
+    cqlCodes.forEach(cqlCode -> putValid(codeKey(cqlCode)));
+  }
+
+  public void clear() {
+    valid.clear();
+  }
+
+  int size() {
+    return valid.size();
+  }
+
+  private boolean isValid(String key) {
+    return valid.get(key) != null;
+  }
+
+  private void putValid(String key) {
+    valid.put(key, Boolean.TRUE);
+  }
+
+  private String valueSetKey(String oid) {
+    return "valueSet|" + oid;
+  }
+
+  // a code is valid or not within a particular version of its code system
+  private String codeKey(CqlCode cqlCode) {
+    CqlCode.CqlCodeSystem codeSystem = cqlCode.getCodeSystem();
+    return "code|"
+        + (codeSystem == null ? null : codeSystem.getOid())
+        + "|"
+        + (codeSystem == null ? null : codeSystem.getVersion())
+        + "|"
+        + cqlCode.getCodeId();
+  }
+}
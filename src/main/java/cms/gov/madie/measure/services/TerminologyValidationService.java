@@ -2,16 +2,16 @@ package cms.gov.madie.measure.services;
 
 import cms.gov.madie.measure.dto.ValueSetsSearchCriteria;
 import cms.gov.madie.measure.exceptions.InvalidTerminologyException;
+import cms.gov.madie.measure.utils.ElmIndex;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import gov.cms.madie.models.cql.terminology.CqlCode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
-import org.springframework.boot.json.GsonJsonParser;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -19,6 +19,8 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class TerminologyValidationService {
   private final TerminologyServiceClient terminologyServiceClient;
+  private final ElmIndexCache elmIndexCache;
+  private final TerminologyValidationCache terminologyValidationCache;
 
   public void validateTerminology(String elm, String accessToken) {
     if (StringUtils.isBlank(elm)) {
@@ -33,15 +35,25 @@ public class TerminologyValidationService {
     if (CollectionUtils.isEmpty(oids)) {
       return;
     }
+    // value sets checked recently are not searched for again
+    List<String> uncheckedOids =
+        oids.stream()
+            .distinct()
+            .filter(oid -> !terminologyValidationCache.isValueSetValid(oid))
+            .toList();
+    if (uncheckedOids.isEmpty()) {
+      return;
+    }
     var searchCriteria =
         ValueSetsSearchCriteria.builder()
             .includeDraft(true)
             .valueSetParams(
-                oids.stream()
+                uncheckedOids.stream()
                     .map(oid -> ValueSetsSearchCriteria.ValueSetParams.builder().oid(oid).build())
                     .toList())
             .build();
     terminologyServiceClient.fetchValueSets(searchCriteria, accessToken);
+    terminologyValidationCache.putValidValueSets(uncheckedOids);
   }
 
   public void validateCodes(String elm, String accessToken) {
@@ -49,7 +61,16 @@ public class TerminologyValidationService {
     if (CollectionUtils.isEmpty(cqlCodes)) {
       return;
     }
-    List<CqlCode> validatedCodes = terminologyServiceClient.validateCodes(cqlCodes, accessToken);
+    // codes checked recently are not validated again
+    List<CqlCode> uncheckedCodes =
+        cqlCodes.stream()
+            .filter(cqlCode -> !terminologyValidationCache.isCodeValid(cqlCode))
+            .toList();
+    if (uncheckedCodes.isEmpty()) {
+      return;
+    }
+    List<CqlCode> validatedCodes =
+        terminologyServiceClient.validateCodes(uncheckedCodes, accessToken);
     // throw error if there is at least one invalid code
     CqlCode invalidCode =
         validatedCodes.stream().filter(cqlCode -> !cqlCode.isValid()).findFirst().orElse(null);
@@ -57,38 +78,31 @@ public class TerminologyValidationService {
       log.error("Invalid cql codes: " + invalidCode.getCodeId());
       throw new InvalidTerminologyException("CQL Code", invalidCode.getCodeId());
     }
+    terminologyValidationCache.putValidCodes(uncheckedCodes);
   }
 
   public List<String> getValueSetOids(String elm) {
-    var library = getLibrary(elm);
-    var valueSets = (Map<String, Object>) library.get("valueSets");
-    if (valueSets == null) {
-      return null;
-    }
-    var valueSetDefs = (List<Map<String, String>>) valueSets.get("def");
-    if (CollectionUtils.isEmpty(valueSetDefs)) {
+    List<String> valueSetIds = getElmIndex(elm).getValueSetIds();
+    if (CollectionUtils.isEmpty(valueSetIds)) {
       return null;
     }
-    return valueSetDefs.stream()
-        .map(valueSetDef -> getOidFromValueSetId(valueSetDef.get("id")))
-        .collect(Collectors.toList());
+    return valueSetIds.stream().map(this::getOidFromValueSetId).collect(Collectors.toList());
   }
 
   public List<CqlCode> getCqlCodes(String elm) {
-    var library = getLibrary(elm);
-    var codeSystems = (Map<String, Object>) library.get("codeSystems");
-    var codes = (Map<String, Object>) library.get("codes");
-    if (CollectionUtils.isEmpty(codes)) {
+    ElmIndex elmIndex = getElmIndex(elm);
+    if (CollectionUtils.isEmpty(elmIndex.getCodes())) {
       return null;
     }
-    var codeDefs = (List<Map<String, Object>>) codes.get("def");
-    return codeDefs.stream().map(codeDef -> getCqlCode(codeDef, codeSystems)).toList();
+    return elmIndex.getCodes().stream().map(code -> getCqlCode(code, elmIndex)).toList();
   }
 
-  private Map<String, Object> getLibrary(String elm) {
-    GsonJsonParser jsonParser = new GsonJsonParser();
-    var elmMap = jsonParser.parseMap(elm);
-    return (Map<String, Object>) elmMap.get("library");
+  private ElmIndex getElmIndex(String elm) {
+    try {
+      return elmIndexCache.get(elm);
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException("Unable to read ELM JSON", e);
+    }
   }
 
   private String getOidFromValueSetId(String valueSetId) {
@@ -102,38 +116,24 @@ public class TerminologyValidationService {
     }
   }
 
-  private CqlCode getCqlCode(Map<String, Object> codeDefinition, Map<String, Object> codeSystems) {
-    if (codeDefinition == null) {
-      return null;
-    }
-    var codeSystemName = ((Map<String, String>) codeDefinition.get("codeSystem")).get("name");
+  private CqlCode getCqlCode(ElmIndex.CodeDefinition codeDefinition, ElmIndex elmIndex) {
     return CqlCode.builder()
-        .name((String) codeDefinition.get("name"))
-        .codeId((String) codeDefinition.get("id"))
-        .text((String) codeDefinition.get("display"))
-        .codeSystem(getCodeSystem(codeSystems, codeSystemName))
+        .name(codeDefinition.name())
+        .codeId(codeDefinition.id())
+        .text(codeDefinition.display())
+        .codeSystem(getCodeSystem(elmIndex, codeDefinition.codeSystemName()))
         .build();
   }
 
-  private CqlCode.CqlCodeSystem getCodeSystem(
-      Map<String, Object> codeSystems, String codeSystemName) {
-    if (codeSystems == null) {
+  private CqlCode.CqlCodeSystem getCodeSystem(ElmIndex elmIndex, String codeSystemName) {
+    ElmIndex.CodeSystemDefinition codeSystem = elmIndex.getCodeSystem(codeSystemName);
+    if (codeSystem == null) {
       return null;
     }
-    var codeSystemDefs = (List<Map<String, String>>) codeSystems.get("def");
-    if (CollectionUtils.isEmpty(codeSystemDefs)) {
-      return null;
-    }
-    return codeSystemDefs.stream()
-        .filter(codeSystemDef -> StringUtils.equals(codeSystemDef.get("name"), codeSystemName))
-        .map(
-            codeSystemDef ->
-                CqlCode.CqlCodeSystem.builder()
-                    .oid(codeSystemDef.get("id"))
-                    .name(codeSystemDef.get("name"))
-                    .version(codeSystemDef.get("version"))
-                    .build())
-        .findFirst()
-        .orElse(null);
+    return CqlCode.CqlCodeSystem.builder()
+        .oid(codeSystem.id())
+        .name(codeSystem.name())
+        .version(codeSystem.version())
+        .build();
   }
 }
@@ -0,0 +1,111 @@
+package cms.gov.madie.measure.services;
+
+import cms.gov.madie.measure.dto.Job;
+import cms.gov.madie.measure.dto.JobStatus;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gov.cms.madie.models.measure.TestCaseImportOutcome;
+import gov.cms.madie.models.measure.TestCaseImportRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Imports test cases into a measure as a job. The import requests are stored with the job and
+ * imported a few patients per step, and the checkpoint is the number of steps done. All requests
+ * for one patient are imported in the same step. Importing a patient again updates the test case
+ * imported for it, so a step cut short is safe to repeat.
+ */
+@Service
+@RequiredArgsConstructor
+public class TestCaseImportJobHandler implements JobHandler {
+
+  public static final String TYPE = "test-case-import";
+  static final String MEASURE_ID = "measureId";
+  static final String MODEL = "model";
+  static final String REQUESTS = "requests";
+  static final int PATIENTS_PER_STEP = 25;
+  private static final TypeReference<List<TestCaseImportRequest>> REQUESTS_TYPE =
+      new TypeReference<>() {};
+
+  private final TestCaseService testCaseService;
+  private final ObjectMapper objectMapper;
+
+  @Override
+  public String getType() {
+    return TYPE;
+  }
+
+  /**
+   * The parameters of a job importing the given requests. The requests are stored as plain
+   * documents, and must carry the patient id they are imported for.
+   */
+  public Map<String, Object> parameters(
+      String measureId, String model, List<TestCaseImportRequest> requests) {
+    return Map.of(
+        MEASURE_ID,
+        measureId,
+        MODEL,
+        model,
+        REQUESTS,
+        objectMapper.convertValue(requests, new TypeReference<List<Map<String, Object>>>() {}));
+  }
+
+  @Override
+  public JobStatus run(Job job, JobContext context) {
+    String measureId = (String) job.getParameters().get(MEASURE_ID);
+    String model = (String) job.getParameters().get(MODEL);
+    Map<UUID, List<TestCaseImportRequest>> requestsByPatient = new LinkedHashMap<>();
+    objectMapper
+        .convertValue(job.getParameters().get(REQUESTS), REQUESTS_TYPE)
+        .forEach(
+            request ->
+                requestsByPatient
+                    .computeIfAbsent(request.getPatientId(), patientId -> new ArrayList<>())
+                    .add(request));
+    List<List<TestCaseImportRequest>> steps = steps(requestsByPatient);
+    if (!context.setTotal(requestsByPatient.size())) {
+      return JobStatus.CANCELLED;
+    }
+
+    long failed = job.getFailed();
+    int done = job.getCheckpoint() == null ? 0 : Integer.parseInt(job.getCheckpoint());
+    for (int step = done; step < steps.size(); step++) {
+      List<TestCaseImportOutcome> outcomes =
+          testCaseService.importTestCases(
+              steps.get(step), measureId, context.getUsername(), context.getAccessToken(), model);
+      long failedInStep = outcomes.stream().filter(outcome -> !outcome.isSuccessful()).count();
+      failed += failedInStep;
+      if (!context.completeStep(
+          outcomes, outcomes.size(), failedInStep, String.valueOf(step + 1))) {
+        return JobStatus.CANCELLED;
+      }
+    }
+    return failed > 0 ? JobStatus.COMPLETED_WITH_ERRORS : JobStatus.COMPLETED;
+  }
+
+  // the same requests are cut into the same steps every time the job runs
+  private List<List<TestCaseImportRequest>> steps(
+      Map<UUID, List<TestCaseImportRequest>> requestsByPatient) {
+    List<List<TestCaseImportRequest>> steps = new ArrayList<>();
+    List<TestCaseImportRequest> step = new ArrayList<>();
+    int patientsInStep = 0;
+    for (List<TestCaseImportRequest> patientRequests : requestsByPatient.values()) {
+      step.addAll(patientRequests);
+      if (++patientsInStep == PATIENTS_PER_STEP) {
+        steps.add(step);
+        step = new ArrayList<>();
+        patientsInStep = 0;
+      }
+    }
+    if (!step.isEmpty()) {
+      steps.add(step);
+    }
+    return steps;
+  }
+}
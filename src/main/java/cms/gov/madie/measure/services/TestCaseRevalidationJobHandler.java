@@ -0,0 +1,63 @@
+package cms.gov.madie.measure.services;
+
+import cms.gov.madie.measure.dto.Job;
+import cms.gov.madie.measure.dto.JobStatus;
+import cms.gov.madie.measure.dto.MeasureTestCaseValidationLine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Revalidates the test cases of every active measure as a job. Every measure is one step that
+ * stores its validation report, and the checkpoint of the revalidation is the checkpoint of the
+ * job, so an interrupted job resumes after it.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TestCaseRevalidationJobHandler implements JobHandler {
+
+  public static final String TYPE = "test-case-revalidation";
+  public static final String DRAFT_ONLY = "draftOnly";
+  public static final String SELECTIVE = "selective";
+
+  private final TestCaseRevalidationService testCaseRevalidationService;
+
+  @Override
+  public String getType() {
+    return TYPE;
+  }
+
+  @Override
+  public JobStatus run(Job job, JobContext context) throws InterruptedException {
+    boolean draftOnly = !Boolean.FALSE.equals(job.getParameters().get(DRAFT_ONLY));
+    boolean selective = Boolean.TRUE.equals(job.getParameters().get(SELECTIVE));
+    Instant validatedBefore = testCaseRevalidationService.getValidatedBefore(selective);
+    if (!context.setTotal(testCaseRevalidationService.countMeasures(draftOnly))) {
+      return JobStatus.CANCELLED;
+    }
+
+    MeasureTestCaseValidationLine summary =
+        testCaseRevalidationService.revalidate(
+            draftOnly,
+            validatedBefore,
+            job.getCheckpoint(),
+            context.getAccessToken(),
+            line ->
+                line.getType() != MeasureTestCaseValidationLine.Type.REPORT
+                    || context.completeStep(
+                        List.of(line.getReport()),
+                        1,
+                        line.getReport().getJobStatus() == JobStatus.FAILED ? 1 : 0,
+                        line.getCheckpoint()));
+    if (summary == null) {
+      return JobStatus.CANCELLED;
+    }
+    return job.getFailed() + summary.getFailed() > 0
+        ? JobStatus.COMPLETED_WITH_ERRORS
+        : JobStatus.COMPLETED;
+  }
+}
@@ -0,0 +1,231 @@
+package cms.gov.madie.measure.services;
+
+import cms.gov.madie.measure.dto.ImpactedMeasureValidationReport;
+import cms.gov.madie.measure.dto.JobStatus;
+import cms.gov.madie.measure.dto.MeasureTestCaseValidationLine;
+import cms.gov.madie.measure.dto.MeasureTestCaseValidationReport;
+import cms.gov.madie.measure.dto.TestCaseValidationReport;
+import cms.gov.madie.measure.exceptions.InvalidRequestException;
+import cms.gov.madie.measure.repositories.MeasureRepository;
+import gov.cms.madie.models.measure.MeasureSet;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Revalidates the test cases of every active measure. Measure IDs are read from a cursor in
+ * ascending order, and at most the configured number of measures are revalidated at once, on a pool
+ * that lives as long as the service. The report of each measure is handed over as soon as the
+ * measure is done, along with a checkpoint that a later run can resume after.
+ */
+@Slf4j
+@Service
+public class TestCaseRevalidationService {
+
+  private final MeasureRepository measureRepository;
+  private final MeasureSetService measureSetService;
+  private final TestCaseService testCaseService;
+  private final ExecutorService executorService;
+  private final int concurrency;
+  private final Instant validatorUpdatedAt;
+
+  public TestCaseRevalidationService(
+      MeasureRepository measureRepository,
+      MeasureSetService measureSetService,
+      TestCaseService testCaseService,
+      @Value("${madie.admin.concurrency-limit}") int concurrency,
+      @Value("${madie.admin.validator-updated-at}") String validatorUpdatedAt) {
+    this.measureRepository = measureRepository;
+    this.measureSetService = measureSetService;
+    this.testCaseService = testCaseService;
+    this.executorService =
+        Executors.newFixedThreadPool(concurrency, new CustomizableThreadFactory("revalidation-"));
+    this.concurrency = concurrency;
+    this.validatorUpdatedAt =
+        StringUtils.isBlank(validatorUpdatedAt) ? null : Instant.parse(validatorUpdatedAt);
+  }
+
+  public long countMeasures(boolean draftOnly) {
+    return measureRepository.countActiveMeasures(draftOnly);
+  }
+
+  /**
+   * @param selective whether only the test cases whose stored outcome predates the current
+   *     validator are to be revalidated
+   * @return the time the current validator was deployed when selective, otherwise null
+   * @throws InvalidRequestException if selective but the time the current validator was deployed
+   *     is not configured
+   */
+  public Instant getValidatedBefore(boolean selective) {
+    if (!selective) {
+      return null;
+    }
+    if (validatorUpdatedAt == null) {
+      throw new InvalidRequestException(
+          "Selective revalidation needs the time the current validator was deployed");
+    }
+    return validatorUpdatedAt;
+  }
+
+  /**
+   * Revalidates the measures after the checkpoint. Every line is given to the listener on the
+   * calling thread, a report line for each measure in the order they finish, then a summary line.
+   *
+   * @param validatedBefore when given, only the test cases whose stored outcome was produced before
+   *     this time are revalidated
+   * @param after the checkpoint of an earlier run, or null to start from the first measure
+   * @param listener returns false to stop the run, measures already started still finish
+   * @return the summary line, or null if the listener stopped the run
+   */
+  public MeasureTestCaseValidationLine revalidate(
+      boolean draftOnly,
+      Instant validatedBefore,
+      String after,
+      String accessToken,
+      Predicate<MeasureTestCaseValidationLine> listener)
+      throws InterruptedException {
+    BlockingQueue<MeasureTestCaseValidationReport> finished = new LinkedBlockingQueue<>();
+    // started measures not yet covered by the checkpoint, in ID order
+    Deque<String> pending = new ArrayDeque<>();
+    Set<String> finishedIds = new HashSet<>();
+    List<ImpactedMeasureValidationReport> impactedMeasures = new ArrayList<>();
+    String checkpoint = after;
+    int running = 0;
+    long processed = 0;
+    long failed = 0;
+    try (Stream<String> measureIds = measureRepository.streamActiveMeasureIds(draftOnly, after)) {
+      Iterator<String> iterator = measureIds.iterator();
+      while (true) {
+        while (running < concurrency && iterator.hasNext()) {
+          String measureId = iterator.next();
+          pending.addLast(measureId);
+          running++;
+          executorService.execute(
+              () -> finished.add(revalidateMeasure(measureId, validatedBefore, accessToken)));
+        }
+        if (running == 0) {
+          break;
+        }
+        MeasureTestCaseValidationReport report = finished.take();
+        running--;
+        processed++;
+        if (report.getJobStatus() == JobStatus.FAILED) {
+          failed++;
+        }
+        finishedIds.add(report.getMeasureId());
+        while (!pending.isEmpty() && finishedIds.remove(pending.peekFirst())) {
+          checkpoint = pending.removeFirst();
+        }
+        ImpactedMeasureValidationReport impactedMeasure = toImpactedMeasure(report);
+        if (impactedMeasure != null) {
+          impactedMeasures.add(impactedMeasure);
+        }
+        MeasureTestCaseValidationLine line =
+            MeasureTestCaseValidationLine.builder()
+                .type(MeasureTestCaseValidationLine.Type.REPORT)
+                .report(report)
+                .checkpoint(checkpoint)
+                .build();
+        if (!listener.test(line)) {
+          log.info("Test case revalidation stopped at checkpoint [{}]", checkpoint);
+          return null;
+        }
+      }
+    }
+
+    setMeasureOwners(impactedMeasures);
+    MeasureTestCaseValidationLine summary =
+        MeasureTestCaseValidationLine.builder()
+            .type(MeasureTestCaseValidationLine.Type.SUMMARY)
+            .checkpoint(checkpoint)
+            .processed(processed)
+            .failed(failed)
+            .impactedMeasures(impactedMeasures)
+            .build();
+    listener.test(summary);
+    return summary;
+  }
+
+  private MeasureTestCaseValidationReport revalidateMeasure(
+      String measureId, Instant validatedBefore, String accessToken) {
+    try {
+      return testCaseService.updateTestCaseValidResourcesWithReport(
+          measureId, validatedBefore, accessToken);
+    } catch (RuntimeException e) {
+      log.warn("Unable to revalidate the test cases of measure [{}]", measureId, e);
+      return MeasureTestCaseValidationReport.builder()
+          .measureId(measureId)
+          .jobStatus(JobStatus.FAILED)
+          .build();
+    }
+  }
+
+  private ImpactedMeasureValidationReport toImpactedMeasure(
+      MeasureTestCaseValidationReport report) {
+    if (report.getTestCaseValidationReports() == null) {
+      return null;
+    }
+    int impactedTestCases = 0;
+    for (TestCaseValidationReport testCaseReport : report.getTestCaseValidationReports()) {
+      if (testCaseReport.isPreviousValidResource() && !testCaseReport.isCurrentValidResource()) {
+        impactedTestCases++;
+      }
+    }
+    if (impactedTestCases == 0) {
+      return null;
+    }
+    return ImpactedMeasureValidationReport.builder()
+        .measureId(report.getMeasureId())
+        .measureSetId(report.getMeasureSetId())
+        .measureVersionId(report.getMeasureVersionId())
+        .measureName(report.getMeasureName())
+        .impactedTestCasesCount(impactedTestCases)
+        .build();
+  }
+
+  // one lookup for the owners of all impacted measures, rather than one per measure
+  private void setMeasureOwners(List<ImpactedMeasureValidationReport> impactedMeasures) {
+    if (impactedMeasures.isEmpty()) {
+      return;
+    }
+    Map<String, String> owners =
+        measureSetService
+            .findAllByMeasureSetIds(
+                impactedMeasures.stream()
+                    .map(ImpactedMeasureValidationReport::getMeasureSetId)
+                    .toList())
+            .stream()
+            .filter(measureSet -> measureSet.getOwner() != null)
+            .collect(
+                Collectors.toMap(
+                    MeasureSet::getMeasureSetId, MeasureSet::getOwner, (first, second) -> first));
+    impactedMeasures.forEach(
+        impactedMeasure ->
+            impactedMeasure.setMeasureOwner(owners.get(impactedMeasure.getMeasureSetId())));
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executorService.shutdownNow();
+  }
+}
@@ -23,13 +23,22 @@ public class TestCaseSequenceService {
   private TestCaseSequenceRepository sequenceRepository;
 
   public int generateSequence(String measureId) {
+    return generateSequences(measureId, 1);
+  }
+
+  /**
+   * Reserves the given number of consecutive sequence numbers in a single update.
+   *
+   * @return the first of the reserved sequence numbers
+   */
+  public int generateSequences(String measureId, int count) {
     TestCaseSequence counter =
         mongoOperations.findAndModify(
             query(where("_id").is(measureId)),
-            new Update().inc("sequence", 1),
+            new Update().inc("sequence", count),
             options().returnNew(true).upsert(true),
             TestCaseSequence.class);
-    return Objects.isNull(counter) ? 1 : counter.getSequence();
+    return Objects.isNull(counter) ? 1 : counter.getSequence() - count + 1;
   }
 
   public void resetSequence(String measureId) {
@@ -1,7 +1,9 @@
 package cms.gov.madie.measure.services;
 
 import cms.gov.madie.measure.dto.CopyTestCaseResult;
+import cms.gov.madie.measure.dto.ImportedTestCaseBundle;
 import cms.gov.madie.measure.dto.JobStatus;
+import cms.gov.madie.measure.dto.MeasureTestCase;
 import cms.gov.madie.measure.dto.MeasureTestCaseValidationReport;
 import cms.gov.madie.measure.dto.TestCaseValidationReport;
 import gov.cms.madie.models.common.ActionType;
@@ -9,6 +11,7 @@ import gov.cms.madie.models.common.ModelType;
 import gov.cms.madie.models.measure.*;
 import cms.gov.madie.measure.exceptions.*;
 import cms.gov.madie.measure.repositories.MeasureRepository;
+import cms.gov.madie.measure.repositories.TestCaseRepository;
 import cms.gov.madie.measure.utils.JsonUtil;
 import cms.gov.madie.measure.utils.TestCaseServiceUtil;
 
@@ -26,6 +29,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
 
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.function.Function;
 import java.util.regex.Matcher;
@@ -40,12 +44,15 @@ import static org.apache.commons.collections4.CollectionUtils.isNotEmpty;
 public class TestCaseService {
 
   private final MeasureRepository measureRepository;
+  private final TestCaseRepository testCaseRepository;
   private ActionLogService actionLogService;
   private FhirServicesClient fhirServicesClient;
   private ObjectMapper mapper;
   private MeasureService measureService;
   private TestCaseSequenceService sequenceService;
   private AppConfigService appConfigService;
+  private ValidationFanOutService validationFanOutService;
+  private HapiOperationOutcomeCache hapiOperationOutcomeCache;
 
   @Value("${madie.json.resources.base-uri}")
   @Getter
@@ -57,19 +64,25 @@ public class TestCaseService {
   @Autowired
   public TestCaseService(
       MeasureRepository measureRepository,
+      TestCaseRepository testCaseRepository,
       ActionLogService actionLogService,
       FhirServicesClient fhirServicesClient,
       ObjectMapper mapper,
       MeasureService measureService,
       TestCaseSequenceService sequenceService,
-      AppConfigService appConfigService) {
+      AppConfigService appConfigService,
+      ValidationFanOutService validationFanOutService,
+      HapiOperationOutcomeCache hapiOperationOutcomeCache) {
     this.measureRepository = measureRepository;
+    this.testCaseRepository = testCaseRepository;
     this.actionLogService = actionLogService;
     this.fhirServicesClient = fhirServicesClient;
     this.mapper = mapper;
     this.measureService = measureService;
     this.sequenceService = sequenceService;
     this.appConfigService = appConfigService;
+    this.validationFanOutService = validationFanOutService;
+    this.hapiOperationOutcomeCache = hapiOperationOutcomeCache;
   }
 
   protected TestCase enrichNewTestCase(TestCase testCase, String username, String measureId) {
@@ -90,14 +103,18 @@ public class TestCaseService {
   }
 
   protected void verifyUniqueTestCaseName(TestCase testCase, Measure measure) {
-    if (isEmpty(measure.getTestCases())) {
+    verifyUniqueTestCaseName(testCase, measure.getTestCases());
+  }
+
+  protected void verifyUniqueTestCaseName(TestCase testCase, List<TestCase> existingTestCases) {
+    if (isEmpty(existingTestCases)) {
       return;
     }
     // ignore spaces
     final String newName = StringUtils.deleteWhitespace(testCase.getTitle() + testCase.getSeries());
 
     boolean matchesExistingTestCaseName =
-        measure.getTestCases().stream()
+        existingTestCases.stream()
             // exclude the current test case
             .filter(tc -> !StringUtils.equalsIgnoreCase(tc.getId(), testCase.getId()))
             .map(tc -> StringUtils.deleteWhitespace(tc.getTitle() + tc.getSeries()))
@@ -114,27 +131,13 @@ public class TestCaseService {
       throw new InvalidDraftStatusException(measure.getId());
     }
 
-    verifyUniqueTestCaseName(testCase, measure);
-
-    if (StringUtils.deleteWhitespace(testCase.getTitle() + testCase.getSeries()).length() > 255) {
-      throw new TestCaseNameLengthException();
-    }
-
-    defaultTestCaseJsonForQdmMeasure(testCase, measure);
-    checkTestCaseSpecialCharacters(testCase);
-
-    TestCase enrichedTestCase = enrichNewTestCase(testCase, username, measureId);
+    TestCase enrichedTestCase =
+        prepareNewTestCase(testCase, measure, findTestCaseTitlesAndSeries(measureId), username);
     enrichedTestCase =
         validateTestCaseAsResource(
             enrichedTestCase, ModelType.valueOfName(measure.getModel()), accessToken);
 
-    if (measure.getTestCases() == null) {
-      measure.setTestCases(List.of(enrichedTestCase));
-    } else {
-      measure.getTestCases().add(enrichedTestCase);
-    }
-
-    measureRepository.save(measure);
+    testCaseRepository.insert(MeasureTestCase.of(measureId, enrichedTestCase));
 
     actionLogService.logAction(
         enrichedTestCase.getId(), TestCase.class, ActionType.CREATED, username);
@@ -147,6 +150,24 @@ public class TestCaseService {
     return enrichedTestCase;
   }
 
+  /**
+   * Runs the checks for a test case being added to the measure and fills in the fields of a new
+   * test case. Validation of the test case JSON is left to the caller.
+   */
+  private TestCase prepareNewTestCase(
+      TestCase testCase, Measure measure, List<TestCase> existingTestCases, String username) {
+    verifyUniqueTestCaseName(testCase, existingTestCases);
+
+    if (StringUtils.deleteWhitespace(testCase.getTitle() + testCase.getSeries()).length() > 255) {
+      throw new TestCaseNameLengthException();
+    }
+
+    defaultTestCaseJsonForQdmMeasure(testCase, measure);
+    checkTestCaseSpecialCharacters(testCase);
+
+    return enrichNewTestCase(testCase, username, measure.getId());
+  }
+
   public List<TestCase> persistTestCases(
       List<TestCase> newTestCases, String measureId, String username, String accessToken) {
     if (newTestCases == null || newTestCases.isEmpty()) {
@@ -160,20 +181,19 @@ public class TestCaseService {
     List<TestCase> enrichedTestCases = new ArrayList<>(newTestCases.size());
     for (TestCase testCase : newTestCases) {
       checkTestCaseSpecialCharacters(testCase);
-      TestCase enriched = enrichNewTestCase(testCase, username, measureId);
-      enriched =
-          validateTestCaseAsResource(
-              enriched, ModelType.valueOfName(measure.getModel()), accessToken);
-      enrichedTestCases.add(enriched);
-      actionLogService.logAction(enriched.getId(), TestCase.class, ActionType.IMPORTED, username);
-    }
-    if (measure.getTestCases() == null) {
-      measure.setTestCases(enrichedTestCases);
-    } else {
-      measure.getTestCases().addAll(enrichedTestCases);
+      enrichedTestCases.add(enrichNewTestCase(testCase, username, measureId));
     }
-
-    measureRepository.save(measure);
+    enrichedTestCases =
+        validateTestCasesAsResources(
+            enrichedTestCases, ModelType.valueOfName(measure.getModel()), accessToken);
+    enrichedTestCases.forEach(
+        enriched ->
+            actionLogService.logAction(
+                enriched.getId(), TestCase.class, ActionType.IMPORTED, username));
+    testCaseRepository.insert(
+        enrichedTestCases.stream()
+            .map(testCase -> MeasureTestCase.of(measureId, testCase))
+            .toList());
 
     log.info(
         "User [{}] successfully imported [{}] test cases to the measure with ID[{}] ",
@@ -183,15 +203,28 @@ public class TestCaseService {
     return enrichedTestCases;
   }
 
+  /**
+   * Validates the test cases of the measure again and stores the results. Only the metadata of the
+   * measure is loaded, along with the test cases to validate.
+   *
+   * @param validatedBefore when given, only the test cases whose stored outcome was produced before
+   *     this time are validated, the others are left out of the report
+   */
   public MeasureTestCaseValidationReport updateTestCaseValidResourcesWithReport(
-      final String measureId, final String accessToken) {
+      final String measureId, final Instant validatedBefore, final String accessToken) {
     log.info(
         "Thread [{}] :: Updating ValidResource flag for all test cases on measure [{}]",
         Thread.currentThread().getName(),
         measureId);
-    final Optional<Measure> measureOpt = measureRepository.findById(measureId);
+    final Optional<Measure> measureOpt = measureRepository.findMetaDataById(measureId);
     if (measureOpt.isPresent()) {
       final Measure measure = measureOpt.get();
+      List<MeasureTestCase> testCases =
+          validatedBefore == null
+              ? testCaseRepository.findAllByMeasureId(measureId)
+              : testCaseRepository.findAllValidatedBefore(measureId, validatedBefore);
+      measure.setTestCases(
+          testCases.stream().map(MeasureTestCase::getTestCase).collect(Collectors.toList()));
       MeasureTestCaseValidationReport measureReport =
           MeasureTestCaseValidationReport.builder()
               .measureName(measure.getMeasureName())
@@ -240,19 +273,36 @@ public class TestCaseService {
         validateTestCasesAsResources(
             measure.getTestCases(), ModelType.valueOfName(measure.getModel()), accessToken);
     measure.setTestCases(validatedTestCases);
-    measureRepository.save(measure);
+    int updated = testCaseRepository.updateValidationResults(measure.getId(), validatedTestCases);
+    if (updated < validatedTestCases.size()) {
+      log.info(
+          "[{}] test cases of measure [{}] were modified while being validated and were skipped",
+          validatedTestCases.size() - updated,
+          measure.getId());
+    }
     return validatedTestCases;
   }
 
+  /**
+   * Validates the test cases, keeping their order. QI-Core test cases are validated by the FHIR
+   * service, several at a time; a test case whose validation times out is marked as invalid.
+   */
   public List<TestCase> validateTestCasesAsResources(
       final List<TestCase> testCases, final ModelType modelType, final String accessToken) {
     List<TestCase> validatedTestCases = new ArrayList<>();
 
-    if (!isEmpty(testCases)) {
+    if (isEmpty(testCases)) {
+      return validatedTestCases;
+    }
+    if (ModelType.QDM_5_6.equals(modelType)) {
       validatedTestCases =
           testCases.stream()
               .map(testCase -> validateTestCaseAsResource(testCase, modelType, accessToken))
               .collect(Collectors.toList());
+    } else {
+      validatedTestCases =
+          validationFanOutService.validateTestCases(
+              testCases, testCase -> validateTestCaseAsResource(testCase, modelType, accessToken));
     }
 
     return validatedTestCases;
@@ -278,34 +328,37 @@ public class TestCaseService {
 
   public TestCase updateTestCase(
       TestCase testCase, String measureId, String username, String accessToken) {
-    Measure measure = measureService.findMeasureById(measureId);
-    if (measure == null) {
-      throw new ResourceNotFoundException("Measure", measureId);
-    }
-
+    final Measure measure = findMeasureById(measureId);
     if (!measure.getMeasureMetaData().isDraft()) {
       throw new InvalidDraftStatusException(measure.getId());
     }
     checkTestCaseSpecialCharacters(testCase);
-    if (measure.getTestCases() == null) {
-      measure.setTestCases(new ArrayList<>());
-    }
-    verifyUniqueTestCaseName(testCase, measure);
+    verifyUniqueTestCaseName(testCase, findTestCaseTitlesAndSeries(measureId));
     measureService.verifyAuthorization(username, measure);
-    Instant now = Instant.now();
+    // the last modified time the client read, used to detect a concurrent edit of the test case
+    Instant readLastModifiedAt = testCase.getLastModifiedAt();
+    // Mongo keeps milliseconds, so the returned test case compares equal to the stored one
+    Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
     testCase.setLastModifiedAt(now);
     testCase.setLastModifiedBy(username);
 
     Optional<TestCase> existingOpt =
-        measure.getTestCases().stream().filter(p -> p.getId().equals(testCase.getId())).findFirst();
+        testCase.getId() == null
+            ? Optional.empty()
+            : testCaseRepository
+                .findByIdAndMeasureId(testCase.getId(), measureId)
+                .map(MeasureTestCase::getTestCase);
     if (existingOpt.isPresent()) {
       TestCase existing = existingOpt.get();
+      if (readLastModifiedAt != null
+          && !readLastModifiedAt.equals(existing.getLastModifiedAt())) {
+        throw new TestCaseConflictException(testCase.getId());
+      }
       testCase.setCreatedAt(existing.getCreatedAt());
       testCase.setCreatedBy(existing.getCreatedBy());
       testCase.setResourceUri(existing.getResourceUri());
       // assure patientId is not overwritten
       testCase.setPatientId(existing.getPatientId());
-      measure.getTestCases().remove(existing);
     } else {
       // still allowing upsert
       testCase.setId(ObjectId.get().toString());
@@ -315,21 +368,20 @@ public class TestCaseService {
         testCase.setPatientId(UUID.randomUUID());
       }
     }
-    // this transformation logic needs to be run before hapiFhirValidations or they will fail.
-    if (ModelType.QI_CORE.getValue().equalsIgnoreCase(measure.getModel())
-        && StringUtils.isNotBlank(testCase.getJson())) {
-      testCase.setJson(JsonUtil.enforcePatientId(testCase, madieJsonResourcesBaseUri));
-      testCase.setJson(JsonUtil.updateResourceFullUrls(testCase, madieJsonResourcesBaseUri));
-      testCase.setJson(
-          JsonUtil.replacePatientRefs(testCase.getJson(), testCase.getPatientId().toString()));
-    }
-
+    enforcePatientId(testCase, measure);
     TestCase validatedTestCase =
         validateTestCaseAsResource(
             testCase, ModelType.valueOfName(measure.getModel()), accessToken);
-    measure.getTestCases().add(validatedTestCase);
 
-    measureRepository.save(measure);
+    if (existingOpt.isPresent() && readLastModifiedAt != null) {
+      // the test case may have been changed while it was being validated
+      if (!testCaseRepository.replaceTestCaseIfUnmodified(
+          measureId, validatedTestCase, readLastModifiedAt)) {
+        throw new TestCaseConflictException(testCase.getId());
+      }
+    } else {
+      testCaseRepository.save(MeasureTestCase.of(measureId, validatedTestCase));
+    }
     log.info(
         "User [{}] successfully updated the test case with ID [{}] for the measure with ID[{}] ",
         username,
@@ -338,19 +390,23 @@ public class TestCaseService {
     return validatedTestCase;
   }
 
+  private void enforcePatientId(TestCase testCase, Measure measure) {
+    // this transformation logic needs to be run before hapiFhirValidations or they will fail.
+    if (ModelType.QI_CORE.getValue().equalsIgnoreCase(measure.getModel())
+        && StringUtils.isNotBlank(testCase.getJson())) {
+      testCase.setJson(JsonUtil.normalizeQiCoreBundle(testCase, madieJsonResourcesBaseUri));
+    }
+  }
+
   public TestCase getTestCase(
       String measureId, String testCaseId, boolean validate, String accessToken) {
     Measure measure = findMeasureById(measureId);
     TestCase testCase =
-        Optional.ofNullable(measure.getTestCases())
-            .orElseThrow(() -> new ResourceNotFoundException("Test Case", testCaseId))
-            .stream()
-            .filter(tc -> tc.getId().equals(testCaseId))
-            .findFirst()
-            .orElse(null);
-    if (testCase == null) {
-      throw new ResourceNotFoundException("Test Case", testCaseId);
-    } else if (validate) {
+        testCaseRepository
+            .findByIdAndMeasureId(testCaseId, measureId)
+            .map(MeasureTestCase::getTestCase)
+            .orElseThrow(() -> new ResourceNotFoundException("Test Case", testCaseId));
+    if (validate) {
       testCase.setHapiOperationOutcome(
           validateTestCaseJson(testCase, ModelType.valueOfName(measure.getModel()), accessToken));
     }
@@ -358,7 +414,20 @@ public class TestCaseService {
   }
 
   public List<TestCase> findTestCasesByMeasureId(String measureId) {
-    return findMeasureById(measureId).getTestCases();
+    findMeasureById(measureId);
+    return findTestCases(measureId);
+  }
+
+  private List<TestCase> findTestCases(String measureId) {
+    return testCaseRepository.findAllByMeasureId(measureId).stream()
+        .map(MeasureTestCase::getTestCase)
+        .collect(Collectors.toList());
+  }
+
+  private List<TestCase> findTestCaseTitlesAndSeries(String measureId) {
+    return testCaseRepository.findAllTitleAndSeriesByMeasureId(measureId).stream()
+        .map(MeasureTestCase::getTestCase)
+        .toList();
   }
 
   public String deleteTestCase(String measureId, String testCaseId, String username) {
@@ -371,26 +440,20 @@ public class TestCaseService {
       throw new InvalidDraftStatusException(measure.getId());
     }
     measureService.verifyAuthorization(username, measure);
-    if (isEmpty(measure.getTestCases())) {
-      log.info("Measure with ID [{}] doesn't have any test cases", measureId);
-      throw new InvalidIdException("Test case cannot be deleted, please contact the helpdesk");
-    }
-    List<TestCase> remainingTestCases =
-        measure.getTestCases().stream().filter(g -> !g.getId().equals(testCaseId)).toList();
+    List<MeasureTestCase> deletedTestCases =
+        testCaseRepository.deleteAllByMeasureIdAndIdIn(measureId, List.of(testCaseId));
     // to check if given test case id is present
-    if (remainingTestCases.size() == measure.getTestCases().size()) {
+    if (isEmpty(deletedTestCases)) {
       log.info(
           "Measure with ID [{}] doesn't have any test case with ID [{}]", measureId, testCaseId);
       throw new InvalidIdException("Test case cannot be deleted, please contact the helpdesk");
     }
-    measure.setTestCases(remainingTestCases);
     log.info(
         "User [{}] has successfully deleted a test case with Id [{}] from measure [{}]",
         username,
         testCaseId,
         measureId);
-    measureRepository.save(measure);
-    if (isEmpty(remainingTestCases)) {
+    if (!testCaseRepository.existsByMeasureId(measureId)) {
       sequenceService.resetSequence(measureId);
     }
     return "Test case deleted successfully: " + testCaseId;
@@ -406,19 +469,15 @@ public class TestCaseService {
       throw new InvalidDraftStatusException(measure.getId());
     }
     measureService.verifyAuthorization(username, measure);
-    if (isEmpty(measure.getTestCases())) {
+    if (!testCaseRepository.existsByMeasureId(measureId)) {
       log.info("Measure with ID [{}] doesn't have any test cases", measureId);
       throw new InvalidIdException(
           "Measure {} doesn't have any existing test cases to delete", measureId);
     }
-    List<TestCase> deletedTestCases =
-        measure.getTestCases().stream().filter(tc -> testCaseIds.contains(tc.getId())).toList();
-    List<TestCase> remainingTestCases =
-        measure.getTestCases().stream().filter(tc -> !testCaseIds.contains(tc.getId())).toList();
-    measure.setTestCases(remainingTestCases);
-    measureRepository.save(measure);
+    List<MeasureTestCase> deletedTestCases =
+        testCaseRepository.deleteAllByMeasureIdAndIdIn(measureId, testCaseIds);
 
-    if (isEmpty(measure.getTestCases())) {
+    if (!testCaseRepository.existsByMeasureId(measureId)) {
       sequenceService.resetSequence(measureId);
     }
 
@@ -447,11 +506,20 @@ public class TestCaseService {
 
   public CopyTestCaseResult copyTestCasesToMeasure(
       String targetMeasureId, List<TestCase> sourceTestCases, String username, String accessToken) {
-    List<TestCase> copiedTestCases = new ArrayList<>(sourceTestCases.size());
-
-    Measure targetMeasure = measureService.findMeasureById(targetMeasureId);
+    Measure targetMeasure = findMeasureById(targetMeasureId);
+    if (!targetMeasure.getMeasureMetaData().isDraft()) {
+      log.error("Failed to copy Test Cases to Measure {}, it is not a draft", targetMeasureId);
+      return CopyTestCaseResult.builder()
+          .copiedTestCases(List.of())
+          .didClearExpectedValues(false)
+          .build();
+    }
     List<Group> targetGroups =
         TestCaseServiceUtil.getGroupsWithValidPopulations(targetMeasure.getGroups());
+    // test cases copied so far count towards the names in use
+    List<TestCase> existingTestCases =
+        new ArrayList<>(findTestCaseTitlesAndSeries(targetMeasureId));
+    List<TestCase> newTestCases = new ArrayList<>(sourceTestCases.size());
 
     boolean clearedExpectedValues = false;
     for (TestCase sourceTestCase : sourceTestCases) {
@@ -467,14 +535,16 @@ public class TestCaseService {
         clearedExpectedValues = true;
         clearExpectedValues(dupTestCase);
       }
-      Optional<TestCase> copiedTestCase = Optional.empty();
+      Optional<TestCase> newTestCase = Optional.empty();
       try {
-        copiedTestCase =
-            Optional.of(persistTestCase(dupTestCase, targetMeasureId, username, accessToken));
+        newTestCase =
+            Optional.of(
+                prepareNewTestCase(dupTestCase, targetMeasure, existingTestCases, username));
       } catch (DuplicateTestCaseNameException e) {
         dupTestCase.setTitle(dupTestCase.getTitle() + "-" + new ObjectId());
-        copiedTestCase =
-            Optional.of(persistTestCase(dupTestCase, targetMeasureId, username, accessToken));
+        newTestCase =
+            Optional.of(
+                prepareNewTestCase(dupTestCase, targetMeasure, existingTestCases, username));
       } catch (TestCaseNameLengthException e) {
         log.error(
             "Unable to copy Test Case {} to Measure {}. "
@@ -489,7 +559,27 @@ public class TestCaseService {
             targetMeasureId,
             e);
       }
-      copiedTestCase.ifPresent(copiedTestCases::add);
+      newTestCase.ifPresent(newTestCases::add);
+      newTestCase.ifPresent(existingTestCases::add);
+    }
+
+    List<TestCase> copiedTestCases =
+        validateTestCasesAsResources(
+            newTestCases, ModelType.valueOfName(targetMeasure.getModel()), accessToken);
+    if (!copiedTestCases.isEmpty()) {
+      testCaseRepository.insert(
+          copiedTestCases.stream()
+              .map(testCase -> MeasureTestCase.of(targetMeasureId, testCase))
+              .toList());
+      copiedTestCases.forEach(
+          testCase ->
+              actionLogService.logAction(
+                  testCase.getId(), TestCase.class, ActionType.CREATED, username));
+      log.info(
+          "User [{}] successfully copied [{}] test cases to the measure with ID[{}] ",
+          username,
+          copiedTestCases.size(),
+          targetMeasureId);
     }
     return CopyTestCaseResult.builder()
         .copiedTestCases(copiedTestCases)
@@ -517,7 +607,9 @@ public class TestCaseService {
 
   /**
    * This logic is shared by both the QI-Core "Import from MADiE" workflow, and QDM "Import from
-   * Bonnie" workflow
+   * Bonnie" workflow. The measure and its test cases are loaded once, existing test cases are
+   * looked up by patient id and test case names are checked against an index of the names already
+   * used on the measure. All imported test cases are written in a single bulk write.
    *
    * @param testCaseImportRequests
    * @param measureId
@@ -534,63 +626,144 @@ public class TestCaseService {
       String model) {
     Measure measure = findMeasureById(measureId);
     Set<UUID> checkedTestCases = new HashSet<>();
-    return testCaseImportRequests.stream()
-        .filter(
-            testCaseImportRequest ->
-                !checkedTestCases.contains(testCaseImportRequest.getPatientId()))
-        .map(
-            testCaseImportRequest -> {
-              checkedTestCases.add(testCaseImportRequest.getPatientId());
-              if (testCaseImportRequests.stream()
-                      .map(TestCaseImportRequest::getPatientId)
-                      .filter(uuid -> uuid.equals(testCaseImportRequest.getPatientId()))
-                      .count()
-                  > 1) {
-                return TestCaseImportOutcome.builder()
-                    .patientId(testCaseImportRequest.getPatientId())
-                    .successful(false)
-                    .message(
-                        "Multiple test case files are not supported."
-                            + " Please make sure only one JSON file is in the folder.")
-                    .build();
-              }
-              if (testCaseImportRequest.getJson() == null
-                  || testCaseImportRequest.getJson().isEmpty()) {
-                return TestCaseImportOutcome.builder()
-                    .patientId(testCaseImportRequest.getPatientId())
-                    .successful(false)
-                    .message("Test Case file is missing.")
-                    .build();
-              }
-              TestCaseImportOutcome outCome = checkErrorSpecialChar(model, testCaseImportRequest);
-              if (outCome != null) {
-                return outCome;
-              }
-              if (isEmpty(measure.getTestCases())) {
-                return validateTestCaseJsonAndCreateTestCase(
-                    testCaseImportRequest, measure, userName, accessToken, model);
-              }
-              Optional<TestCase> existingTestCase =
-                  measure.getTestCases().stream()
-                      .filter(
-                          testCase ->
-                              testCase.getPatientId().equals(testCaseImportRequest.getPatientId()))
-                      .findFirst();
-              if (existingTestCase.isPresent()) {
-                return updateTestCaseJsonAndSaveTestCase(
-                    existingTestCase.get(),
-                    testCaseImportRequest,
-                    measureId,
-                    userName,
-                    accessToken,
-                    null,
-                    model);
-              } else {
-                return validateTestCaseJsonAndCreateTestCase(
-                    testCaseImportRequest, measure, userName, accessToken, model);
-              }
-            })
-        .toList();
+    String measureError = verifyMeasureAcceptsImport(measure, userName);
+    if (measureError != null) {
+      return testCaseImportRequests.stream()
+          .filter(
+              testCaseImportRequest -> checkedTestCases.add(testCaseImportRequest.getPatientId()))
+          .map(
+              testCaseImportRequest ->
+                  TestCaseImportOutcome.builder()
+                      .familyName(testCaseImportRequest.getFamilyName())
+                      .givenNames(testCaseImportRequest.getGivenNames())
+                      .patientId(testCaseImportRequest.getPatientId())
+                      .successful(false)
+                      .message(measureError)
+                      .build())
+          .toList();
+    }
+
+    List<TestCase> existingTestCases = findTestCases(measureId);
+    // taken before the import changes the existing test cases in place
+    Map<String, Instant> readLastModifiedAt = new HashMap<>();
+    existingTestCases.forEach(
+        testCase -> readLastModifiedAt.put(testCase.getId(), testCase.getLastModifiedAt()));
+    Map<UUID, TestCase> existingTestCasesByPatientId = new HashMap<>();
+    existingTestCases.forEach(
+        testCase -> existingTestCasesByPatientId.putIfAbsent(testCase.getPatientId(), testCase));
+    Map<UUID, Integer> importRequestsPerPatient = new HashMap<>();
+    testCaseImportRequests.forEach(
+        testCaseImportRequest ->
+            importRequestsPerPatient.merge(testCaseImportRequest.getPatientId(), 1, Integer::sum));
+    TestCaseImportBatch batch = new TestCaseImportBatch(existingTestCases);
+
+    List<TestCaseImportOutcome> outcomes =
+        testCaseImportRequests.stream()
+            .filter(
+                testCaseImportRequest -> checkedTestCases.add(testCaseImportRequest.getPatientId()))
+            .map(
+                testCaseImportRequest -> {
+                  if (importRequestsPerPatient.get(testCaseImportRequest.getPatientId()) > 1) {
+                    return TestCaseImportOutcome.builder()
+                        .patientId(testCaseImportRequest.getPatientId())
+                        .successful(false)
+                        .message(
+                            "Multiple test case files are not supported."
+                                + " Please make sure only one JSON file is in the folder.")
+                        .build();
+                  }
+                  if (testCaseImportRequest.getJson() == null
+                      || testCaseImportRequest.getJson().isEmpty()) {
+                    return TestCaseImportOutcome.builder()
+                        .patientId(testCaseImportRequest.getPatientId())
+                        .successful(false)
+                        .message("Test Case file is missing.")
+                        .build();
+                  }
+                  TestCaseImportOutcome outCome =
+                      checkErrorSpecialChar(model, testCaseImportRequest);
+                  if (outCome != null) {
+                    return outCome;
+                  }
+                  TestCase existingTestCase =
+                      existingTestCasesByPatientId.get(testCaseImportRequest.getPatientId());
+                  if (existingTestCase != null) {
+                    return updateTestCaseJsonAndAddToBatch(
+                        existingTestCase,
+                        testCaseImportRequest,
+                        null,
+                        measure,
+                        userName,
+                        accessToken,
+                        null,
+                        model,
+                        batch);
+                  } else {
+                    return validateTestCaseJsonAndCreateTestCase(
+                        testCaseImportRequest, measure, userName, accessToken, model, batch);
+                  }
+                })
+            .toList();
+
+    List<TestCase> newTestCases = batch.getNewTestCases();
+    if (!newTestCases.isEmpty()) {
+      int caseNumber = sequenceService.generateSequences(measureId, newTestCases.size());
+      for (TestCase newTestCase : newTestCases) {
+        newTestCase.setCaseNumber(caseNumber++);
+      }
+    }
+    List<TestCase> importedTestCases =
+        validateTestCasesAsResources(
+            batch.getTestCases(), ModelType.valueOfName(measure.getModel()), accessToken);
+    Set<String> modifiedTestCaseIds =
+        testCaseRepository.saveTestCasesIfUnmodified(
+            measureId, importedTestCases, readLastModifiedAt);
+    if (!modifiedTestCaseIds.isEmpty()) {
+      failOutcomesOfModifiedTestCases(outcomes, importedTestCases, modifiedTestCaseIds);
+    }
+    log.info(
+        "User [{}] imported [{}] test cases to the measure with ID [{}]",
+        userName,
+        importedTestCases.size() - modifiedTestCaseIds.size(),
+        measureId);
+    return outcomes;
+  }
+
+  // a test case changed while the import ran keeps that change, its import is reported as failed
+  private void failOutcomesOfModifiedTestCases(
+      List<TestCaseImportOutcome> outcomes,
+      List<TestCase> importedTestCases,
+      Set<String> modifiedTestCaseIds) {
+    Set<UUID> patientIds =
+        importedTestCases.stream()
+            .filter(testCase -> modifiedTestCaseIds.contains(testCase.getId()))
+            .map(TestCase::getPatientId)
+            .collect(Collectors.toSet());
+    outcomes.stream()
+        .filter(outcome -> outcome.isSuccessful() && patientIds.contains(outcome.getPatientId()))
+        .forEach(
+            outcome -> {
+              outcome.setSuccessful(false);
+              outcome.setMessage(
+                  "The test case was modified while it was being imported. Please try again.");
+            });
+  }
+
+  private String verifyMeasureAcceptsImport(Measure measure, String userName) {
+    if (!measure.getMeasureMetaData().isDraft()) {
+      return new InvalidDraftStatusException(measure.getId()).getMessage();
+    }
+    try {
+      measureService.verifyAuthorization(userName, measure);
+    } catch (InvalidMeasureStateException | UnauthorizedException e) {
+      log.info(
+          "User {} is unable to import test cases to measure {}; Error Message : {}",
+          userName,
+          measure.getId(),
+          e.getMessage());
+      return e.getMessage();
+    }
+    return null;
   }
 
   private TestCaseImportOutcome validateTestCaseJsonAndCreateTestCase(
@@ -598,10 +771,13 @@ public class TestCaseService {
       Measure measure,
       String userName,
       String accessToken,
-      String model) {
+      String model,
+      TestCaseImportBatch batch) {
     try {
-      String familyName = getPatientFamilyName(model, testCaseImportRequest.getJson());
-      String givenName = getPatientGivenName(model, testCaseImportRequest.getJson());
+      ImportedTestCaseBundle importedBundle =
+          readImportedBundle(model, testCaseImportRequest.getJson());
+      String familyName = importedBundle.getFamilyName();
+      String givenName = importedBundle.getGivenName();
       log.info("Test Case title + Test Case Group:  {}", givenName + " " + familyName);
       if (StringUtils.isBlank(givenName)) {
         return buildTestCaseImportOutcome(
@@ -614,11 +790,9 @@ public class TestCaseService {
               .patientId(testCaseImportRequest.getPatientId())
               .build();
 
-      newTestCase.setCaseNumber(sequenceService.generateSequence(measure.getId()));
-
       List<TestCaseGroupPopulation> testCaseGroupPopulations =
           getTestCaseGroupPopulationsFromImportRequest(
-              model, testCaseImportRequest.getJson(), measure);
+              model, testCaseImportRequest.getJson(), importedBundle, measure);
       List<Group> groups = TestCaseServiceUtil.getGroupsWithValidPopulations(measure.getGroups());
       String warningMessage = null;
       if (ModelType.QDM_5_6.getValue().equalsIgnoreCase(model)) {
@@ -648,14 +822,16 @@ public class TestCaseService {
         TestCaseServiceUtil.assignObservationIdAndCriteriaReferenceCVAndRatio(
             testCaseGroupPopulations, groups);
       }
-      return updateTestCaseJsonAndSaveTestCase(
+      return updateTestCaseJsonAndAddToBatch(
           newTestCase,
           testCaseImportRequest,
-          measure.getId(),
+          importedBundle,
+          measure,
           userName,
           accessToken,
           warningMessage,
-          model);
+          model,
+          batch);
     } catch (JsonProcessingException ex) {
       log.info(
           "User {} is unable to import test case with patient id : "
@@ -690,13 +866,33 @@ public class TestCaseService {
     return patientGivenName;
   }
 
+  /**
+   * Reads the patient names, description and test case JSON from an imported file. QI-Core
+   * bundles are read in a single streaming pass.
+   */
+  private ImportedTestCaseBundle readImportedBundle(String model, String json)
+      throws JsonProcessingException {
+    if (ModelType.QI_CORE.getValue().equalsIgnoreCase(model)) {
+      return JsonUtil.readImportedQiCoreBundle(json);
+    } else if (ModelType.QDM_5_6.getValue().equalsIgnoreCase(model)) {
+      return ImportedTestCaseBundle.builder()
+          .familyName(getPatientFamilyName(model, json))
+          .givenName(getPatientGivenName(model, json))
+          .description(JsonUtil.getTestDescriptionQdm(json))
+          .json(JsonUtil.getTestCaseJson(json))
+          .build();
+    }
+    return new ImportedTestCaseBundle();
+  }
+
   private List<TestCaseGroupPopulation> getTestCaseGroupPopulationsFromImportRequest(
-      String model, String json, Measure measure) throws JsonProcessingException {
+      String model, String json, ImportedTestCaseBundle importedBundle, Measure measure)
+      throws JsonProcessingException {
     List<TestCaseGroupPopulation> testCaseGroupPopulations = null;
     if (ModelType.QI_CORE.getValue().equalsIgnoreCase(model)) {
       testCaseGroupPopulations =
           JsonUtil.getTestCaseGroupPopulationsFromMeasureReport(
-              json,
+              importedBundle.getMeasureReport(),
               "boolean"
                   .equals(StringUtils.lowerCase(measure.getGroups().get(0).getPopulationBasis())));
     } else if (ModelType.QDM_5_6.getValue().equalsIgnoreCase(model)) {
@@ -705,14 +901,16 @@ public class TestCaseService {
     return testCaseGroupPopulations;
   }
 
-  private TestCaseImportOutcome updateTestCaseJsonAndSaveTestCase(
+  private TestCaseImportOutcome updateTestCaseJsonAndAddToBatch(
       TestCase existingTestCase,
       TestCaseImportRequest testCaseImportRequest,
-      String measureId,
+      ImportedTestCaseBundle importedBundle,
+      Measure measure,
       String userName,
       String accessToken,
       String warningMessage,
-      String model) {
+      String model,
+      TestCaseImportBatch batch) {
     TestCaseImportOutcome failureOutcome =
         TestCaseImportOutcome.builder()
             .familyName(testCaseImportRequest.getFamilyName())
@@ -721,10 +919,13 @@ public class TestCaseService {
             .successful(false)
             .build();
     try {
-      existingTestCase.setDescription(
-          getDescription(model, testCaseImportRequest.getJson(), testCaseImportRequest));
-      existingTestCase.setJson(getJson(model, testCaseImportRequest.getJson()));
-      TestCase updatedTestCase = updateTestCase(existingTestCase, measureId, userName, accessToken);
+      if (importedBundle == null) {
+        importedBundle = readImportedBundle(model, testCaseImportRequest.getJson());
+      }
+      existingTestCase.setDescription(getDescription(model, importedBundle, testCaseImportRequest));
+      existingTestCase.setJson(importedBundle.getJson());
+      TestCase updatedTestCase =
+          prepareImportedTestCase(existingTestCase, measure, userName, batch);
       log.info(
           "User {} successfully imported test case with patient id : {}",
           userName,
@@ -749,11 +950,7 @@ public class TestCaseService {
       failureOutcome.setMessage(
           "Error while processing Test Case JSON.  Please make sure Test Case JSON is valid.");
       return failureOutcome;
-    } catch (ResourceNotFoundException
-        | InvalidDraftStatusException
-        | InvalidMeasureStateException
-        | UnauthorizedException
-        | DuplicateTestCaseNameException e) {
+    } catch (DuplicateTestCaseNameException e) {
       log.info(
           "User {} is unable to import test case with patient id : {}; Error Message : {}",
           userName,
@@ -774,6 +971,34 @@ public class TestCaseService {
     }
   }
 
+  /**
+   * Applies the changes {@link #updateTestCase} makes to a test case, checking the name against the
+   * import batch instead of the stored test cases, and adds the test case to the batch. The whole
+   * batch is validated once all files have been processed.
+   */
+  private TestCase prepareImportedTestCase(
+      TestCase testCase, Measure measure, String username, TestCaseImportBatch batch) {
+    checkTestCaseSpecialCharacters(testCase);
+    if (batch.isNameTaken(testCase)) {
+      throw new DuplicateTestCaseNameException();
+    }
+    Instant now = Instant.now();
+    testCase.setLastModifiedAt(now);
+    testCase.setLastModifiedBy(username);
+    boolean isNew = testCase.getId() == null;
+    if (isNew) {
+      testCase.setId(ObjectId.get().toString());
+      testCase.setCreatedAt(now);
+      testCase.setCreatedBy(username);
+      if (testCase.getPatientId() == null) {
+        testCase.setPatientId(UUID.randomUUID());
+      }
+    }
+    enforcePatientId(testCase, measure);
+    batch.add(testCase, isNew);
+    return testCase;
+  }
+
   protected String getTitle(TestCaseImportRequest importRequest, final String givenName) {
     return importRequest == null || importRequest.getTestCaseMetaData() == null
         ? givenName
@@ -789,28 +1014,22 @@ public class TestCaseService {
   protected String getDescription(
       String model, String json, TestCaseImportRequest testCaseImportRequest)
       throws JsonProcessingException {
-    String description = null;
-    if (ModelType.QI_CORE.getValue().equalsIgnoreCase(model)) {
-      String defaultDescription = JsonUtil.getTestDescription(json);
-      description =
-          testCaseImportRequest == null || testCaseImportRequest.getTestCaseMetaData() == null
-              ? defaultDescription
-              : ObjectUtils.defaultIfNull(
-                  testCaseImportRequest.getTestCaseMetaData().getDescription(), defaultDescription);
-    } else if (ModelType.QDM_5_6.getValue().equalsIgnoreCase(model)) {
-      description = JsonUtil.getTestDescriptionQdm(json);
-    }
-    return description;
+    return getDescription(model, readImportedBundle(model, json), testCaseImportRequest);
   }
 
-  private String getJson(String model, String json) throws JsonProcessingException {
-    String jsonFromImportRequest = null;
-    if (ModelType.QI_CORE.getValue().equalsIgnoreCase(model)) {
-      jsonFromImportRequest = JsonUtil.removeMeasureReportFromJson(json);
-    } else if (ModelType.QDM_5_6.getValue().equalsIgnoreCase(model)) {
-      jsonFromImportRequest = JsonUtil.getTestCaseJson(json);
+  private String getDescription(
+      String model,
+      ImportedTestCaseBundle importedBundle,
+      TestCaseImportRequest testCaseImportRequest) {
+    String description = importedBundle.getDescription();
+    if (ModelType.QI_CORE.getValue().equalsIgnoreCase(model)
+        && testCaseImportRequest != null
+        && testCaseImportRequest.getTestCaseMetaData() != null) {
+      description =
+          ObjectUtils.defaultIfNull(
+              testCaseImportRequest.getTestCaseMetaData().getDescription(), description);
     }
-    return jsonFromImportRequest;
+    return description;
   }
 
   private String formatErrorMessage(Exception e) {
@@ -822,7 +1041,7 @@ public class TestCaseService {
   }
 
   public Measure findMeasureById(String measureId) {
-    Measure measure = measureRepository.findById(measureId).orElse(null);
+    Measure measure = measureRepository.findWithoutTestCasesById(measureId).orElse(null);
     if (measure == null) {
       log.info("Could not find Measure with id: {}", measureId);
       throw new ResourceNotFoundException("Measure", measureId);
@@ -831,11 +1050,10 @@ public class TestCaseService {
   }
 
   public List<String> findTestCaseSeriesByMeasureId(String measureId) {
-    Measure measure =
-        measureRepository
-            .findAllTestCaseSeriesByMeasureId(measureId)
-            .orElseThrow(() -> new ResourceNotFoundException("Measure", measureId));
-    return Optional.ofNullable(measure.getTestCases()).orElse(List.of()).stream()
+    if (!measureRepository.existsById(measureId)) {
+      throw new ResourceNotFoundException("Measure", measureId);
+    }
+    return findTestCaseTitlesAndSeries(measureId).stream()
         .map(TestCase::getSeries)
         .filter(series -> series != null && !series.trim().isEmpty())
         .distinct()
@@ -849,9 +1067,7 @@ public class TestCaseService {
     }
 
     try {
-      return fhirServicesClient
-          .validateBundle(testCase.getJson(), modelType, accessToken)
-          .getBody();
+      return hapiOperationOutcomeCache.validate(testCase.getJson(), modelType, accessToken);
     } catch (HttpClientErrorException ex) {
       log.warn("HAPI FHIR returned response code [{}]", ex.getRawStatusCode(), ex);
       try {
@@ -964,4 +1180,40 @@ public class TestCaseService {
         .message(message)
         .build();
   }
+
+  /** Test cases of a single import, with an index of the test case names used on the measure. */
+  private static class TestCaseImportBatch {
+    private final Map<String, List<String>> testCaseIdsByName = new HashMap<>();
+    @Getter private final List<TestCase> testCases = new ArrayList<>();
+    @Getter private final List<TestCase> newTestCases = new ArrayList<>();
+
+    TestCaseImportBatch(List<TestCase> existingTestCases) {
+      existingTestCases.forEach(this::indexName);
+    }
+
+    // same comparison as verifyUniqueTestCaseName: case insensitive, spaces ignored
+    boolean isNameTaken(TestCase testCase) {
+      return testCaseIdsByName.getOrDefault(normalizedName(testCase), List.of()).stream()
+          .anyMatch(id -> !StringUtils.equalsIgnoreCase(id, testCase.getId()));
+    }
+
+    void add(TestCase testCase, boolean isNew) {
+      testCases.add(testCase);
+      if (isNew) {
+        newTestCases.add(testCase);
+        indexName(testCase);
+      }
+    }
+
+    private void indexName(TestCase testCase) {
+      testCaseIdsByName
+          .computeIfAbsent(normalizedName(testCase), name -> new ArrayList<>())
+          .add(testCase.getId());
+    }
+
+    private static String normalizedName(TestCase testCase) {
+      return StringUtils.deleteWhitespace(testCase.getTitle() + testCase.getSeries())
+          .toLowerCase(Locale.ROOT);
+    }
+  }
 }
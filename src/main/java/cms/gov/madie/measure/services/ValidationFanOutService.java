@@ -0,0 +1,148 @@
+package cms.gov.madie.measure.services;
+
+import gov.cms.madie.models.measure.HapiOperationOutcome;
+import gov.cms.madie.models.measure.TestCase;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Runs remote validations of many items in parallel on a pool of bounded size. Every validation
+ * gets its own timeout, counted from the moment it starts rather than from when it was queued.
+ * Results are returned in the order of the given items.
+ *
+ * <p>One caller has at most as many validations waiting or running as the pool has threads, so a
+ * large import cannot hold up the validations of everyone else. A validation counts against its
+ * caller until it returns, even once the caller has stopped waiting for it; how long a validation
+ * can hang is bounded by the read timeout of the client it calls. The queue of the pool is bounded
+ * as well; a validation that does not fit is not run, and gets the fallback result.
+ */
+@Slf4j
+@Service
+public class ValidationFanOutService {
+
+  static final int QUEUED_PER_THREAD = 16;
+  static final String TIMED_OUT_MESSAGE = "Validation of the test case JSON timed out.";
+  static final String FAILED_MESSAGE =
+      "An unknown exception occurred while validating the test case JSON.";
+
+  private final ExecutorService executorService;
+  private final int concurrency;
+  private final long timeoutMillis;
+
+  public ValidationFanOutService(
+      @Value("${madie.fhir.service.hapi-fhir.validation.concurrency}") int concurrency,
+      @Value("${madie.fhir.service.hapi-fhir.validation.timeout-ms}") long timeoutMillis) {
+    this.executorService =
+        new ThreadPoolExecutor(
+            concurrency,
+            concurrency,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(concurrency * QUEUED_PER_THREAD),
+            new CustomizableThreadFactory("validation-"),
+            new ThreadPoolExecutor.AbortPolicy());
+    this.concurrency = concurrency;
+    this.timeoutMillis = timeoutMillis;
+  }
+
+  /**
+   * Validates every test case. A test case whose validation throws or times out is returned marked
+   * as an invalid resource, with an outcome saying why.
+   *
+   * @return the validated test cases, in the same order as the given ones
+   */
+  public List<TestCase> validateTestCases(
+      List<TestCase> testCases, Function<TestCase, TestCase> validation) {
+    return validateAll(testCases, validation, ValidationFanOutService::markValidationFailed);
+  }
+
+  /**
+   * Applies the validation to every item, running at most the configured number of validations at
+   * once. A validation that throws or does not finish within the timeout is replaced by the result
+   * of the fallback for that item.
+   *
+   * @return the results, in the same order as the items
+   */
+  public <T, R> List<R> validateAll(
+      List<T> items, Function<T, R> validation, BiFunction<T, Throwable, R> fallback) {
+    Semaphore permits = new Semaphore(concurrency);
+    List<CompletableFuture<R>> futures = new ArrayList<>(items.size());
+    for (T item : items) {
+      permits.acquireUninterruptibly();
+      futures.add(submit(item, validation, fallback, permits));
+    }
+    return futures.stream().map(CompletableFuture::join).collect(Collectors.toList());
+  }
+
+  private static TestCase markValidationFailed(TestCase testCase, Throwable ex) {
+    if (testCase == null) {
+      return null;
+    }
+    boolean timedOut = ex instanceof TimeoutException;
+    return testCase.toBuilder()
+        .hapiOperationOutcome(
+            HapiOperationOutcome.builder()
+                .code(timedOut ? 504 : 500)
+                .message(timedOut ? TIMED_OUT_MESSAGE : FAILED_MESSAGE)
+                .build())
+        .validResource(false)
+        .build();
+  }
+
+  private <T, R> CompletableFuture<R> submit(
+      T item,
+      Function<T, R> validation,
+      BiFunction<T, Throwable, R> fallback,
+      Semaphore permits) {
+    CompletableFuture<R> future = new CompletableFuture<>();
+    try {
+      // the validation runs under the deadline of the request it is made for
+      executorService.execute(
+          RequestDeadline.wrap(
+              () -> {
+                // the timeout starts once a thread picks the validation up
+                future.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+                try {
+                  future.complete(validation.apply(item));
+                } catch (Exception ex) {
+                  future.completeExceptionally(ex);
+                } finally {
+                  // a timed out validation keeps its permit until it actually returns
+                  permits.release();
+                }
+              }));
+    } catch (RejectedExecutionException ex) {
+      permits.release();
+      future.completeExceptionally(ex);
+    }
+    return future.exceptionally(
+        ex -> {
+          Throwable cause = ex instanceof CompletionException ? ex.getCause() : ex;
+          log.warn("Validation did not complete, using fallback result", cause);
+          return fallback.apply(item, cause);
+        });
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executorService.shutdownNow();
+  }
+}
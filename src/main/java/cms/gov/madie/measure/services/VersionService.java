@@ -1,9 +1,11 @@
 package cms.gov.madie.measure.services;
 
+import cms.gov.madie.measure.dto.MeasureTestCase;
 import cms.gov.madie.measure.exceptions.*;
 import cms.gov.madie.measure.repositories.CqmMeasureRepository;
 import cms.gov.madie.measure.repositories.ExportRepository;
 import cms.gov.madie.measure.repositories.MeasureRepository;
+import cms.gov.madie.measure.repositories.TestCaseRepository;
 import gov.cms.madie.models.common.ActionType;
 import gov.cms.madie.models.common.ModelType;
 import gov.cms.madie.models.common.Version;
@@ -33,6 +35,7 @@ public class VersionService {
 
   private final ActionLogService actionLogService;
   private final MeasureRepository measureRepository;
+  private final TestCaseRepository testCaseRepository;
   private final ElmTranslatorClient elmTranslatorClient;
   private final FhirServicesClient fhirServicesClient;
   private final ExportRepository exportRepository;
@@ -42,6 +45,8 @@ public class VersionService {
   private final ExportService exportService;
   private final TestCaseSequenceService sequenceService;
   private final ElmToJsonService elmToJsonService;
+  private final ValidationFanOutService validationFanOutService;
+  private final HapiOperationOutcomeCache hapiOperationOutcomeCache;
 
   public enum VersionValidationResult {
     VALID,
@@ -54,11 +59,12 @@ public class VersionService {
 
   public VersionValidationResult checkValidVersioning(
       String id, String versionType, String username, String accessToken) {
-    Measure measure = validateVersionOptions(id, versionType, username, accessToken);
+    Measure measure =
+        validateVersionOptions(
+            measureService.findMeasureMetaDataById(id), id, versionType, username, accessToken);
 
     //    if test cases are invalid but no exception has been thrown the versioning may continue.
-    if (measure.getTestCases() != null
-        && measure.getTestCases().stream().anyMatch(p -> !p.isValidResource())) {
+    if (testCaseRepository.existsByMeasureIdAndTestCaseValidResource(measure.getId(), false)) {
       log.warn(
           "User [{}] attempted to version measure with id [{}] which has invalid test cases",
           username,
@@ -70,7 +76,9 @@ public class VersionService {
 
   public Measure createVersion(String id, String versionType, String username, String accessToken)
       throws Exception {
-    Measure measure = validateVersionOptions(id, versionType, username, accessToken);
+    Measure measure =
+        validateVersionOptions(
+            measureService.findMeasureById(id), id, versionType, username, accessToken);
 
     if (measure instanceof FhirMeasure) {
       return versionFhirMeasure(versionType, username, accessToken, measure);
@@ -83,18 +91,24 @@ public class VersionService {
       String versionType, String username, Measure measure, String accessToken) throws Exception {
     Measure upversionedMeasure = version(versionType, username, measure);
 
-    var measurePackage = exportService.getMeasureExport(upversionedMeasure, accessToken);
-
-    // convert to CqmMeasure
-    CqmMeasure cqmMeasure =
-        qdmPackageService.convertCqm((QdmMeasure) upversionedMeasure, accessToken);
-
-    String humanReadable =
-        qdmPackageService.getHumanReadable(upversionedMeasure, username, accessToken);
-    // save exports
-    savePackageData(upversionedMeasure, measurePackage.getExportPackage(), humanReadable, username);
-    //	save CqmMeasure
-    cqmMeasureRepository.save(cqmMeasure);
+    try {
+      var measurePackage = exportService.getMeasureExport(upversionedMeasure, accessToken);
+
+      // convert to CqmMeasure
+      CqmMeasure cqmMeasure =
+          qdmPackageService.convertCqm((QdmMeasure) upversionedMeasure, accessToken);
+
+      String humanReadable =
+          qdmPackageService.getHumanReadable(upversionedMeasure, username, accessToken);
+      // save exports
+      savePackageData(
+          upversionedMeasure, measurePackage.getExportPackage(), humanReadable, username);
+      //	save CqmMeasure
+      cqmMeasureRepository.save(cqmMeasure);
+    } catch (Exception e) {
+      releaseVersion(upversionedMeasure);
+      throw e;
+    }
 
     return applyMeasureVersion(versionType, username, upversionedMeasure);
   }
@@ -115,9 +129,14 @@ public class VersionService {
       String versionType, String username, String accessToken, Measure measure) throws Exception {
     elmToJsonService.retrieveElmJson(measure, accessToken);
     Measure upversionedMeasure = version(versionType, username, measure);
-    var measureBundle =
-        fhirServicesClient.getMeasureBundle(upversionedMeasure, accessToken, "export");
-    saveMeasureBundle(upversionedMeasure, measureBundle, username);
+    try {
+      var measureBundle =
+          fhirServicesClient.getMeasureBundle(upversionedMeasure, accessToken, "export");
+      saveMeasureBundle(upversionedMeasure, measureBundle, username);
+    } catch (Exception e) {
+      releaseVersion(upversionedMeasure);
+      throw e;
+    }
 
     return applyMeasureVersion(versionType, username, upversionedMeasure);
   }
@@ -128,7 +147,7 @@ public class VersionService {
     upversionedMeasure.setLastModifiedAt(Instant.now());
     upversionedMeasure.setLastModifiedBy(username);
     Version oldVersion = upversionedMeasure.getVersion();
-    Version newVersion = getNextVersion(upversionedMeasure, versionType);
+    Version newVersion = allocateNextVersion(upversionedMeasure, versionType);
     upversionedMeasure.setVersion(newVersion);
     String newCql =
         upversionedMeasure
@@ -158,8 +177,7 @@ public class VersionService {
   }
 
   private Measure validateVersionOptions(
-      String id, String versionType, String username, String accessToken) {
-    Measure measure = measureService.findMeasureById(id);
+      Measure measure, String id, String versionType, String username, String accessToken) {
     if (measure == null) {
       throw new ResourceNotFoundException("Measure", id);
     }
@@ -216,12 +234,17 @@ public class VersionService {
         savedDraft.setTestCases(
             assignCaseNumbersWhenCaseNumbersNotExist(
                 savedDraft.getTestCases(), savedDraft.getId()));
-        savedDraft = measureRepository.save(savedDraft);
       } else {
         sequenceService.setSequence(
             savedDraft.getId(),
             findHighestCaseNumberWhenCaseNumbersExist(savedDraft.getTestCases()));
       }
+      // test cases are not written along with the measure
+      String draftId = savedDraft.getId();
+      testCaseRepository.insert(
+          savedDraft.getTestCases().stream()
+              .map(testCase -> MeasureTestCase.of(draftId, testCase))
+              .toList());
     }
 
     actionLogService.logAction(savedDraft.getId(), Measure.class, ActionType.DRAFTED, username);
@@ -255,41 +278,42 @@ public class VersionService {
     if (CollectionUtils.isEmpty(testCases)) {
       return List.of();
     }
-    return testCases.stream()
-        .map(
-            testCase -> {
-              AtomicInteger indexHolder = new AtomicInteger();
-              List<TestCaseGroupPopulation> updatedTestCaseGroupPopulations =
-                  Optional.ofNullable(testCase.getGroupPopulations()).orElse(List.of()).stream()
-                      .map(
-                          testCaseGroupPopulation ->
-                              testCaseGroupPopulation.toBuilder()
-                                  .groupId(draftGroups.get(indexHolder.getAndIncrement()).getId())
-                                  .build())
-                      .toList();
-
-              if (ModelType.QDM_5_6.getValue().equalsIgnoreCase(currentMeasure.getModel())) {
-                return testCase.toBuilder()
-                    .id(ObjectId.get().toString())
-                    .groupPopulations(updatedTestCaseGroupPopulations)
-                    .build();
-              }
-              HapiOperationOutcome hapiOperationOutcome =
-                  fhirServicesClient
-                      .validateBundle(
-                          testCase.getJson(),
-                          ModelType.valueOfName(currentMeasure.getModel()),
-                          accessToken)
-                      .getBody();
-
-              return testCase.toBuilder()
-                  .id(ObjectId.get().toString())
-                  .hapiOperationOutcome(hapiOperationOutcome)
-                  .validResource(hapiOperationOutcome.isSuccessful())
-                  .groupPopulations(updatedTestCaseGroupPopulations)
-                  .build();
-            })
-        .collect(Collectors.toList());
+    List<TestCase> clonedTestCases =
+        testCases.stream()
+            .map(
+                testCase -> {
+                  AtomicInteger indexHolder = new AtomicInteger();
+                  List<TestCaseGroupPopulation> updatedTestCaseGroupPopulations =
+                      Optional.ofNullable(testCase.getGroupPopulations()).orElse(List.of()).stream()
+                          .map(
+                              testCaseGroupPopulation ->
+                                  testCaseGroupPopulation.toBuilder()
+                                      .groupId(
+                                          draftGroups.get(indexHolder.getAndIncrement()).getId())
+                                      .build())
+                          .toList();
+                  return testCase.toBuilder()
+                      .id(ObjectId.get().toString())
+                      .groupPopulations(updatedTestCaseGroupPopulations)
+                      .build();
+                })
+            .collect(Collectors.toList());
+    if (ModelType.QDM_5_6.getValue().equalsIgnoreCase(currentMeasure.getModel())) {
+      return clonedTestCases;
+    }
+
+    ModelType modelType = ModelType.valueOfName(currentMeasure.getModel());
+    return validationFanOutService.validateTestCases(
+        clonedTestCases,
+        testCase -> {
+          // unchanged bundles are usually still cached from when they were last validated
+          HapiOperationOutcome hapiOperationOutcome =
+              hapiOperationOutcomeCache.validate(testCase.getJson(), modelType, accessToken);
+          return testCase.toBuilder()
+              .hapiOperationOutcome(hapiOperationOutcome)
+              .validResource(hapiOperationOutcome.isSuccessful())
+              .build();
+        });
   }
 
   /** Returns false if there is already a draft for the measure family. */
@@ -331,6 +355,10 @@ public class VersionService {
     }
   }
 
+  /**
+   * The version the measure would be given if it were versioned now. Versioning itself allocates
+   * its version with {@link #allocateNextVersion}, so this is only a preview.
+   */
   public Version getNextVersion(Measure measure, String versionType) {
     Version version;
 
@@ -363,6 +391,52 @@ public class VersionService {
     return new Version();
   }
 
+  /**
+   * Allocates the next version of the measure from the version counters of its measure set, so
+   * concurrent requests to version measures of the same set are always given different versions.
+   */
+  Version allocateNextVersion(Measure measure, String versionType) {
+    String measureSetId = measure.getMeasureSetId();
+    if (VERSION_TYPE_MAJOR.equalsIgnoreCase(versionType)) {
+      return Version.builder()
+          .major(measureRepository.allocateMajorVersion(measureSetId))
+          .minor(0)
+          .revisionNumber(0)
+          .build();
+
+    } else if (VERSION_TYPE_MINOR.equalsIgnoreCase(versionType)) {
+      Version version = measure.getVersion();
+      return version.toBuilder()
+          .minor(measureRepository.allocateMinorVersion(measureSetId, version.getMajor()))
+          .revisionNumber(0)
+          .build();
+
+    } else if (VERSION_TYPE_PATCH.equalsIgnoreCase(versionType)) {
+      Version version = measure.getVersion();
+      return version.toBuilder()
+          .revisionNumber(
+              measureRepository.allocateRevisionNumber(
+                  measureSetId, version.getMajor(), version.getMinor()))
+          .build();
+    }
+
+    return new Version();
+  }
+
+  // a version that was allocated but never saved can be given to the next request instead
+  private void releaseVersion(Measure upversionedMeasure) {
+    try {
+      measureRepository.releaseVersion(
+          upversionedMeasure.getMeasureSetId(), upversionedMeasure.getVersion());
+    } catch (RuntimeException e) {
+      log.warn(
+          "Unable to release version [{}] of measure set [{}]",
+          upversionedMeasure.getVersion(),
+          upversionedMeasure.getMeasureSetId(),
+          e);
+    }
+  }
+
   public String generateLibraryContentLine(String cqlLibraryName, Version version) {
     return "library " + cqlLibraryName + " version " + "'" + version + "'";
   }
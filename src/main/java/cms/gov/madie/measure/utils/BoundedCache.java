@@ -0,0 +1,96 @@
+package cms.gov.madie.measure.utils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An in-memory cache holding a bounded number of entries, each for a limited time, that drops the
+ * least recently used entry first when it is full. The caches of this service are built on it, so
+ * they all bound their memory and expire their entries the same way.
+ *
+ * <p>Every eviction and clear moves the cache on to a new generation. A caller that reads a value
+ * from elsewhere while it may be evicted takes the generation before reading, and puts the value
+ * with it: the put is dropped if the cache was evicted in between, so a stale read cannot be
+ * cached over the eviction of a newer write.
+ */
+public class BoundedCache<K, V> {
+
+  private final int maxEntries;
+  private final Duration timeToLive;
+  private final Clock clock;
+  private final Map<K, Entry<V>> entries;
+  private long generation;
+
+  /** A cache whose entries never expire, and are only dropped when it is full. */
+  public BoundedCache(int maxEntries) {
+    this(maxEntries, null, Clock.systemUTC());
+  }
+
+  public BoundedCache(int maxEntries, Duration timeToLive, Clock clock) {
+    this.maxEntries = maxEntries;
+    this.timeToLive = timeToLive;
+    this.clock = clock;
+    // access order, so the least recently used entry is dropped first
+    this.entries =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+            return size() > BoundedCache.this.maxEntries;
+          }
+        };
+  }
+
+  /** Returns the cached value, or null if it is not cached or has expired. */
+  public synchronized V get(K key) {
+    Entry<V> entry = entries.get(key);
+    if (entry == null) {
+      return null;
+    }
+    if (entry.expiresAt() != null && entry.expiresAt().isBefore(clock.instant())) {
+      entries.remove(key);
+      return null;
+    }
+    return entry.value();
+  }
+
+  public synchronized void put(K key, V value) {
+    entries.put(
+        key, new Entry<>(value, timeToLive == null ? null : clock.instant().plus(timeToLive)));
+  }
+
+  /**
+   * Puts the value only if the cache has not been evicted or cleared since the given generation.
+   *
+   * @return whether the value was put
+   */
+  public synchronized boolean put(K key, V value, long generation) {
+    if (generation != this.generation) {
+      return false;
+    }
+    put(key, value);
+    return true;
+  }
+
+  public synchronized long generation() {
+    return generation;
+  }
+
+  public synchronized void evict(K key) {
+    entries.remove(key);
+    generation++;
+  }
+
+  public synchronized void clear() {
+    entries.clear();
+    generation++;
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  private record Entry<V>(V value, Instant expiresAt) {}
+}
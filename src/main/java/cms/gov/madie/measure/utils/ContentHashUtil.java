@@ -0,0 +1,21 @@
+package cms.gov.madie.measure.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+public class ContentHashUtil {
+
+  /** Hex encoded SHA-256 of the UTF-8 bytes of the value, for use as a cache key. */
+  public static String sha256(String value) {
+    try {
+      return HexFormat.of()
+          .formatHex(
+              MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      // every JVM is required to provide SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,46 @@
+package cms.gov.madie.measure.utils;
+
+import gov.cms.madie.models.measure.Measure;
+import gov.cms.madie.models.measure.TestCase;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Builds the measure sent to a downstream service for one operation, leaving out what that
+ * operation does not read. The result is a copy of the same measure model, so it is serialized and
+ * read downstream as before, and the given measure is left as it is.
+ */
+public class DownstreamPayloadUtil {
+
+  /**
+   * For the measure bundle and export, the QDM package, the human readable and the CQM conversion,
+   * none of which include test cases.
+   */
+  public static Measure withoutTestCases(Measure measure) {
+    if (measure == null) {
+      return null;
+    }
+    return measure.toBuilder().testCases(List.of()).build();
+  }
+
+  /**
+   * For the test case export, with only the exported test cases and without the validation outcome
+   * stored on each of them.
+   */
+  public static Measure withExportedTestCases(Measure measure, List<String> testCaseIds) {
+    if (measure == null) {
+      return null;
+    }
+    Set<String> exported = testCaseIds == null ? Set.of() : new HashSet<>(testCaseIds);
+    List<TestCase> testCases =
+        measure.getTestCases() == null
+            ? List.of()
+            : measure.getTestCases().stream()
+                .filter(testCase -> exported.contains(testCase.getId()))
+                .map(testCase -> testCase.toBuilder().hapiOperationOutcome(null).build())
+                .toList();
+    return measure.toBuilder().testCases(testCases).build();
+  }
+}
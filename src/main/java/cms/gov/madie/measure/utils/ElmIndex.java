@@ -0,0 +1,271 @@
+package cms.gov.madie.measure.utils;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What the measure validations need from a translated ELM library, read from the ELM JSON in a
+ * single pass. Statement expressions and annotations, which make up most of a large library, are
+ * skipped by the parser instead of being read into memory. Instances are immutable and can be
+ * shared between threads.
+ */
+@Getter
+public final class ElmIndex {
+
+  public static final ElmIndex EMPTY =
+      new ElmIndex(Map.of(), Map.of(), List.of(), List.of(), List.of(), 0);
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+  private static final String NAMED_TYPE_SPECIFIER = "NamedTypeSpecifier";
+
+  /** Return type of every statement definition, "NA" when the ELM does not name one. */
+  private final Map<String, String> definitionReturnTypes;
+
+  /**
+   * Population basis each function can be a measure observation for: "Boolean" for functions
+   * without parameters, the parameter type for functions with one non-Boolean parameter, "NA"
+   * otherwise.
+   */
+  private final Map<String, String> observationPopulationBases;
+
+  private final List<String> valueSetIds;
+  private final List<CodeDefinition> codes;
+  private final List<CodeSystemDefinition> codeSystems;
+
+  @Getter(AccessLevel.NONE)
+  private final int errorCount;
+
+  private ElmIndex(
+      Map<String, String> definitionReturnTypes,
+      Map<String, String> observationPopulationBases,
+      List<String> valueSetIds,
+      List<CodeDefinition> codes,
+      List<CodeSystemDefinition> codeSystems,
+      int errorCount) {
+    this.definitionReturnTypes = Collections.unmodifiableMap(definitionReturnTypes);
+    this.observationPopulationBases = Collections.unmodifiableMap(observationPopulationBases);
+    this.valueSetIds = Collections.unmodifiableList(valueSetIds);
+    this.codes = Collections.unmodifiableList(codes);
+    this.codeSystems = Collections.unmodifiableList(codeSystems);
+    this.errorCount = errorCount;
+  }
+
+  public record CodeDefinition(String name, String id, String display, String codeSystemName) {}
+
+  public record CodeSystemDefinition(String name, String id, String version) {}
+
+  public boolean hasDefinition(String name) {
+    return definitionReturnTypes.containsKey(name);
+  }
+
+  /** True when the translator reported errors in the errorExceptions of the ELM JSON. */
+  public boolean hasErrors() {
+    return errorCount > 0;
+  }
+
+  /** Returns the first code system with the given name, or null if there is none. */
+  public CodeSystemDefinition getCodeSystem(String name) {
+    return codeSystems.stream()
+        .filter(codeSystem -> StringUtils.equals(codeSystem.name(), name))
+        .findFirst()
+        .orElse(null);
+  }
+
+  /**
+   * Reads the index from ELM JSON. Blank ELM gives the empty index.
+   *
+   * @throws JsonProcessingException if the ELM is not valid JSON
+   */
+  public static ElmIndex parse(String elmJson) throws JsonProcessingException {
+    if (StringUtils.isBlank(elmJson)) {
+      return EMPTY;
+    }
+    Map<String, String> definitionReturnTypes = new LinkedHashMap<>();
+    Map<String, String> observationPopulationBases = new LinkedHashMap<>();
+    List<String> valueSetIds = new ArrayList<>();
+    List<CodeDefinition> codes = new ArrayList<>();
+    List<CodeSystemDefinition> codeSystems = new ArrayList<>();
+    int errorCount = 0;
+    try (JsonParser parser = OBJECT_MAPPER.createParser(elmJson)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        return EMPTY;
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.currentName();
+        parser.nextToken();
+        if ("errorExceptions".equals(field)) {
+          JsonNode errorExceptions = parser.readValueAsTree();
+          errorCount = errorExceptions == null ? 0 : errorExceptions.size();
+        } else if ("library".equals(field) && parser.currentToken() == JsonToken.START_OBJECT) {
+          while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String libraryField = parser.currentName();
+            parser.nextToken();
+            switch (libraryField) {
+              case "statements" ->
+                  readStatements(parser, definitionReturnTypes, observationPopulationBases);
+              case "valueSets" -> {
+                for (JsonNode valueSet : readDefs(parser)) {
+                  valueSetIds.add(textOrNull(valueSet, "id"));
+                }
+              }
+              case "codes" -> {
+                for (JsonNode code : readDefs(parser)) {
+                  codes.add(
+                      new CodeDefinition(
+                          textOrNull(code, "name"),
+                          textOrNull(code, "id"),
+                          textOrNull(code, "display"),
+                          textOrNull(code.path("codeSystem"), "name")));
+                }
+              }
+              case "codeSystems" -> {
+                for (JsonNode codeSystem : readDefs(parser)) {
+                  codeSystems.add(
+                      new CodeSystemDefinition(
+                          textOrNull(codeSystem, "name"),
+                          textOrNull(codeSystem, "id"),
+                          textOrNull(codeSystem, "version")));
+                }
+              }
+              default -> parser.skipChildren();
+            }
+          }
+        } else {
+          parser.skipChildren();
+        }
+      }
+    } catch (JsonProcessingException e) {
+      throw e;
+    } catch (IOException e) {
+      // reading from a String does no I/O
+      throw new UncheckedIOException(e);
+    }
+    return new ElmIndex(
+        definitionReturnTypes,
+        observationPopulationBases,
+        valueSetIds,
+        codes,
+        codeSystems,
+        errorCount);
+  }
+
+  private static void readStatements(
+      JsonParser parser,
+      Map<String, String> definitionReturnTypes,
+      Map<String, String> observationPopulationBases)
+      throws IOException {
+    if (parser.currentToken() != JsonToken.START_OBJECT) {
+      parser.skipChildren();
+      return;
+    }
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.currentName();
+      if (parser.nextToken() != JsonToken.START_ARRAY || !"def".equals(field)) {
+        parser.skipChildren();
+        continue;
+      }
+      while (parser.nextToken() != JsonToken.END_ARRAY) {
+        if (parser.currentToken() == JsonToken.START_OBJECT) {
+          readStatement(parser, definitionReturnTypes, observationPopulationBases);
+        } else {
+          parser.skipChildren();
+        }
+      }
+    }
+  }
+
+  private static void readStatement(
+      JsonParser parser,
+      Map<String, String> definitionReturnTypes,
+      Map<String, String> observationPopulationBases)
+      throws IOException {
+    String name = null;
+    String type = null;
+    String resultTypeName = null;
+    JsonNode resultTypeSpecifier = null;
+    JsonNode operands = null;
+    // anything else, above all the expression and annotation of the statement, is skipped
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.currentName();
+      parser.nextToken();
+      switch (field) {
+        case "name" -> name = parser.getValueAsString();
+        case "type" -> type = parser.getValueAsString();
+        case "resultTypeName" -> resultTypeName = parser.getValueAsString();
+        case "resultTypeSpecifier" -> resultTypeSpecifier = parser.readValueAsTree();
+        case "operand" -> operands = parser.readValueAsTree();
+        default -> parser.skipChildren();
+      }
+    }
+    if (name == null) {
+      return;
+    }
+
+    if (resultTypeName != null) {
+      definitionReturnTypes.put(name, localTypeName(resultTypeName));
+    } else if (resultTypeSpecifier != null) {
+      Iterator<JsonNode> typeSpecifierIterator = resultTypeSpecifier.elements();
+      while (typeSpecifierIterator.hasNext()) {
+        JsonNode current = typeSpecifierIterator.next();
+        if (NAMED_TYPE_SPECIFIER.equals(current.path("type").asText())) {
+          definitionReturnTypes.put(name, localTypeName(current.path("name").asText()));
+        }
+      }
+    }
+    definitionReturnTypes.putIfAbsent(name, "NA");
+
+    if ("FunctionDef".equals(type)) {
+      int numberOfOperands = operands == null ? 0 : operands.size();
+      // Non-Boolean Population Basis require MO's with exactly one parameter matching the Pop
+      // Basis.
+      if (numberOfOperands == 1) {
+        JsonNode operandTypeSpecifier = operands.get(0).path("operandTypeSpecifier");
+        if (operandTypeSpecifier.hasNonNull("name")
+            && NAMED_TYPE_SPECIFIER.equals(operandTypeSpecifier.path("type").asText())) {
+          String operandType = localTypeName(operandTypeSpecifier.get("name").asText());
+          if (!operandType.equalsIgnoreCase("Boolean")) {
+            observationPopulationBases.put(name, operandType);
+          }
+        }
+        // Boolean Population Basis require MO's with no parameters
+      } else if (numberOfOperands < 1) {
+        observationPopulationBases.put(name, "Boolean");
+      }
+      // Not a valid MO against any Population Basis
+      observationPopulationBases.putIfAbsent(name, "NA");
+    }
+  }
+
+  private static List<JsonNode> readDefs(JsonParser parser) throws IOException {
+    JsonNode node = parser.readValueAsTree();
+    List<JsonNode> defs = new ArrayList<>();
+    if (node != null) {
+      node.path("def").forEach(defs::add);
+    }
+    return defs;
+  }
+
+  private static String textOrNull(JsonNode node, String field) {
+    return node.hasNonNull(field) ? node.get(field).asText() : null;
+  }
+
+  /** Strips the namespace from a qualified ELM type name, e.g. {urn:...}Encounter. */
+  private static String localTypeName(String qualifiedName) {
+    return qualifiedName.substring(qualifiedName.indexOf('}') + 1);
+  }
+}
@@ -1,11 +1,17 @@
 package cms.gov.madie.measure.utils;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import cms.gov.madie.measure.dto.ImportedTestCaseBundle;
 import gov.cms.madie.models.measure.Measure;
 import gov.cms.madie.models.measure.MeasureScoring;
 import gov.cms.madie.models.measure.PopulationType;
@@ -20,9 +26,13 @@ import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
@@ -33,6 +43,15 @@ import java.util.stream.StreamSupport;
 public final class JsonUtil {
   private static final String CQFM_TEST_DESCRIPTION_URL =
       "http://hl7.org/fhir/us/cqfmeasures/StructureDefinition/cqfm-testCaseDescription";
+  private static final Pattern PATIENT_REF_PATTERN =
+      Pattern.compile("(?i)(\"reference\"\\s*:\\s*\"Patient\\/[A-Za-z0-9\\-\\.]{1,64}\")");
+  private static final Pattern PATIENT_REF_VALUE_PATTERN =
+      Pattern.compile("(?i)Patient/[A-Za-z0-9\\-\\.]{1,64}");
+
+  // thread-safe once configured, so shared instead of building a mapper for every call
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+  private static final ObjectReader READER = OBJECT_MAPPER.reader();
+  private static final ObjectWriter WRITER = OBJECT_MAPPER.writer();
 
   private JsonUtil() {}
 
@@ -44,9 +63,8 @@ public final class JsonUtil {
    * @return true if json is present and well-formed, false otherwise
    */
   public static boolean isValidJson(String json) {
-    ObjectMapper mapper = new ObjectMapper();
     try {
-      mapper.readTree(json);
+      READER.readTree(json);
       return true;
     } catch (JsonProcessingException | IllegalArgumentException e) {
       // do nothing
@@ -55,9 +73,7 @@ public final class JsonUtil {
   }
 
   public static String getPatientId(String json) throws JsonProcessingException {
-    ObjectMapper mapper = new ObjectMapper();
-
-    JsonNode jsonNode = mapper.readTree(json);
+    JsonNode jsonNode = READER.readTree(json);
     JsonNode entry = jsonNode.get("entry");
     JsonNode theNode = null;
     Iterator<JsonNode> entyIter = entry.iterator();
@@ -76,9 +92,7 @@ public final class JsonUtil {
   }
 
   public static String getPatientFullUrl(String json) throws JsonProcessingException {
-    ObjectMapper mapper = new ObjectMapper();
-
-    JsonNode jsonNode = mapper.readTree(json);
+    JsonNode jsonNode = READER.readTree(json);
     JsonNode entry = jsonNode.get("entry");
     JsonNode theNode = null;
     Iterator<JsonNode> entyIter = entry.iterator();
@@ -112,8 +126,9 @@ public final class JsonUtil {
   }
 
   public static String replacePatientRefs(String json, String newPatientId) {
-    final String pattern = "(?i)(\"reference\"\\s*:\\s*\"Patient\\/[A-Za-z0-9\\-\\.]{1,64}\")";
-    return json.replaceAll(pattern, "\"reference\": \"Patient/" + newPatientId + "\"");
+    return PATIENT_REF_PATTERN
+        .matcher(json)
+        .replaceAll("\"reference\": \"Patient/" + newPatientId + "\"");
   }
 
   public static String replaceFullUrlRefs(String json, String oldFullUrl, String newPatientId) {
@@ -133,8 +148,7 @@ public final class JsonUtil {
 
   public static JsonNode getResourceNode(String json, String resourceType)
       throws JsonProcessingException {
-    ObjectMapper mapper = new ObjectMapper();
-    JsonNode jsonNode = mapper.readTree(json);
+    JsonNode jsonNode = READER.readTree(json);
     JsonNode entries = jsonNode.get("entry");
     if (entries != null) {
       for (JsonNode entry : entries) {
@@ -152,7 +166,10 @@ public final class JsonUtil {
   }
 
   public static String getPatientName(String json, String type) throws JsonProcessingException {
-    JsonNode resourceNode = getResourceNode(json, "patient");
+    return getPatientName(getResourceNode(json, "patient"), type);
+  }
+
+  private static String getPatientName(JsonNode resourceNode, String type) {
     if (resourceNode == null) {
       return null;
     }
@@ -160,7 +177,7 @@ public final class JsonUtil {
     if (names != null) {
       for (JsonNode name : names) {
         if ("family".equalsIgnoreCase(type)) {
-          return name.get("family").asText();
+          return name.has("family") ? name.get("family").asText() : null;
         } else if ("given".equalsIgnoreCase(type)) {
           JsonNode givenNames = name.get("given");
           if (givenNames != null) {
@@ -175,7 +192,10 @@ public final class JsonUtil {
   }
 
   public static String getTestDescription(String testCaseBundle) throws JsonProcessingException {
-    JsonNode resourceNode = getResourceNode(testCaseBundle, "MeasureReport");
+    return getTestDescription(getResourceNode(testCaseBundle, "MeasureReport"));
+  }
+
+  private static String getTestDescription(JsonNode resourceNode) {
     if (resourceNode == null || resourceNode.get("extension") == null) {
       return null;
     }
@@ -200,9 +220,17 @@ public final class JsonUtil {
    */
   public static List<TestCaseGroupPopulation> getTestCaseGroupPopulationsFromMeasureReport(
       String json, boolean measurePopulationBasis) throws JsonProcessingException {
+    return getTestCaseGroupPopulationsFromMeasureReport(
+        getResourceNode(json, "MeasureReport"), measurePopulationBasis);
+  }
 
+  /**
+   * Same as {@link #getTestCaseGroupPopulationsFromMeasureReport(String, boolean)}, for a
+   * MeasureReport resource that has already been read from the bundle.
+   */
+  public static List<TestCaseGroupPopulation> getTestCaseGroupPopulationsFromMeasureReport(
+      JsonNode resourceNode, boolean measurePopulationBasis) {
     List<TestCaseGroupPopulation> groupPopulations = new ArrayList<>();
-    JsonNode resourceNode = getResourceNode(json, "MeasureReport");
     if (resourceNode != null) {
       JsonNode groups = resourceNode.get("group");
       if (groups != null) {
@@ -300,12 +328,78 @@ public final class JsonUtil {
     populationValues.add(populationValue);
   }
 
+  /**
+   * Reads everything an import needs from a QI-Core bundle in one streaming pass: the patient id
+   * and name, the test case description, the MeasureReport, and the bundle JSON without its
+   * MeasureReports. The bundle itself is never parsed into a tree; only one entry at a time is.
+   *
+   * @throws JsonProcessingException if the bundle is not well-formed JSON
+   */
+  public static ImportedTestCaseBundle readImportedQiCoreBundle(String json)
+      throws JsonProcessingException {
+    ImportedTestCaseBundle bundle = new ImportedTestCaseBundle();
+    StringWriter writer = new StringWriter(json.length());
+    try (JsonParser parser = OBJECT_MAPPER.createParser(json);
+        JsonGenerator generator = OBJECT_MAPPER.createGenerator(writer)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        // not a bundle, there is nothing to extract
+        generator.copyCurrentStructure(parser);
+      } else {
+        generator.writeStartObject();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          String fieldName = parser.currentName();
+          generator.writeFieldName(fieldName);
+          if (parser.nextToken() == JsonToken.START_ARRAY && "entry".equals(fieldName)) {
+            generator.writeStartArray();
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+              JsonNode entry = parser.readValueAsTree();
+              if (!readImportedEntry(entry, bundle)) {
+                generator.writeTree(entry);
+              }
+            }
+            generator.writeEndArray();
+          } else {
+            generator.copyCurrentStructure(parser);
+          }
+        }
+        generator.writeEndObject();
+      }
+    } catch (JsonProcessingException ex) {
+      throw ex;
+    } catch (IOException ex) {
+      // reading from and writing to strings
+      throw new UncheckedIOException(ex);
+    }
+    bundle.setJson(writer.toString());
+    return bundle;
+  }
+
+  // returns true for MeasureReport entries, which are left out of the imported bundle
+  private static boolean readImportedEntry(JsonNode entry, ImportedTestCaseBundle bundle) {
+    JsonNode resourceNode = entry == null ? null : entry.get("resource");
+    JsonNode resourceType = resourceNode == null ? null : resourceNode.get("resourceType");
+    if (resourceType == null) {
+      return false;
+    }
+    if ("MeasureReport".equalsIgnoreCase(resourceType.asText())) {
+      if (bundle.getMeasureReport() == null) {
+        bundle.setMeasureReport(resourceNode);
+        bundle.setDescription(getTestDescription(resourceNode));
+      }
+      return true;
+    }
+    if ("Patient".equalsIgnoreCase(resourceType.asText()) && bundle.getPatientId() == null) {
+      bundle.setPatientId(resourceNode.has("id") ? resourceNode.get("id").asText() : null);
+      bundle.setFamilyName(getPatientName(resourceNode, "family"));
+      bundle.setGivenName(getPatientName(resourceNode, "given"));
+    }
+    return false;
+  }
+
   public static String removeMeasureReportFromJson(String testCaseJson)
       throws JsonProcessingException {
     if (!StringUtils.isEmpty(testCaseJson)) {
-      ObjectMapper objectMapper = new ObjectMapper();
-
-      JsonNode rootNode = objectMapper.readTree(testCaseJson);
+      JsonNode rootNode = READER.readTree(testCaseJson);
       ArrayNode entryArray = (ArrayNode) rootNode.get("entry");
 
       List<JsonNode> filteredList = new ArrayList<>();
@@ -317,7 +411,7 @@ public final class JsonUtil {
       }
       entryArray.removeAll();
       filteredList.forEach(entryArray::add);
-      return objectMapper.writeValueAsString(rootNode);
+      return WRITER.writeValueAsString(rootNode);
     } else {
       throw new RuntimeException("Unable to find Test case Json");
     }
@@ -331,11 +425,10 @@ public final class JsonUtil {
   public static String enforcePatientId(TestCase testCase, String madieJsonResourcesBaseUri) {
     String testCaseJson = testCase.getJson();
     if (!StringUtils.isEmpty(testCaseJson)) {
-      ObjectMapper objectMapper = new ObjectMapper();
       String modifiedJsonString = testCaseJson;
       try {
         final String newPatientId = testCase.getPatientId().toString();
-        JsonNode rootNode = objectMapper.readTree(testCaseJson);
+        JsonNode rootNode = READER.readTree(testCaseJson);
         ArrayNode allEntries = (ArrayNode) rootNode.get("entry");
         if (allEntries != null) {
           for (JsonNode node : allEntries) {
@@ -348,7 +441,7 @@ public final class JsonUtil {
               parent.put(
                   "fullUrl", buildFullUrl(newPatientId, "Patient", madieJsonResourcesBaseUri));
               o.put("id", newPatientId);
-              modifiedJsonString = jsonNodeToString(objectMapper, rootNode);
+              modifiedJsonString = jsonNodeToString(OBJECT_MAPPER, rootNode);
             }
           }
         }
@@ -362,9 +455,8 @@ public final class JsonUtil {
 
   // update full urls for non-patient resources
   public static String updateResourceFullUrls(TestCase testCase, String madieJsonResourcesBaseUri) {
-    ObjectMapper mapper = new ObjectMapper();
     try {
-      JsonNode rootNode = mapper.readTree(testCase.getJson());
+      JsonNode rootNode = READER.readTree(testCase.getJson());
       JsonNode entry = rootNode.get("entry");
       if (entry != null) {
         for (JsonNode theNode : entry) {
@@ -383,13 +475,81 @@ public final class JsonUtil {
           }
         }
       }
-      return jsonNodeToString(mapper, rootNode);
+      return jsonNodeToString(OBJECT_MAPPER, rootNode);
     } catch (JsonProcessingException ex) {
       log.error("Error reading testCaseJson testCaseId = " + testCase.getId(), ex);
     }
     return testCase.getJson();
   }
 
+  /**
+   * Applies {@link #enforcePatientId}, {@link #updateResourceFullUrls} and {@link
+   * #replacePatientRefs(String, String)} to a QI-Core bundle in a single pass over the parsed
+   * bundle, serializing it once. Patient references are rewritten wherever a reference field
+   * holds one, rather than by matching the serialized text.
+   *
+   * @return the updated bundle JSON, or the given JSON with only the patient references replaced
+   *     if it cannot be parsed
+   */
+  public static String normalizeQiCoreBundle(TestCase testCase, String madieJsonResourcesBaseUri) {
+    String testCaseJson = testCase.getJson();
+    if (StringUtils.isEmpty(testCaseJson)) {
+      return testCaseJson;
+    }
+    final String newPatientId = testCase.getPatientId().toString();
+    JsonNode rootNode;
+    try {
+      rootNode = READER.readTree(testCaseJson);
+    } catch (JsonProcessingException ex) {
+      log.error("Error reading testCaseJson testCaseId = " + testCase.getId(), ex);
+      return replacePatientRefs(testCaseJson, newPatientId);
+    }
+    JsonNode entries = rootNode.get("entry");
+    if (entries != null) {
+      for (JsonNode entry : entries) {
+        JsonNode resourceNode = entry.get("resource");
+        JsonNode resourceType = resourceNode == null ? null : resourceNode.get("resourceType");
+        if (resourceType == null || !entry.isObject()) {
+          continue;
+        }
+        if ("Patient".equalsIgnoreCase(resourceType.asText())) {
+          ((ObjectNode) entry)
+              .put("fullUrl", buildFullUrl(newPatientId, "Patient", madieJsonResourcesBaseUri));
+          ((ObjectNode) resourceNode).put("id", newPatientId);
+        } else if (entry.has("fullUrl") && resourceNode.has("id")) {
+          ((ObjectNode) entry)
+              .put(
+                  "fullUrl",
+                  buildFullUrl(
+                      resourceNode.get("id").asText(),
+                      resourceType.asText(),
+                      madieJsonResourcesBaseUri));
+        }
+      }
+    }
+    replacePatientRefs(rootNode, "Patient/" + newPatientId);
+    return jsonNodeToString(OBJECT_MAPPER, rootNode);
+  }
+
+  private static void replacePatientRefs(JsonNode node, String newReference) {
+    if (node.isObject()) {
+      Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+      while (fields.hasNext()) {
+        Map.Entry<String, JsonNode> field = fields.next();
+        JsonNode value = field.getValue();
+        if ("reference".equalsIgnoreCase(field.getKey())
+            && value.isTextual()
+            && PATIENT_REF_VALUE_PATTERN.matcher(value.textValue()).matches()) {
+          field.setValue(OBJECT_MAPPER.getNodeFactory().textNode(newReference));
+        } else {
+          replacePatientRefs(value, newReference);
+        }
+      }
+    } else if (node.isArray()) {
+      node.forEach(element -> replacePatientRefs(element, newReference));
+    }
+  }
+
   protected static String jsonNodeToString(ObjectMapper objectMapper, JsonNode rootNode) {
     ByteArrayOutputStream bout = new ByteArrayOutputStream();
     try {
@@ -415,8 +575,7 @@ public final class JsonUtil {
 
   public static JsonNode getResourceNodeQdm(String json, String resourceType)
       throws JsonProcessingException {
-    ObjectMapper mapper = new ObjectMapper();
-    JsonNode jsonNode = mapper.readTree(json);
+    JsonNode jsonNode = READER.readTree(json);
     return jsonNode.get(resourceType);
   }
 
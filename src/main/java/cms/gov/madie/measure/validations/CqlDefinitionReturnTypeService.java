@@ -1,8 +1,6 @@
 package cms.gov.madie.measure.validations;
 
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -11,24 +9,26 @@ import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
 
 import cms.gov.madie.measure.exceptions.InvalidFhirGroupException;
 import cms.gov.madie.measure.exceptions.InvalidGroupException;
 import cms.gov.madie.measure.exceptions.InvalidReturnTypeException;
 import cms.gov.madie.measure.exceptions.InvalidReturnTypeForQdmException;
+import cms.gov.madie.measure.services.ElmIndexCache;
 import gov.cms.madie.models.measure.DefDescPair;
 import gov.cms.madie.models.measure.Group;
 import gov.cms.madie.models.measure.Population;
 import gov.cms.madie.models.measure.Stratification;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 @Service
 @Slf4j
+@RequiredArgsConstructor
 public class CqlDefinitionReturnTypeService {
 
+  private final ElmIndexCache elmIndexCache;
+
   /**
    * Validate cql definition return types of a group against population basis. Group can have cql
    * definitions for populations, stratifications and observations
@@ -83,8 +83,7 @@ public class CqlDefinitionReturnTypeService {
   public boolean isDefineInElm(DefDescPair sde, String elmJson) {
     boolean result = false;
     try {
-      Map<String, String> cqlDefinitionReturnTypes = getCqlDefinitionReturnTypes(elmJson);
-      result = cqlDefinitionReturnTypes.containsKey(sde.getDefinition());
+      result = elmIndexCache.get(elmJson).hasDefinition(sde.getDefinition());
     } catch (JsonProcessingException e) {
       log.error("Error reading elmJson", e);
       result = false;
@@ -102,30 +101,7 @@ public class CqlDefinitionReturnTypeService {
    */
   private Map<String, String> getCqlDefinitionReturnTypes(String elmJson)
       throws JsonProcessingException {
-    Map<String, String> returnTypes = new HashMap<>();
-    if (StringUtils.isEmpty(elmJson)) {
-      return returnTypes;
-    }
-
-    ObjectMapper objectMapper = new ObjectMapper();
-    JsonNode rootNode = objectMapper.readTree(elmJson);
-    ArrayNode allDefinitions = (ArrayNode) rootNode.get("library").get("statements").get("def");
-    for (JsonNode node : allDefinitions) {
-      if (node.get("resultTypeName") != null) {
-        String dataType = node.get("resultTypeName").asText();
-        returnTypes.put(node.get("name").asText(), dataType.split("}")[1]);
-      } else if (node.get("resultTypeSpecifier") != null) {
-        Iterator<JsonNode> typeSpecifierIterator = node.get("resultTypeSpecifier").elements();
-        while (typeSpecifierIterator.hasNext()) {
-          JsonNode current = typeSpecifierIterator.next();
-          if (current.has("type") && current.get("type").asText().equals("NamedTypeSpecifier")) {
-            returnTypes.put(node.get("name").asText(), current.get("name").asText().split("}")[1]);
-          }
-        }
-      }
-      returnTypes.putIfAbsent(node.get("name").asText(), "NA");
-    }
-    return returnTypes;
+    return elmIndexCache.get(elmJson).getDefinitionReturnTypes();
   }
 
   public String validateCqlDefinitionReturnTypesForQdm(
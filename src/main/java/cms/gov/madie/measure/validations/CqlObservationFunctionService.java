@@ -2,12 +2,11 @@ package cms.gov.madie.measure.validations;
 
 import cms.gov.madie.measure.exceptions.InvalidMeasureObservationException;
 import cms.gov.madie.measure.exceptions.InvalidReturnTypeException;
+import cms.gov.madie.measure.services.ElmIndexCache;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import gov.cms.madie.models.measure.Group;
 import gov.cms.madie.models.measure.MeasureObservation;
+import lombok.RequiredArgsConstructor;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -16,8 +15,11 @@ import org.springframework.stereotype.Service;
 import java.util.*;
 
 @Service
+@RequiredArgsConstructor
 public class CqlObservationFunctionService {
 
+  private final ElmIndexCache elmIndexCache;
+
   public void validateObservationFunctions(Group group, String elmJson)
       throws JsonProcessingException {
     Map<String, String> observationsToValidPopBasis = mapObservationsToValidPopBasis(elmJson);
@@ -66,44 +68,7 @@ public class CqlObservationFunctionService {
   private Map<String, String> mapObservationsToValidPopBasis(String elmJson)
       throws JsonProcessingException {
     // Determine which Population Basis the MO would be valid against.
-    Map<String, String> observationPopBasis = new HashMap<>();
-    if (StringUtils.isEmpty(elmJson)) {
-      return observationPopBasis;
-    }
-
-    ObjectMapper objectMapper = new ObjectMapper();
-    JsonNode rootNode = objectMapper.readTree(elmJson);
-    ArrayNode allDefinitions = (ArrayNode) rootNode.get("library").get("statements").get("def");
-    for (JsonNode node : allDefinitions) {
-      if (node.get("type") != null && "FunctionDef".equals(node.get("type").asText())) {
-        int numberOfOperands = node.get("operand").size();
-        Iterator<JsonNode> operandIterator = node.get("operand").iterator();
-        // Non-Boolean Population Basis require MO's with exactly one parameter matching the Pop
-        // Basis.
-        if (numberOfOperands == 1) {
-          JsonNode currentOperandDetails = operandIterator.next();
-          if (currentOperandDetails.get("operandTypeSpecifier").get("name") != null
-              && currentOperandDetails
-                  .get("operandTypeSpecifier")
-                  .get("type")
-                  .asText()
-                  .equals("NamedTypeSpecifier")) {
-            String operandTypeSpecifierName =
-                currentOperandDetails.get("operandTypeSpecifier").get("name").asText();
-            if (!(operandTypeSpecifierName.split("}")[1].equalsIgnoreCase("Boolean"))) {
-              observationPopBasis.put(
-                  node.get("name").asText(), operandTypeSpecifierName.split("}")[1]);
-            }
-          }
-          // Boolean Population Basis require MO's with no parameters
-        } else if (numberOfOperands < 1) {
-          observationPopBasis.put(node.get("name").asText(), "Boolean");
-          // Not a valid MO against any Population Basis
-        }
-        observationPopBasis.putIfAbsent(node.get("name").asText(), "NA");
-      }
-    }
-    return observationPopBasis;
+    return elmIndexCache.get(elmJson).getObservationPopulationBases();
   }
 
   public void validateObservationFunctionsForQdm(
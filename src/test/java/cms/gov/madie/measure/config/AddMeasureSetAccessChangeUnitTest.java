@@ -0,0 +1,84 @@
+package cms.gov.madie.measure.config;
+
+import cms.gov.madie.measure.dto.MeasureSetAccess;
+import gov.cms.madie.models.access.AclSpecification;
+import gov.cms.madie.models.access.RoleEnum;
+import gov.cms.madie.models.measure.MeasureSet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class AddMeasureSetAccessChangeUnitTest {
+  @Mock private MongoTemplate mongoTemplate;
+
+  @InjectMocks AddMeasureSetAccessChangeUnit changeUnit;
+
+  @Test
+  void testAddMeasureSetAccess() {
+    AclSpecification sharedWith = new AclSpecification();
+    sharedWith.setUserId("Jane");
+    sharedWith.setRoles(Set.of(RoleEnum.SHARED_WITH));
+    MeasureSet measureSet1 =
+        MeasureSet.builder().measureSetId("1-1").owner("John").acls(List.of(sharedWith)).build();
+    MeasureSet measureSet2 = MeasureSet.builder().measureSetId("2-2").owner("jane").build();
+    BulkOperations bulkOperations = mock(BulkOperations.class);
+    when(mongoTemplate.stream(any(Query.class), eq(MeasureSet.class)))
+        .thenReturn(Stream.of(measureSet1, measureSet2));
+    when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MeasureSetAccess.class))
+        .thenReturn(bulkOperations);
+
+    changeUnit.addMeasureSetAccess(mongoTemplate);
+
+    ArgumentCaptor<MeasureSetAccess> captor = ArgumentCaptor.forClass(MeasureSetAccess.class);
+    verify(bulkOperations, times(2))
+        .replaceOne(any(Query.class), captor.capture(), any(FindAndReplaceOptions.class));
+    assertThat(
+        captor.getAllValues(),
+        is(
+            equalTo(
+                List.of(
+                    new MeasureSetAccess("1-1", List.of("john", "jane")),
+                    new MeasureSetAccess("2-2", List.of("jane"))))));
+    verify(bulkOperations, times(1)).execute();
+  }
+
+  @Test
+  void testAddMeasureSetAccessWhenThereAreNoMeasureSets() {
+    when(mongoTemplate.stream(any(Query.class), eq(MeasureSet.class))).thenReturn(Stream.empty());
+
+    changeUnit.addMeasureSetAccess(mongoTemplate);
+
+    verify(mongoTemplate, never())
+        .bulkOps(any(BulkOperations.BulkMode.class), eq(MeasureSetAccess.class));
+  }
+
+  @Test
+  void testRollbackExecution() {
+    changeUnit.rollbackExecution(mongoTemplate);
+
+    verify(mongoTemplate, times(1)).dropCollection(MeasureSetAccess.class);
+  }
+}
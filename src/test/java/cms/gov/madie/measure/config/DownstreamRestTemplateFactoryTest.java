@@ -0,0 +1,102 @@
+package cms.gov.madie.measure.config;
+
+import cms.gov.madie.measure.services.AccessTokenRejectionInterceptor;
+import cms.gov.madie.measure.services.GzipRequestInterceptor;
+import cms.gov.madie.measure.services.RejectedAccessTokens;
+import cms.gov.madie.measure.services.ResilienceInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+class DownstreamRestTemplateFactoryTest {
+
+  private MeterRegistry meterRegistry;
+  private DownstreamRestTemplateFactory factory;
+  private DownstreamClientProperties properties;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    factory = new DownstreamRestTemplateFactory(meterRegistry, new RejectedAccessTokens());
+    properties = new DownstreamClientProperties();
+    properties.getBulkhead().setMaxConcurrentCalls(4);
+    properties.getBulkhead().setMaxQueuedCalls(4);
+    properties.getBulkhead().setMaxWaitMs(1000);
+    properties.getHttpClient().setMaxConnectionsPerRoute(4);
+    properties.getHttpClient().setConnectTimeoutMs(1000);
+    properties.getHttpClient().setReadTimeoutMs(1000);
+    properties.getHttpClient().setAcquireTimeoutMs(1000);
+    properties.getResilience().setMaxAttempts(3);
+    properties.getResilience().setBackoffMs(200);
+    properties.getResilience().setFailureRateThreshold(50);
+    properties.getResilience().setOpenDurationMs(30000);
+  }
+
+  @Test
+  void createRetriesLastAndCompressesOnlyWhenEnabled() {
+    assertThat(
+        types(factory.create("plain-service", properties)),
+        is(List.of(AccessTokenRejectionInterceptor.class, ResilienceInterceptor.class)));
+
+    properties.getHttpClient().setCompressRequests(true);
+    assertThat(
+        types(factory.create("gzip-service", properties)),
+        is(
+            List.of(
+                GzipRequestInterceptor.class,
+                AccessTokenRejectionInterceptor.class,
+                ResilienceInterceptor.class)));
+  }
+
+  @Test
+  void createRunsEachAttemptThroughBulkhead() {
+    properties.getResilience().setBackoffMs(0);
+    RestTemplate restTemplate = factory.create("flaky-service", properties);
+    List<Double> activeAtAttempt = new ArrayList<>();
+    restTemplate.setRequestFactory(
+        (uri, method) ->
+            new MockClientHttpRequest(method, uri) {
+              @Override
+              protected ClientHttpResponse executeInternal() throws IOException {
+                activeAtAttempt.add(activeCalls("flaky-service"));
+                if (activeAtAttempt.size() == 1) {
+                  throw new ConnectException("connection refused");
+                }
+                return new MockClientHttpResponse("ok".getBytes(), HttpStatus.OK);
+              }
+            });
+
+    ResponseEntity<String> response =
+        restTemplate.getForEntity("http://localhost/flaky", String.class);
+
+    assertThat(response.getBody(), is("ok"));
+    assertThat(activeAtAttempt, is(List.of(1.0, 1.0)));
+    assertThat(activeCalls("flaky-service"), is(0.0));
+  }
+
+  private double activeCalls(String name) {
+    return meterRegistry.get("madie.bulkhead.calls.active").tag("downstream", name).gauge().value();
+  }
+
+  private List<Class<?>> types(RestTemplate restTemplate) {
+    return restTemplate.getInterceptors().stream()
+        .<Class<?>>map(ClientHttpRequestInterceptor::getClass)
+        .toList();
+  }
+}
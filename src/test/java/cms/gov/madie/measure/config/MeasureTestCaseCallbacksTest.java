@@ -0,0 +1,28 @@
+package cms.gov.madie.measure.config;
+
+import gov.cms.madie.models.measure.Measure;
+import gov.cms.madie.models.measure.TestCase;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+class MeasureTestCaseCallbacksTest {
+  MeasureTestCaseCallbacks callbacks = new MeasureTestCaseCallbacks();
+
+  @Test
+  void onBeforeSaveKeepsTestCasesOutOfMeasureDocument() {
+    Measure measure =
+        Measure.builder()
+            .id("measure-id")
+            .testCases(List.of(TestCase.builder().id("TC1_ID").build()))
+            .build();
+    Document document = new Document("_id", "measure-id").append("testCases", List.of());
+
+    assertThat(callbacks.onBeforeSave(measure, document, "measure"), is(measure));
+    assertThat(document.containsKey("testCases"), is(false));
+  }
+}
@@ -0,0 +1,250 @@
+package cms.gov.madie.measure.config;
+
+import cms.gov.madie.measure.dto.MeasureSetAccess;
+import cms.gov.madie.measure.dto.MeasureTestCase;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import gov.cms.madie.models.cqm.CqmMeasure;
+import gov.cms.madie.models.measure.Export;
+import gov.cms.madie.models.measure.Measure;
+import gov.cms.madie.models.measure.MeasureSet;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Explains the queries of the repositories against a real Mongo with the catalog indexes in place,
+ * and fails if any of them would scan a whole collection.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class MongoIndexCatalogIT {
+
+  @Container static final MongoDBContainer MONGO = new MongoDBContainer("mongo:6.0");
+
+  private static MongoClient mongoClient;
+  private static MongoTemplate mongoTemplate;
+
+  @BeforeAll
+  static void setUp() {
+    mongoClient = MongoClients.create(MONGO.getConnectionString());
+    mongoTemplate = new MongoTemplate(mongoClient, "madie");
+    insert(
+        Measure.class,
+        new Document("measureSetId", "set-1")
+            .append("active", true)
+            .append("model", "QDM v5.6")
+            .append("cqlLibraryName", "Lib")
+            .append("measureMetaData", new Document("draft", true))
+            .append("version", new Document("major", 1).append("minor", 0))
+            .append("groups", List.of(new Document("_id", "group-1")))
+            .append("includedLibraries", List.of(new Document("name", "FHIRHelpers"))));
+    insert(MeasureSet.class, new Document("measureSetId", "set-1").append("cmsId", 12));
+    insert(MeasureSetAccess.class, new Document("_id", "set-1").append("userIds", List.of("john")));
+    insert(MeasureTestCase.class, new Document("measureId", "measure-1"));
+    insert(Export.class, new Document("measureId", "measure-1"));
+    insert(CqmMeasure.class, new Document("hqmf_set_id", "set-1"));
+
+    new MongoIndexReconciler(mongoTemplate, MongoIndexReconciler.Mode.CREATE)
+        .reconcile(MongoIndexCatalog.INDEXES);
+    // documents owned by this service declare their indexes on their classes
+    MongoPersistentEntityIndexResolver indexResolver =
+        new MongoPersistentEntityIndexResolver(new MongoMappingContext());
+    for (Class<?> entityClass : List.of(MeasureSetAccess.class, MeasureTestCase.class)) {
+      indexResolver
+          .resolveIndexFor(entityClass)
+          .forEach(index -> mongoTemplate.indexOps(entityClass).ensureIndex(index));
+    }
+  }
+
+  @AfterAll
+  static void tearDown() {
+    mongoClient.close();
+  }
+
+  static Stream<Arguments> findQueries() {
+    return Stream.of(
+        find(
+            "MeasureRepository.existsByMeasureSetIdAndActiveAndMeasureMetaDataDraft",
+            Measure.class,
+            Document.parse(
+                "{measureSetId: 'set-1', active: true, 'measureMetaData.draft': true}")),
+        find(
+            "MeasureRepository.findAllByMeasureSetIdInAndActiveAndMeasureMetaDataDraft",
+            Measure.class,
+            Document.parse(
+                "{measureSetId: {$in: ['set-1', 'set-2']}, active: true,"
+                    + " 'measureMetaData.draft': false}")),
+        find(
+            "MeasureRepository.findAllByMeasureSetIdAndActive",
+            Measure.class,
+            Document.parse("{measureSetId: 'set-1', active: true}")),
+        find(
+            "MeasureRepository.existsByCqlLibraryNameAndActive",
+            Measure.class,
+            Document.parse("{cqlLibraryName: 'Lib', active: true}")),
+        find(
+            "MeasureRepository.findGroupById",
+            Measure.class,
+            Document.parse("{'groups._id': 'group-1'}")),
+        find("MeasureRepository.findAllByModel", Measure.class, Document.parse("{model: 'QDM'}")),
+        find(
+            "MeasureRepository.findAllMeasureIdsByActiveAndMeasureMetaDataDraft",
+            Measure.class,
+            Document.parse("{active: true, 'measureMetaData.draft': true}")),
+        find(
+            "MeasureSetRepository.findByMeasureSetId",
+            MeasureSet.class,
+            Document.parse("{measureSetId: 'set-1'}")),
+        find(
+            "MeasureSearchServiceImpl cmsId search",
+            MeasureSet.class,
+            Document.parse("{cmsId: 12}")),
+        find(
+            "MeasureSearchServiceImpl current user search",
+            MeasureSetAccess.class,
+            Document.parse("{userIds: 'john'}")),
+        find(
+            "TestCaseRepository.findAllByMeasureId",
+            MeasureTestCase.class,
+            Document.parse("{measureId: 'measure-1'}")),
+        find(
+            "ExportRepository.findByMeasureId",
+            Export.class,
+            Document.parse("{measureId: 'measure-1'}")),
+        find(
+            "CqmMeasureRepository.findByHqmfSetIdAndHqmfVersionNumber",
+            CqmMeasure.class,
+            Document.parse("{hqmf_set_id: 'set-1', hqmf_version_number: '1.0.000'}")));
+  }
+
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("findQueries")
+  void findUsesIndex(String query, Class<?> entityClass, Document filter) {
+    Document find =
+        new Document("find", mongoTemplate.getCollectionName(entityClass)).append("filter", filter);
+
+    assertUsesIndex(explain(find));
+  }
+
+  @Test
+  void findMaxVersionByMeasureSetIdIsCovered() {
+    Document find =
+        new Document("find", mongoTemplate.getCollectionName(Measure.class))
+            .append("filter", Document.parse("{measureSetId: 'set-1', 'version.major': 1}"))
+            .append(
+                "sort",
+                Document.parse(
+                    "{'version.major': -1, 'version.minor': -1, 'version.revisionNumber': -1}"))
+            .append(
+                "projection",
+                Document.parse(
+                    "{'version.major': 1, 'version.minor': 1, 'version.revisionNumber': 1,"
+                        + " _id: 0}"))
+            .append("limit", 1);
+
+    Document explain = explain(find);
+    assertUsesIndex(explain);
+    List<String> stages = new ArrayList<>();
+    collectWinningPlanStages(explain, false, stages);
+    assertThat(stages, not(hasItem("FETCH")));
+  }
+
+  @Test
+  void searchMeasuresUsesIndex() {
+    List<Document> pipeline =
+        List.of(
+            Document.parse("{$match: {active: true, measureSetId: {$in: ['set-1']}}}"),
+            Document.parse("{$sort: {lastModifiedAt: -1, _id: -1}}"),
+            Document.parse("{$limit: 11}"));
+
+    assertUsesIndex(explainAggregate(Measure.class, pipeline));
+  }
+
+  @Test
+  void findLibraryUsageByLibraryNameUsesIndex() {
+    List<Document> pipeline =
+        List.of(
+            Document.parse("{$match: {'includedLibraries.name': 'FHIRHelpers', active: true}}"),
+            Document.parse(
+                "{$lookup: {from: 'measureSet', localField: 'measureSetId',"
+                    + " foreignField: 'measureSetId', as: 'measureSet'}}"));
+
+    assertUsesIndex(explainAggregate(Measure.class, pipeline));
+  }
+
+  @Test
+  void findAllByModelAndCmsIdUsesIndex() {
+    List<Document> pipeline =
+        List.of(
+            Document.parse("{$match: {model: 'QDM v5.6'}}"),
+            Document.parse(
+                "{$lookup: {from: 'measureSet', localField: 'measureSetId',"
+                    + " foreignField: 'measureSetId', as: 'measureSet'}}"),
+            Document.parse("{$match: {'measureSet.cmsId': 12}}"));
+
+    assertUsesIndex(explainAggregate(Measure.class, pipeline));
+  }
+
+  private static Arguments find(String query, Class<?> entityClass, Document filter) {
+    return Arguments.of(query, entityClass, filter);
+  }
+
+  private static void insert(Class<?> entityClass, Document document) {
+    mongoTemplate.getCollection(mongoTemplate.getCollectionName(entityClass)).insertOne(document);
+  }
+
+  private Document explainAggregate(Class<?> entityClass, List<Document> pipeline) {
+    return explain(
+        new Document("aggregate", mongoTemplate.getCollectionName(entityClass))
+            .append("pipeline", pipeline)
+            .append("cursor", new Document()));
+  }
+
+  private Document explain(Document command) {
+    return mongoTemplate
+        .getDb()
+        .runCommand(new Document("explain", command).append("verbosity", "queryPlanner"));
+  }
+
+  private void assertUsesIndex(Document explain) {
+    List<String> stages = new ArrayList<>();
+    collectWinningPlanStages(explain, false, stages);
+    assertThat(stages, not(hasItem("COLLSCAN")));
+    assertThat(stages.stream().anyMatch(stage -> stage.contains("IXSCAN")), is(true));
+  }
+
+  // the winning plan is nested differently for find and for each aggregation stage
+  private void collectWinningPlanStages(Object node, boolean inWinningPlan, List<String> stages) {
+    if (node instanceof Map<?, ?> map) {
+      map.forEach(
+          (key, value) -> {
+            if (inWinningPlan && "stage".equals(key) && value instanceof String stage) {
+              stages.add(stage);
+            }
+            collectWinningPlanStages(value, inWinningPlan || "winningPlan".equals(key), stages);
+          });
+    } else if (node instanceof List<?> list) {
+      list.forEach(element -> collectWinningPlanStages(element, inWinningPlan, stages));
+    }
+  }
+}
@@ -0,0 +1,101 @@
+package cms.gov.madie.measure.config;
+
+import cms.gov.madie.measure.config.MongoIndexCatalog.CatalogIndex;
+import gov.cms.madie.models.measure.Measure;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MongoIndexReconcilerTest {
+  @Mock private MongoTemplate mongoTemplate;
+  @Mock private IndexOperations indexOperations;
+
+  private final CatalogIndex modelIndex =
+      new CatalogIndex(Measure.class, new Index().on("model", Sort.Direction.ASC).named("model"));
+  private final CatalogIndex versionIndex =
+      new CatalogIndex(
+          Measure.class,
+          new Index()
+              .on("measureSetId", Sort.Direction.ASC)
+              .on("version.major", Sort.Direction.DESC)
+              .named("measureSetId_version"));
+
+  @BeforeEach
+  void setUp() {
+    when(mongoTemplate.getCollectionName(Measure.class)).thenReturn("measure");
+    when(mongoTemplate.indexOps(Measure.class)).thenReturn(indexOperations);
+  }
+
+  @Test
+  void reconcileCreatesMissingIndexes() {
+    when(indexOperations.getIndexInfo())
+        .thenReturn(
+            List.of(
+                new IndexInfo(
+                    List.of(IndexField.create("model", Sort.Direction.ASC)),
+                    "model_1",
+                    false,
+                    false,
+                    "")));
+
+    List<CatalogIndex> missing =
+        new MongoIndexReconciler(mongoTemplate, MongoIndexReconciler.Mode.CREATE)
+            .reconcile(List.of(modelIndex, versionIndex));
+
+    assertThat(missing, is(equalTo(List.of(versionIndex))));
+    verify(indexOperations, times(1)).ensureIndex(versionIndex.getIndex());
+    verify(indexOperations, never()).ensureIndex(modelIndex.getIndex());
+  }
+
+  @Test
+  void reconcileOnlyReportsMissingIndexesInReportMode() {
+    when(indexOperations.getIndexInfo()).thenReturn(List.of());
+
+    List<CatalogIndex> missing =
+        new MongoIndexReconciler(mongoTemplate, MongoIndexReconciler.Mode.REPORT)
+            .reconcile(List.of(modelIndex, versionIndex));
+
+    assertThat(missing, is(equalTo(List.of(modelIndex, versionIndex))));
+    verify(indexOperations, never()).ensureIndex(any());
+  }
+
+  @Test
+  void reconcileLeavesIndexWithSameNameAndOtherKeys() {
+    when(indexOperations.getIndexInfo())
+        .thenReturn(
+            List.of(
+                new IndexInfo(
+                    List.of(IndexField.create("measureSetId", Sort.Direction.ASC)),
+                    "measureSetId_version",
+                    false,
+                    false,
+                    "")));
+
+    List<CatalogIndex> missing =
+        new MongoIndexReconciler(mongoTemplate, MongoIndexReconciler.Mode.CREATE)
+            .reconcile(List.of(versionIndex));
+
+    assertThat(missing, is(equalTo(List.of(versionIndex))));
+    verify(indexOperations, never()).ensureIndex(any());
+  }
+}
@@ -0,0 +1,105 @@
+package cms.gov.madie.measure.config;
+
+import cms.gov.madie.measure.dto.MeasureTestCase;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class MoveTestCasesToCollectionChangeUnitTest {
+  @Mock private MongoTemplate mongoTemplate;
+
+  @InjectMocks MoveTestCasesToCollectionChangeUnit changeUnit;
+
+  private BulkOperations bulkOperations;
+
+  @BeforeEach
+  void setup() {
+    bulkOperations = mock(BulkOperations.class);
+  }
+
+  @Test
+  void testMoveTestCases() {
+    String testCaseId = ObjectId.get().toString();
+    Document measure1 =
+        new Document("_id", new ObjectId())
+            .append(
+                "testCases",
+                List.of(
+                    new Document("_id", testCaseId).append("title", "TC1"),
+                    new Document("title", "TC2")));
+    Document measure2 = new Document("_id", new ObjectId()).append("testCases", List.of());
+    when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("measure")))
+        .thenReturn(Stream.of(measure1, measure2));
+    when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), anyString()))
+        .thenReturn(bulkOperations);
+
+    changeUnit.moveTestCases(mongoTemplate);
+
+    ArgumentCaptor<Document> captor = ArgumentCaptor.forClass(Document.class);
+    verify(bulkOperations, times(2))
+        .replaceOne(any(Query.class), captor.capture(), any(FindAndReplaceOptions.class));
+    Document moved = captor.getAllValues().get(0);
+    assertThat(moved.get("_id"), is(equalTo(new ObjectId(testCaseId))));
+    assertThat(moved.get("measureId"), is(equalTo(measure1.get("_id").toString())));
+    assertThat(moved.get("testCase", Document.class).get("title"), is(equalTo("TC1")));
+    assertThat(captor.getAllValues().get(1).get("_id"), is(notNullValue()));
+    verify(mongoTemplate, times(1))
+        .bulkOps(BulkOperations.BulkMode.UNORDERED, MeasureTestCase.COLLECTION);
+    verify(bulkOperations, times(1)).updateMulti(any(Query.class), any(Update.class));
+    verify(bulkOperations, times(2)).execute();
+  }
+
+  @Test
+  void testMoveTestCasesWhenNoMeasureHasTestCases() {
+    when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("measure")))
+        .thenReturn(Stream.empty());
+
+    changeUnit.moveTestCases(mongoTemplate);
+
+    verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), anyString());
+  }
+
+  @Test
+  void testRollbackExecution() {
+    String measureId = ObjectId.get().toString();
+    Document testCase = new Document("_id", new ObjectId()).append("title", "TC1");
+    when(mongoTemplate.findDistinct(
+            any(Query.class), eq("measureId"), eq(MeasureTestCase.COLLECTION), eq(String.class)))
+        .thenReturn(List.of(measureId));
+    when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(MeasureTestCase.COLLECTION)))
+        .thenReturn(List.of(new Document("measureId", measureId).append("testCase", testCase)));
+
+    changeUnit.rollbackExecution(mongoTemplate);
+
+    verify(mongoTemplate, times(1)).updateFirst(any(Query.class), any(Update.class), eq("measure"));
+    verify(mongoTemplate, times(1)).remove(any(Query.class), eq(MeasureTestCase.COLLECTION));
+  }
+}
@@ -0,0 +1,114 @@
+package cms.gov.madie.measure.repositories;
+
+import cms.gov.madie.measure.dto.Job;
+import cms.gov.madie.measure.dto.JobStatus;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.OptionalInt;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class JobProgressRepositoryImplTest {
+  @Mock MongoTemplate mongoTemplate;
+  @InjectMocks JobProgressRepositoryImpl jobProgressRepository;
+
+  @Test
+  public void testRecordProgressOnlyUpdatesJobRunByInstance() {
+    Instant now = Instant.parse("2024-01-01T00:00:00Z");
+    when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Job.class)))
+        .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+    boolean running = jobProgressRepository.recordProgress("job-1", "instance-1", 1, 0, "m1", now);
+
+    assertThat(running, is(false));
+    ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+    ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+    verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(Job.class));
+    Document filter = query.getValue().getQueryObject();
+    assertThat(filter.get("_id"), is("job-1"));
+    assertThat(filter.get("runBy"), is("instance-1"));
+    assertThat(filter.get("status"), is(JobStatus.RUNNING));
+    Document updates = update.getValue().getUpdateObject();
+    assertThat(updates.get("$inc", Document.class).get("processed"), is(1L));
+    assertThat(updates.get("$set", Document.class).get("checkpoint"), is("m1"));
+  }
+
+  @Test
+  public void testInterruptOnlyUpdatesJobRunByInstance() {
+    when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Job.class)))
+        .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+    assertThat(jobProgressRepository.interrupt("job-1", "instance-1"), is(true));
+    ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+    ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+    verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(Job.class));
+    Document filter = query.getValue().getQueryObject();
+    assertThat(filter.get("runBy"), is("instance-1"));
+    assertThat(filter.get("status"), is(JobStatus.RUNNING));
+    assertThat(
+        update.getValue().getUpdateObject().get("$set", Document.class).get("status"),
+        is(JobStatus.INTERRUPTED));
+  }
+
+  @Test
+  public void testNextResultChunkReturnsSequenceBeforeIncrement() {
+    when(mongoTemplate.findAndModify(
+            any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Job.class)))
+        .thenReturn(Job.builder().resultChunks(3).build());
+
+    assertThat(jobProgressRepository.nextResultChunk("job-1", "instance-1"), is(OptionalInt.of(2)));
+  }
+
+  @Test
+  public void testNextResultChunkIsEmptyWhenJobStopped() {
+    when(mongoTemplate.findAndModify(
+            any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Job.class)))
+        .thenReturn(null);
+
+    assertThat(
+        jobProgressRepository.nextResultChunk("job-1", "instance-1"), is(OptionalInt.empty()));
+  }
+
+  @Test
+  public void testMarkInterruptedOnlyMatchesActiveJobsWithLapsedHeartbeat() {
+    Instant before = Instant.parse("2024-01-01T00:00:00Z");
+    when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(Job.class)))
+        .thenReturn(UpdateResult.acknowledged(2, 2L, null));
+
+    assertThat(jobProgressRepository.markInterrupted(before), is(2L));
+    ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+    verify(mongoTemplate).updateMulti(query.capture(), any(Update.class), eq(Job.class));
+    Document filter = query.getValue().getQueryObject();
+    assertThat(
+        filter.get("status", Document.class).get("$in"),
+        is(List.of(JobStatus.PENDING, JobStatus.RUNNING)));
+    assertThat(filter.get("heartbeatAt", Document.class).get("$lt"), is(before));
+  }
+
+  @Test
+  public void testCancelFailsForFinishedJob() {
+    when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Job.class)))
+        .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+    assertThat(jobProgressRepository.cancel("job-1", Instant.now()), is(false));
+  }
+}
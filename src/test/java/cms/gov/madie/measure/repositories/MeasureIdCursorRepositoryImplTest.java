@@ -0,0 +1,70 @@
+package cms.gov.madie.measure.repositories;
+
+import gov.cms.madie.models.measure.Measure;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class MeasureIdCursorRepositoryImplTest {
+  @Mock MongoTemplate mongoTemplate;
+  @InjectMocks MeasureIdCursorRepositoryImpl measureIdCursorRepository;
+
+  @Test
+  public void testStreamActiveMeasureIdsAfterCheckpoint() {
+    when(mongoTemplate.stream(any(Query.class), eq(Measure.class)))
+        .thenReturn(Stream.of(Measure.builder().id("m2").build()));
+
+    List<String> ids;
+    try (Stream<String> stream = measureIdCursorRepository.streamActiveMeasureIds(true, "m1")) {
+      ids = stream.toList();
+    }
+
+    assertThat(ids, is(List.of("m2")));
+    ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+    verify(mongoTemplate).stream(queryCaptor.capture(), eq(Measure.class));
+    Query query = queryCaptor.getValue();
+    assertThat(
+        query.getQueryObject(),
+        is(
+            new Document("active", true)
+                .append("measureMetaData.draft", true)
+                .append("_id", new Document("$gt", "m1"))));
+    assertThat(query.getSortObject(), is(new Document("_id", 1)));
+    assertThat(query.getFieldsObject(), is(new Document("_id", 1)));
+  }
+
+  @Test
+  public void testStreamAllActiveMeasureIds() {
+    when(mongoTemplate.stream(any(Query.class), eq(Measure.class))).thenReturn(Stream.of());
+
+    measureIdCursorRepository.streamActiveMeasureIds(false, null).close();
+
+    ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+    verify(mongoTemplate).stream(queryCaptor.capture(), eq(Measure.class));
+    assertThat(queryCaptor.getValue().getQueryObject(), is(new Document("active", true)));
+  }
+
+  @Test
+  public void testCountActiveMeasures() {
+    when(mongoTemplate.count(any(Query.class), eq(Measure.class))).thenReturn(7L);
+
+    assertThat(measureIdCursorRepository.countActiveMeasures(true), is(7L));
+  }
+}
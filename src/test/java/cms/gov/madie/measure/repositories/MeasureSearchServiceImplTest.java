@@ -1,30 +1,43 @@
 package cms.gov.madie.measure.repositories;
 
 import cms.gov.madie.measure.dto.FacetDTO;
+import cms.gov.madie.measure.dto.MeasureListCursor;
 import cms.gov.madie.measure.dto.MeasureListDTO;
+import cms.gov.madie.measure.dto.MeasureListWindow;
 import cms.gov.madie.measure.dto.MeasureSearchCriteria;
+import cms.gov.madie.measure.dto.MeasureSetAccess;
 import gov.cms.madie.models.dto.LibraryUsage;
+import gov.cms.madie.models.measure.Measure;
+import gov.cms.madie.models.measure.MeasureSet;
 import org.bson.Document;
 
 import org.junit.jupiter.api.BeforeEach;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.aggregation.Aggregation;
 import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
 
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -248,6 +261,136 @@ public class MeasureSearchServiceImplTest {
     assertEquals(page1Measures.get(1).getEcqmTitle(), measure2.getEcqmTitle());
   }
 
+  @Test
+  public void testSearchMatchesMeasureSetsOfCurrentUserByAccessList() {
+    FacetDTO facetDTO =
+        FacetDTO.builder().queryResults(List.of(measure1)).count(List.of(1)).build();
+    AggregationResults pagedResults = new AggregationResults<>(List.of(facetDTO), new Document());
+    when(mongoTemplate.aggregate(any(Aggregation.class), (Class<?>) any(), any()))
+        .thenReturn(pagedResults);
+    ArgumentCaptor<Query> accessQuery = ArgumentCaptor.forClass(Query.class);
+    when(mongoTemplate.find(accessQuery.capture(), eq(MeasureSetAccess.class)))
+        .thenReturn(List.of(new MeasureSetAccess("1-1", List.of("john"))));
+    MeasureSearchCriteria measureSearchCriteria =
+        MeasureSearchCriteria.builder().searchField("test measure").model("QDM v5.6").build();
+
+    measureAclRepository.searchMeasuresByCriteria(
+        "John", PageRequest.of(0, 3, Sort.by("lastModifiedAt")), measureSearchCriteria, true);
+
+    assertEquals("john", accessQuery.getValue().getQueryObject().get("userIds"));
+    List<Document> pipeline = capturePipeline(FacetDTO.class);
+    assertEquals(List.of("$match", "$facet"), stageNames(pipeline));
+    assertTrue(pipeline.get(0).toJson().contains("\"model\": \"QDM v5.6\""));
+    assertTrue(pipeline.get(0).toJson().contains("\"measureSetId\": {\"$in\": [\"1-1\"]}"));
+  }
+
+  @Test
+  public void testSearchDoesNotJoinMeasureSets() {
+    FacetDTO facetDTO =
+        FacetDTO.builder().queryResults(List.of(measure1)).count(List.of(1)).build();
+    AggregationResults pagedResults = new AggregationResults<>(List.of(facetDTO), new Document());
+    when(mongoTemplate.aggregate(any(Aggregation.class), (Class<?>) any(), any()))
+        .thenReturn(pagedResults);
+
+    measureAclRepository.searchMeasuresByCriteria(
+        "john", PageRequest.of(0, 3, Sort.by("lastModifiedAt")), null, false);
+
+    List<Document> pipeline = capturePipeline(FacetDTO.class);
+    assertEquals(List.of("$match", "$facet"), stageNames(pipeline));
+    Document facet = pipeline.get(1).get("$facet", Document.class);
+    assertEquals(
+        List.of("$sort", "$skip", "$limit", "$project"),
+        stageNames(facet.getList("queryResults", Document.class)));
+  }
+
+  @Test
+  public void testSearchByCmsIdMatchesMeasureSetIdsOnMeasures() {
+    FacetDTO facetDTO =
+        FacetDTO.builder().queryResults(List.of(measure1)).count(List.of(1)).build();
+    AggregationResults pagedResults = new AggregationResults<>(List.of(facetDTO), new Document());
+    when(mongoTemplate.aggregate(any(Aggregation.class), (Class<?>) any(), any()))
+        .thenReturn(pagedResults);
+    when(mongoTemplate.find(any(Query.class), eq(MeasureSet.class)))
+        .thenReturn(List.of(MeasureSet.builder().measureSetId("1-1").cmsId(12).build()));
+    MeasureSearchCriteria measureSearchCriteria =
+        MeasureSearchCriteria.builder()
+            .searchField("12")
+            .optionalSearchProperties(List.of("cmsId"))
+            .build();
+
+    measureAclRepository.searchMeasuresByCriteria(
+        "john", PageRequest.of(0, 3, Sort.by("lastModifiedAt")), measureSearchCriteria, false);
+
+    List<Document> pipeline = capturePipeline(FacetDTO.class);
+    assertEquals(List.of("$match", "$facet"), stageNames(pipeline));
+    assertTrue(pipeline.get(0).toJson().contains("{\"measureSetId\": {\"$in\": [\"1-1\"]}}"));
+  }
+
+  @Test
+  public void testSearchByUnknownCmsIdMatchesNoMeasureSet() {
+    FacetDTO facetDTO = FacetDTO.builder().queryResults(List.of()).count(List.of()).build();
+    AggregationResults pagedResults = new AggregationResults<>(List.of(facetDTO), new Document());
+    when(mongoTemplate.aggregate(any(Aggregation.class), (Class<?>) any(), any()))
+        .thenReturn(pagedResults);
+    when(mongoTemplate.find(any(Query.class), eq(MeasureSet.class))).thenReturn(List.of());
+    MeasureSearchCriteria measureSearchCriteria =
+        MeasureSearchCriteria.builder()
+            .searchField("999")
+            .optionalSearchProperties(List.of("cmsId"))
+            .build();
+
+    Page<MeasureListDTO> page =
+        measureAclRepository.searchMeasuresByCriteria(
+            "john", PageRequest.of(0, 3, Sort.by("lastModifiedAt")), measureSearchCriteria, false);
+
+    assertEquals(0, page.getTotalElements());
+    List<Document> pipeline = capturePipeline(FacetDTO.class);
+    assertTrue(pipeline.get(0).toJson().contains("{\"measureSetId\": {\"$in\": []}}"));
+  }
+
+  @Test
+  public void testScrollMeasuresReturnsCursorOfLastMeasureInWindow() {
+    measure2.setLastModifiedAt(Instant.ofEpochMilli(1700000000000L));
+    AggregationResults<MeasureListDTO> results =
+        new AggregationResults<>(List.of(measure1, measure2, measure3), new Document());
+    when(mongoTemplate.aggregate(
+            any(Aggregation.class), eq(Measure.class), eq(MeasureListDTO.class)))
+        .thenReturn(results);
+
+    MeasureListWindow window =
+        measureAclRepository.scrollMeasuresByCriteria("john", 2, null, null, false);
+
+    assertEquals(List.of(measure1, measure2), window.getContent());
+    assertEquals(
+        new MeasureListCursor(Instant.ofEpochMilli(1700000000000L), "2"),
+        MeasureListCursor.decode(window.getNextCursor()));
+    List<Document> pipeline = capturePipeline(MeasureListDTO.class);
+    assertEquals(List.of("$match", "$sort", "$limit", "$project"), stageNames(pipeline));
+    assertEquals(3L, ((Number) pipeline.get(2).get("$limit")).longValue());
+  }
+
+  @Test
+  public void testScrollMeasuresResumesAfterCursor() {
+    AggregationResults<MeasureListDTO> results =
+        new AggregationResults<>(List.of(measure3), new Document());
+    when(mongoTemplate.aggregate(
+            any(Aggregation.class), eq(Measure.class), eq(MeasureListDTO.class)))
+        .thenReturn(results);
+    MeasureListCursor cursor = new MeasureListCursor(Instant.ofEpochMilli(1700000000000L), "2");
+
+    MeasureListWindow window =
+        measureAclRepository.scrollMeasuresByCriteria("john", 2, cursor, null, false);
+
+    assertEquals(List.of(measure3), window.getContent());
+    assertNull(window.getNextCursor());
+    List<Document> pipeline = capturePipeline(MeasureListDTO.class);
+    assertEquals(
+        List.of("$match", "$match", "$sort", "$limit", "$project"),
+        stageNames(pipeline));
+    Document cursorMatch = pipeline.get(1).get("$match", Document.class);
+    assertEquals(3, cursorMatch.getList("$or", Document.class).size());
+  }
+
   @Test
   void testFindLibraryUsageByLibraryName() {
     String libraryName = "test";
@@ -263,4 +406,14 @@ public class MeasureSearchServiceImplTest {
     assertEquals(libraryUsages.get(0).getName(), libraryName);
     assertEquals(libraryUsages.get(0).getOwner(), owner);
   }
+
+  private List<Document> capturePipeline(Class<?> outputType) {
+    ArgumentCaptor<Aggregation> captor = ArgumentCaptor.forClass(Aggregation.class);
+    verify(mongoTemplate).aggregate(captor.capture(), eq(Measure.class), eq(outputType));
+    return captor.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+  }
+
+  private List<String> stageNames(List<Document> pipeline) {
+    return pipeline.stream().map(stage -> stage.keySet().iterator().next()).toList();
+  }
 }
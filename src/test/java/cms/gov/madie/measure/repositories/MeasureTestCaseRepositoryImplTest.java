@@ -0,0 +1,104 @@
+package cms.gov.madie.measure.repositories;
+
+import cms.gov.madie.measure.dto.MeasureTestCase;
+import gov.cms.madie.models.measure.Measure;
+import gov.cms.madie.models.measure.TestCase;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class MeasureTestCaseRepositoryImplTest {
+  @Mock MongoTemplate mongoTemplate;
+  @InjectMocks MeasureTestCaseRepositoryImpl measureTestCaseRepository;
+
+  @Test
+  public void testFindByIdAttachesTestCases() {
+    TestCase testCase = TestCase.builder().id("TC1_ID").title("TC1").build();
+    when(mongoTemplate.findOne(any(Query.class), eq(Measure.class)))
+        .thenReturn(Measure.builder().id("measure-id").build());
+    when(mongoTemplate.find(any(Query.class), eq(MeasureTestCase.class)))
+        .thenReturn(List.of(MeasureTestCase.of("measure-id", testCase)));
+
+    Optional<Measure> measure = measureTestCaseRepository.findById("measure-id");
+    assertThat(measure.isPresent(), is(true));
+    assertThat(measure.get().getTestCases(), is(equalTo(List.of(testCase))));
+  }
+
+  @Test
+  public void testFindByIdLeavesTestCasesUnsetWhenMeasureHasNone() {
+    when(mongoTemplate.findOne(any(Query.class), eq(Measure.class)))
+        .thenReturn(Measure.builder().id("measure-id").build());
+    when(mongoTemplate.find(any(Query.class), eq(MeasureTestCase.class))).thenReturn(List.of());
+
+    Optional<Measure> measure = measureTestCaseRepository.findById("measure-id");
+    assertThat(measure.isPresent(), is(true));
+    assertThat(measure.get().getTestCases(), is(nullValue()));
+  }
+
+  @Test
+  public void testFindByIdReturnsEmptyWhenMeasureDoesNotExist() {
+    when(mongoTemplate.findOne(any(Query.class), eq(Measure.class))).thenReturn(null);
+
+    Optional<Measure> measure = measureTestCaseRepository.findById("measure-id");
+    assertThat(measure.isPresent(), is(false));
+    verify(mongoTemplate, never()).find(any(Query.class), eq(MeasureTestCase.class));
+  }
+
+  @Test
+  public void testFindByIdAndActiveAttachesTestCases() {
+    TestCase testCase = TestCase.builder().id("TC1_ID").title("TC1").build();
+    when(mongoTemplate.findOne(any(Query.class), eq(Measure.class)))
+        .thenReturn(Measure.builder().id("measure-id").active(true).build());
+    when(mongoTemplate.find(any(Query.class), eq(MeasureTestCase.class)))
+        .thenReturn(List.of(MeasureTestCase.of("measure-id", testCase)));
+
+    Optional<Measure> measure = measureTestCaseRepository.findByIdAndActive("measure-id", true);
+    assertThat(measure.isPresent(), is(true));
+    assertThat(measure.get().getTestCases(), is(equalTo(List.of(testCase))));
+  }
+
+  @Test
+  public void testFindAllByMeasureSetIdAndActiveAttachesTestCasesInOneQuery() {
+    TestCase testCase1 = TestCase.builder().id("TC1_ID").title("TC1").build();
+    TestCase testCase2 = TestCase.builder().id("TC2_ID").title("TC2").build();
+    when(mongoTemplate.find(any(Query.class), eq(Measure.class)))
+        .thenReturn(
+            new ArrayList<>(
+                List.of(
+                    Measure.builder().id("measure-1").build(),
+                    Measure.builder().id("measure-2").build(),
+                    Measure.builder().id("measure-3").build())));
+    when(mongoTemplate.find(any(Query.class), eq(MeasureTestCase.class)))
+        .thenReturn(
+            List.of(
+                MeasureTestCase.of("measure-1", testCase1),
+                MeasureTestCase.of("measure-2", testCase2)));
+
+    List<Measure> measures =
+        measureTestCaseRepository.findAllByMeasureSetIdAndActive("measure-set-id", true);
+    assertThat(measures.get(0).getTestCases(), is(equalTo(List.of(testCase1))));
+    assertThat(measures.get(1).getTestCases(), is(equalTo(List.of(testCase2))));
+    assertThat(measures.get(2).getTestCases(), is(nullValue()));
+    verify(mongoTemplate, times(1)).find(any(Query.class), eq(MeasureTestCase.class));
+  }
+}
@@ -0,0 +1,206 @@
+package cms.gov.madie.measure.repositories;
+
+import cms.gov.madie.measure.exceptions.MeasureConflictException;
+import cms.gov.madie.measure.repositories.TestCaseBulkRepository.TestCaseUpdate;
+import com.mongodb.client.result.UpdateResult;
+import gov.cms.madie.models.measure.Group;
+import gov.cms.madie.models.measure.Measure;
+import gov.cms.madie.models.measure.TestCase;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class MeasureUpdateRepositoryImplTest {
+  @Mock MongoTemplate mongoTemplate;
+  @Mock TestCaseRepository testCaseRepository;
+  @InjectMocks MeasureUpdateRepositoryImpl measureUpdateRepository;
+
+  private Measure measure;
+
+  @BeforeEach
+  public void setUp() {
+    MappingMongoConverter converter =
+        new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+    converter.afterPropertiesSet();
+    lenient().when(mongoTemplate.getConverter()).thenReturn(converter);
+    lenient().when(mongoTemplate.getCollectionName(Measure.class)).thenReturn("measure");
+
+    List<Group> groups = new ArrayList<>();
+    groups.add(Group.builder().id(ObjectId.get().toString()).scoring("Cohort").build());
+    List<TestCase> testCases = new ArrayList<>();
+    testCases.add(TestCase.builder().id(ObjectId.get().toString()).title("TC1").build());
+    testCases.add(TestCase.builder().id(ObjectId.get().toString()).title("TC2").build());
+    measure =
+        Measure.builder()
+            .id(ObjectId.get().toString())
+            .measureName("Measure1")
+            .groups(groups)
+            .testCases(testCases)
+            .build();
+  }
+
+  @Test
+  public void testSaveChangesSetsOnlyChangedFieldsOfMeasureUnmodifiedSinceRead() {
+    Instant readLastModifiedAt = Instant.parse("2024-01-01T00:00:00Z");
+    measure.setLastModifiedAt(readLastModifiedAt);
+    Document snapshot = measureUpdateRepository.snapshot(measure);
+    measure.setMeasureName("Measure2");
+    when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq("measure")))
+        .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+    measureUpdateRepository.saveChanges(snapshot, measure);
+
+    ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+    ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+    verify(mongoTemplate, times(1))
+        .updateFirst(queryCaptor.capture(), updateCaptor.capture(), eq("measure"));
+    assertThat(
+        queryCaptor.getValue().getQueryObject(),
+        is(
+            equalTo(
+                new Document("_id", snapshot.get("_id"))
+                    .append("lastModifiedAt", Date.from(readLastModifiedAt)))));
+    Document update = updateCaptor.getValue().getUpdateObject();
+    assertThat(update.keySet(), is(equalTo(Set.of("$set"))));
+    assertThat(
+        update.get("$set", Document.class),
+        is(
+            equalTo(
+                new Document("measureName", "Measure2")
+                    .append("lastModifiedAt", Date.from(measure.getLastModifiedAt())))));
+    assertThat(measure.getLastModifiedAt().isAfter(readLastModifiedAt), is(true));
+    verify(testCaseRepository, times(1))
+        .saveTestCasesIfUnmodified(measure.getId(), List.of(), Map.of());
+    verify(testCaseRepository, times(1)).updateTestCasesIfUnmodified(measure.getId(), List.of());
+    verify(testCaseRepository, never()).deleteAllByMeasureIdAndIdIn(anyString(), any());
+  }
+
+  @Test
+  public void testSaveChangesThrowsWhenMeasureWasModifiedSinceRead() {
+    Document snapshot = measureUpdateRepository.snapshot(measure);
+    measure.setMeasureName("Measure2");
+    when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq("measure")))
+        .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+    assertThrows(
+        MeasureConflictException.class,
+        () -> measureUpdateRepository.saveChanges(snapshot, measure));
+    verifyNoInteractions(testCaseRepository);
+  }
+
+  @Test
+  public void testSaveChangesPushesAddedAndPullsRemovedListElements() {
+    when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq("measure")))
+        .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+    Document snapshot = measureUpdateRepository.snapshot(measure);
+    measure.getGroups().add(Group.builder().id(ObjectId.get().toString()).build());
+
+    measureUpdateRepository.saveChanges(snapshot, measure);
+    ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+    verify(mongoTemplate, times(1))
+        .updateFirst(any(Query.class), updateCaptor.capture(), eq("measure"));
+    assertThat(updateCaptor.getValue().getUpdateObject().get("$push"), is(notNullValue()));
+
+    snapshot = measureUpdateRepository.snapshot(measure);
+    measure.getGroups().remove(0);
+
+    measureUpdateRepository.saveChanges(snapshot, measure);
+    verify(mongoTemplate, times(2))
+        .updateFirst(any(Query.class), updateCaptor.capture(), eq("measure"));
+    Document update = updateCaptor.getValue().getUpdateObject();
+    assertThat(update.get("$pullAll"), is(notNullValue()));
+    assertThat(update.get("$set", Document.class).keySet(), is(Set.of("lastModifiedAt")));
+  }
+
+  @Test
+  public void testSaveChangesWritesOnlyChangedFieldsOfTestCasesUnmodifiedSinceRead() {
+    Instant readLastModifiedAt = Instant.parse("2024-01-01T00:00:00Z");
+    TestCase changed = measure.getTestCases().get(0);
+    changed.setLastModifiedAt(readLastModifiedAt);
+    Document snapshot = measureUpdateRepository.snapshot(measure);
+    TestCase removed = measure.getTestCases().remove(1);
+    TestCase added = TestCase.builder().id(ObjectId.get().toString()).title("TC3").build();
+    measure.getTestCases().add(added);
+    changed.setTitle("TC1 updated");
+
+    measureUpdateRepository.saveChanges(snapshot, measure);
+
+    verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), anyString());
+    verify(testCaseRepository, times(1))
+        .saveTestCasesIfUnmodified(measure.getId(), List.of(added), Map.of());
+    ArgumentCaptor<List<TestCaseUpdate>> updatesCaptor = ArgumentCaptor.forClass(List.class);
+    verify(testCaseRepository, times(1))
+        .updateTestCasesIfUnmodified(eq(measure.getId()), updatesCaptor.capture());
+    assertThat(updatesCaptor.getValue().size(), is(1));
+    TestCaseUpdate testCaseUpdate = updatesCaptor.getValue().get(0);
+    assertThat(testCaseUpdate.testCaseId(), is(changed.getId()));
+    assertThat(testCaseUpdate.readLastModifiedAt(), is(readLastModifiedAt));
+    assertThat(testCaseUpdate.lastModifiedAt(), is(changed.getLastModifiedAt()));
+    assertThat(changed.getLastModifiedAt().isAfter(readLastModifiedAt), is(true));
+    assertThat(
+        testCaseUpdate.update().getUpdateObject(),
+        is(
+            new Document(
+                "$set",
+                new Document("testCase.title", "TC1 updated")
+                    .append("testCase.lastModifiedAt", Date.from(changed.getLastModifiedAt())))));
+    verify(testCaseRepository, times(1))
+        .deleteAllByMeasureIdAndIdIn(measure.getId(), List.of(removed.getId()));
+  }
+
+  @Test
+  public void testSaveChangesLeavesTestCasesAloneWhenNotLoaded() {
+    Document snapshot = measureUpdateRepository.snapshot(measure);
+    measure.setTestCases(null);
+
+    measureUpdateRepository.saveChanges(snapshot, measure);
+
+    verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), anyString());
+    verifyNoInteractions(testCaseRepository);
+  }
+
+  @Test
+  public void testSaveChangesSavesWholeMeasureWithoutSnapshot() {
+    when(mongoTemplate.save(measure)).thenReturn(measure);
+
+    measureUpdateRepository.saveChanges(null, measure);
+    verify(mongoTemplate, times(1)).save(measure);
+    verify(testCaseRepository, times(1))
+        .saveTestCasesIfUnmodified(measure.getId(), measure.getTestCases(), Map.of());
+  }
+}
@@ -3,18 +3,27 @@ package cms.gov.madie.measure.repositories;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.Map;
 import java.util.Optional;
+import org.bson.Document;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
 
+import cms.gov.madie.measure.dto.MeasureSetVersionCounter;
 import gov.cms.madie.models.measure.Measure;
 import gov.cms.madie.models.common.Version;
 
@@ -147,4 +156,107 @@ public class MeasureVersionRepositoryImplTest {
 
     assertTrue(foundVersion.isEmpty());
   }
+
+  @Test
+  public void testFindMaxVersionByMeasureSetIdProjectsVersionOnly() {
+    when(mongoTemplate.findOne(any(Query.class), any())).thenReturn(null);
+
+    measureVersionRepository.findMaxVersionByMeasureSetId("testMeasureSetId");
+
+    ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+    verify(mongoTemplate).findOne(queryCaptor.capture(), eq(Measure.class));
+    assertEquals(
+        new Document("version.major", 1)
+            .append("version.minor", 1)
+            .append("version.revisionNumber", 1)
+            .append("_id", 0),
+        queryCaptor.getValue().getFieldsObject());
+  }
+
+  @Test
+  public void testAllocateMajorVersionIncrementsExistingCounter() {
+    when(mongoTemplate.exists(any(Query.class), eq(MeasureSetVersionCounter.class)))
+        .thenReturn(true);
+    when(mongoTemplate.findAndModify(
+            any(Query.class),
+            any(Update.class),
+            any(FindAndModifyOptions.class),
+            eq(MeasureSetVersionCounter.class)))
+        .thenReturn(MeasureSetVersionCounter.builder().major(4).build());
+
+    int major = measureVersionRepository.allocateMajorVersion("testMeasureSetId");
+
+    assertEquals(4, major);
+    verify(mongoTemplate, never()).findOne(any(Query.class), any());
+    ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+    verify(mongoTemplate)
+        .findAndModify(
+            any(Query.class),
+            updateCaptor.capture(),
+            any(FindAndModifyOptions.class),
+            eq(MeasureSetVersionCounter.class));
+    assertEquals(
+        new Document("$inc", new Document("major", 1)), updateCaptor.getValue().getUpdateObject());
+  }
+
+  @Test
+  public void testAllocateMinorVersionSeedsCounterFromSavedVersions() {
+    Measure measure =
+        Measure.builder()
+            .version(Version.builder().major(2).minor(3).revisionNumber(1).build())
+            .build();
+    when(mongoTemplate.exists(any(Query.class), eq(MeasureSetVersionCounter.class)))
+        .thenReturn(false);
+    when(mongoTemplate.findOne(any(Query.class), any())).thenReturn(measure);
+    when(mongoTemplate.findAndModify(
+            any(Query.class),
+            any(Update.class),
+            any(FindAndModifyOptions.class),
+            eq(MeasureSetVersionCounter.class)))
+        .thenReturn(MeasureSetVersionCounter.builder().minor(Map.of("2", 4)).build());
+
+    int minor = measureVersionRepository.allocateMinorVersion("testMeasureSetId", 2);
+
+    assertEquals(4, minor);
+    ArgumentCaptor<Update> seedCaptor = ArgumentCaptor.forClass(Update.class);
+    verify(mongoTemplate)
+        .upsert(any(Query.class), seedCaptor.capture(), eq(MeasureSetVersionCounter.class));
+    assertEquals(
+        new Document("$max", new Document("minor.2", 3)), seedCaptor.getValue().getUpdateObject());
+  }
+
+  @Test
+  public void testAllocateRevisionNumberReturnsCounterOfMajorAndMinor() {
+    when(mongoTemplate.exists(any(Query.class), eq(MeasureSetVersionCounter.class)))
+        .thenReturn(true);
+    when(mongoTemplate.findAndModify(
+            any(Query.class),
+            any(Update.class),
+            any(FindAndModifyOptions.class),
+            eq(MeasureSetVersionCounter.class)))
+        .thenReturn(
+            MeasureSetVersionCounter.builder().revisionNumber(Map.of("2_3", 7, "2_4", 1)).build());
+
+    int revisionNumber = measureVersionRepository.allocateRevisionNumber("testMeasureSetId", 2, 3);
+
+    assertEquals(7, revisionNumber);
+  }
+
+  @Test
+  public void testReleaseVersionDecrementsOnlyUnchangedCounter() {
+    measureVersionRepository.releaseVersion(
+        "testMeasureSetId", Version.builder().major(2).minor(4).revisionNumber(0).build());
+
+    ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+    ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+    verify(mongoTemplate)
+        .updateFirst(
+            queryCaptor.capture(), updateCaptor.capture(), eq(MeasureSetVersionCounter.class));
+    assertEquals(
+        new Document("_id", "testMeasureSetId").append("minor.2", 4),
+        queryCaptor.getValue().getQueryObject());
+    assertEquals(
+        new Document("$inc", new Document("minor.2", -1)),
+        updateCaptor.getValue().getUpdateObject());
+  }
 }
@@ -0,0 +1,256 @@
+package cms.gov.madie.measure.repositories;
+
+import cms.gov.madie.measure.dto.MeasureTestCase;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.UpdateResult;
+import gov.cms.madie.models.measure.TestCase;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class TestCaseBulkRepositoryImplTest {
+  @Mock MongoTemplate mongoTemplate;
+  @InjectMocks TestCaseBulkRepositoryImpl testCaseBulkRepository;
+
+  @Test
+  public void testSaveTestCasesIfUnmodifiedInsertsNewAndReplacesUnmodifiedTestCases() {
+    Instant readAt = Instant.parse("2024-01-01T00:00:00Z");
+    BulkOperations bulkOperations = mock(BulkOperations.class);
+    when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), eq(MeasureTestCase.class)))
+        .thenReturn(bulkOperations);
+    BulkWriteResult result = mock(BulkWriteResult.class);
+    when(result.getMatchedCount()).thenReturn(1);
+    when(bulkOperations.execute()).thenReturn(result);
+    TestCase existing = TestCase.builder().id("TC1_ID").build();
+    TestCase added = TestCase.builder().id("TC2_ID").build();
+
+    Set<String> notSaved =
+        testCaseBulkRepository.saveTestCasesIfUnmodified(
+            "measure-id", List.of(existing, added), Map.of("TC1_ID", readAt));
+
+    assertThat(notSaved, is(Set.of()));
+    ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+    verify(bulkOperations)
+        .replaceOne(queryCaptor.capture(), eq(MeasureTestCase.of("measure-id", existing)));
+    assertThat(
+        queryCaptor.getValue().getQueryObject(),
+        is(
+            new Document("_id", "TC1_ID")
+                .append("measureId", "measure-id")
+                .append("testCase.lastModifiedAt", readAt)));
+    verify(bulkOperations).insert(MeasureTestCase.of("measure-id", added));
+    verify(mongoTemplate, never()).find(any(Query.class), eq(MeasureTestCase.class));
+  }
+
+  @Test
+  public void testSaveTestCasesIfUnmodifiedReturnsTestCasesModifiedSinceRead() {
+    Instant readAt = Instant.parse("2024-01-01T00:00:00Z");
+    Instant savedAt = Instant.parse("2024-01-02T00:00:00.123456Z");
+    BulkOperations bulkOperations = mock(BulkOperations.class);
+    when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), eq(MeasureTestCase.class)))
+        .thenReturn(bulkOperations);
+    BulkWriteResult result = mock(BulkWriteResult.class);
+    when(result.getMatchedCount()).thenReturn(1);
+    when(bulkOperations.execute()).thenReturn(result);
+    when(mongoTemplate.find(any(Query.class), eq(MeasureTestCase.class)))
+        .thenReturn(
+            List.of(
+                MeasureTestCase.of(
+                    "measure-id",
+                    TestCase.builder()
+                        .id("TC1_ID")
+                        .lastModifiedAt(Instant.parse("2024-01-02T00:00:00.123Z"))
+                        .build()),
+                MeasureTestCase.of(
+                    "measure-id",
+                    TestCase.builder()
+                        .id("TC2_ID")
+                        .lastModifiedAt(Instant.parse("2024-01-01T12:00:00Z"))
+                        .build())));
+
+    Set<String> notSaved =
+        testCaseBulkRepository.saveTestCasesIfUnmodified(
+            "measure-id",
+            List.of(
+                TestCase.builder().id("TC1_ID").lastModifiedAt(savedAt).build(),
+                TestCase.builder().id("TC2_ID").lastModifiedAt(savedAt).build()),
+            Map.of("TC1_ID", readAt, "TC2_ID", readAt));
+
+    assertThat(notSaved, is(Set.of("TC2_ID")));
+  }
+
+  @Test
+  public void testSaveTestCasesIfUnmodifiedSkipsEmptyList() {
+    assertThat(
+        testCaseBulkRepository.saveTestCasesIfUnmodified("measure-id", List.of(), Map.of()),
+        is(Set.of()));
+    verifyNoInteractions(mongoTemplate);
+  }
+
+  @Test
+  public void testUpdateTestCasesIfUnmodifiedReturnsTestCasesModifiedSinceRead() {
+    Instant readAt = Instant.parse("2024-01-01T00:00:00Z");
+    Instant updatedAt = Instant.parse("2024-01-02T00:00:00Z");
+    BulkOperations bulkOperations = mock(BulkOperations.class);
+    when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), eq(MeasureTestCase.class)))
+        .thenReturn(bulkOperations);
+    BulkWriteResult result = mock(BulkWriteResult.class);
+    when(result.getMatchedCount()).thenReturn(1);
+    when(bulkOperations.execute()).thenReturn(result);
+    when(mongoTemplate.find(any(Query.class), eq(MeasureTestCase.class)))
+        .thenReturn(
+            List.of(
+                MeasureTestCase.of(
+                    "measure-id",
+                    TestCase.builder().id("TC1_ID").lastModifiedAt(updatedAt).build()),
+                MeasureTestCase.of(
+                    "measure-id",
+                    TestCase.builder()
+                        .id("TC2_ID")
+                        .lastModifiedAt(Instant.parse("2024-01-01T12:00:00Z"))
+                        .build())));
+    Update update = new Update().set("testCase.title", "updated");
+
+    Set<String> notUpdated =
+        testCaseBulkRepository.updateTestCasesIfUnmodified(
+            "measure-id",
+            List.of(
+                new TestCaseBulkRepository.TestCaseUpdate("TC1_ID", readAt, updatedAt, update),
+                new TestCaseBulkRepository.TestCaseUpdate("TC2_ID", readAt, updatedAt, update)));
+
+    assertThat(notUpdated, is(Set.of("TC2_ID")));
+    ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+    verify(bulkOperations, times(2)).updateOne(queryCaptor.capture(), eq(update));
+    assertThat(
+        queryCaptor.getAllValues().get(0).getQueryObject(),
+        is(
+            new Document("_id", "TC1_ID")
+                .append("measureId", "measure-id")
+                .append("testCase.lastModifiedAt", readAt)));
+  }
+
+  @Test
+  public void testUpdateTestCasesIfUnmodifiedSkipsEmptyList() {
+    assertThat(
+        testCaseBulkRepository.updateTestCasesIfUnmodified("measure-id", List.of()), is(Set.of()));
+    verifyNoInteractions(mongoTemplate);
+  }
+
+  @Test
+  public void testReplaceTestCaseIfUnmodifiedMatchesLastModifiedTime() {
+    Instant readAt = Instant.parse("2024-01-01T00:00:00Z");
+    when(mongoTemplate.replace(any(Query.class), any(MeasureTestCase.class)))
+        .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+    boolean replaced =
+        testCaseBulkRepository.replaceTestCaseIfUnmodified(
+            "measure-id", TestCase.builder().id("TC1_ID").build(), readAt);
+
+    assertThat(replaced, is(true));
+    ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+    verify(mongoTemplate).replace(queryCaptor.capture(), any(MeasureTestCase.class));
+    assertThat(
+        queryCaptor.getValue().getQueryObject(),
+        is(
+            new Document("_id", "TC1_ID")
+                .append("measureId", "measure-id")
+                .append("testCase.lastModifiedAt", readAt)));
+  }
+
+  @Test
+  public void testReplaceTestCaseIfUnmodifiedReturnsFalseWhenModified() {
+    when(mongoTemplate.replace(any(Query.class), any(MeasureTestCase.class)))
+        .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+    boolean replaced =
+        testCaseBulkRepository.replaceTestCaseIfUnmodified(
+            "measure-id", TestCase.builder().id("TC1_ID").build(), Instant.now());
+
+    assertThat(replaced, is(false));
+  }
+
+  @Test
+  public void testUpdateValidationResultsSetsOnlyValidationFields() {
+    BulkOperations bulkOperations = mock(BulkOperations.class);
+    when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), eq(MeasureTestCase.class)))
+        .thenReturn(bulkOperations);
+    BulkWriteResult result = mock(BulkWriteResult.class);
+    when(result.getMatchedCount()).thenReturn(1);
+    when(bulkOperations.execute()).thenReturn(result);
+
+    int updated =
+        testCaseBulkRepository.updateValidationResults(
+            "measure-id",
+            List.of(
+                TestCase.builder()
+                    .id("TC1_ID")
+                    .validResource(true)
+                    .lastModifiedAt(Instant.parse("2024-01-01T00:00:00Z"))
+                    .build()));
+
+    assertThat(updated, is(1));
+    ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+    verify(bulkOperations).updateOne(any(Query.class), updateCaptor.capture());
+    Document updateObject = updateCaptor.getValue().getUpdateObject();
+    assertThat(updateObject.keySet(), is(Set.of("$set")));
+    Document set = updateObject.get("$set", Document.class);
+    assertThat(
+        set.keySet(),
+        is(Set.of("testCase.validResource", "testCase.hapiOperationOutcome", "validatedAt")));
+    assertThat(set.get("testCase.validResource"), is(true));
+    verify(bulkOperations, never())
+        .replaceOne(any(Query.class), any(MeasureTestCase.class), any(FindAndReplaceOptions.class));
+  }
+
+  @Test
+  public void testUpdateValidationResultsSkipsEmptyList() {
+    assertThat(testCaseBulkRepository.updateValidationResults("measure-id", List.of()), is(0));
+    verifyNoInteractions(mongoTemplate);
+  }
+
+  @Test
+  public void testFindAllValidatedBeforeMatchesTestCasesNotSavedOrRevalidatedSince() {
+    Instant validatedBefore = Instant.parse("2024-01-01T00:00:00Z");
+    List<MeasureTestCase> testCases = List.of(MeasureTestCase.builder().id("TC1_ID").build());
+    when(mongoTemplate.find(any(Query.class), eq(MeasureTestCase.class))).thenReturn(testCases);
+
+    assertThat(
+        testCaseBulkRepository.findAllValidatedBefore("measure-id", validatedBefore),
+        is(testCases));
+    ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+    verify(mongoTemplate).find(queryCaptor.capture(), eq(MeasureTestCase.class));
+    Document filter = queryCaptor.getValue().getQueryObject();
+    assertThat(filter.get("measureId"), is("measure-id"));
+    assertThat(
+        filter.get("testCase.lastModifiedAt"),
+        is(new Document("$not", new Document("$gte", validatedBefore))));
+    assertThat(
+        filter.get("validatedAt"), is(new Document("$not", new Document("$gte", validatedBefore))));
+  }
+}
@@ -1,13 +1,16 @@
 package cms.gov.madie.measure.resources;
 
 import cms.gov.madie.measure.SecurityConfig;
+import cms.gov.madie.measure.dto.Job;
 import cms.gov.madie.measure.dto.JobStatus;
 import cms.gov.madie.measure.dto.MeasureTestCaseValidationReport;
 import cms.gov.madie.measure.dto.TestCaseValidationReport;
 import cms.gov.madie.measure.repositories.CqmMeasureRepository;
 import cms.gov.madie.measure.repositories.ExportRepository;
 import cms.gov.madie.measure.repositories.MeasureRepository;
+import cms.gov.madie.measure.repositories.TestCaseRepository;
 import cms.gov.madie.measure.services.*;
+import com.jayway.jsonpath.JsonPath;
 import gov.cms.madie.models.access.AclSpecification;
 import gov.cms.madie.models.access.RoleEnum;
 import gov.cms.madie.models.common.ModelType;
@@ -19,28 +22,38 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Stream;
 
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest({AdminController.class})
 @ActiveProfiles("test")
-@Import(SecurityConfig.class)
+@Import({SecurityConfig.class, TestCaseRevalidationService.class})
 public class AdminControllerMvcTest {
   private static final String ADMIN_TEST_API_KEY_HEADER = "api-key";
   private static final String ADMIN_TEST_API_KEY_HEADER_VALUE = "0a51991c";
@@ -51,16 +64,18 @@ public class AdminControllerMvcTest {
   @MockitoBean private TestCaseService testCaseService;
   @MockitoBean private ActionLogService actionLogService;
   @MockitoBean private VersionService versionService;
+  @MockitoBean private JobService jobService;
 
   @MockitoBean private MeasureRepository measureRepository;
   @MockitoBean private ExportRepository exportRepository;
   @MockitoBean private CqmMeasureRepository cqmMeasureRepository;
+  @MockitoBean private TestCaseRepository testCaseRepository;
 
   @Autowired private MockMvc mockMvc;
 
   @Test
   public void testValidateAllMeasureTestCasesNoMeasuresFoundDefaultDraftOnly() throws Exception {
-    when(measureService.getAllActiveMeasureIds(eq(true))).thenReturn(List.of());
+    when(measureRepository.streamActiveMeasureIds(eq(true), isNull())).thenReturn(Stream.of());
 
     mockMvc
         .perform(
@@ -77,7 +92,7 @@ public class AdminControllerMvcTest {
 
   @Test
   public void testValidateAllMeasureTestCasesNoMeasuresFoundProvidedDraftOnly() throws Exception {
-    when(measureService.getAllActiveMeasureIds(eq(true))).thenReturn(List.of());
+    when(measureRepository.streamActiveMeasureIds(eq(true), isNull())).thenReturn(Stream.of());
 
     mockMvc
         .perform(
@@ -95,7 +110,7 @@ public class AdminControllerMvcTest {
   @Test
   public void testValidateAllMeasureTestCasesNoMeasuresFoundProvidedNotDraftOnly()
       throws Exception {
-    when(measureService.getAllActiveMeasureIds(eq(false))).thenReturn(List.of());
+    when(measureRepository.streamActiveMeasureIds(eq(false), isNull())).thenReturn(Stream.of());
 
     mockMvc
         .perform(
@@ -112,7 +127,8 @@ public class AdminControllerMvcTest {
 
   @Test
   public void testValidateAllMeasureTestCasesNoImpactedMeasureDefaultDraftOnly() throws Exception {
-    when(measureService.getAllActiveMeasureIds(eq(true))).thenReturn(List.of("M1", "M2"));
+    when(measureRepository.streamActiveMeasureIds(eq(true), isNull()))
+        .thenReturn(Stream.of("M1", "M2"));
     MeasureTestCaseValidationReport report1 =
         MeasureTestCaseValidationReport.builder()
             .measureId("M1")
@@ -131,7 +147,7 @@ public class AdminControllerMvcTest {
                     .currentValidResource(false)
                     .build())
             .build();
-    when(testCaseService.updateTestCaseValidResourcesWithReport(eq("M1"), anyString()))
+    when(testCaseService.updateTestCaseValidResourcesWithReport(eq("M1"), isNull(), anyString()))
         .thenReturn(report1);
 
     MeasureTestCaseValidationReport report2 =
@@ -152,7 +168,7 @@ public class AdminControllerMvcTest {
                     .currentValidResource(true)
                     .build())
             .build();
-    when(testCaseService.updateTestCaseValidResourcesWithReport(eq("M2"), anyString()))
+    when(testCaseService.updateTestCaseValidResourcesWithReport(eq("M2"), isNull(), anyString()))
         .thenReturn(report2);
 
     mockMvc
@@ -193,14 +209,17 @@ public class AdminControllerMvcTest {
             jsonPath("$.reports[1].testCaseValidationReports[1].currentValidResource").value(true))
         .andExpect(jsonPath("$.impactedMeasures", empty()));
 
-    verify(testCaseService, times(1)).updateTestCaseValidResourcesWithReport(eq("M1"), anyString());
-    verify(testCaseService, times(1)).updateTestCaseValidResourcesWithReport(eq("M2"), anyString());
+    verify(testCaseService, times(1))
+        .updateTestCaseValidResourcesWithReport(eq("M1"), isNull(), anyString());
+    verify(testCaseService, times(1))
+        .updateTestCaseValidResourcesWithReport(eq("M2"), isNull(), anyString());
     verifyNoInteractions(measureSetService);
   }
 
   @Test
   public void testValidateAllMeasureTestCasesOneImpactedMeasureDefaultDraftOnly() throws Exception {
-    when(measureService.getAllActiveMeasureIds(eq(true))).thenReturn(List.of("M1", "M2"));
+    when(measureRepository.streamActiveMeasureIds(eq(true), isNull()))
+        .thenReturn(Stream.of("M1", "M2"));
     MeasureTestCaseValidationReport report1 =
         MeasureTestCaseValidationReport.builder()
             .measureId("M1")
@@ -219,7 +238,7 @@ public class AdminControllerMvcTest {
                     .currentValidResource(false)
                     .build())
             .build();
-    when(testCaseService.updateTestCaseValidResourcesWithReport(eq("M1"), anyString()))
+    when(testCaseService.updateTestCaseValidResourcesWithReport(eq("M1"), isNull(), anyString()))
         .thenReturn(report1);
 
     MeasureTestCaseValidationReport report2 =
@@ -246,10 +265,10 @@ public class AdminControllerMvcTest {
                     .currentValidResource(false)
                     .build())
             .build();
-    when(testCaseService.updateTestCaseValidResourcesWithReport(eq("M2"), anyString()))
+    when(testCaseService.updateTestCaseValidResourcesWithReport(eq("M2"), isNull(), anyString()))
         .thenReturn(report2);
-    when(measureSetService.findByMeasureSetId(eq("MSet2")))
-        .thenReturn(MeasureSet.builder().owner("Owner12").build());
+    when(measureSetService.findAllByMeasureSetIds(List.of("MSet2")))
+        .thenReturn(List.of(MeasureSet.builder().measureSetId("MSet2").owner("Owner12").build()));
 
     mockMvc
         .perform(
@@ -300,8 +319,102 @@ public class AdminControllerMvcTest {
         .andExpect(jsonPath("$.impactedMeasures[0].impactedTestCasesCount").value(2))
         .andExpect(jsonPath("$.impactedMeasures[1]").doesNotExist());
 
-    verify(testCaseService, times(1)).updateTestCaseValidResourcesWithReport(eq("M1"), anyString());
-    verify(testCaseService, times(1)).updateTestCaseValidResourcesWithReport(eq("M2"), anyString());
+    verify(testCaseService, times(1))
+        .updateTestCaseValidResourcesWithReport(eq("M1"), isNull(), anyString());
+    verify(testCaseService, times(1))
+        .updateTestCaseValidResourcesWithReport(eq("M2"), isNull(), anyString());
+  }
+
+  @Test
+  public void testStreamValidateAllMeasureTestCasesWritesLinePerMeasure() throws Exception {
+    when(measureRepository.streamActiveMeasureIds(eq(true), eq("M0"))).thenReturn(Stream.of("M1"));
+    when(testCaseService.updateTestCaseValidResourcesWithReport(eq("M1"), isNull(), anyString()))
+        .thenReturn(
+            MeasureTestCaseValidationReport.builder()
+                .measureId("M1")
+                .jobStatus(JobStatus.COMPLETED)
+                .build());
+
+    MvcResult result =
+        mockMvc
+            .perform(
+                MockMvcRequestBuilders.put("/admin/measures/test-cases/validations?after=M0")
+                    .with(csrf())
+                    .with(user(TEST_USER_ID))
+                    .header(ADMIN_TEST_API_KEY_HEADER, ADMIN_TEST_API_KEY_HEADER_VALUE)
+                    .header("Authorization", "test-okta")
+                    .accept(MediaType.APPLICATION_NDJSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+    String body =
+        mockMvc
+            .perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+    String[] lines = body.split("\n");
+    assertThat(lines.length, is(2));
+    assertThat(JsonPath.read(lines[0], "$.type"), is("REPORT"));
+    assertThat(JsonPath.read(lines[0], "$.report.measureId"), is("M1"));
+    assertThat(JsonPath.read(lines[0], "$.checkpoint"), is("M1"));
+    assertThat(JsonPath.read(lines[1], "$.type"), is("SUMMARY"));
+    assertThat(JsonPath.read(lines[1], "$.processed"), is(1));
+  }
+
+  @Test
+  public void testValidateAllMeasureTestCasesSelectiveNeedsValidatorTime() throws Exception {
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.put("/admin/measures/test-cases/validations?selective=true")
+                .with(csrf())
+                .with(user(TEST_USER_ID))
+                .header(ADMIN_TEST_API_KEY_HEADER, ADMIN_TEST_API_KEY_HEADER_VALUE)
+                .header("Authorization", "test-okta"))
+        .andExpect(status().isBadRequest());
+    verifyNoInteractions(measureRepository, testCaseService);
+  }
+
+  @Test
+  public void testSubmitValidateAllMeasureTestCasesJob() throws Exception {
+    when(jobService.submit(
+            eq(TestCaseRevalidationJobHandler.TYPE),
+            eq(
+                Map.of(
+                    TestCaseRevalidationJobHandler.DRAFT_ONLY,
+                    false,
+                    TestCaseRevalidationJobHandler.SELECTIVE,
+                    false)),
+            eq(TEST_USER_ID),
+            eq("test-okta")))
+        .thenReturn(Job.builder().id("job-1").status(JobStatus.PENDING).build());
+
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.post(
+                    "/admin/measures/test-cases/validations/jobs?draftOnly=false")
+                .with(csrf())
+                .with(user(TEST_USER_ID))
+                .header(ADMIN_TEST_API_KEY_HEADER, ADMIN_TEST_API_KEY_HEADER_VALUE)
+                .header("Authorization", "test-okta"))
+        .andExpect(status().isAccepted())
+        .andExpect(jsonPath("$.id").value("job-1"))
+        .andExpect(jsonPath("$.status").value("PENDING"));
+    verifyNoInteractions(testCaseService);
+  }
+
+  @Test
+  public void testSubmitValidateAllMeasureTestCasesJobRequiresApiKey() throws Exception {
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.post("/admin/measures/test-cases/validations/jobs")
+                .with(csrf())
+                .with(user(TEST_USER_ID))
+                .header("Authorization", "test-okta"))
+        .andExpect(status().isForbidden());
+    verifyNoInteractions(jobService);
   }
 
   @Test
@@ -369,6 +482,7 @@ public class AdminControllerMvcTest {
                 .header("harpId", "owner1"))
         .andExpect(status().isOk())
         .andExpect(jsonPath("$.id", equalTo("12345")));
+    verify(testCaseRepository, times(1)).deleteAllByMeasureIdIn(eq(List.of("12345")));
   }
 
   @Test
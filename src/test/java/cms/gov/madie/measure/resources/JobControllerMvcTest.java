@@ -0,0 +1,83 @@
+package cms.gov.madie.measure.resources;
+
+import cms.gov.madie.measure.SecurityConfig;
+import cms.gov.madie.measure.dto.Job;
+import cms.gov.madie.measure.dto.JobStatus;
+import cms.gov.madie.measure.exceptions.InvalidResourceStateException;
+import cms.gov.madie.measure.exceptions.UnauthorizedException;
+import cms.gov.madie.measure.services.JobService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest({JobController.class})
+@ActiveProfiles("test")
+@Import(SecurityConfig.class)
+public class JobControllerMvcTest {
+  private static final String TEST_USER_ID = "test-okta-user-id-123";
+
+  @Autowired private MockMvc mockMvc;
+  @MockitoBean private JobService jobService;
+
+  @Test
+  public void testGetJob() throws Exception {
+    when(jobService.getJob("job-1", TEST_USER_ID))
+        .thenReturn(Job.builder().id("job-1").status(JobStatus.RUNNING).processed(4).build());
+
+    mockMvc
+        .perform(get("/jobs/job-1").with(user(TEST_USER_ID)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.status").value("RUNNING"))
+        .andExpect(jsonPath("$.processed").value(4));
+  }
+
+  @Test
+  public void testGetJobOfAnotherUser() throws Exception {
+    when(jobService.getJob("job-1", TEST_USER_ID))
+        .thenThrow(new UnauthorizedException("Job", "job-1", TEST_USER_ID));
+
+    mockMvc
+        .perform(get("/jobs/job-1").with(user(TEST_USER_ID)))
+        .andExpect(status().isForbidden());
+  }
+
+  @Test
+  public void testCancelFinishedJob() throws Exception {
+    when(jobService.cancel("job-1", TEST_USER_ID))
+        .thenThrow(
+            new InvalidResourceStateException("Job", "job-1", "since it has already finished."));
+
+    mockMvc
+        .perform(put("/jobs/job-1/cancel").with(csrf()).with(user(TEST_USER_ID)))
+        .andExpect(status().isConflict());
+  }
+
+  @Test
+  public void testResumeJob() throws Exception {
+    when(jobService.resume(eq("job-1"), eq(TEST_USER_ID), anyString()))
+        .thenReturn(Job.builder().id("job-1").status(JobStatus.INTERRUPTED).build());
+
+    mockMvc
+        .perform(
+            put("/jobs/job-1/resume")
+                .with(csrf())
+                .with(user(TEST_USER_ID))
+                .header("Authorization", "test-okta"))
+        .andExpect(status().isAccepted())
+        .andExpect(jsonPath("$.id").value("job-1"));
+  }
+}
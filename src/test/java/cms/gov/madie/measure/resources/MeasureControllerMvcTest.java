@@ -1727,6 +1727,29 @@ public class MeasureControllerMvcTest {
             groupCaptor.capture(), measureIdCaptor.capture(), usernameCaptor.capture());
   }
 
+  @Test
+  void testGetMeasureReturnsTestCases() throws Exception {
+    Measure measure =
+        Measure.builder()
+            .id("1234")
+            .active(true)
+            .createdBy(TEST_USER_ID)
+            .testCases(List.of(TestCase.builder().id("TC1_ID").title("TC1").build()))
+            .build();
+    when(measureRepository.findByIdAndActive("1234", true)).thenReturn(Optional.of(measure));
+    mockMvc
+        .perform(
+            get("/measures/1234")
+                .with(user(TEST_USER_ID))
+                .with(csrf())
+                .header("Authorization", "test-okta")
+                .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.testCases[0].id").value("TC1_ID"))
+        .andExpect(jsonPath("$.testCases[0].title").value("TC1"));
+    verify(measureRepository, times(1)).findByIdAndActive(eq("1234"), eq(true));
+  }
+
   @Test
   void getMeasureGroupsReturnsNotFound() throws Exception {
     when(measureRepository.findById(anyString())).thenReturn(Optional.empty());
@@ -1,6 +1,7 @@
 package cms.gov.madie.measure.resources;
 
 import cms.gov.madie.measure.dto.MeasureListDTO;
+import cms.gov.madie.measure.dto.MeasureListWindow;
 import cms.gov.madie.measure.dto.MeasureSearchCriteria;
 import cms.gov.madie.measure.exceptions.InvalidDraftStatusException;
 import cms.gov.madie.measure.exceptions.InvalidIdException;
@@ -124,6 +125,47 @@ class MeasureControllerTest {
     assertEquals("IDIDID", response.getBody().getContent().get(0).getMeasureSetId());
   }
 
+  @Test
+  void getMeasuresLoadsMeasureSetsForPageInOneQuery() {
+    MeasureListDTO otherVersion =
+        measureList.toBuilder().id("2").version(new Version(1, 0, 0)).build();
+    Page<MeasureListDTO> measures = new PageImpl<>(List.of(measureList, otherVersion));
+    MeasureSet measureSet = MeasureSet.builder().measureSetId("IDIDID").owner("test.user").build();
+    Principal principal = mock(Principal.class);
+    when(principal.getName()).thenReturn("test.user");
+    when(measureService.getMeasuresByCriteria(
+            eq(null), eq(false), any(Pageable.class), eq("test.user")))
+        .thenReturn(measures);
+    when(measureSetRepository.findAllByMeasureSetIdIn(Set.of("IDIDID")))
+        .thenReturn(List.of(measureSet));
+
+    ResponseEntity<Page<MeasureListDTO>> response = controller.getMeasures(principal, false, 10, 0);
+
+    verify(measureSetRepository, times(1)).findAllByMeasureSetIdIn(Set.of("IDIDID"));
+    verify(measureSetRepository, never()).findByMeasureSetId(anyString());
+    assertThat(response.getBody().getContent().get(0).getMeasureSet(), is(equalTo(measureSet)));
+    assertThat(response.getBody().getContent().get(1).getMeasureSet(), is(equalTo(measureSet)));
+  }
+
+  @Test
+  void scrollMeasuresReturnsWindowWithMeasureSets() {
+    MeasureListWindow window =
+        MeasureListWindow.builder().content(List.of(measureList)).nextCursor("next").build();
+    MeasureSet measureSet = MeasureSet.builder().measureSetId("IDIDID").owner("test.user").build();
+    Principal principal = mock(Principal.class);
+    when(principal.getName()).thenReturn("test.user");
+    when(measureService.scrollMeasuresByCriteria(null, true, 10, "cursor", "test.user"))
+        .thenReturn(window);
+    when(measureSetRepository.findAllByMeasureSetIdIn(Set.of("IDIDID")))
+        .thenReturn(List.of(measureSet));
+
+    ResponseEntity<MeasureListWindow> response =
+        controller.scrollMeasures(principal, true, 10, "cursor");
+
+    assertThat(response.getBody().getNextCursor(), is(equalTo("next")));
+    assertThat(response.getBody().getContent().get(0).getMeasureSet(), is(equalTo(measureSet)));
+  }
+
   @Test
   void getMeasuresWithCurrentUserFilter() {
     Page<MeasureListDTO> measures = new PageImpl<>(List.of(measureList));
@@ -1,9 +1,13 @@
 package cms.gov.madie.measure.resources;
 
+import cms.gov.madie.measure.dto.Job;
+import cms.gov.madie.measure.dto.JobStatus;
 import cms.gov.madie.measure.exceptions.BadVersionRequestException;
 import cms.gov.madie.measure.exceptions.MeasureNotDraftableException;
 import cms.gov.madie.measure.exceptions.ResourceNotFoundException;
 import cms.gov.madie.measure.exceptions.UnauthorizedException;
+import cms.gov.madie.measure.services.JobService;
+import cms.gov.madie.measure.services.MeasureVersionJobHandler;
 import cms.gov.madie.measure.services.VersionService;
 import cms.gov.madie.measure.services.MeasureService;
 import gov.cms.madie.models.common.Version;
@@ -20,6 +24,8 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.util.Map;
+
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -34,6 +40,7 @@ import static org.springframework.security.test.web.servlet.request.SecurityMock
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest({MeasureVersionController.class})
@@ -42,6 +49,7 @@ public class MeasureVersionControllerMvcTest {
 
   @MockBean private VersionService versionService;
   @MockBean private MeasureService measureService;
+  @MockBean private JobService jobService;
 
   @Captor private ArgumentCaptor<Measure> measureArgumentCaptor;
 
@@ -68,6 +76,31 @@ public class MeasureVersionControllerMvcTest {
         .createVersion(eq("testMeasureId"), eq("MAJOR"), eq(TEST_USER_ID), eq("test-okta-token"));
   }
 
+  @Test
+  public void testSubmitCreateVersionJobReturnsAcceptedJob() throws Exception {
+    when(jobService.submit(
+            MeasureVersionJobHandler.TYPE,
+            Map.of(
+                MeasureVersionJobHandler.MEASURE_ID,
+                "testMeasureId",
+                MeasureVersionJobHandler.VERSION_TYPE,
+                "MAJOR"),
+            TEST_USER_ID,
+            "test-okta-token"))
+        .thenReturn(Job.builder().id("job-1").status(JobStatus.PENDING).build());
+
+    mockMvc
+        .perform(
+            post("/measures/testMeasureId/version/jobs?versionType=MAJOR")
+                .with(user(TEST_USER_ID))
+                .with(csrf())
+                .header("Authorization", "test-okta-token"))
+        .andExpect(status().isAccepted())
+        .andExpect(jsonPath("$.id").value("job-1"));
+
+    verifyNoInteractions(versionService);
+  }
+
   @Test
   public void testCreateVersionReturnsBadVersionRequestException() throws Exception {
     doThrow(
@@ -5,9 +5,11 @@ import cms.gov.madie.measure.exceptions.DuplicateTestCaseNameException;
 import cms.gov.madie.measure.exceptions.ResourceNotFoundException;
 import cms.gov.madie.measure.exceptions.UnauthorizedException;
 import cms.gov.madie.measure.repositories.MeasureRepository;
+import cms.gov.madie.measure.services.JobService;
 import cms.gov.madie.measure.services.MeasureService;
 import cms.gov.madie.measure.services.TestCaseService;
 import cms.gov.madie.measure.services.QdmTestCaseShiftDatesService;
+import cms.gov.madie.measure.services.TestCaseImportJobHandler;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -60,6 +62,8 @@ public class TestCaseControllerMvcTest {
   @Captor ArgumentCaptor<String> testCaseIdCaptor;
   @Captor ArgumentCaptor<String> usernameCaptor;
   @MockBean private QdmTestCaseShiftDatesService qdmTestCaseShiftDatesService;
+  @MockBean private JobService jobService;
+  @MockBean private TestCaseImportJobHandler testCaseImportJobHandler;
 
   private TestCase testCase;
   private static final String TEST_ID = "TESTID";
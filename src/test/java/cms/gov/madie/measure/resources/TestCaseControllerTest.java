@@ -5,12 +5,17 @@ import cms.gov.madie.measure.exceptions.InvalidIdException;
 import cms.gov.madie.measure.exceptions.ResourceNotFoundException;
 import cms.gov.madie.measure.exceptions.UnauthorizedException;
 import cms.gov.madie.measure.repositories.MeasureRepository;
+import cms.gov.madie.measure.dto.Job;
+import cms.gov.madie.measure.dto.JobStatus;
+import cms.gov.madie.measure.services.JobService;
 import cms.gov.madie.measure.services.MeasureService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import gov.cms.madie.models.measure.*;
+import gov.cms.madie.models.common.ModelType;
 import gov.cms.madie.models.common.Version;
 import cms.gov.madie.measure.services.TestCaseService;
 import cms.gov.madie.measure.services.QdmTestCaseShiftDatesService;
+import cms.gov.madie.measure.services.TestCaseImportJobHandler;
 import org.apache.commons.collections4.CollectionUtils;
 import org.bson.types.ObjectId;
 import org.junit.jupiter.api.BeforeEach;
@@ -43,6 +48,8 @@ public class TestCaseControllerTest {
   @Mock private MeasureRepository repository;
   @Mock private MeasureService measureService;
   @Mock private QdmTestCaseShiftDatesService qdmTestCaseShiftDatesService;
+  @Mock private JobService jobService;
+  @Mock private TestCaseImportJobHandler testCaseImportJobHandler;
 
   @InjectMocks private TestCaseController controller;
 
@@ -378,6 +385,33 @@ public class TestCaseControllerTest {
         testPatientId, Objects.requireNonNull(responseEntity.getBody()).get(0).getPatientId());
   }
 
+  @Test
+  void submitImportTestCasesQdmJobPreparesRequestsBeforeSubmitting() throws Exception {
+    Principal principal = mock(Principal.class);
+    when(principal.getName()).thenReturn("test.user");
+    var testCaseImportRequest = TestCaseImportRequest.builder().json("qdm json").build();
+    when(testCaseService.getPatientFamilyName(anyString(), anyString())).thenReturn("Doe");
+    when(testCaseService.getPatientGivenName(anyString(), anyString())).thenReturn("Jane");
+    Map<String, Object> parameters = Map.of("measureId", measure.getId());
+    when(testCaseImportJobHandler.parameters(
+            measure.getId(), ModelType.QDM_5_6.getValue(), List.of(testCaseImportRequest)))
+        .thenReturn(parameters);
+    Job job = Job.builder().id("job-1").status(JobStatus.PENDING).build();
+    when(jobService.submit(TestCaseImportJobHandler.TYPE, parameters, "test.user", "TOKEN"))
+        .thenReturn(job);
+
+    ResponseEntity<Job> response =
+        controller.submitImportTestCasesQdmJob(
+            List.of(testCaseImportRequest), measure.getId(), "TOKEN", principal);
+
+    assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+    assertEquals(job, response.getBody());
+    assertNotNull(testCaseImportRequest.getPatientId());
+    assertEquals("Doe", testCaseImportRequest.getFamilyName());
+    assertEquals(List.of("Jane"), testCaseImportRequest.getGivenNames());
+    verifyNoInteractions(measureService);
+  }
+
   @Test
   void importQdmTestCasesFailure() throws InvalidIdException, JsonProcessingException {
     Principal principal = mock(Principal.class);
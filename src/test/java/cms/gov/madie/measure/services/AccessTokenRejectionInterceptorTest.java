@@ -0,0 +1,61 @@
+package cms.gov.madie.measure.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AccessTokenRejectionInterceptorTest {
+
+  private final byte[] body = new byte[0];
+  private RejectedAccessTokens rejectedAccessTokens;
+  private AccessTokenRejectionInterceptor interceptor;
+  private HttpRequest request;
+  private ClientHttpRequestExecution execution;
+
+  @BeforeEach
+  void setUp() {
+    rejectedAccessTokens = new RejectedAccessTokens();
+    interceptor = new AccessTokenRejectionInterceptor(rejectedAccessTokens);
+    request = mock(HttpRequest.class);
+    execution = mock(ClientHttpRequestExecution.class);
+    HttpHeaders headers = new HttpHeaders();
+    headers.set(HttpHeaders.AUTHORIZATION, "expired-token");
+    when(request.getHeaders()).thenReturn(headers);
+  }
+
+  @Test
+  void interceptRecordsAccessTokenOfUnauthorizedRequest() throws Exception {
+    ClientHttpResponse response = response(HttpStatus.UNAUTHORIZED);
+    when(execution.execute(request, body)).thenReturn(response);
+
+    assertThat(interceptor.intercept(request, body, execution), is(sameInstance(response)));
+    assertThat(rejectedAccessTokens.isRejected("expired-token"), is(true));
+    assertThat(rejectedAccessTokens.isRejected("fresh-token"), is(false));
+  }
+
+  @Test
+  void interceptDoesNotRecordAccessTokenOfForbiddenRequest() throws Exception {
+    ClientHttpResponse response = response(HttpStatus.FORBIDDEN);
+    when(execution.execute(request, body)).thenReturn(response);
+
+    interceptor.intercept(request, body, execution);
+
+    assertThat(rejectedAccessTokens.isRejected("expired-token"), is(false));
+  }
+
+  private ClientHttpResponse response(HttpStatus status) throws Exception {
+    ClientHttpResponse response = mock(ClientHttpResponse.class);
+    when(response.getStatusCode()).thenReturn(status);
+    return response;
+  }
+}
@@ -0,0 +1,71 @@
+package cms.gov.madie.measure.services;
+
+import cms.gov.madie.measure.exceptions.BulkheadFullException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BulkheadInterceptorTest {
+
+  private final byte[] body = new byte[0];
+  private Bulkhead bulkhead;
+  private BulkheadInterceptor interceptor;
+  private HttpRequest request;
+  private ClientHttpRequestExecution execution;
+
+  @BeforeEach
+  void setUp() {
+    bulkhead = new Bulkhead("fhir-services", 1, 0, 0, new SimpleMeterRegistry());
+    interceptor = new BulkheadInterceptor(bulkhead);
+    request = mock(HttpRequest.class);
+    execution = mock(ClientHttpRequestExecution.class);
+  }
+
+  @Test
+  void interceptHoldsPermitUntilResponseIsClosed() throws Exception {
+    ClientHttpResponse response = mock(ClientHttpResponse.class);
+    when(execution.execute(request, body)).thenReturn(response);
+
+    ClientHttpResponse intercepted = interceptor.intercept(request, body, execution);
+
+    assertThat(bulkhead.getActiveCalls(), is(1));
+    intercepted.close();
+    intercepted.close();
+    verify(response, times(2)).close();
+    assertThat(bulkhead.getActiveCalls(), is(0));
+  }
+
+  @Test
+  void interceptReleasesPermitWhenRequestFails() throws Exception {
+    when(execution.execute(request, body)).thenThrow(new IOException("connection refused"));
+
+    assertThrows(IOException.class, () -> interceptor.intercept(request, body, execution));
+
+    assertThat(bulkhead.getActiveCalls(), is(0));
+  }
+
+  @Test
+  void interceptRejectsWithoutCallingSaturatedService() throws Exception {
+    bulkhead.acquire();
+
+    assertThrows(
+        BulkheadFullException.class, () -> interceptor.intercept(request, body, execution));
+
+    verify(execution, never()).execute(any(), any());
+  }
+}
@@ -0,0 +1,87 @@
+package cms.gov.madie.measure.services;
+
+import cms.gov.madie.measure.exceptions.BulkheadFullException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BulkheadTest {
+
+  private MeterRegistry meterRegistry;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+  }
+
+  @Test
+  void acquireCountsCallsInFlightUntilReleased() {
+    Bulkhead bulkhead = new Bulkhead("qdm-service", 2, 0, 0, meterRegistry);
+
+    bulkhead.acquire();
+    bulkhead.acquire();
+
+    assertThat(gauge(Bulkhead.ACTIVE_METRIC), is(2.0));
+    bulkhead.release();
+    assertThat(gauge(Bulkhead.ACTIVE_METRIC), is(1.0));
+  }
+
+  @Test
+  void acquireRejectsAtOnceWhenQueueIsFull() {
+    Bulkhead bulkhead = new Bulkhead("qdm-service", 1, 0, 60_000, meterRegistry);
+    bulkhead.acquire();
+
+    assertThrows(BulkheadFullException.class, bulkhead::acquire);
+    assertThat(rejected(), is(1.0));
+    assertThat(bulkhead.getActiveCalls(), is(1));
+    assertThat(bulkhead.getQueuedCalls(), is(0));
+  }
+
+  @Test
+  void acquireRejectsWhenNoPermitIsFreedInTime() {
+    Bulkhead bulkhead = new Bulkhead("qdm-service", 1, 1, 10, meterRegistry);
+    bulkhead.acquire();
+
+    assertThrows(BulkheadFullException.class, bulkhead::acquire);
+    assertThat(rejected(), is(1.0));
+    assertThat(bulkhead.getQueuedCalls(), is(0));
+  }
+
+  @Test
+  void acquireWaitsInQueueForReleasedPermit() throws Exception {
+    Bulkhead bulkhead = new Bulkhead("qdm-service", 1, 1, 60_000, meterRegistry);
+    bulkhead.acquire();
+
+    CompletableFuture<Void> waiting = CompletableFuture.runAsync(bulkhead::acquire);
+    while (bulkhead.getQueuedCalls() == 0) {
+      Thread.sleep(5);
+    }
+    assertThat(gauge(Bulkhead.QUEUED_METRIC), is(1.0));
+    bulkhead.release();
+    waiting.get(5, TimeUnit.SECONDS);
+
+    assertThat(bulkhead.getActiveCalls(), is(1));
+    assertThat(bulkhead.getQueuedCalls(), is(0));
+    assertThat(rejected(), is(0.0));
+  }
+
+  private double gauge(String name) {
+    return meterRegistry.get(name).tag(Bulkhead.DOWNSTREAM_TAG, "qdm-service").gauge().value();
+  }
+
+  private double rejected() {
+    return meterRegistry
+        .get(Bulkhead.REJECTED_METRIC)
+        .tag(Bulkhead.DOWNSTREAM_TAG, "qdm-service")
+        .counter()
+        .count();
+  }
+}
@@ -0,0 +1,126 @@
+package cms.gov.madie.measure.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CircuitBreakerTest {
+
+  private MeterRegistry meterRegistry;
+  private Clock clock;
+  private CircuitBreaker circuitBreaker;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    clock = mock(Clock.class);
+    when(clock.millis()).thenReturn(0L);
+    circuitBreaker = new CircuitBreaker("fhir-services", 50, 30_000, meterRegistry, clock);
+  }
+
+  @Test
+  void staysClosedUntilMinimumCallsWereMade() {
+    fail(CircuitBreaker.MINIMUM_CALLS - 1);
+
+    assertThat(circuitBreaker.getState(), is(CircuitBreaker.State.CLOSED));
+    assertThat(circuitBreaker.tryAcquirePermission(), is(true));
+  }
+
+  @Test
+  void opensWhenFailureRateReachesThreshold() {
+    succeed(CircuitBreaker.MINIMUM_CALLS / 2);
+    fail(CircuitBreaker.MINIMUM_CALLS / 2);
+
+    assertThat(circuitBreaker.getState(), is(CircuitBreaker.State.OPEN));
+    assertThat(circuitBreaker.tryAcquirePermission(), is(false));
+    assertThat(
+        meterRegistry
+            .get(CircuitBreaker.REJECTED_METRIC)
+            .tag(Bulkhead.DOWNSTREAM_TAG, "fhir-services")
+            .counter()
+            .count(),
+        is(1.0));
+    assertThat(
+        meterRegistry
+            .get(CircuitBreaker.STATE_METRIC)
+            .tag(Bulkhead.DOWNSTREAM_TAG, "fhir-services")
+            .gauge()
+            .value(),
+        is(1.0));
+  }
+
+  @Test
+  void oldOutcomesLeaveSlidingWindow() {
+    fail(CircuitBreaker.MINIMUM_CALLS / 2 - 1);
+    succeed(CircuitBreaker.WINDOW_SIZE);
+    fail(CircuitBreaker.MINIMUM_CALLS / 2);
+
+    assertThat(circuitBreaker.getState(), is(CircuitBreaker.State.CLOSED));
+  }
+
+  @Test
+  void closesAfterHalfOpenProbesSucceed() {
+    fail(CircuitBreaker.MINIMUM_CALLS);
+    when(clock.millis()).thenReturn(30_000L);
+
+    for (int i = 0; i < CircuitBreaker.HALF_OPEN_CALLS; i++) {
+      assertThat(circuitBreaker.tryAcquirePermission(), is(true));
+    }
+    assertThat(circuitBreaker.getState(), is(CircuitBreaker.State.HALF_OPEN));
+    assertThat(circuitBreaker.tryAcquirePermission(), is(false));
+    for (int i = 0; i < CircuitBreaker.HALF_OPEN_CALLS; i++) {
+      circuitBreaker.onSuccess();
+    }
+
+    assertThat(circuitBreaker.getState(), is(CircuitBreaker.State.CLOSED));
+    assertThat(circuitBreaker.tryAcquirePermission(), is(true));
+  }
+
+  @Test
+  void opensAgainWhenHalfOpenProbeFails() {
+    fail(CircuitBreaker.MINIMUM_CALLS);
+    when(clock.millis()).thenReturn(30_000L);
+    assertThat(circuitBreaker.tryAcquirePermission(), is(true));
+
+    circuitBreaker.onFailure();
+
+    assertThat(circuitBreaker.getState(), is(CircuitBreaker.State.OPEN));
+    assertThat(circuitBreaker.tryAcquirePermission(), is(false));
+  }
+
+  @Test
+  void releasedPermissionLetsAnotherHalfOpenProbeThrough() {
+    fail(CircuitBreaker.MINIMUM_CALLS);
+    when(clock.millis()).thenReturn(30_000L);
+    for (int i = 0; i < CircuitBreaker.HALF_OPEN_CALLS; i++) {
+      assertThat(circuitBreaker.tryAcquirePermission(), is(true));
+    }
+
+    circuitBreaker.releasePermission();
+
+    assertThat(circuitBreaker.tryAcquirePermission(), is(true));
+    assertThat(circuitBreaker.getState(), is(CircuitBreaker.State.HALF_OPEN));
+  }
+
+  private void fail(int calls) {
+    for (int i = 0; i < calls; i++) {
+      circuitBreaker.tryAcquirePermission();
+      circuitBreaker.onFailure();
+    }
+  }
+
+  private void succeed(int calls) {
+    for (int i = 0; i < calls; i++) {
+      circuitBreaker.tryAcquirePermission();
+      circuitBreaker.onSuccess();
+    }
+  }
+}
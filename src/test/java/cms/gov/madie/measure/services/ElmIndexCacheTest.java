@@ -0,0 +1,88 @@
+package cms.gov.madie.measure.services;
+
+import cms.gov.madie.measure.utils.ContentHashUtil;
+import cms.gov.madie.measure.utils.ElmIndex;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mockStatic;
+
+class ElmIndexCacheTest {
+
+  private ElmIndexCache elmIndexCache;
+
+  @BeforeEach
+  void setUp() {
+    elmIndexCache = new ElmIndexCache(2);
+  }
+
+  @Test
+  void getReusesIndexForSameElmContent() throws JsonProcessingException {
+    ElmIndex first = elmIndexCache.get(elm("Initial Population"));
+    ElmIndex second = elmIndexCache.get(elm("Initial Population"));
+
+    assertThat(second, is(sameInstance(first)));
+    assertThat(first.hasDefinition("Initial Population"), is(true));
+    assertThat(elmIndexCache.size(), is(1));
+  }
+
+  @Test
+  void getSkipsHashForSameElmStringAsLastLookup() throws JsonProcessingException {
+    String elm = elm("Initial Population");
+    ElmIndex first = elmIndexCache.get(elm);
+
+    try (MockedStatic<ContentHashUtil> contentHash = mockStatic(ContentHashUtil.class)) {
+      assertThat(elmIndexCache.get(elm), is(sameInstance(first)));
+      assertThat(elmIndexCache.get(elm), is(sameInstance(first)));
+      contentHash.verifyNoInteractions();
+    }
+  }
+
+  @Test
+  void clearForgetsLastLookup() throws JsonProcessingException {
+    String elm = elm("Initial Population");
+    ElmIndex first = elmIndexCache.get(elm);
+
+    elmIndexCache.clear();
+
+    assertThat(elmIndexCache.get(elm), is(not(sameInstance(first))));
+  }
+
+  @Test
+  void getDropsLeastRecentlyUsedIndexWhenFull() throws JsonProcessingException {
+    ElmIndex first = elmIndexCache.get(elm("One"));
+    elmIndexCache.get(elm("Two"));
+    elmIndexCache.get(elm("One"));
+    ElmIndex third = elmIndexCache.get(elm("Three"));
+    ElmIndex second = elmIndexCache.get(elm("Two"));
+
+    assertThat(elmIndexCache.size(), is(2));
+    assertThat(elmIndexCache.get(elm("Three")), is(sameInstance(third)));
+    assertThat(elmIndexCache.get(elm("One")), is(not(sameInstance(first))));
+    assertThat(second.hasDefinition("Two"), is(true));
+  }
+
+  @Test
+  void getDoesNotCacheMalformedElm() {
+    assertThrows(JsonProcessingException.class, () -> elmIndexCache.get("{ curroped: json"));
+    assertThat(elmIndexCache.size(), is(0));
+  }
+
+  @Test
+  void getReturnsEmptyIndexForBlankElm() throws JsonProcessingException {
+    assertThat(elmIndexCache.get(""), is(sameInstance(ElmIndex.EMPTY)));
+    assertThat(elmIndexCache.size(), is(0));
+  }
+
+  private String elm(String definition) {
+    // a new string every time, so lookups go through the content hash
+    return "{\"library\": {\"statements\": {\"def\": [{\"name\": \"" + definition + "\"}]}}}";
+  }
+}
@@ -0,0 +1,134 @@
+package cms.gov.madie.measure.services;
+
+import gov.cms.madie.models.measure.ElmJson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ElmTranslationCacheTest {
+
+  private final ElmJson elmJson = ElmJson.builder().json("{}").xml("<></>").build();
+
+  private ElmTranslationCache cache;
+
+  @BeforeEach
+  void setUp() {
+    cache = new ElmTranslationCache(2, Duration.ofMinutes(5), Clock.systemUTC());
+  }
+
+  @Test
+  void getReusesCachedTranslation() {
+    AtomicInteger translations = new AtomicInteger();
+
+    cache.get("key", () -> translate(translations));
+    ElmJson output = cache.get("key", () -> translate(translations));
+
+    assertThat(output, is(sameInstance(elmJson)));
+    assertThat(translations.get(), is(1));
+  }
+
+  @Test
+  void getSharesTranslationAlreadyRunning() throws Exception {
+    AtomicInteger translations = new AtomicInteger();
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    CompletableFuture<ElmJson> first =
+        CompletableFuture.supplyAsync(
+            () ->
+                cache.get(
+                    "key",
+                    () -> {
+                      started.countDown();
+                      await(release);
+                      return translate(translations);
+                    }));
+    started.await(5, TimeUnit.SECONDS);
+    CompletableFuture<ElmJson> second =
+        CompletableFuture.supplyAsync(() -> cache.get("key", () -> translate(translations)));
+    release.countDown();
+
+    assertThat(first.get(5, TimeUnit.SECONDS), is(sameInstance(elmJson)));
+    assertThat(second.get(5, TimeUnit.SECONDS), is(sameInstance(elmJson)));
+    assertThat(translations.get(), is(1));
+  }
+
+  @Test
+  void getDoesNotCacheFailedTranslation() {
+    AtomicInteger translations = new AtomicInteger();
+
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            cache.get(
+                "key",
+                () -> {
+                  throw new IllegalStateException("translator unavailable");
+                }));
+    cache.get("key", () -> translate(translations));
+
+    assertThat(translations.get(), is(1));
+    assertThat(cache.size(), is(1));
+  }
+
+  @Test
+  void getTranslatesAgainAfterEntryExpires() {
+    AtomicReference<Instant> now = new AtomicReference<>(Instant.parse("2024-01-01T00:00:00Z"));
+    Clock clock =
+        new Clock() {
+          @Override
+          public ZoneId getZone() {
+            return ZoneOffset.UTC;
+          }
+
+          @Override
+          public Clock withZone(ZoneId zone) {
+            return this;
+          }
+
+          @Override
+          public Instant instant() {
+            return now.get();
+          }
+        };
+    cache = new ElmTranslationCache(2, Duration.ofMinutes(5), clock);
+    AtomicInteger translations = new AtomicInteger();
+
+    cache.get("key", () -> translate(translations));
+    now.set(now.get().plus(Duration.ofMinutes(4)));
+    cache.get("key", () -> translate(translations));
+    assertThat(translations.get(), is(1));
+
+    now.set(now.get().plus(Duration.ofMinutes(2)));
+    cache.get("key", () -> translate(translations));
+    assertThat(translations.get(), is(2));
+  }
+
+  private ElmJson translate(AtomicInteger translations) {
+    translations.incrementAndGet();
+    return elmJson;
+  }
+
+  private void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
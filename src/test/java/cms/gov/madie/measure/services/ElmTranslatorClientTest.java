@@ -1,6 +1,7 @@
 package cms.gov.madie.measure.services;
 
 import cms.gov.madie.measure.config.ElmTranslatorClientConfig;
+import cms.gov.madie.measure.exceptions.BulkheadFullException;
 import cms.gov.madie.measure.exceptions.CqlElmTranslationServiceException;
 import gov.cms.madie.models.common.ModelType;
 import gov.cms.madie.models.measure.ElmJson;
@@ -10,6 +11,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -20,6 +22,8 @@ import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
 import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
@@ -29,6 +33,8 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,6 +42,11 @@ class ElmTranslatorClientTest {
 
   @Mock private ElmTranslatorClientConfig elmTranslatorClientConfig;
   @Mock private RestTemplate restTemplate;
+  @Spy private ElmIndexCache elmIndexCache = new ElmIndexCache(10);
+
+  @Spy
+  private ElmTranslationCache elmTranslationCache =
+      new ElmTranslationCache(10, Duration.ofMinutes(5), Clock.systemUTC());
 
   @InjectMocks private ElmTranslatorClient elmTranslatorClient;
 
@@ -64,6 +75,16 @@ class ElmTranslatorClientTest {
         () -> elmTranslatorClient.getElmJson("TEST_CQL", "QDM v5.6", "TEST_TOKEN"));
   }
 
+  @Test
+  void testGetElmJsonPassesOnRejectionBySaturatedTranslator() {
+    when(restTemplate.exchange(
+            any(URI.class), eq(HttpMethod.PUT), any(HttpEntity.class), any(Class.class)))
+        .thenThrow(new BulkheadFullException("elm-translator"));
+    assertThrows(
+        BulkheadFullException.class,
+        () -> elmTranslatorClient.getElmJson("TEST_CQL", "QDM v5.6", "TEST_TOKEN"));
+  }
+
   @Test
   void testRestTemplateReturnsElmJson() {
     ElmJson elmJson = ElmJson.builder().json("{}").xml("<></>").build();
@@ -74,6 +95,22 @@ class ElmTranslatorClientTest {
     assertThat(output, is(equalTo(elmJson)));
   }
 
+  @Test
+  void testGetElmJsonReusesTranslationOfSameCql() {
+    ElmJson elmJson = ElmJson.builder().json("{}").xml("<></>").build();
+    when(restTemplate.exchange(
+            any(URI.class), eq(HttpMethod.PUT), any(HttpEntity.class), any(Class.class)))
+        .thenReturn(ResponseEntity.ok(elmJson));
+
+    elmTranslatorClient.getElmJson("TEST_CQL", "QDM v5.6", "TEST_TOKEN");
+    ElmJson output = elmTranslatorClient.getElmJson("TEST_CQL", "QDM v5.6", "OTHER_TOKEN");
+    elmTranslatorClient.getElmJson("TEST_CQL", ModelType.QI_CORE.getValue(), "TEST_TOKEN");
+
+    assertThat(output, is(equalTo(elmJson)));
+    verify(restTemplate, times(2))
+        .exchange(any(URI.class), eq(HttpMethod.PUT), any(HttpEntity.class), any(Class.class));
+  }
+
   @Test
   void testHasErrorsHandlesNull() {
     boolean output = elmTranslatorClient.hasErrors(null);
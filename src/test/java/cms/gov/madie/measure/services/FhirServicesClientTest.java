@@ -4,6 +4,7 @@ import static java.util.Arrays.asList;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -19,6 +20,8 @@ import java.util.List;
 
 import cms.gov.madie.measure.exceptions.UnsupportedTypeException;
 import gov.cms.madie.models.common.ModelType;
+import gov.cms.madie.models.dto.ExportDTO;
+import gov.cms.madie.models.measure.TestCase;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -71,15 +74,13 @@ class FhirServicesClientTest {
   @Test
   void testFhirServicesClientThrowsException() {
     Measure measure = Measure.builder().build();
-    when(fhirServicesConfig.fhirServicesRestTemplate()).thenReturn(restTemplate);
-    when(fhirServicesConfig
-            .fhirServicesRestTemplate()
-            .exchange(any(URI.class), eq(HttpMethod.PUT), any(HttpEntity.class), any(Class.class)))
+    when(restTemplate.exchange(
+            any(URI.class), eq(HttpMethod.PUT), any(HttpEntity.class), any(Class.class)))
         .thenThrow(new HttpClientErrorException(HttpStatus.FORBIDDEN));
     assertThrows(
         HttpClientErrorException.class,
         () -> fhirServicesClient.getMeasureBundle(measure, accessToken, "calculation"));
-    verify(fhirServicesConfig.fhirServicesRestTemplate(), times(1))
+    verify(restTemplate, times(1))
         .exchange(any(URI.class), eq(HttpMethod.PUT), httpEntityCaptor.capture(), any(Class.class));
     HttpEntity httpEntity = httpEntityCaptor.getValue();
     assertThat(httpEntity.getHeaders(), is(notNullValue()));
@@ -93,14 +94,12 @@ class FhirServicesClientTest {
   void testFhirServicesClientReturnsStringData() {
     Measure measure = Measure.builder().build();
     final String json = "{\"message\": \"GOOD JSON\"}";
-    when(fhirServicesConfig.fhirServicesRestTemplate()).thenReturn(restTemplate);
-    when(fhirServicesConfig
-            .fhirServicesRestTemplate()
-            .exchange(any(URI.class), eq(HttpMethod.PUT), any(HttpEntity.class), any(Class.class)))
+    when(restTemplate.exchange(
+            any(URI.class), eq(HttpMethod.PUT), any(HttpEntity.class), any(Class.class)))
         .thenReturn(ResponseEntity.ok(json));
     String output = fhirServicesClient.getMeasureBundle(measure, accessToken, "calculation");
     assertThat(output, is(equalTo(json)));
-    verify(fhirServicesConfig.fhirServicesRestTemplate(), times(1))
+    verify(restTemplate, times(1))
         .exchange(any(URI.class), eq(HttpMethod.PUT), httpEntityCaptor.capture(), any(Class.class));
     HttpEntity httpEntity = httpEntityCaptor.getValue();
     assertThat(httpEntity.getHeaders(), is(notNullValue()));
@@ -113,15 +112,13 @@ class FhirServicesClientTest {
   @Test
   void testValidateBundleThrowsException() {
     final String testCaseJson = "{ \"resourceType\": \"foo\" }";
-    when(fhirServicesConfig.fhirServicesRestTemplate()).thenReturn(restTemplate);
-    when(fhirServicesConfig
-            .fhirServicesRestTemplate()
-            .exchange(any(URI.class), eq(HttpMethod.POST), any(HttpEntity.class), any(Class.class)))
+    when(restTemplate.exchange(
+            any(URI.class), eq(HttpMethod.POST), any(HttpEntity.class), any(Class.class)))
         .thenThrow(new HttpClientErrorException(HttpStatus.FORBIDDEN));
     assertThrows(
         HttpClientErrorException.class,
         () -> fhirServicesClient.validateBundle(testCaseJson, ModelType.QI_CORE, accessToken));
-    verify(fhirServicesConfig.fhirServicesRestTemplate(), times(1))
+    verify(restTemplate, times(1))
         .exchange(
             any(URI.class), eq(HttpMethod.POST), httpEntityCaptor.capture(), any(Class.class));
     HttpEntity httpEntity = httpEntityCaptor.getValue();
@@ -138,17 +135,15 @@ class FhirServicesClientTest {
     final HapiOperationOutcome goodOutcome =
         HapiOperationOutcome.builder().code(200).successful(true).build();
 
-    when(fhirServicesConfig.fhirServicesRestTemplate()).thenReturn(restTemplate);
-    when(fhirServicesConfig
-            .fhirServicesRestTemplate()
-            .exchange(any(URI.class), eq(HttpMethod.POST), any(HttpEntity.class), any(Class.class)))
+    when(restTemplate.exchange(
+            any(URI.class), eq(HttpMethod.POST), any(HttpEntity.class), any(Class.class)))
         .thenReturn(ResponseEntity.ok(goodOutcome));
     ResponseEntity<HapiOperationOutcome> output =
         fhirServicesClient.validateBundle(testCaseJson, ModelType.QI_CORE, accessToken);
     assertThat(output, is(notNullValue()));
     assertThat(output.getBody(), is(notNullValue()));
     assertThat(output.getBody(), is(equalTo(goodOutcome)));
-    verify(fhirServicesConfig.fhirServicesRestTemplate(), times(1))
+    verify(restTemplate, times(1))
         .exchange(
             any(URI.class), eq(HttpMethod.POST), httpEntityCaptor.capture(), any(Class.class));
     HttpEntity httpEntity = httpEntityCaptor.getValue();
@@ -168,10 +163,8 @@ class FhirServicesClientTest {
             .createdBy("testUser")
             .cql("library Test1CQLLib version '2.3.001'")
             .build();
-    when(fhirServicesConfig.fhirServicesRestTemplate()).thenReturn(restTemplate);
-    when(fhirServicesConfig
-            .fhirServicesRestTemplate()
-            .exchange(any(URI.class), eq(HttpMethod.PUT), any(HttpEntity.class), any(Class.class)))
+    when(restTemplate.exchange(
+            any(URI.class), eq(HttpMethod.PUT), any(HttpEntity.class), any(Class.class)))
         .thenReturn(ResponseEntity.ok(new byte[0]));
     byte[] output =
         fhirServicesClient
@@ -181,6 +174,35 @@ class FhirServicesClientTest {
     assertNotNull(output);
   }
 
+  @Test
+  void testGetTestCaseExportsSendsOnlyExportedTestCases() {
+    Measure measure =
+        Measure.builder()
+            .id("testMeasureId")
+            .testCases(
+                List.of(
+                    TestCase.builder()
+                        .id("test-case-id-1")
+                        .hapiOperationOutcome(HapiOperationOutcome.builder().code(200).build())
+                        .build(),
+                    TestCase.builder().id("test-case-id-2").build()))
+            .build();
+    when(restTemplate.exchange(
+            any(URI.class), eq(HttpMethod.PUT), any(HttpEntity.class), any(Class.class)))
+        .thenReturn(ResponseEntity.ok(new byte[0]));
+
+    fhirServicesClient.getTestCaseExports(
+        measure, accessToken, List.of("test-case-id-1"), "COLLECTION");
+
+    verify(restTemplate)
+        .exchange(any(URI.class), eq(HttpMethod.PUT), httpEntityCaptor.capture(), any(Class.class));
+    ExportDTO sent = (ExportDTO) httpEntityCaptor.getValue().getBody();
+    assertThat(sent.getMeasure().getTestCases().size(), is(1));
+    assertThat(sent.getMeasure().getTestCases().get(0).getId(), is("test-case-id-1"));
+    assertThat(sent.getMeasure().getTestCases().get(0).getHapiOperationOutcome(), is(nullValue()));
+    assertThat(sent.getTestCaseIds(), is(List.of("test-case-id-1")));
+  }
+
   @Test
   void testGetTestCaseExportsException() {
     Measure measure =
@@ -190,10 +212,8 @@ class FhirServicesClientTest {
             .createdBy("testUser")
             .cql("library Test1CQLLib version '2.3.001'")
             .build();
-    when(fhirServicesConfig.fhirServicesRestTemplate()).thenReturn(restTemplate);
-    when(fhirServicesConfig
-            .fhirServicesRestTemplate()
-            .exchange(any(URI.class), eq(HttpMethod.PUT), any(HttpEntity.class), any(Class.class)))
+    when(restTemplate.exchange(
+            any(URI.class), eq(HttpMethod.PUT), any(HttpEntity.class), any(Class.class)))
         .thenThrow(
             new RestClientResponseException(
                 "error occured", HttpStatus.NOT_FOUND, null, null, null, null));
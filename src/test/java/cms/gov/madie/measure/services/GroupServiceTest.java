@@ -329,13 +329,13 @@ public class GroupServiceTest implements ResourceUtil {
     Optional<Measure> optional = Optional.of(measure);
     doReturn(optional).when(measureRepository).findById(any(String.class));
 
-    doReturn(measure).when(measureRepository).save(any(Measure.class));
+    doReturn(measure).when(measureRepository).saveChanges(any(), any(Measure.class));
     when(measureUtil.validateAllMeasureDependencies(any(Measure.class)))
         .thenAnswer((invocationOnMock) -> invocationOnMock.getArgument(0));
 
     Group persistedGroup = groupService.createOrUpdateGroup(group1, measure.getId(), "test.user");
 
-    verify(measureRepository, times(1)).save(measureCaptor.capture());
+    verify(measureRepository, times(1)).saveChanges(any(), measureCaptor.capture());
     assertEquals(group1.getId(), persistedGroup.getId());
     Measure savedMeasure = measureCaptor.getValue();
     assertEquals(measure.getLastModifiedBy(), savedMeasure.getLastModifiedBy());
@@ -358,13 +358,13 @@ public class GroupServiceTest implements ResourceUtil {
     Optional<Measure> optional = Optional.of(measure);
     doReturn(optional).when(measureRepository).findById(any(String.class));
 
-    doReturn(measure).when(measureRepository).save(any(Measure.class));
+    doReturn(measure).when(measureRepository).saveChanges(any(), any(Measure.class));
     when(measureUtil.validateAllMeasureDependencies(any(Measure.class)))
         .thenAnswer((invocationOnMock) -> invocationOnMock.getArgument(0));
 
     Group persistedGroup = groupService.createOrUpdateGroup(group1, measure.getId(), "test.user");
 
-    verify(measureRepository, times(1)).save(measureCaptor.capture());
+    verify(measureRepository, times(1)).saveChanges(any(), measureCaptor.capture());
     assertEquals(group1.getId(), persistedGroup.getId());
     Measure savedMeasure = measureCaptor.getValue();
     assertEquals(measure.getLastModifiedBy(), savedMeasure.getLastModifiedBy());
@@ -387,7 +387,7 @@ public class GroupServiceTest implements ResourceUtil {
     Optional<Measure> optional = Optional.of(measure);
     doReturn(optional).when(measureRepository).findById(any(String.class));
 
-    doReturn(measure).when(measureRepository).save(any(Measure.class));
+    doReturn(measure).when(measureRepository).saveChanges(any(), any(Measure.class));
 
     doReturn(qicoreModelValidator)
         .when(modelValidatorFactory)
@@ -399,7 +399,7 @@ public class GroupServiceTest implements ResourceUtil {
     Group persistedGroup =
         groupService.createOrUpdateGroup(ratioGroup, measure.getId(), "test.user");
 
-    verify(measureRepository, times(1)).save(measureCaptor.capture());
+    verify(measureRepository, times(1)).saveChanges(any(), measureCaptor.capture());
     assertEquals(ratioGroup.getId(), persistedGroup.getId());
     Measure savedMeasure = measureCaptor.getValue();
     assertEquals(measure.getLastModifiedBy(), savedMeasure.getLastModifiedBy());
@@ -426,7 +426,7 @@ public class GroupServiceTest implements ResourceUtil {
     Optional<Measure> optional = Optional.of(measure);
     doReturn(optional).when(measureRepository).findById(any(String.class));
 
-    doReturn(measure).when(measureRepository).save(any(Measure.class));
+    doReturn(measure).when(measureRepository).saveChanges(any(), any(Measure.class));
 
     when(measureUtil.validateAllMeasureDependencies(any(Measure.class)))
         .thenAnswer((invocationOnMock) -> invocationOnMock.getArgument(0));
@@ -437,7 +437,7 @@ public class GroupServiceTest implements ResourceUtil {
 
     Group persistedGroup = groupService.createOrUpdateGroup(group1, measure.getId(), "test.user");
 
-    verify(measureRepository, times(1)).save(measureCaptor.capture());
+    verify(measureRepository, times(1)).saveChanges(any(), measureCaptor.capture());
     assertEquals(group1.getId(), persistedGroup.getId());
     Measure savedMeasure = measureCaptor.getValue();
     assertEquals(measure.getLastModifiedBy(), savedMeasure.getLastModifiedBy());
@@ -478,7 +478,7 @@ public class GroupServiceTest implements ResourceUtil {
             .build();
     when(measureService.findMeasureById(anyString())).thenReturn(existingMeasure);
 
-    doReturn(existingMeasure).when(measureRepository).save(any(Measure.class));
+    doReturn(existingMeasure).when(measureRepository).saveChanges(any(), any(Measure.class));
 
     Measure output = groupService.deleteMeasureGroup("measure-id", "testgroupid", "test.user");
 
@@ -514,7 +514,7 @@ public class GroupServiceTest implements ResourceUtil {
             .build();
     when(measureService.findMeasureById(anyString())).thenReturn(existingMeasure);
 
-    doReturn(existingMeasure).when(measureRepository).save(any(Measure.class));
+    doReturn(existingMeasure).when(measureRepository).saveChanges(any(), any(Measure.class));
     // before deletion
     assertEquals(1, existingMeasure.getGroups().size());
     groupService.deleteMeasureGroup("measure-id", "testgroupid", "test.user");
@@ -650,7 +650,7 @@ public class GroupServiceTest implements ResourceUtil {
     Optional<Measure> optional = Optional.of(measure);
     doReturn(optional).when(measureRepository).findById(any(String.class));
 
-    doReturn(measure).when(measureRepository).save(any(Measure.class));
+    doReturn(measure).when(measureRepository).saveChanges(any(), any(Measure.class));
 
     when(measureUtil.validateAllMeasureDependencies(any(Measure.class)))
         .thenAnswer((invocationOnMock) -> invocationOnMock.getArgument(0));
@@ -661,7 +661,7 @@ public class GroupServiceTest implements ResourceUtil {
 
     Group persistedGroup = groupService.createOrUpdateGroup(group1, measure.getId(), "test.user");
 
-    verify(measureRepository, times(1)).save(measureCaptor.capture());
+    verify(measureRepository, times(1)).saveChanges(any(), measureCaptor.capture());
     assertEquals(group1.getId(), persistedGroup.getId());
     Measure savedMeasure = measureCaptor.getValue();
     assertEquals(measure.getLastModifiedBy(), savedMeasure.getLastModifiedBy());
@@ -846,7 +846,7 @@ public class GroupServiceTest implements ResourceUtil {
     Optional<Measure> optional = Optional.of(measure);
     doReturn(optional).when(measureRepository).findById(any(String.class));
 
-    doReturn(measure).when(measureRepository).save(any(Measure.class));
+    doReturn(measure).when(measureRepository).saveChanges(any(), any(Measure.class));
 
     when(measureUtil.validateAllMeasureDependencies(any(Measure.class)))
         .thenAnswer((invocationOnMock) -> invocationOnMock.getArgument(0));
@@ -857,7 +857,7 @@ public class GroupServiceTest implements ResourceUtil {
 
     Group persistedGroup = groupService.createOrUpdateGroup(group1, measure.getId(), "test.user");
 
-    verify(measureRepository, times(1)).save(measureCaptor.capture());
+    verify(measureRepository, times(1)).saveChanges(any(), measureCaptor.capture());
     assertEquals(group1.getId(), persistedGroup.getId());
     Measure savedMeasure = measureCaptor.getValue();
     assertEquals(measure.getLastModifiedBy(), savedMeasure.getLastModifiedBy());
@@ -894,7 +894,7 @@ public class GroupServiceTest implements ResourceUtil {
     Optional<Measure> optional = Optional.of(measure);
     ArgumentCaptor<Measure> measureCaptor = ArgumentCaptor.forClass(Measure.class);
     doReturn(optional).when(measureRepository).findById(any(String.class));
-    doReturn(measure).when(measureRepository).save(any(Measure.class));
+    doReturn(measure).when(measureRepository).saveChanges(any(), any(Measure.class));
     when(measureUtil.validateAllMeasureDependencies(any(Measure.class)))
         .thenAnswer((invocationOnMock) -> invocationOnMock.getArgument(0));
     doReturn(qicoreModelValidator)
@@ -903,7 +903,7 @@ public class GroupServiceTest implements ResourceUtil {
 
     Group group = groupService.createOrUpdateGroup(group2, measure.getId(), "test.user");
     assertEquals(group.getStratifications().size(), group2.getStratifications().size());
-    verify(measureRepository, times(1)).save(measureCaptor.capture());
+    verify(measureRepository, times(1)).saveChanges(any(), measureCaptor.capture());
   }
 
   @Test
@@ -913,7 +913,7 @@ public class GroupServiceTest implements ResourceUtil {
     Optional<Measure> optional = Optional.of(measure);
     ArgumentCaptor<Measure> measureCaptor = ArgumentCaptor.forClass(Measure.class);
     doReturn(optional).when(measureRepository).findById(any(String.class));
-    doReturn(measure).when(measureRepository).save(any(Measure.class));
+    doReturn(measure).when(measureRepository).saveChanges(any(), any(Measure.class));
     when(measureUtil.validateAllMeasureDependencies(any(Measure.class)))
         .thenAnswer((invocationOnMock) -> invocationOnMock.getArgument(0));
     doReturn(qicoreModelValidator)
@@ -922,7 +922,7 @@ public class GroupServiceTest implements ResourceUtil {
 
     Group group = groupService.createOrUpdateGroup(group2, measure.getId(), "test.user");
     assertEquals(group.getMeasureObservations().size(), group2.getMeasureObservations().size());
-    verify(measureRepository, times(1)).save(measureCaptor.capture());
+    verify(measureRepository, times(1)).saveChanges(any(), measureCaptor.capture());
   }
 
   @Test
@@ -1333,7 +1333,7 @@ public class GroupServiceTest implements ResourceUtil {
     Optional<Measure> optional = Optional.of(qdmMeasure);
     doReturn(optional).when(measureRepository).findById(any(String.class));
 
-    doReturn(qdmMeasure).when(measureRepository).save(any(Measure.class));
+    doReturn(qdmMeasure).when(measureRepository).saveChanges(any(), any(Measure.class));
 
     when(measureUtil.validateAllMeasureDependencies(any(Measure.class)))
         .thenAnswer((invocationOnMock) -> invocationOnMock.getArgument(0));
@@ -1351,7 +1351,7 @@ public class GroupServiceTest implements ResourceUtil {
             .build();
     Group persistedGroup = groupService.createOrUpdateGroup(qdmGroup, measure.getId(), "test.user");
 
-    verify(measureRepository, times(1)).save(measureCaptor.capture());
+    verify(measureRepository, times(1)).saveChanges(any(), measureCaptor.capture());
     assertEquals(qdmGroup.getId(), persistedGroup.getId());
     Measure savedMeasure = measureCaptor.getValue();
     assertNotNull(savedMeasure.getGroups());
@@ -1561,16 +1561,16 @@ public class GroupServiceTest implements ResourceUtil {
     measure.getGroups().add(group1);
     ArgumentCaptor<Measure> measureCaptor = ArgumentCaptor.forClass(Measure.class);
     Optional<Measure> optional = Optional.of(measure);
-    doReturn(optional).when(measureRepository).findById(any(String.class));
+    doReturn(optional).when(measureRepository).findWithoutTestCasesById(any(String.class));
 
-    doReturn(measure).when(measureRepository).save(any(Measure.class));
+    doReturn(measure).when(measureRepository).saveChanges(any(), any(Measure.class));
     when(measureUtil.validateAllMeasureDependencies(any(Measure.class)))
         .thenAnswer((invocationOnMock) -> invocationOnMock.getArgument(0));
 
     groupService.createOrUpdateStratification(
         group1.getId(), measure.getId(), strata1, "test.user");
 
-    verify(measureRepository, times(1)).save(measureCaptor.capture());
+    verify(measureRepository, times(1)).saveChanges(any(), measureCaptor.capture());
     Measure savedMeasure = measureCaptor.getValue();
     assertEquals(measure.getLastModifiedBy(), savedMeasure.getLastModifiedBy());
     assertEquals(measure.getLastModifiedAt(), savedMeasure.getLastModifiedAt());
@@ -1598,16 +1598,16 @@ public class GroupServiceTest implements ResourceUtil {
 
     ArgumentCaptor<Measure> measureCaptor = ArgumentCaptor.forClass(Measure.class);
     Optional<Measure> optional = Optional.of(measure);
-    doReturn(optional).when(measureRepository).findById(any(String.class));
+    doReturn(optional).when(measureRepository).findWithoutTestCasesById(any(String.class));
 
-    doReturn(measure).when(measureRepository).save(any(Measure.class));
+    doReturn(measure).when(measureRepository).saveChanges(any(), any(Measure.class));
     when(measureUtil.validateAllMeasureDependencies(any(Measure.class)))
         .thenAnswer((invocationOnMock) -> invocationOnMock.getArgument(0));
 
     groupService.createOrUpdateStratification(
         group2.getId(), measure.getId(), strata2, "test.user");
 
-    verify(measureRepository, times(1)).save(measureCaptor.capture());
+    verify(measureRepository, times(1)).saveChanges(any(), measureCaptor.capture());
     Measure savedMeasure = measureCaptor.getValue();
     assertEquals(measure.getLastModifiedBy(), savedMeasure.getLastModifiedBy());
     assertEquals(measure.getLastModifiedAt(), savedMeasure.getLastModifiedAt());
@@ -1635,9 +1635,9 @@ public class GroupServiceTest implements ResourceUtil {
 
     ArgumentCaptor<Measure> measureCaptor = ArgumentCaptor.forClass(Measure.class);
     Optional<Measure> optional = Optional.of(measure);
-    doReturn(optional).when(measureRepository).findById(any(String.class));
+    doReturn(optional).when(measureRepository).findWithoutTestCasesById(any(String.class));
 
-    doReturn(measure).when(measureRepository).save(any(Measure.class));
+    doReturn(measure).when(measureRepository).saveChanges(any(), any(Measure.class));
 
     when(measureUtil.validateAllMeasureDependencies(any(Measure.class)))
         .thenAnswer((invocationOnMock) -> invocationOnMock.getArgument(0));
@@ -1649,7 +1649,7 @@ public class GroupServiceTest implements ResourceUtil {
     groupService.createOrUpdateStratification(
         group2.getId(), measure.getId(), strata2, "test.user");
 
-    verify(measureRepository, times(1)).save(measureCaptor.capture());
+    verify(measureRepository, times(1)).saveChanges(any(), measureCaptor.capture());
     Measure savedMeasure = measureCaptor.getValue();
     assertEquals(measure.getLastModifiedBy(), savedMeasure.getLastModifiedBy());
     assertEquals(measure.getLastModifiedAt(), savedMeasure.getLastModifiedAt());
@@ -1678,7 +1678,7 @@ public class GroupServiceTest implements ResourceUtil {
   void testUpdateStratificationReturnsInvalidDraftStatusException() {
     measure.setMeasureMetaData(MeasureMetaData.builder().draft(false).build());
     Optional<Measure> optional = Optional.of(measure);
-    doReturn(optional).when(measureRepository).findById(any(String.class));
+    doReturn(optional).when(measureRepository).findWithoutTestCasesById(any(String.class));
 
     assertThrows(
         InvalidDraftStatusException.class,
@@ -1691,7 +1691,7 @@ public class GroupServiceTest implements ResourceUtil {
   void testCreateStratificationReturnsInvalidDraftStatusException() {
     measure.setMeasureMetaData(MeasureMetaData.builder().draft(false).build());
     Optional<Measure> optional = Optional.of(measure);
-    doReturn(optional).when(measureRepository).findById(any(String.class));
+    doReturn(optional).when(measureRepository).findWithoutTestCasesById(any(String.class));
 
     assertThrows(
         InvalidDraftStatusException.class,
@@ -1702,15 +1702,19 @@ public class GroupServiceTest implements ResourceUtil {
 
   @Test
   void testDeleteStratification() {
-    when(measureService.findMeasureById(anyString())).thenReturn(measure);
-
-    doReturn(measure).when(measureRepository).save(any(Measure.class));
+    when(measureRepository.findGroupsById(anyString())).thenReturn(Optional.of(measure));
+    Measure saved = measure.toBuilder().cql("library Test version '0.0.000'").build();
+    when(measureRepository.findById(measure.getId())).thenReturn(Optional.of(saved));
 
     Measure output =
         groupService.deleteStratification(
             measure.getId(), group2.getId(), strata1.getId(), "test.user");
 
-    assertEquals(0, output.getGroups().get(0).getStratifications().size());
+    ArgumentCaptor<Measure> measureCaptor = ArgumentCaptor.forClass(Measure.class);
+    verify(measureRepository, times(1)).saveChanges(any(), measureCaptor.capture());
+    assertEquals(0, measureCaptor.getValue().getGroups().get(0).getStratifications().size());
+    assertEquals(saved, output);
+    assertEquals("library Test version '0.0.000'", output.getCql());
   }
 
   @Test
@@ -1731,7 +1735,7 @@ public class GroupServiceTest implements ResourceUtil {
             .measureMetaData(MeasureMetaData.builder().draft(true).build())
             .measureSet(MeasureSet.builder().owner("OtherUser").build())
             .build();
-    when(measureService.findMeasureById(anyString())).thenReturn(measure);
+    when(measureRepository.findGroupsById(anyString())).thenReturn(Optional.of(measure));
     doThrow(new UnauthorizedException("Measure", measure.getId(), "user2"))
         .when(measureService)
         .verifyAuthorization(anyString(), any(Measure.class));
@@ -1751,7 +1755,7 @@ public class GroupServiceTest implements ResourceUtil {
             .measureMetaData(MeasureMetaData.builder().draft(false).build())
             .measureSet(MeasureSet.builder().owner("OtherUser").build())
             .build();
-    when(measureService.findMeasureById(anyString())).thenReturn(measure);
+    when(measureRepository.findGroupsById(anyString())).thenReturn(Optional.of(measure));
     assertThrows(
         InvalidDraftStatusException.class,
         () ->
@@ -1776,7 +1780,7 @@ public class GroupServiceTest implements ResourceUtil {
             .measureMetaData(MeasureMetaData.builder().draft(true).build())
             .measureSet(MeasureSet.builder().owner("OtherUser").build())
             .build();
-    when(measureService.findMeasureById(anyString())).thenReturn(measure);
+    when(measureRepository.findGroupsById(anyString())).thenReturn(Optional.of(measure));
 
     assertThrows(
         InvalidIdException.class,
@@ -1808,7 +1812,7 @@ public class GroupServiceTest implements ResourceUtil {
             .measureMetaData(MeasureMetaData.builder().draft(true).build())
             .measureSet(MeasureSet.builder().owner("test.user").build())
             .build();
-    when(measureService.findMeasureById(anyString())).thenReturn(existingMeasure);
+    when(measureRepository.findGroupsById(anyString())).thenReturn(Optional.of(existingMeasure));
 
     assertThrows(
         ResourceNotFoundException.class,
@@ -1821,7 +1825,7 @@ public class GroupServiceTest implements ResourceUtil {
   void testDeleteStratificationReturnsExceptionForStratificationNotFoundInMeasure() {
     measure.getGroups().get(0).setStratifications(Collections.emptyList());
 
-    when(measureService.findMeasureById(anyString())).thenReturn(measure);
+    when(measureRepository.findGroupsById(anyString())).thenReturn(Optional.of(measure));
 
     assertThrows(
         ResourceNotFoundException.class,
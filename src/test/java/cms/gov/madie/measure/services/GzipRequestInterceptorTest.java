@@ -0,0 +1,73 @@
+package cms.gov.madie.measure.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GzipRequestInterceptorTest {
+
+  private final GzipRequestInterceptor interceptor = new GzipRequestInterceptor();
+  private HttpRequest request;
+  private HttpHeaders headers;
+  private ClientHttpRequestExecution execution;
+
+  @BeforeEach
+  void setUp() {
+    request = mock(HttpRequest.class);
+    headers = new HttpHeaders();
+    when(request.getHeaders()).thenReturn(headers);
+    execution = mock(ClientHttpRequestExecution.class);
+  }
+
+  @Test
+  void interceptCompressesLargeBody() throws Exception {
+    byte[] body = "{\"id\":\"measure\"}".repeat(1000).getBytes(StandardCharsets.UTF_8);
+
+    interceptor.intercept(request, body, execution);
+
+    ArgumentCaptor<byte[]> sent = ArgumentCaptor.forClass(byte[].class);
+    verify(execution).execute(eq(request), sent.capture());
+    assertThat(headers.getFirst(HttpHeaders.CONTENT_ENCODING), is("gzip"));
+    assertThat(headers.getContentLength(), is((long) sent.getValue().length));
+    assertThat(sent.getValue().length < body.length, is(true));
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(sent.getValue()))) {
+      assertThat(in.readAllBytes(), is(body));
+    }
+  }
+
+  @Test
+  void interceptSendsSmallBodyAsItIs() throws Exception {
+    byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+
+    interceptor.intercept(request, body, execution);
+
+    verify(execution).execute(request, body);
+    assertThat(headers.getFirst(HttpHeaders.CONTENT_ENCODING), is(nullValue()));
+  }
+
+  @Test
+  void interceptLeavesEncodedBodyAlone() throws Exception {
+    byte[] body = new byte[GzipRequestInterceptor.MIN_SIZE];
+    headers.set(HttpHeaders.CONTENT_ENCODING, "br");
+
+    interceptor.intercept(request, body, execution);
+
+    verify(execution).execute(request, body);
+    assertThat(headers.getFirst(HttpHeaders.CONTENT_ENCODING), is("br"));
+  }
+}
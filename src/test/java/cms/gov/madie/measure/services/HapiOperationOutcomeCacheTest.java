@@ -0,0 +1,182 @@
+package cms.gov.madie.measure.services;
+
+import gov.cms.madie.models.common.ModelType;
+import gov.cms.madie.models.measure.HapiOperationOutcome;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class HapiOperationOutcomeCacheTest {
+
+  private static final String VERSION_HEADER = "X-Validator-Version";
+  private static final String BUNDLE =
+      "{\"resourceType\": \"Bundle\", \"type\": \"collection\", \"entry\": []}";
+
+  @Mock private FhirServicesClient fhirServicesClient;
+
+  private final HapiOperationOutcome outcome =
+      HapiOperationOutcome.builder().code(200).successful(true).build();
+
+  private HapiOperationOutcomeCache cache;
+
+  @BeforeEach
+  void setUp() {
+    cache =
+        new HapiOperationOutcomeCache(
+            fhirServicesClient, 2, Duration.ofMinutes(5), VERSION_HEADER, Clock.systemUTC());
+  }
+
+  @Test
+  void validateReusesOutcomeForReformattedBundle() {
+    when(fhirServicesClient.validateBundle(anyString(), any(ModelType.class), anyString()))
+        .thenReturn(ResponseEntity.ok(outcome));
+
+    HapiOperationOutcome first = cache.validate(BUNDLE, ModelType.QI_CORE, "TOKEN");
+    HapiOperationOutcome second =
+        cache.validate(
+            "{\"entry\":[],\n  \"type\":\"collection\",\"resourceType\":\"Bundle\"}",
+            ModelType.QI_CORE,
+            "TOKEN");
+
+    assertThat(first, is(sameInstance(outcome)));
+    assertThat(second.getCode(), is(200));
+    assertThat(second.isSuccessful(), is(true));
+    verify(fhirServicesClient, times(1))
+        .validateBundle(anyString(), any(ModelType.class), anyString());
+  }
+
+  @Test
+  void validateReturnsCopyOfCachedOutcome() {
+    when(fhirServicesClient.validateBundle(anyString(), any(ModelType.class), anyString()))
+        .thenReturn(ResponseEntity.ok(outcome));
+
+    cache.validate(BUNDLE, ModelType.QI_CORE, "TOKEN").setSuccessful(false);
+    outcome.setCode(500);
+    HapiOperationOutcome first = cache.validate(BUNDLE, ModelType.QI_CORE, "TOKEN");
+    first.setMessage("changed by the caller");
+    HapiOperationOutcome second = cache.validate(BUNDLE, ModelType.QI_CORE, "TOKEN");
+
+    assertThat(second, is(not(sameInstance(first))));
+    assertThat(second.getCode(), is(200));
+    assertThat(second.isSuccessful(), is(true));
+    assertThat(second.getMessage(), is(nullValue()));
+  }
+
+  @Test
+  void validateKeepsModelsApart() {
+    when(fhirServicesClient.validateBundle(anyString(), any(ModelType.class), anyString()))
+        .thenReturn(ResponseEntity.ok(outcome));
+
+    cache.validate(BUNDLE, ModelType.QI_CORE, "TOKEN");
+    cache.validate(BUNDLE, ModelType.QI_CORE_6_0_0, "TOKEN");
+
+    verify(fhirServicesClient, times(2))
+        .validateBundle(anyString(), any(ModelType.class), anyString());
+  }
+
+  @Test
+  void validateDropsLeastRecentlyUsedEntryWhenFull() {
+    when(fhirServicesClient.validateBundle(anyString(), any(ModelType.class), anyString()))
+        .thenReturn(ResponseEntity.ok(outcome));
+
+    cache.validate("{\"id\": 1}", ModelType.QI_CORE, "TOKEN");
+    cache.validate("{\"id\": 2}", ModelType.QI_CORE, "TOKEN");
+    cache.validate("{\"id\": 1}", ModelType.QI_CORE, "TOKEN");
+    cache.validate("{\"id\": 3}", ModelType.QI_CORE, "TOKEN");
+    cache.validate("{\"id\": 1}", ModelType.QI_CORE, "TOKEN");
+
+    assertThat(cache.size(), is(2));
+    verify(fhirServicesClient, times(3))
+        .validateBundle(anyString(), any(ModelType.class), anyString());
+  }
+
+  @Test
+  void validateRevalidatesExpiredEntries() {
+    AtomicReference<Instant> now = new AtomicReference<>(Instant.parse("2024-01-01T00:00:00Z"));
+    Clock clock =
+        new Clock() {
+          @Override
+          public ZoneId getZone() {
+            return ZoneOffset.UTC;
+          }
+
+          @Override
+          public Clock withZone(ZoneId zone) {
+            return this;
+          }
+
+          @Override
+          public Instant instant() {
+            return now.get();
+          }
+        };
+    cache =
+        new HapiOperationOutcomeCache(
+            fhirServicesClient, 2, Duration.ofMinutes(5), VERSION_HEADER, clock);
+    when(fhirServicesClient.validateBundle(anyString(), any(ModelType.class), anyString()))
+        .thenReturn(ResponseEntity.ok(outcome));
+
+    cache.validate(BUNDLE, ModelType.QI_CORE, "TOKEN");
+    now.set(now.get().plus(Duration.ofMinutes(4)));
+    cache.validate(BUNDLE, ModelType.QI_CORE, "TOKEN");
+    verify(fhirServicesClient, times(1))
+        .validateBundle(anyString(), any(ModelType.class), anyString());
+
+    now.set(now.get().plus(Duration.ofMinutes(2)));
+    cache.validate(BUNDLE, ModelType.QI_CORE, "TOKEN");
+    verify(fhirServicesClient, times(2))
+        .validateBundle(anyString(), any(ModelType.class), anyString());
+  }
+
+  @Test
+  void validateClearsCacheWhenValidatorVersionChanges() {
+    when(fhirServicesClient.validateBundle(anyString(), any(ModelType.class), anyString()))
+        .thenReturn(ResponseEntity.ok().header(VERSION_HEADER, "7.6.0").body(outcome))
+        .thenReturn(ResponseEntity.ok().header(VERSION_HEADER, "7.6.0").body(outcome))
+        .thenReturn(ResponseEntity.ok().header(VERSION_HEADER, "8.0.0").body(outcome));
+
+    cache.validate("{\"id\": 1}", ModelType.QI_CORE, "TOKEN");
+    cache.validate("{\"id\": 2}", ModelType.QI_CORE, "TOKEN");
+    assertThat(cache.size(), is(2));
+
+    cache.validate("{\"id\": 3}", ModelType.QI_CORE, "TOKEN");
+    assertThat(cache.size(), is(1));
+  }
+
+  @Test
+  void validateDoesNotCacheErrors() {
+    when(fhirServicesClient.validateBundle(anyString(), any(ModelType.class), anyString()))
+        .thenThrow(new HttpClientErrorException(HttpStatus.BAD_REQUEST))
+        .thenReturn(ResponseEntity.ok(outcome));
+
+    assertThrows(
+        HttpClientErrorException.class, () -> cache.validate(BUNDLE, ModelType.QI_CORE, "TOKEN"));
+    assertThat(cache.validate(BUNDLE, ModelType.QI_CORE, "TOKEN"), is(sameInstance(outcome)));
+    assertThat(cache.size(), is(1));
+  }
+}
@@ -0,0 +1,273 @@
+package cms.gov.madie.measure.services;
+
+import cms.gov.madie.measure.dto.Job;
+import cms.gov.madie.measure.dto.JobResultChunk;
+import cms.gov.madie.measure.dto.JobStatus;
+import cms.gov.madie.measure.exceptions.InvalidRequestException;
+import cms.gov.madie.measure.exceptions.InvalidResourceStateException;
+import cms.gov.madie.measure.exceptions.UnauthorizedException;
+import cms.gov.madie.measure.repositories.JobRepository;
+import cms.gov.madie.measure.repositories.JobResultChunkRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JobServiceTest {
+
+  private JobRepository jobRepository;
+  private JobResultChunkRepository jobResultChunkRepository;
+  private RejectedAccessTokens rejectedAccessTokens;
+  private JobHandler jobHandler;
+  private JobService jobService;
+
+  @BeforeEach
+  void setUp() {
+    jobRepository = mock(JobRepository.class);
+    jobResultChunkRepository = mock(JobResultChunkRepository.class);
+    rejectedAccessTokens = new RejectedAccessTokens();
+    jobHandler = mock(JobHandler.class);
+    when(jobHandler.getType()).thenReturn("test-job");
+    jobService =
+        new JobService(
+            jobRepository,
+            jobResultChunkRepository,
+            rejectedAccessTokens,
+            List.of(jobHandler),
+            1,
+            120,
+            100);
+  }
+
+  @AfterEach
+  void tearDown() {
+    jobService.shutdown();
+  }
+
+  @Test
+  void submitStoresPendingJobAndRunsIt() throws Exception {
+    Job stored = job(JobStatus.PENDING);
+    when(jobRepository.insert(any(Job.class))).thenReturn(stored);
+    when(jobRepository.claim(eq("job-1"), anyString(), eq(List.of(JobStatus.PENDING)), any()))
+        .thenReturn(Optional.of(stored.toBuilder().status(JobStatus.RUNNING).build()));
+    when(jobHandler.run(any(Job.class), any(JobContext.class))).thenReturn(JobStatus.COMPLETED);
+
+    Job job = jobService.submit("test-job", Map.of("draftOnly", true), "john", "token");
+
+    assertThat(job.getId(), is("job-1"));
+    verify(jobRepository, timeout(1000))
+        .finish(eq("job-1"), anyString(), eq(JobStatus.COMPLETED), isNull(), any(Instant.class));
+  }
+
+  @Test
+  void submitRejectsUnknownJobType() {
+    assertThrows(
+        InvalidRequestException.class,
+        () -> jobService.submit("unknown", Map.of(), "john", "token"));
+    verify(jobRepository, never()).insert(any(Job.class));
+  }
+
+  @Test
+  void getJobOnlyReturnsJobsOfTheSubmitter() {
+    when(jobRepository.findById("job-1")).thenReturn(Optional.of(job(JobStatus.RUNNING)));
+
+    assertThat(jobService.getJob("job-1", "JOHN").getId(), is("job-1"));
+    assertThrows(UnauthorizedException.class, () -> jobService.getJob("job-1", "jane"));
+  }
+
+  @Test
+  void runDoesNothingWhenJobCannotBeClaimed() throws Exception {
+    when(jobRepository.claim(eq("job-1"), anyString(), any(), any())).thenReturn(Optional.empty());
+
+    jobService.run("job-1", JobStatus.PENDING, "john", "token");
+
+    verify(jobHandler, never()).run(any(Job.class), any(JobContext.class));
+  }
+
+  @Test
+  void runMarksJobFailedWhenHandlerThrows() throws Exception {
+    when(jobRepository.claim(eq("job-1"), anyString(), any(), any()))
+        .thenReturn(Optional.of(job(JobStatus.RUNNING)));
+    when(jobHandler.run(any(Job.class), any(JobContext.class)))
+        .thenThrow(new IllegalStateException("broken"));
+
+    jobService.run("job-1", JobStatus.PENDING, "john", "token");
+
+    verify(jobRepository)
+        .finish(eq("job-1"), anyString(), eq(JobStatus.FAILED), eq("broken"), any(Instant.class));
+  }
+
+  @Test
+  void runLeavesStatusOfStoppedJob() throws Exception {
+    when(jobRepository.claim(eq("job-1"), anyString(), any(), any()))
+        .thenReturn(Optional.of(job(JobStatus.RUNNING)));
+    when(jobRepository.nextResultChunk(eq("job-1"), anyString())).thenReturn(OptionalInt.empty());
+    when(jobHandler.run(any(Job.class), any(JobContext.class)))
+        .thenAnswer(
+            invocation -> {
+              JobContext context = invocation.getArgument(1);
+              context.completeStep(List.of("result"), 1, 0, "step-1");
+              return JobStatus.CANCELLED;
+            });
+
+    jobService.run("job-1", JobStatus.PENDING, "john", "token");
+
+    verify(jobRepository, never()).finish(anyString(), anyString(), any(), any(), any());
+    verify(jobResultChunkRepository, never()).insert(any(JobResultChunk.class));
+  }
+
+  @Test
+  void runInterruptsJobInsteadOfRecordingStepWhenAccessTokenWasRejected() throws Exception {
+    when(jobRepository.claim(eq("job-1"), anyString(), any(), any()))
+        .thenReturn(Optional.of(job(JobStatus.RUNNING)));
+    when(jobHandler.run(any(Job.class), any(JobContext.class)))
+        .thenAnswer(
+            invocation -> {
+              JobContext context = invocation.getArgument(1);
+              rejectedAccessTokens.reject("token");
+              return context.completeStep(List.of("failed"), 1, 1, "step-1")
+                  ? JobStatus.COMPLETED
+                  : JobStatus.CANCELLED;
+            });
+
+    jobService.run("job-1", JobStatus.PENDING, "john", "token");
+
+    verify(jobRepository).interrupt(eq("job-1"), anyString());
+    verify(jobRepository, never())
+        .recordProgress(anyString(), anyString(), anyLong(), anyLong(), any(), any());
+    verify(jobResultChunkRepository, never()).insert(any(JobResultChunk.class));
+    verify(jobRepository, never()).finish(anyString(), anyString(), any(), any(), any());
+  }
+
+  @Test
+  void runInterruptsJobInsteadOfFailingItWhenAccessTokenWasRejected() throws Exception {
+    when(jobRepository.claim(eq("job-1"), anyString(), any(), any()))
+        .thenReturn(Optional.of(job(JobStatus.RUNNING)));
+    when(jobHandler.run(any(Job.class), any(JobContext.class)))
+        .thenAnswer(
+            invocation -> {
+              rejectedAccessTokens.reject("token");
+              throw new IllegalStateException("401 Unauthorized");
+            });
+
+    jobService.run("job-1", JobStatus.PENDING, "john", "token");
+
+    verify(jobRepository).interrupt(eq("job-1"), anyString());
+    verify(jobRepository, never()).finish(anyString(), anyString(), any(), any(), any());
+  }
+
+  @Test
+  void cancelFailsForFinishedJob() {
+    when(jobRepository.findById("job-1")).thenReturn(Optional.of(job(JobStatus.COMPLETED)));
+    when(jobRepository.cancel(eq("job-1"), any())).thenReturn(false);
+
+    assertThrows(InvalidResourceStateException.class, () -> jobService.cancel("job-1", "john"));
+  }
+
+  @Test
+  void resumeRunsInterruptedJobFromItsCheckpoint() throws Exception {
+    Job interrupted = job(JobStatus.INTERRUPTED).toBuilder().checkpoint("step-3").build();
+    when(jobRepository.findById("job-1")).thenReturn(Optional.of(interrupted));
+    when(jobRepository.claim(eq("job-1"), anyString(), eq(List.of(JobStatus.INTERRUPTED)), any()))
+        .thenReturn(Optional.of(interrupted.toBuilder().status(JobStatus.RUNNING).build()));
+    when(jobHandler.run(any(Job.class), any(JobContext.class))).thenReturn(JobStatus.COMPLETED);
+
+    jobService.resume("job-1", "john", "new-token");
+
+    verify(jobHandler, timeout(1000))
+        .run(argThat(job -> "step-3".equals(job.getCheckpoint())), any(JobContext.class));
+  }
+
+  @Test
+  void resumeFailsForJobThatWasNotInterrupted() {
+    when(jobRepository.findById("job-1")).thenReturn(Optional.of(job(JobStatus.RUNNING)));
+
+    assertThrows(
+        InvalidResourceStateException.class, () -> jobService.resume("job-1", "john", "token"));
+  }
+
+  @Test
+  void markInterruptedJobsUsesHeartbeatTimeout() {
+    Instant before = Instant.now();
+
+    jobService.markInterruptedJobs();
+
+    verify(jobRepository)
+        .markInterrupted(
+            argThat((Instant cutoff) -> !cutoff.isAfter(before.minusSeconds(119))));
+  }
+
+  @Test
+  void heartbeatRenewsHeldJobsOnThreadOfItsOwn() throws Exception {
+    JobService fastHeartbeat =
+        new JobService(
+            jobRepository,
+            jobResultChunkRepository,
+            rejectedAccessTokens,
+            List.of(jobHandler),
+            1,
+            1,
+            100);
+    Job stored = job(JobStatus.PENDING);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicReference<String> heartbeatThread = new AtomicReference<>();
+    when(jobRepository.insert(any(Job.class))).thenReturn(stored);
+    when(jobRepository.claim(eq("job-1"), anyString(), any(), any()))
+        .thenReturn(Optional.of(stored.toBuilder().status(JobStatus.RUNNING).build()));
+    when(jobHandler.run(any(Job.class), any(JobContext.class)))
+        .thenAnswer(
+            invocation -> {
+              release.await(5, TimeUnit.SECONDS);
+              return JobStatus.COMPLETED;
+            });
+    when(jobRepository.heartbeat(eq(List.of("job-1")), anyString(), any(Instant.class)))
+        .thenAnswer(
+            invocation -> {
+              heartbeatThread.set(Thread.currentThread().getName());
+              return 1L;
+            });
+    try {
+      fastHeartbeat.submit("test-job", Map.of(), "john", "token");
+
+      verify(jobRepository, timeout(2000))
+          .heartbeat(eq(List.of("job-1")), anyString(), any(Instant.class));
+      assertThat(heartbeatThread.get().startsWith("job-heartbeat-"), is(true));
+    } finally {
+      release.countDown();
+      fastHeartbeat.shutdown();
+    }
+  }
+
+  private Job job(JobStatus status) {
+    return Job.builder()
+        .id("job-1")
+        .type("test-job")
+        .status(status)
+        .submittedBy("john")
+        .parameters(Map.of())
+        .build();
+  }
+}
@@ -5,6 +5,7 @@ import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -29,7 +30,9 @@ import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
 
+import cms.gov.madie.measure.dto.MeasureListCursor;
 import cms.gov.madie.measure.dto.MeasureListDTO;
+import cms.gov.madie.measure.dto.MeasureListWindow;
 import cms.gov.madie.measure.dto.MeasureSearchCriteria;
 import cms.gov.madie.measure.exceptions.*;
 import cms.gov.madie.measure.repositories.MeasureSetRepository;
@@ -51,6 +54,7 @@ import org.springframework.data.domain.PageRequest;
 
 import cms.gov.madie.measure.repositories.MeasureRepository;
 import cms.gov.madie.measure.repositories.OrganizationRepository;
+import cms.gov.madie.measure.repositories.TestCaseRepository;
 import cms.gov.madie.measure.resources.DuplicateKeyException;
 import cms.gov.madie.measure.utils.MeasureUtil;
 import cms.gov.madie.measure.utils.ResourceUtil;
@@ -71,6 +75,7 @@ public class MeasureServiceTest implements ResourceUtil {
   @Mock private MeasureSetService measureSetService;
   @Mock private CqlTemplateConfigService cqlTemplateConfigService;
   @Mock private TerminologyValidationService terminologyValidationService;
+  @Mock private TestCaseRepository testCaseRepository;
   @Spy @InjectMocks private MeasureService measureService;
   @Captor private ArgumentCaptor<Measure> measureArgumentCaptor;
 
@@ -362,6 +367,16 @@ public class MeasureServiceTest implements ResourceUtil {
     assertThat(output.getMeasureSet(), is(equalTo(measureSet)));
   }
 
+  @Test
+  public void testFindMeasureMetaDataByIdUsesProjection() {
+    Measure measure = Measure.builder().id("MID").measureSetId("MsetID").build();
+    when(measureRepository.findMetaDataById(anyString())).thenReturn(Optional.of(measure));
+    Measure output = measureService.findMeasureMetaDataById("MID");
+    assertThat(output, is(equalTo(measure)));
+    verify(measureRepository, never()).findById(anyString());
+    verify(measureSetService, never()).findByMeasureSetId(anyString());
+  }
+
   @Test
   public void testGetMeasuresByCriteriaWithCurrentUser() {
     PageRequest initialPage = PageRequest.of(0, 10);
@@ -397,6 +412,50 @@ public class MeasureServiceTest implements ResourceUtil {
     assertNotNull(measures);
   }
 
+  @Test
+  public void testScrollMeasuresByCriteriaResumesFromCursor() {
+    MeasureListCursor cursor = new MeasureListCursor(Instant.ofEpochMilli(1700000000000L), "m-1");
+    MeasureListWindow window = MeasureListWindow.builder().content(List.of()).build();
+    when(measureRepository.scrollMeasuresByCriteria("test.user", 10, cursor, null, true))
+        .thenReturn(window);
+
+    MeasureListWindow output =
+        measureService.scrollMeasuresByCriteria(null, true, 10, cursor.encode(), "test.user");
+
+    assertThat(output, is(sameInstance(window)));
+  }
+
+  @Test
+  public void testScrollMeasuresByCriteriaRejectsInvalidCursor() {
+    assertThrows(
+        InvalidRequestException.class,
+        () -> measureService.scrollMeasuresByCriteria(null, true, 10, "not a cursor", "test.user"));
+  }
+
+  @Test
+  public void testScrollMeasuresByCriteriaRejectsLimitBelowOne() {
+    assertThrows(
+        InvalidRequestException.class,
+        () -> measureService.scrollMeasuresByCriteria(null, true, 0, null, "test.user"));
+    assertThrows(
+        InvalidRequestException.class,
+        () -> measureService.scrollMeasuresByCriteria(null, true, -5, null, "test.user"));
+    verifyNoInteractions(measureRepository);
+  }
+
+  @Test
+  public void testScrollMeasuresByCriteriaCapsLimit() {
+    MeasureListWindow window = MeasureListWindow.builder().content(List.of()).build();
+    when(measureRepository.scrollMeasuresByCriteria(
+            "test.user", MeasureService.MAX_SCROLL_LIMIT, null, null, true))
+        .thenReturn(window);
+
+    MeasureListWindow output =
+        measureService.scrollMeasuresByCriteria(null, true, 100_000, null, "test.user");
+
+    assertThat(output, is(sameInstance(window)));
+  }
+
   @Test
   public void testGetMeasureDrafts() {
     measure2.getMeasureMetaData().setDraft(false);
@@ -434,7 +493,8 @@ public class MeasureServiceTest implements ResourceUtil {
     doNothing()
         .when(measureSetService)
         .createMeasureSet(anyString(), anyString(), anyString(), any());
-    when(measureRepository.findAllByCqlLibraryName(anyString())).thenReturn(new ArrayList<>());
+    when(measureRepository.existsByCqlLibraryNameAndActive(anyString(), eq(true)))
+        .thenReturn(false);
     when(elmTranslatorClient.getElmJson(anyString(), anyString(), anyString()))
         .thenReturn(ElmJson.builder().json("{\"library\": {}}").xml("<library></library>").build());
     when(elmTranslatorClient.hasErrors(any(ElmJson.class))).thenReturn(false);
@@ -470,7 +530,8 @@ public class MeasureServiceTest implements ResourceUtil {
     doNothing()
         .when(measureSetService)
         .createMeasureSet(anyString(), anyString(), anyString(), any());
-    when(measureRepository.findAllByCqlLibraryName(anyString())).thenReturn(new ArrayList<>());
+    when(measureRepository.existsByCqlLibraryNameAndActive(anyString(), eq(true)))
+        .thenReturn(false);
 
     when(measureRepository.save(any(Measure.class))).thenReturn(measureToSave);
     when(actionLogService.logAction(any(), any(), any(), any())).thenReturn(true);
@@ -507,7 +568,8 @@ public class MeasureServiceTest implements ResourceUtil {
     doNothing()
         .when(measureSetService)
         .createMeasureSet(anyString(), anyString(), anyString(), any());
-    when(measureRepository.findAllByCqlLibraryName(anyString())).thenReturn(new ArrayList<>());
+    when(measureRepository.existsByCqlLibraryNameAndActive(anyString(), eq(true)))
+        .thenReturn(false);
     when(elmTranslatorClient.getElmJson(anyString(), anyString(), anyString()))
         .thenReturn(ElmJson.builder().json("{\"library\": {}}").xml("<library></library>").build());
     when(elmTranslatorClient.hasErrors(any(ElmJson.class))).thenReturn(false);
@@ -543,7 +605,8 @@ public class MeasureServiceTest implements ResourceUtil {
     doNothing()
         .when(measureSetService)
         .createMeasureSet(anyString(), anyString(), anyString(), any());
-    when(measureRepository.findAllByCqlLibraryName(anyString())).thenReturn(new ArrayList<>());
+    when(measureRepository.existsByCqlLibraryNameAndActive(anyString(), eq(true)))
+        .thenReturn(false);
 
     when(measureRepository.save(any(Measure.class))).thenReturn(measureToSave);
     when(actionLogService.logAction(any(), any(), any(), any())).thenReturn(true);
@@ -580,7 +643,8 @@ public class MeasureServiceTest implements ResourceUtil {
     doNothing()
         .when(measureSetService)
         .createMeasureSet(anyString(), anyString(), anyString(), any());
-    when(measureRepository.findAllByCqlLibraryName(anyString())).thenReturn(new ArrayList<>());
+    when(measureRepository.existsByCqlLibraryNameAndActive(anyString(), eq(true)))
+        .thenReturn(false);
     when(elmTranslatorClient.getElmJson(anyString(), anyString(), anyString()))
         .thenReturn(ElmJson.builder().json("{\"library\": {}}").xml("<library></library>").build());
     when(elmTranslatorClient.hasErrors(any(ElmJson.class))).thenReturn(false);
@@ -616,7 +680,8 @@ public class MeasureServiceTest implements ResourceUtil {
     doNothing()
         .when(measureSetService)
         .createMeasureSet(anyString(), anyString(), anyString(), any());
-    when(measureRepository.findAllByCqlLibraryName(anyString())).thenReturn(new ArrayList<>());
+    when(measureRepository.existsByCqlLibraryNameAndActive(anyString(), eq(true)))
+        .thenReturn(false);
 
     when(measureRepository.save(any(Measure.class))).thenReturn(measureToSave);
     when(actionLogService.logAction(any(), any(), any(), any())).thenReturn(true);
@@ -641,7 +706,8 @@ public class MeasureServiceTest implements ResourceUtil {
             .cqlLibraryName("VTE")
             .build();
 
-    when(measureRepository.findAllByCqlLibraryName(anyString())).thenReturn(new ArrayList<>());
+    when(measureRepository.existsByCqlLibraryNameAndActive(anyString(), eq(true)))
+        .thenReturn(false);
     when(elmTranslatorClient.getElmJson(anyString(), anyString(), anyString()))
         .thenReturn(ElmJson.builder().json(elmJson).build());
     when(elmTranslatorClient.hasErrors(any(ElmJson.class))).thenReturn(false);
@@ -675,7 +741,8 @@ public class MeasureServiceTest implements ResourceUtil {
             .createdBy(usr)
             .build();
 
-    when(measureRepository.findAllByCqlLibraryName(anyString())).thenReturn(new ArrayList<>());
+    when(measureRepository.existsByCqlLibraryNameAndActive(anyString(), eq(true)))
+        .thenReturn(false);
     when(elmTranslatorClient.getElmJson(anyString(), anyString(), anyString()))
         .thenReturn(ElmJson.builder().json(elmJson).build());
     when(elmTranslatorClient.hasErrors(any(ElmJson.class))).thenReturn(true);
@@ -709,8 +776,8 @@ public class MeasureServiceTest implements ResourceUtil {
             .cql("")
             .elmJson(null)
             .build();
-    List<Measure> measureList = Collections.singletonList(measure1);
-    when(measureRepository.findAllByCqlLibraryName(anyString())).thenReturn(measureList);
+    when(measureRepository.existsByCqlLibraryNameAndActive(anyString(), eq(true)))
+        .thenReturn(true);
 
     assertThrows(
         DuplicateKeyException.class,
@@ -743,7 +810,8 @@ public class MeasureServiceTest implements ResourceUtil {
             .cqlLibraryName("VTE")
             .build();
 
-    when(measureRepository.findAllByCqlLibraryName(anyString())).thenReturn(new ArrayList<>());
+    when(measureRepository.existsByCqlLibraryNameAndActive(anyString(), eq(true)))
+        .thenReturn(false);
     when(elmTranslatorClient.getElmJson(anyString(), anyString(), anyString()))
         .thenReturn(ElmJson.builder().json(elmJson).build());
     when(elmTranslatorClient.hasErrors(any(ElmJson.class))).thenReturn(false);
@@ -777,11 +845,10 @@ public class MeasureServiceTest implements ResourceUtil {
 
     Measure updated = original.toBuilder().cqlLibraryName("Changed_Name").active(true).build();
 
-    List<Measure> measureList = Collections.singletonList(Measure.builder().build());
-
     when(measureUtil.isCqlLibraryNameChanged(any(Measure.class), any(Measure.class)))
         .thenReturn(true);
-    when(measureRepository.findAllByCqlLibraryName(anyString())).thenReturn(measureList);
+    when(measureRepository.existsByCqlLibraryNameAndActive(anyString(), eq(true)))
+        .thenReturn(true);
 
     assertThrows(
         DuplicateKeyException.class,
@@ -851,17 +918,18 @@ public class MeasureServiceTest implements ResourceUtil {
             .build();
     when(measureUtil.isCqlLibraryNameChanged(any(Measure.class), any(Measure.class)))
         .thenReturn(true);
-    when(measureRepository.findAllByCqlLibraryName(anyString())).thenReturn(new ArrayList<>());
+    when(measureRepository.existsByCqlLibraryNameAndActive(anyString(), eq(true)))
+        .thenReturn(false);
     when(measureUtil.isMeasurementPeriodChanged(any(Measure.class), any(Measure.class)))
         .thenReturn(true);
     when(measureUtil.isMeasureCqlChanged(any(Measure.class), any(Measure.class))).thenReturn(false);
-    when(measureRepository.save(any(Measure.class))).thenReturn(updated);
+    when(measureRepository.saveChanges(any(), any(Measure.class))).thenReturn(updated);
 
     Measure output = measureService.updateMeasure(original, "User1", updated, "Access Token");
     assertThat(output, is(notNullValue()));
     assertThat(output, is(equalTo(updated)));
 
-    verify(measureRepository, times(1)).save(measureArgumentCaptor.capture());
+    verify(measureRepository, times(1)).saveChanges(any(), measureArgumentCaptor.capture());
     Measure persisted = measureArgumentCaptor.getValue();
     assertThat(persisted, is(equalTo(updated)));
     assertThat(persisted.getCreatedAt(), is(equalTo(createdAt)));
@@ -903,13 +971,13 @@ public class MeasureServiceTest implements ResourceUtil {
     Measure expected =
         updated.toBuilder().error(MeasureErrorType.MISMATCH_CQL_POPULATION_RETURN_TYPES).build();
     when(measureUtil.validateAllMeasureDependencies(any(Measure.class))).thenReturn(expected);
-    when(measureRepository.save(any(Measure.class))).thenReturn(expected);
+    when(measureRepository.saveChanges(any(), any(Measure.class))).thenReturn(expected);
 
     Measure output = measureService.updateMeasure(original, "User1", updated, "Access Token");
     assertThat(output, is(notNullValue()));
     assertThat(output, is(equalTo(expected)));
 
-    verify(measureRepository, times(1)).save(measureArgumentCaptor.capture());
+    verify(measureRepository, times(1)).saveChanges(any(), measureArgumentCaptor.capture());
     Measure persisted = measureArgumentCaptor.getValue();
     assertThat(persisted, is(equalTo(expected)));
   }
@@ -945,13 +1013,13 @@ public class MeasureServiceTest implements ResourceUtil {
             .error(MeasureErrorType.MISMATCH_CQL_POPULATION_RETURN_TYPES)
             .build();
     when(measureUtil.validateAllMeasureDependencies(any(Measure.class))).thenReturn(expected);
-    when(measureRepository.save(any(Measure.class))).thenReturn(expected);
+    when(measureRepository.saveChanges(any(), any(Measure.class))).thenReturn(expected);
 
     Measure output = measureService.updateMeasure(original, "User1", updated, "Access Token");
     assertThat(output, is(notNullValue()));
     assertThat(output, is(equalTo(expected)));
 
-    verify(measureRepository, times(1)).save(measureArgumentCaptor.capture());
+    verify(measureRepository, times(1)).saveChanges(any(), measureArgumentCaptor.capture());
     Measure persisted = measureArgumentCaptor.getValue();
     assertThat(persisted, is(equalTo(expected)));
   }
@@ -980,8 +1048,8 @@ public class MeasureServiceTest implements ResourceUtil {
         .thenReturn(ElmJson.builder().json("{\"library\": {}}").xml("<library></library>").build());
     when(elmTranslatorClient.hasErrors(any(ElmJson.class))).thenReturn(true);
 
-    when(measureRepository.save(any(Measure.class)))
-        .thenAnswer(invocationOnMock -> invocationOnMock.getArgument(0));
+    when(measureRepository.saveChanges(any(), any(Measure.class)))
+        .thenAnswer(invocationOnMock -> invocationOnMock.getArgument(1));
 
     Measure output = measureService.updateMeasure(original, "User1", updated, "Access Token");
     assertThat(output, is(notNullValue()));
@@ -989,7 +1057,7 @@ public class MeasureServiceTest implements ResourceUtil {
     assertThat(output.isCqlErrors(), is(true));
     assertThat(output.getErrors().contains(MeasureErrorType.ERRORS_ELM_JSON), is(true));
 
-    verify(measureRepository, times(1)).save(measureArgumentCaptor.capture());
+    verify(measureRepository, times(1)).saveChanges(any(), measureArgumentCaptor.capture());
     Measure persisted = measureArgumentCaptor.getValue();
     assertThat(persisted.getErrors(), is(notNullValue()));
     assertThat(persisted.isCqlErrors(), is(true));
@@ -1257,19 +1325,17 @@ public class MeasureServiceTest implements ResourceUtil {
 
   @Test
   public void testCheckDuplicateCqlLibraryNameDoesNotThrowException() {
-    List<Measure> measureOpt = new ArrayList<>();
-    when(measureRepository.findAllByCqlLibraryName(anyString())).thenReturn(measureOpt);
+    when(measureRepository.existsByCqlLibraryNameAndActive(anyString(), eq(true)))
+        .thenReturn(false);
     measureService.checkDuplicateCqlLibraryName("testCQLLibraryName");
-    verify(measureRepository, times(1)).findAllByCqlLibraryName(eq("testCQLLibraryName"));
+    verify(measureRepository, times(1))
+        .existsByCqlLibraryNameAndActive(eq("testCQLLibraryName"), eq(true));
   }
 
   @Test
   public void testCheckDuplicateCqlLibraryNameThrowsExceptionForExistingName() {
-    final Measure measure =
-        Measure.builder().cqlLibraryName("testCQLLibraryName").active(true).build();
-    final List<Measure> measureOpt = Collections.singletonList(measure);
-    // Optional<Measure> measureOpt = Optional.of(measure);
-    when(measureRepository.findAllByCqlLibraryName(anyString())).thenReturn(measureOpt);
+    when(measureRepository.existsByCqlLibraryNameAndActive(anyString(), eq(true)))
+        .thenReturn(true);
     assertThrows(
         DuplicateKeyException.class,
         () -> measureService.checkDuplicateCqlLibraryName("testCQLLibraryName"));
@@ -1391,6 +1457,7 @@ public class MeasureServiceTest implements ResourceUtil {
     assertEquals(1, deletedMeasures.size());
     assertEquals("testId1", deletedMeasures.get(0).getId());
     assertEquals("IDIDID", deletedMeasures.get(0).getMeasureSetId());
+    verify(testCaseRepository, times(1)).deleteAllByMeasureIdIn(List.of("testId1"));
   }
 
   @Test
@@ -1398,6 +1465,7 @@ public class MeasureServiceTest implements ResourceUtil {
     ArgumentCaptor<List<Measure>> repositoryArgCaptor = ArgumentCaptor.forClass(List.class);
     measureService.deleteVersionedMeasures(List.of(measure1, measure2));
     verify(measureRepository, times(0)).deleteAll(repositoryArgCaptor.capture());
+    verifyNoInteractions(testCaseRepository);
   }
 
   @Test
@@ -1653,14 +1721,14 @@ public class MeasureServiceTest implements ResourceUtil {
     Measure expected =
         updated.toBuilder().error(MeasureErrorType.MISMATCH_CQL_POPULATION_RETURN_TYPES).build();
     when(measureUtil.validateAllMeasureDependencies(any(Measure.class))).thenReturn(expected);
-    when(measureRepository.save(any(Measure.class))).thenReturn(expected);
+    when(measureRepository.saveChanges(any(), any(Measure.class))).thenReturn(expected);
 
     Measure output = measureService.updateMeasure(original, "User1", updated, "Access Token");
     assertThat(output, is(notNullValue()));
     assertThat(output, is(equalTo(expected)));
     assertThat(output.getTestCases().get(0).getGroupPopulations(), is(equalTo(new ArrayList<>())));
 
-    verify(measureRepository, times(1)).save(measureArgumentCaptor.capture());
+    verify(measureRepository, times(1)).saveChanges(any(), measureArgumentCaptor.capture());
     Measure persisted = measureArgumentCaptor.getValue();
     assertThat(persisted, is(equalTo(expected)));
   }
@@ -0,0 +1,119 @@
+package cms.gov.madie.measure.services;
+
+import gov.cms.madie.models.access.AclSpecification;
+import gov.cms.madie.models.access.RoleEnum;
+import gov.cms.madie.models.measure.MeasureSet;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+class MeasureSetCacheTest {
+
+  @Test
+  void getReturnsCopyOfCachedMeasureSet() {
+    MeasureSetCache cache = new MeasureSetCache(10, Duration.ofSeconds(30), Clock.systemUTC());
+    cache.put(measureSet("msid-1"));
+
+    MeasureSet cached = cache.get("msid-1");
+    cached.setOwner("someone-else");
+    cached.getAcls().get(0).getRoles().clear();
+    cached.getAcls().clear();
+
+    MeasureSet again = cache.get("msid-1");
+    assertThat(again.getOwner(), is("user-1"));
+    assertThat(again.getAcls().size(), is(1));
+    assertThat(again.getAcls().get(0).getRoles(), is(Set.of(RoleEnum.SHARED_WITH)));
+  }
+
+  @Test
+  void evictRemovesMeasureSet() {
+    MeasureSetCache cache = new MeasureSetCache(10, Duration.ofSeconds(30), Clock.systemUTC());
+    cache.put(measureSet("msid-1"));
+
+    cache.evict("msid-1");
+
+    assertThat(cache.get("msid-1"), is(nullValue()));
+    assertThat(cache.size(), is(0));
+  }
+
+  @Test
+  void putDoesNotCacheSetReadBeforeAnEviction() {
+    MeasureSetCache cache = new MeasureSetCache(10, Duration.ofSeconds(30), Clock.systemUTC());
+    long generation = cache.generation();
+
+    cache.evict("msid-1");
+    cache.put(measureSet("msid-1"), generation);
+
+    assertThat(cache.get("msid-1"), is(nullValue()));
+    cache.put(measureSet("msid-1"), cache.generation());
+    assertThat(cache.get("msid-1").getMeasureSetId(), is("msid-1"));
+  }
+
+  @Test
+  void putDropsLeastRecentlyUsedMeasureSet() {
+    MeasureSetCache cache = new MeasureSetCache(2, Duration.ofSeconds(30), Clock.systemUTC());
+    cache.put(measureSet("msid-1"));
+    cache.put(measureSet("msid-2"));
+    cache.get("msid-1");
+
+    cache.put(measureSet("msid-3"));
+
+    assertThat(cache.get("msid-2"), is(nullValue()));
+    assertThat(cache.get("msid-1").getMeasureSetId(), is("msid-1"));
+    assertThat(cache.get("msid-3").getMeasureSetId(), is("msid-3"));
+  }
+
+  @Test
+  void entriesExpireAfterTimeToLive() {
+    AtomicReference<Instant> now = new AtomicReference<>(Instant.parse("2024-01-01T00:00:00Z"));
+    Clock clock =
+        new Clock() {
+          @Override
+          public ZoneId getZone() {
+            return ZoneOffset.UTC;
+          }
+
+          @Override
+          public Clock withZone(ZoneId zone) {
+            return this;
+          }
+
+          @Override
+          public Instant instant() {
+            return now.get();
+          }
+        };
+    MeasureSetCache cache = new MeasureSetCache(10, Duration.ofSeconds(30), clock);
+    cache.put(measureSet("msid-1"));
+
+    now.set(now.get().plus(Duration.ofSeconds(20)));
+    assertThat(cache.get("msid-1").getMeasureSetId(), is("msid-1"));
+    now.set(now.get().plus(Duration.ofSeconds(20)));
+    assertThat(cache.get("msid-1"), is(nullValue()));
+    assertThat(cache.size(), is(0));
+  }
+
+  private MeasureSet measureSet(String measureSetId) {
+    AclSpecification acl = new AclSpecification();
+    acl.setUserId("john");
+    acl.setRoles(new HashSet<>(Set.of(RoleEnum.SHARED_WITH)));
+    return MeasureSet.builder()
+        .measureSetId(measureSetId)
+        .owner("user-1")
+        .acls(new ArrayList<>(List.of(acl)))
+        .build();
+  }
+}
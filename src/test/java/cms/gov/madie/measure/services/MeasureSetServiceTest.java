@@ -1,12 +1,16 @@
 package cms.gov.madie.measure.services;
 
+import cms.gov.madie.measure.dto.MeasureSetAccess;
 import cms.gov.madie.measure.exceptions.HarpIdMismatchException;
 import cms.gov.madie.measure.exceptions.InvalidIdException;
 import cms.gov.madie.measure.exceptions.InvalidRequestException;
 import cms.gov.madie.measure.exceptions.ResourceNotFoundException;
 import cms.gov.madie.measure.repositories.GeneratorRepository;
 import cms.gov.madie.measure.repositories.MeasureRepository;
+import cms.gov.madie.measure.repositories.MeasureSetAccessRepository;
 import cms.gov.madie.measure.repositories.MeasureSetRepository;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
 import gov.cms.madie.models.access.AclOperation;
 import gov.cms.madie.models.access.AclSpecification;
 import gov.cms.madie.models.access.RoleEnum;
@@ -14,14 +18,26 @@ import gov.cms.madie.models.common.ActionType;
 import gov.cms.madie.models.common.ModelType;
 import gov.cms.madie.models.measure.Measure;
 import gov.cms.madie.models.measure.MeasureSet;
+import org.bson.BsonString;
+import org.bson.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Clock;
+import java.time.Duration;
 import java.util.*;
+import java.util.stream.Stream;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
@@ -37,6 +53,13 @@ public class MeasureSetServiceTest {
   @Mock MeasureSetRepository measureSetRepository;
   @Mock GeneratorRepository generatorRepository;
   @Mock private ActionLogService actionLogService;
+  @Mock private MeasureSetAccessRepository measureSetAccessRepository;
+  @Mock private MongoTemplate mongoTemplate;
+
+  @Spy
+  private MeasureSetCache measureSetCache =
+      new MeasureSetCache(10, Duration.ofMinutes(1), Clock.systemUTC());
+
   MeasureSet measureSet;
 
   @BeforeEach
@@ -71,6 +94,8 @@ public class MeasureSetServiceTest {
 
     verify(measureSetRepository, times(1)).existsByMeasureSetId("msid-2");
     verify(measureSetRepository, times(1)).save(any(MeasureSet.class));
+    verify(measureSetAccessRepository, times(1))
+        .save(new MeasureSetAccess("msid-2", List.of("user-1")));
     verify(actionLogService, times(1))
         .logAction(measureSet.getId(), Measure.class, ActionType.CREATED, "user-1");
   }
@@ -196,6 +221,127 @@ public class MeasureSetServiceTest {
     MeasureSet result = measureSetService.updateOwnership("1", "testUser");
     assertThat(result.getId(), is(equalTo(updatedMeasureSet.getId())));
     assertThat(result.getOwner(), is(equalTo(updatedMeasureSet.getOwner())));
+    verify(measureSetAccessRepository, times(1))
+        .save(new MeasureSetAccess("msid-2", List.of("testuser", "john")));
+  }
+
+  @Test
+  public void testUpdateOwnershipRetriesAccessListWrite() {
+    when(measureSetRepository.findByMeasureSetId(anyString())).thenReturn(Optional.of(measureSet));
+    when(measureSetRepository.save(any(MeasureSet.class))).thenReturn(measureSet);
+    when(measureSetAccessRepository.save(any(MeasureSetAccess.class)))
+        .thenThrow(new DataAccessResourceFailureException("not primary"))
+        .thenReturn(new MeasureSetAccess());
+
+    measureSetService.updateOwnership("1", "testUser");
+
+    verify(measureSetAccessRepository, times(2))
+        .save(new MeasureSetAccess("msid-2", List.of("testuser", "john")));
+  }
+
+  @Test
+  public void testUpdateOwnershipFailsWhenAccessListCannotBeSaved() {
+    when(measureSetRepository.findByMeasureSetId(anyString())).thenReturn(Optional.of(measureSet));
+    when(measureSetRepository.save(any(MeasureSet.class))).thenReturn(measureSet);
+    when(measureSetAccessRepository.save(any(MeasureSetAccess.class)))
+        .thenThrow(new DataAccessResourceFailureException("not primary"));
+
+    assertThrows(
+        DataAccessResourceFailureException.class,
+        () -> measureSetService.updateOwnership("1", "testUser"));
+    verify(measureSetAccessRepository, times(MeasureSetService.ACCESS_WRITE_ATTEMPTS))
+        .save(any(MeasureSetAccess.class));
+  }
+
+  @Test
+  public void testUpdateOwnershipEvictsMeasureSetWhenAccessListCannotBeSaved() {
+    when(measureSetRepository.findByMeasureSetId(anyString())).thenReturn(Optional.of(measureSet));
+    when(measureSetRepository.save(any(MeasureSet.class))).thenReturn(measureSet);
+    when(measureSetAccessRepository.save(any(MeasureSetAccess.class)))
+        .thenThrow(new DataAccessResourceFailureException("not primary"));
+
+    assertThrows(
+        DataAccessResourceFailureException.class,
+        () -> measureSetService.updateOwnership("1", "testUser"));
+    verify(measureSetCache, times(1)).evict("1");
+  }
+
+  @Test
+  public void testRepairMeasureSetAccessRebuildsOnlyAccessListsThatDiffer() {
+    MeasureSet upToDate = MeasureSet.builder().measureSetId("msid-1").owner("john").build();
+    MeasureSet stale = MeasureSet.builder().measureSetId("msid-2").owner("jane").build();
+    when(mongoTemplate.stream(any(Query.class), eq(MeasureSet.class)))
+        .thenReturn(Stream.of(upToDate, stale));
+    when(mongoTemplate.find(any(Query.class), eq(MeasureSetAccess.class)))
+        .thenReturn(
+            List.of(
+                new MeasureSetAccess("msid-1", List.of("john")),
+                new MeasureSetAccess("msid-2", List.of("john"))));
+    when(measureSetRepository.findAllByMeasureSetIdIn(List.of("msid-2")))
+        .thenReturn(List.of(stale));
+    BulkOperations operations = mock(BulkOperations.class);
+    when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MeasureSetAccess.class))
+        .thenReturn(operations);
+    BulkWriteResult result = mock(BulkWriteResult.class);
+    when(result.getModifiedCount()).thenReturn(1);
+    when(operations.execute()).thenReturn(result);
+
+    assertThat(measureSetService.repairMeasureSetAccess(), is(1));
+    ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+    verify(operations, times(1))
+        .replaceOne(query.capture(), eq(new MeasureSetAccess("msid-2", List.of("jane"))));
+    assertThat(
+        query.getValue().getQueryObject(),
+        is(equalTo(new Document("_id", "msid-2").append("userIds", List.of("john")))));
+    verify(operations, times(1)).execute();
+  }
+
+  @Test
+  public void testRepairMeasureSetAccessInsertsMissingAccessListOnlyIfStillMissing() {
+    MeasureSet missing = MeasureSet.builder().measureSetId("msid-1").owner("john").build();
+    when(mongoTemplate.stream(any(Query.class), eq(MeasureSet.class)))
+        .thenReturn(Stream.of(missing));
+    when(mongoTemplate.find(any(Query.class), eq(MeasureSetAccess.class))).thenReturn(List.of());
+    when(measureSetRepository.findAllByMeasureSetIdIn(List.of("msid-1")))
+        .thenReturn(List.of(missing));
+    BulkOperations operations = mock(BulkOperations.class);
+    when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MeasureSetAccess.class))
+        .thenReturn(operations);
+    BulkWriteResult result = mock(BulkWriteResult.class);
+    when(result.getUpserts()).thenReturn(List.of(new BulkWriteUpsert(0, new BsonString("msid-1"))));
+    when(operations.execute()).thenReturn(result);
+
+    assertThat(measureSetService.repairMeasureSetAccess(), is(1));
+    verify(operations, times(1))
+        .upsert(any(Query.class), eq(new Update().setOnInsert("userIds", List.of("john"))));
+    verify(operations, never()).replaceOne(any(Query.class), any());
+  }
+
+  @Test
+  public void testRepairMeasureSetAccessSkipsMeasureSetsChangedSinceStreamed() {
+    MeasureSet streamed = MeasureSet.builder().measureSetId("msid-1").owner("jane").build();
+    MeasureSet current = MeasureSet.builder().measureSetId("msid-1").owner("john").build();
+    when(mongoTemplate.stream(any(Query.class), eq(MeasureSet.class)))
+        .thenReturn(Stream.of(streamed));
+    when(mongoTemplate.find(any(Query.class), eq(MeasureSetAccess.class)))
+        .thenReturn(List.of(new MeasureSetAccess("msid-1", List.of("john"))));
+    when(measureSetRepository.findAllByMeasureSetIdIn(List.of("msid-1")))
+        .thenReturn(List.of(current));
+
+    assertThat(measureSetService.repairMeasureSetAccess(), is(0));
+    verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), any(Class.class));
+  }
+
+  @Test
+  public void testRepairMeasureSetAccessWritesNothingWhenAllAccessListsMatch() {
+    MeasureSet upToDate = MeasureSet.builder().measureSetId("msid-1").owner("John").build();
+    when(mongoTemplate.stream(any(Query.class), eq(MeasureSet.class)))
+        .thenReturn(Stream.of(upToDate));
+    when(mongoTemplate.find(any(Query.class), eq(MeasureSetAccess.class)))
+        .thenReturn(List.of(new MeasureSetAccess("msid-1", List.of("john"))));
+
+    assertThat(measureSetService.repairMeasureSetAccess(), is(0));
+    verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), any(Class.class));
   }
 
   @Test
@@ -458,4 +604,77 @@ public class MeasureSetServiceTest {
     verify(measureRepository, times(1)).findAllByMeasureSetIdAndActive(anyString(), anyBoolean());
     verify(measureSetRepository, times(0)).save(any(MeasureSet.class));
   }
+
+  @Test
+  public void testFindByMeasureSetIdReadsThroughCache() {
+    when(measureSetRepository.findByMeasureSetId("msid-2")).thenReturn(Optional.of(measureSet));
+
+    MeasureSet first = measureSetService.findByMeasureSetId("msid-2");
+    MeasureSet second = measureSetService.findByMeasureSetId("msid-2");
+
+    assertThat(first.getOwner(), is(equalTo("user-1")));
+    assertThat(second.getOwner(), is(equalTo("user-1")));
+    assertThat(second.getAcls().size(), is(equalTo(1)));
+    verify(measureSetRepository, times(1)).findByMeasureSetId("msid-2");
+  }
+
+  @Test
+  public void testFindByMeasureSetIdDoesNotCacheMissingMeasureSet() {
+    when(measureSetRepository.findByMeasureSetId("msid-2")).thenReturn(Optional.empty());
+
+    assertNull(measureSetService.findByMeasureSetId("msid-2"));
+    assertNull(measureSetService.findByMeasureSetId("msid-2"));
+    verify(measureSetRepository, times(2)).findByMeasureSetId("msid-2");
+  }
+
+  @Test
+  public void testFindByMeasureSetIdDoesNotCacheReadThatRacedAnEviction() {
+    when(measureSetRepository.findByMeasureSetId("msid-2"))
+        .thenAnswer(
+            invocation -> {
+              // a write to the set lands while it is being read
+              measureSetService.evictMeasureSet("msid-2");
+              return Optional.of(measureSet);
+            });
+
+    assertThat(measureSetService.findByMeasureSetId("msid-2"), is(equalTo(measureSet)));
+    measureSetService.findByMeasureSetId("msid-2");
+    verify(measureSetRepository, times(2)).findByMeasureSetId("msid-2");
+  }
+
+  @Test
+  public void testFindAllByMeasureSetIdsQueriesOnlyUncachedMeasureSets() {
+    MeasureSet cached = MeasureSet.builder().measureSetId("msid-1").owner("john").build();
+    MeasureSet uncached = MeasureSet.builder().measureSetId("msid-2").owner("jane").build();
+    measureSetCache.put(cached);
+    when(measureSetRepository.findAllByMeasureSetIdIn(List.of("msid-2", "msid-3")))
+        .thenReturn(List.of(uncached));
+
+    List<MeasureSet> measureSets =
+        measureSetService.findAllByMeasureSetIds(List.of("msid-1", "msid-2", "msid-3", "msid-2"));
+
+    assertThat(measureSets, is(equalTo(List.of(cached, uncached))));
+    assertThat(measureSetService.findByMeasureSetId("msid-2"), is(equalTo(uncached)));
+    verify(measureSetRepository, never()).findByMeasureSetId(anyString());
+  }
+
+  @Test
+  public void testUpdateMeasureSetAclsEvictsCachedMeasureSet() {
+    when(measureSetRepository.findByMeasureSetId("msid-2")).thenReturn(Optional.of(measureSet));
+    when(measureSetRepository.save(any(MeasureSet.class))).thenReturn(measureSet);
+    measureSetService.findByMeasureSetId("msid-2");
+    AclSpecification aclSpec = new AclSpecification();
+    aclSpec.setUserId("jane");
+    aclSpec.setRoles(Set.of(RoleEnum.SHARED_WITH));
+    AclOperation aclOperation =
+        AclOperation.builder().acls(List.of(aclSpec)).action(AclOperation.AclAction.GRANT).build();
+
+    measureSetService.updateMeasureSetAcls("msid-2", aclOperation);
+    MeasureSet result = measureSetService.findByMeasureSetId("msid-2");
+
+    assertThat(result.getAcls().size(), is(equalTo(2)));
+    verify(measureSetAccessRepository, times(1))
+        .save(new MeasureSetAccess("msid-2", List.of("user-1", "john", "jane")));
+    verify(measureSetCache, times(1)).evict("msid-2");
+  }
 }
@@ -0,0 +1,76 @@
+package cms.gov.madie.measure.services;
+
+import cms.gov.madie.measure.dto.Job;
+import cms.gov.madie.measure.dto.JobStatus;
+import gov.cms.madie.models.common.Version;
+import gov.cms.madie.models.measure.Measure;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MeasureVersionJobHandlerTest {
+
+  @Mock private VersionService versionService;
+  @Mock private JobContext context;
+
+  @InjectMocks private MeasureVersionJobHandler handler;
+
+  @Test
+  void runRecordsVersionedMeasure() throws Exception {
+    Version version = new Version(1, 0, 0);
+    Measure versioned = Measure.builder().id("measure-1").version(version).build();
+    when(context.setTotal(1)).thenReturn(true);
+    when(context.getUsername()).thenReturn("test.user");
+    when(context.getAccessToken()).thenReturn("token");
+    when(versionService.createVersion("measure-1", "MAJOR", "test.user", "token"))
+        .thenReturn(versioned);
+    Map<String, String> result = Map.of("measureId", "measure-1", "version", version.toString());
+    when(context.completeStep(List.of(result), 1, 0, "versioned")).thenReturn(true);
+
+    JobStatus status = handler.run(job(null), context);
+
+    assertThat(status, is(JobStatus.COMPLETED));
+    verify(context).completeStep(List.of(result), 1, 0, "versioned");
+  }
+
+  @Test
+  void runDoesNotVersionMeasureAgainAfterCheckpoint() throws Exception {
+    assertThat(handler.run(job("versioned"), context), is(JobStatus.COMPLETED));
+    verifyNoInteractions(versionService, context);
+  }
+
+  @Test
+  void runStopsWhenJobWasCancelled() throws Exception {
+    when(context.setTotal(1)).thenReturn(false);
+
+    assertThat(handler.run(job(null), context), is(JobStatus.CANCELLED));
+    verifyNoInteractions(versionService);
+  }
+
+  private Job job(String checkpoint) {
+    return Job.builder()
+        .id("job-1")
+        .type(MeasureVersionJobHandler.TYPE)
+        .status(JobStatus.RUNNING)
+        .parameters(
+            Map.of(
+                MeasureVersionJobHandler.MEASURE_ID,
+                "measure-1",
+                MeasureVersionJobHandler.VERSION_TYPE,
+                "MAJOR"))
+        .checkpoint(checkpoint)
+        .build();
+  }
+}
@@ -13,10 +13,12 @@ import gov.cms.madie.models.measure.Export;
 import gov.cms.madie.models.measure.Measure;
 import gov.cms.madie.models.measure.MeasureMetaData;
 import gov.cms.madie.models.measure.QdmMeasure;
+import gov.cms.madie.models.measure.TestCase;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -31,6 +33,7 @@ import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
 import java.net.URI;
+import java.util.List;
 import java.util.Optional;
 
 import static org.hamcrest.CoreMatchers.equalTo;
@@ -82,6 +85,25 @@ class QdmPackageServiceTest {
     assertThat(new String(packageContents), is(equalTo(packageContent)));
   }
 
+  @Test
+  void getCreateMeasurePackageLeavesTestCasesOutOfRequest() {
+    measure.setTestCases(List.of(TestCase.builder().id("tc-1").json("{}").build()));
+    when(qdmServiceConfig.getCreatePackageUrn()).thenReturn("/elm/uri");
+    when(qdmServiceRestTemplate.exchange(
+            any(URI.class), eq(HttpMethod.PUT), any(HttpEntity.class), any(Class.class)))
+        .thenReturn(ResponseEntity.ok(new byte[0]));
+
+    qdmPackageService.getMeasurePackage(measure, token);
+
+    ArgumentCaptor<HttpEntity> entityCaptor = ArgumentCaptor.forClass(HttpEntity.class);
+    verify(qdmServiceRestTemplate)
+        .exchange(any(URI.class), eq(HttpMethod.PUT), entityCaptor.capture(), any(Class.class));
+    Measure sent = (Measure) entityCaptor.getValue().getBody();
+    assertThat(sent.getCql(), is(equalTo("fake cql")));
+    assertThat(sent.getTestCases().isEmpty(), is(true));
+    assertThat(measure.getTestCases().size(), is(1));
+  }
+
   @Test
   void getCreateMeasurePackageForVersionedWithExistingPersistedExport() {
     measure.getMeasureMetaData().setDraft(false);
@@ -0,0 +1,50 @@
+package cms.gov.madie.measure.services;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.method.HandlerMethod;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+
+class RequestDeadlineInterceptorTest {
+
+  private final RequestDeadlineInterceptor interceptor = new RequestDeadlineInterceptor(60_000);
+  private final HttpServletRequest request = mock(HttpServletRequest.class);
+  private final HttpServletResponse response = mock(HttpServletResponse.class);
+
+  @AfterEach
+  void tearDown() {
+    RequestDeadline.clear();
+  }
+
+  @Test
+  void preHandleStartsDeadline() throws Exception {
+    interceptor.preHandle(request, response, handler("validate"));
+
+    assertThat(RequestDeadline.remainingMillis(Long.MAX_VALUE) <= 60_000, is(true));
+  }
+
+  @Test
+  void preHandleStartsNoDeadlineForEndpointThatOptedOut() throws Exception {
+    RequestDeadline.start(1);
+
+    interceptor.preHandle(request, response, handler("export"));
+
+    assertThat(RequestDeadline.remainingMillis(Long.MAX_VALUE), is(Long.MAX_VALUE));
+  }
+
+  private HandlerMethod handler(String name) throws NoSuchMethodException {
+    return new HandlerMethod(new Endpoints(), Endpoints.class.getMethod(name));
+  }
+
+  static class Endpoints {
+    public void validate() {}
+
+    @NoRequestDeadline
+    public void export() {}
+  }
+}
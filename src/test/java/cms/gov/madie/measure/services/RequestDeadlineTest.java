@@ -0,0 +1,60 @@
+package cms.gov.madie.measure.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+class RequestDeadlineTest {
+
+  @AfterEach
+  void tearDown() {
+    RequestDeadline.clear();
+  }
+
+  @Test
+  void remainingMillisIsTimeoutWithoutDeadline() {
+    assertThat(RequestDeadline.remainingMillis(5_000), is(5_000L));
+    assertThat(RequestDeadline.isExpired(), is(false));
+  }
+
+  @Test
+  void remainingMillisShrinksTimeoutToDeadline() {
+    RequestDeadline.start(1_000);
+
+    assertThat(RequestDeadline.remainingMillis(5_000) <= 1_000, is(true));
+    assertThat(RequestDeadline.remainingMillis(10), is(10L));
+  }
+
+  @Test
+  void isExpiredOnceDeadlinePassed() throws Exception {
+    RequestDeadline.start(1);
+    Thread.sleep(5);
+
+    assertThat(RequestDeadline.isExpired(), is(true));
+    assertThat(RequestDeadline.remainingMillis(5_000) <= 0, is(true));
+  }
+
+  @Test
+  void wrapCarriesDeadlineToOtherThreadOnlyForWrappedTask() throws Exception {
+    long[] remaining = new long[2];
+    RequestDeadline.start(1_000);
+    Runnable task =
+        RequestDeadline.wrap(() -> remaining[0] = RequestDeadline.remainingMillis(5_000));
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      executor.submit(task).get(5, TimeUnit.SECONDS);
+      executor.submit(() -> remaining[1] = RequestDeadline.remainingMillis(5_000)).get();
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(remaining[0] <= 1_000, is(true));
+    assertThat(remaining[1], is(5_000L));
+  }
+}
@@ -0,0 +1,203 @@
+package cms.gov.madie.measure.services;
+
+import cms.gov.madie.measure.exceptions.BulkheadFullException;
+import cms.gov.madie.measure.exceptions.CircuitBreakerOpenException;
+import cms.gov.madie.measure.exceptions.DeadlineExceededException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ResilienceInterceptorTest {
+
+  private final byte[] body = new byte[0];
+  private MeterRegistry meterRegistry;
+  private CircuitBreaker circuitBreaker;
+  private Bulkhead bulkhead;
+  private ResilienceInterceptor interceptor;
+  private HttpRequest request;
+  private ClientHttpRequestExecution execution;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    circuitBreaker = new CircuitBreaker("terminology-service", 50, 30_000, meterRegistry);
+    bulkhead = new Bulkhead("terminology-service", 4, 4, 1000, meterRegistry);
+    interceptor = new ResilienceInterceptor(circuitBreaker, bulkhead, 3, 0, meterRegistry);
+    request = mock(HttpRequest.class);
+    execution = mock(ClientHttpRequestExecution.class);
+    when(request.getMethod()).thenReturn(HttpMethod.PUT);
+    when(request.getURI()).thenReturn(URI.create("http://localhost/vsac/value-sets"));
+  }
+
+  @AfterEach
+  void tearDown() {
+    RequestDeadline.clear();
+  }
+
+  @Test
+  void interceptRetriesIdempotentRequestWhenConnectionFails() throws Exception {
+    ClientHttpResponse response = response(HttpStatus.OK);
+    when(execution.execute(request, body))
+        .thenThrow(new ConnectException("connection refused"))
+        .thenReturn(response);
+
+    ClientHttpResponse intercepted = interceptor.intercept(request, body, execution);
+
+    assertThat(intercepted.getStatusCode(), is(HttpStatus.OK));
+    verify(execution, times(2)).execute(request, body);
+    assertThat(retries(), is(1.0));
+  }
+
+  @Test
+  void interceptHoldsBulkheadPermitForEachAttemptUntilResponseIsClosed() throws Exception {
+    ClientHttpResponse unavailable = response(HttpStatus.SERVICE_UNAVAILABLE);
+    ClientHttpResponse response = response(HttpStatus.OK);
+    List<Integer> activeCalls = new ArrayList<>();
+    when(execution.execute(request, body))
+        .thenAnswer(
+            invocation -> {
+              activeCalls.add(bulkhead.getActiveCalls());
+              throw new ConnectException("connection refused");
+            })
+        .thenAnswer(
+            invocation -> {
+              activeCalls.add(bulkhead.getActiveCalls());
+              return unavailable;
+            })
+        .thenAnswer(
+            invocation -> {
+              activeCalls.add(bulkhead.getActiveCalls());
+              return response;
+            });
+
+    ClientHttpResponse intercepted = interceptor.intercept(request, body, execution);
+
+    assertThat(activeCalls, is(List.of(1, 1, 1)));
+    assertThat(bulkhead.getActiveCalls(), is(1));
+    intercepted.close();
+    assertThat(bulkhead.getActiveCalls(), is(0));
+    verify(response, times(1)).close();
+  }
+
+  @Test
+  void interceptNeitherRetriesNorCountsCallRejectedByBulkhead() throws Exception {
+    when(execution.execute(request, body))
+        .thenThrow(new BulkheadFullException("terminology-service"));
+
+    for (int i = 0; i < CircuitBreaker.MINIMUM_CALLS; i++) {
+      assertThrows(
+          BulkheadFullException.class, () -> interceptor.intercept(request, body, execution));
+    }
+
+    verify(execution, times(CircuitBreaker.MINIMUM_CALLS)).execute(request, body);
+    assertThat(retries(), is(0.0));
+    assertThat(circuitBreaker.getState(), is(CircuitBreaker.State.CLOSED));
+  }
+
+  @Test
+  void interceptDoesNotRetryPost() throws Exception {
+    when(request.getMethod()).thenReturn(HttpMethod.POST);
+    when(execution.execute(request, body)).thenThrow(new ConnectException("connection refused"));
+
+    assertThrows(IOException.class, () -> interceptor.intercept(request, body, execution));
+
+    verify(execution, times(1)).execute(request, body);
+    assertThat(retries(), is(0.0));
+  }
+
+  @Test
+  void interceptDoesNotRetryTimeout() throws Exception {
+    when(execution.execute(request, body)).thenThrow(new SocketTimeoutException("read timed out"));
+
+    assertThrows(
+        SocketTimeoutException.class, () -> interceptor.intercept(request, body, execution));
+
+    verify(execution, times(1)).execute(request, body);
+  }
+
+  @Test
+  void interceptReturnsUnavailableResponseAfterLastAttempt() throws Exception {
+    ClientHttpResponse response = response(HttpStatus.SERVICE_UNAVAILABLE);
+    when(execution.execute(request, body)).thenReturn(response);
+
+    ClientHttpResponse intercepted = interceptor.intercept(request, body, execution);
+
+    assertThat(intercepted.getStatusCode(), is(HttpStatus.SERVICE_UNAVAILABLE));
+    verify(execution, times(3)).execute(request, body);
+    verify(response, times(2)).close();
+    assertThat(bulkhead.getActiveCalls(), is(1));
+    assertThat(retries(), is(2.0));
+  }
+
+  @Test
+  void interceptDoesNotRetryInternalServerError() throws Exception {
+    ClientHttpResponse response = response(HttpStatus.INTERNAL_SERVER_ERROR);
+    when(execution.execute(request, body)).thenReturn(response);
+
+    interceptor.intercept(request, body, execution);
+
+    verify(execution, times(1)).execute(request, body);
+  }
+
+  @Test
+  void interceptRejectsWithoutCallingWhenCircuitIsOpen() throws Exception {
+    for (int i = 0; i < CircuitBreaker.MINIMUM_CALLS; i++) {
+      circuitBreaker.tryAcquirePermission();
+      circuitBreaker.onFailure();
+    }
+
+    assertThrows(
+        CircuitBreakerOpenException.class, () -> interceptor.intercept(request, body, execution));
+
+    verify(execution, never()).execute(any(), any());
+  }
+
+  @Test
+  void interceptRejectsWithoutCallingWhenDeadlinePassed() throws Exception {
+    RequestDeadline.start(1);
+    Thread.sleep(5);
+
+    assertThrows(
+        DeadlineExceededException.class, () -> interceptor.intercept(request, body, execution));
+
+    verify(execution, never()).execute(any(), any());
+  }
+
+  private ClientHttpResponse response(HttpStatus status) throws IOException {
+    ClientHttpResponse response = mock(ClientHttpResponse.class);
+    when(response.getStatusCode()).thenReturn(status);
+    return response;
+  }
+
+  private double retries() {
+    return meterRegistry
+        .get(ResilienceInterceptor.RETRIES_METRIC)
+        .tag(Bulkhead.DOWNSTREAM_TAG, "terminology-service")
+        .counter()
+        .count();
+  }
+}
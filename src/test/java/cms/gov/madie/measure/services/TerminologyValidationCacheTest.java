@@ -0,0 +1,72 @@
+package cms.gov.madie.measure.services;
+
+import gov.cms.madie.models.cql.terminology.CqlCode;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+class TerminologyValidationCacheTest {
+
+  @Test
+  void isCodeValidDependsOnCodeSystemVersion() {
+    TerminologyValidationCache cache =
+        new TerminologyValidationCache(10, Duration.ofMinutes(5), Clock.systemUTC());
+    cache.putValidCodes(List.of(code("2.74")));
+
+    assertThat(cache.isCodeValid(code("2.74")), is(true));
+    assertThat(cache.isCodeValid(code("2.76")), is(false));
+    assertThat(cache.isValueSetValid("2.16.840.1.113883.3.666.5.307"), is(false));
+  }
+
+  @Test
+  void entriesExpireAfterTimeToLive() {
+    AtomicReference<Instant> now = new AtomicReference<>(Instant.parse("2024-01-01T00:00:00Z"));
+    Clock clock =
+        new Clock() {
+          @Override
+          public ZoneId getZone() {
+            return ZoneOffset.UTC;
+          }
+
+          @Override
+          public Clock withZone(ZoneId zone) {
+            return this;
+          }
+
+          @Override
+          public Instant instant() {
+            return now.get();
+          }
+        };
+    TerminologyValidationCache cache =
+        new TerminologyValidationCache(10, Duration.ofMinutes(5), clock);
+    cache.putValidValueSets(List.of("2.16.840.1.113883.3.666.5.307"));
+
+    now.set(now.get().plus(Duration.ofMinutes(4)));
+    assertThat(cache.isValueSetValid("2.16.840.1.113883.3.666.5.307"), is(true));
+    now.set(now.get().plus(Duration.ofMinutes(2)));
+    assertThat(cache.isValueSetValid("2.16.840.1.113883.3.666.5.307"), is(false));
+    assertThat(cache.size(), is(0));
+  }
+
+  private CqlCode code(String codeSystemVersion) {
+    return CqlCode.builder()
+        .codeId("10-9")
+        .codeSystem(
+            CqlCode.CqlCodeSystem.builder()
+                .oid("http://loinc.org")
+                .name("LOINC")
+                .version(codeSystemVersion)
+                .build())
+        .build();
+  }
+}
@@ -9,8 +9,11 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -28,6 +31,11 @@ import static org.mockito.Mockito.when;
 public class TerminologyValidationServiceTest implements ResourceUtil {
 
   @Mock private TerminologyServiceClient terminologyServiceClient;
+  @Spy private ElmIndexCache elmIndexCache = new ElmIndexCache(10);
+
+  @Spy
+  private TerminologyValidationCache terminologyValidationCache =
+      new TerminologyValidationCache(100, Duration.ofMinutes(5), Clock.systemUTC());
 
   @InjectMocks private TerminologyValidationService terminologyValidationService;
 
@@ -50,6 +58,38 @@ public class TerminologyValidationServiceTest implements ResourceUtil {
     verify(terminologyServiceClient, times(1)).validateCodes(any(), any());
   }
 
+  @Test
+  public void testValidateTerminologySkipsTerminologyAlreadyValidated() {
+    when(terminologyServiceClient.fetchValueSets(any(ValueSetsSearchCriteria.class), anyString()))
+        .thenReturn("[json]");
+    when(terminologyServiceClient.validateCodes(any(), anyString()))
+        .thenReturn(List.of(CqlCode.builder().isValid(true).build()));
+
+    terminologyValidationService.validateTerminology(elmJson, "token");
+    terminologyValidationService.validateTerminology(elmJson, "token");
+
+    verify(terminologyServiceClient, times(1)).fetchValueSets(any(), any());
+    verify(terminologyServiceClient, times(1)).validateCodes(any(), any());
+  }
+
+  @Test
+  public void testValidateTerminologyRechecksCodesAfterInvalidCode() {
+    when(terminologyServiceClient.fetchValueSets(any(ValueSetsSearchCriteria.class), anyString()))
+        .thenReturn("[json]");
+    when(terminologyServiceClient.validateCodes(any(), anyString()))
+        .thenReturn(List.of(CqlCode.builder().isValid(false).build()));
+
+    assertThrows(
+        InvalidTerminologyException.class,
+        () -> terminologyValidationService.validateTerminology(elmJson, "token"));
+    assertThrows(
+        InvalidTerminologyException.class,
+        () -> terminologyValidationService.validateTerminology(elmJson, "token"));
+
+    verify(terminologyServiceClient, times(1)).fetchValueSets(any(), any());
+    verify(terminologyServiceClient, times(2)).validateCodes(any(), any());
+  }
+
   @Test
   public void testValidateTerminologyWhenNoELm() {
     terminologyValidationService.validateTerminology("", "token");
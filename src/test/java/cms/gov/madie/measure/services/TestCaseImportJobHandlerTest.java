@@ -0,0 +1,161 @@
+package cms.gov.madie.measure.services;
+
+import cms.gov.madie.measure.dto.Job;
+import cms.gov.madie.measure.dto.JobStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gov.cms.madie.models.measure.TestCaseImportOutcome;
+import gov.cms.madie.models.measure.TestCaseImportRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TestCaseImportJobHandlerTest {
+
+  @Mock private TestCaseService testCaseService;
+  @Mock private JobContext context;
+
+  private TestCaseImportJobHandler handler;
+
+  @BeforeEach
+  void setUp() {
+    handler = new TestCaseImportJobHandler(testCaseService, new ObjectMapper());
+  }
+
+  @Test
+  void runImportsAllRequestsOfPatientInTheSameStep() {
+    List<TestCaseImportRequest> requests = requests(TestCaseImportJobHandler.PATIENTS_PER_STEP);
+    UUID lastPatientId = requests.get(requests.size() - 1).getPatientId();
+    requests.add(request(lastPatientId));
+    requests.add(request(UUID.randomUUID()));
+    when(context.setTotal(TestCaseImportJobHandler.PATIENTS_PER_STEP + 1)).thenReturn(true);
+    when(context.getUsername()).thenReturn("test.user");
+    when(context.getAccessToken()).thenReturn("token");
+    when(testCaseService.importTestCases(
+            anyList(), eq("measure-1"), eq("test.user"), eq("token"), eq("QDM v5.6")))
+        .thenAnswer(invocation -> outcomes(invocation.getArgument(0), true));
+    when(context.completeStep(anyList(), anyLong(), anyLong(), any())).thenReturn(true);
+
+    JobStatus status = handler.run(job(requests, null, 0), context);
+
+    assertThat(status, is(JobStatus.COMPLETED));
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<TestCaseImportRequest>> steps = ArgumentCaptor.forClass(List.class);
+    verify(testCaseService, times(2))
+        .importTestCases(steps.capture(), any(), any(), any(), any());
+    assertThat(steps.getAllValues().get(0).size(), is(requests.size() - 1));
+    assertThat(
+        steps.getAllValues().get(0).stream()
+            .filter(request -> lastPatientId.equals(request.getPatientId()))
+            .count(),
+        is(2L));
+    assertThat(steps.getAllValues().get(1).size(), is(1));
+    verify(context).completeStep(anyList(), eq((long) requests.size() - 1), eq(0L), eq("1"));
+    verify(context).completeStep(anyList(), eq(1L), eq(0L), eq("2"));
+  }
+
+  @Test
+  void runResumesAfterCheckpointAndKeepsErrorsOfRunBeforeResume() {
+    List<TestCaseImportRequest> requests =
+        requests(TestCaseImportJobHandler.PATIENTS_PER_STEP + 1);
+    UUID lastPatientId = requests.get(requests.size() - 1).getPatientId();
+    when(context.setTotal(TestCaseImportJobHandler.PATIENTS_PER_STEP + 1)).thenReturn(true);
+    when(testCaseService.importTestCases(anyList(), any(), any(), any(), any()))
+        .thenAnswer(invocation -> outcomes(invocation.getArgument(0), true));
+    when(context.completeStep(anyList(), eq(1L), eq(0L), eq("2"))).thenReturn(true);
+
+    JobStatus status = handler.run(job(requests, "1", 3), context);
+
+    assertThat(status, is(JobStatus.COMPLETED_WITH_ERRORS));
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<TestCaseImportRequest>> step = ArgumentCaptor.forClass(List.class);
+    verify(testCaseService).importTestCases(step.capture(), any(), any(), any(), any());
+    assertThat(step.getValue().size(), is(1));
+    assertThat(step.getValue().get(0).getPatientId(), is(lastPatientId));
+  }
+
+  @Test
+  void runCountsTestCasesThatFailedToImport() {
+    List<TestCaseImportRequest> requests = requests(2);
+    when(context.setTotal(2)).thenReturn(true);
+    when(testCaseService.importTestCases(anyList(), any(), any(), any(), any()))
+        .thenAnswer(invocation -> outcomes(invocation.getArgument(0), false));
+    when(context.completeStep(anyList(), eq(2L), eq(2L), eq("1"))).thenReturn(true);
+
+    assertThat(handler.run(job(requests, null, 0), context), is(JobStatus.COMPLETED_WITH_ERRORS));
+  }
+
+  @Test
+  void runStopsWhenJobWasCancelled() {
+    List<TestCaseImportRequest> requests =
+        requests(TestCaseImportJobHandler.PATIENTS_PER_STEP + 1);
+    when(context.setTotal(TestCaseImportJobHandler.PATIENTS_PER_STEP + 1)).thenReturn(true);
+    when(testCaseService.importTestCases(anyList(), any(), any(), any(), any()))
+        .thenAnswer(invocation -> outcomes(invocation.getArgument(0), true));
+    when(context.completeStep(anyList(), anyLong(), anyLong(), eq("1"))).thenReturn(false);
+
+    assertThat(handler.run(job(requests, null, 0), context), is(JobStatus.CANCELLED));
+    verify(testCaseService).importTestCases(anyList(), any(), any(), any(), any());
+  }
+
+  @Test
+  void runImportsNothingWhenJobWasCancelledBeforeItStarted() {
+    when(context.setTotal(1)).thenReturn(false);
+
+    assertThat(handler.run(job(requests(1), null, 0), context), is(JobStatus.CANCELLED));
+    verify(testCaseService, never()).importTestCases(any(), any(), any(), any(), any());
+  }
+
+  private List<TestCaseImportRequest> requests(int patients) {
+    List<TestCaseImportRequest> requests = new ArrayList<>();
+    for (int i = 0; i < patients; i++) {
+      requests.add(request(UUID.randomUUID()));
+    }
+    return requests;
+  }
+
+  private TestCaseImportRequest request(UUID patientId) {
+    return TestCaseImportRequest.builder().patientId(patientId).json("{}").build();
+  }
+
+  private List<TestCaseImportOutcome> outcomes(
+      List<TestCaseImportRequest> requests, boolean successful) {
+    return requests.stream()
+        .map(
+            request ->
+                TestCaseImportOutcome.builder()
+                    .patientId(request.getPatientId())
+                    .successful(successful)
+                    .build())
+        .toList();
+  }
+
+  private Job job(List<TestCaseImportRequest> requests, String checkpoint, long failed) {
+    return Job.builder()
+        .id("job-1")
+        .type(TestCaseImportJobHandler.TYPE)
+        .status(JobStatus.RUNNING)
+        .parameters(handler.parameters("measure-1", "QDM v5.6", requests))
+        .checkpoint(checkpoint)
+        .failed(failed)
+        .build();
+  }
+}
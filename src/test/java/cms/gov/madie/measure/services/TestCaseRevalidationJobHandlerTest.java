@@ -0,0 +1,154 @@
+package cms.gov.madie.measure.services;
+
+import cms.gov.madie.measure.dto.Job;
+import cms.gov.madie.measure.dto.JobStatus;
+import cms.gov.madie.measure.dto.MeasureTestCaseValidationLine;
+import cms.gov.madie.measure.dto.MeasureTestCaseValidationReport;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TestCaseRevalidationJobHandlerTest {
+
+  @Mock private TestCaseRevalidationService testCaseRevalidationService;
+  @Mock private JobContext context;
+
+  @InjectMocks private TestCaseRevalidationJobHandler handler;
+
+  @Test
+  void runResumesAfterCheckpointAndRecordsEveryReport() throws Exception {
+    MeasureTestCaseValidationReport report =
+        MeasureTestCaseValidationReport.builder()
+            .measureId("m3")
+            .jobStatus(JobStatus.COMPLETED)
+            .build();
+    when(testCaseRevalidationService.countMeasures(true)).thenReturn(3L);
+    when(context.setTotal(3)).thenReturn(true);
+    when(context.getAccessToken()).thenReturn("token");
+    when(context.completeStep(List.of(report), 1, 0, "m3")).thenReturn(true);
+    when(testCaseRevalidationService.revalidate(eq(true), isNull(), eq("m2"), eq("token"), any()))
+        .thenAnswer(
+            invocation -> {
+              Predicate<MeasureTestCaseValidationLine> listener = invocation.getArgument(4);
+              assertThat(listener.test(reportLine(report, "m3")), is(true));
+              return summary(0);
+            });
+
+    JobStatus status = handler.run(job("m2", 0, Map.of()), context);
+
+    assertThat(status, is(JobStatus.COMPLETED));
+    verify(context).completeStep(List.of(report), 1, 0, "m3");
+  }
+
+  @Test
+  void runCountsMeasureThatCouldNotBeRevalidated() throws Exception {
+    Instant validatedBefore = Instant.parse("2024-01-01T00:00:00Z");
+    MeasureTestCaseValidationReport report =
+        MeasureTestCaseValidationReport.builder()
+            .measureId("m1")
+            .jobStatus(JobStatus.FAILED)
+            .build();
+    when(testCaseRevalidationService.getValidatedBefore(true)).thenReturn(validatedBefore);
+    when(testCaseRevalidationService.countMeasures(false)).thenReturn(1L);
+    when(context.setTotal(1)).thenReturn(true);
+    when(context.completeStep(List.of(report), 1, 1, "m1")).thenReturn(true);
+    when(testCaseRevalidationService.revalidate(
+            eq(false), eq(validatedBefore), isNull(), any(), any()))
+        .thenAnswer(
+            invocation -> {
+              Predicate<MeasureTestCaseValidationLine> listener = invocation.getArgument(4);
+              listener.test(reportLine(report, "m1"));
+              return summary(1);
+            });
+
+    JobStatus status =
+        handler.run(
+            job(
+                null,
+                0,
+                Map.of(
+                    TestCaseRevalidationJobHandler.DRAFT_ONLY,
+                    false,
+                    TestCaseRevalidationJobHandler.SELECTIVE,
+                    true)),
+            context);
+
+    assertThat(status, is(JobStatus.COMPLETED_WITH_ERRORS));
+  }
+
+  @Test
+  void runKeepsErrorsOfRunBeforeResume() throws Exception {
+    when(testCaseRevalidationService.countMeasures(true)).thenReturn(3L);
+    when(context.setTotal(3)).thenReturn(true);
+    when(testCaseRevalidationService.revalidate(eq(true), isNull(), eq("m2"), any(), any()))
+        .thenReturn(summary(0));
+
+    assertThat(
+        handler.run(job("m2", 1, Map.of()), context), is(JobStatus.COMPLETED_WITH_ERRORS));
+  }
+
+  @Test
+  void runStopsWhenJobWasCancelled() throws Exception {
+    when(testCaseRevalidationService.countMeasures(true)).thenReturn(2L);
+    when(context.setTotal(2)).thenReturn(false);
+
+    JobStatus status = handler.run(job(null, 0, Map.of()), context);
+
+    assertThat(status, is(JobStatus.CANCELLED));
+    verify(testCaseRevalidationService, never()).revalidate(eq(true), any(), any(), any(), any());
+  }
+
+  @Test
+  void runReturnsCancelledWhenRevalidationWasStopped() throws Exception {
+    when(testCaseRevalidationService.countMeasures(true)).thenReturn(2L);
+    when(context.setTotal(2)).thenReturn(true);
+    when(testCaseRevalidationService.revalidate(eq(true), isNull(), isNull(), any(), any()))
+        .thenReturn(null);
+
+    assertThat(handler.run(job(null, 0, Map.of()), context), is(JobStatus.CANCELLED));
+  }
+
+  private MeasureTestCaseValidationLine reportLine(
+      MeasureTestCaseValidationReport report, String checkpoint) {
+    return MeasureTestCaseValidationLine.builder()
+        .type(MeasureTestCaseValidationLine.Type.REPORT)
+        .report(report)
+        .checkpoint(checkpoint)
+        .build();
+  }
+
+  private MeasureTestCaseValidationLine summary(long failed) {
+    return MeasureTestCaseValidationLine.builder()
+        .type(MeasureTestCaseValidationLine.Type.SUMMARY)
+        .failed(failed)
+        .build();
+  }
+
+  private Job job(String checkpoint, long failed, Map<String, Object> parameters) {
+    return Job.builder()
+        .id("job-1")
+        .type(TestCaseRevalidationJobHandler.TYPE)
+        .status(JobStatus.RUNNING)
+        .parameters(parameters)
+        .checkpoint(checkpoint)
+        .failed(failed)
+        .build();
+  }
+}
@@ -0,0 +1,203 @@
+package cms.gov.madie.measure.services;
+
+import cms.gov.madie.measure.dto.JobStatus;
+import cms.gov.madie.measure.dto.MeasureTestCaseValidationLine;
+import cms.gov.madie.measure.dto.MeasureTestCaseValidationReport;
+import cms.gov.madie.measure.dto.TestCaseValidationReport;
+import cms.gov.madie.measure.exceptions.InvalidRequestException;
+import cms.gov.madie.measure.repositories.MeasureRepository;
+import gov.cms.madie.models.measure.MeasureSet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TestCaseRevalidationServiceTest {
+
+  private MeasureRepository measureRepository;
+  private MeasureSetService measureSetService;
+  private TestCaseService testCaseService;
+  private TestCaseRevalidationService testCaseRevalidationService;
+
+  @BeforeEach
+  void setUp() {
+    measureRepository = mock(MeasureRepository.class);
+    measureSetService = mock(MeasureSetService.class);
+    testCaseService = mock(TestCaseService.class);
+    testCaseRevalidationService =
+        new TestCaseRevalidationService(
+            measureRepository, measureSetService, testCaseService, 2, "2024-01-01T00:00:00Z");
+  }
+
+  @AfterEach
+  void tearDown() {
+    testCaseRevalidationService.shutdown();
+  }
+
+  @Test
+  void revalidateReportsEveryMeasureThenSummary() throws Exception {
+    when(measureRepository.streamActiveMeasureIds(true, null))
+        .thenReturn(Stream.of("m1", "m2", "m3"));
+    when(testCaseService.updateTestCaseValidResourcesWithReport(anyString(), any(), eq("token")))
+        .thenAnswer(invocation -> report(invocation.getArgument(0), "set-1", false));
+    when(testCaseService.updateTestCaseValidResourcesWithReport(eq("m2"), any(), eq("token")))
+        .thenReturn(report("m2", "set-2", true));
+    when(measureSetService.findAllByMeasureSetIds(List.of("set-2")))
+        .thenReturn(List.of(MeasureSet.builder().measureSetId("set-2").owner("john").build()));
+    List<MeasureTestCaseValidationLine> lines = new ArrayList<>();
+
+    MeasureTestCaseValidationLine summary =
+        testCaseRevalidationService.revalidate(true, null, null, "token", lines::add);
+
+    assertThat(lines.size(), is(4));
+    assertThat(lines.get(3), is(summary));
+    assertThat(summary.getType(), is(MeasureTestCaseValidationLine.Type.SUMMARY));
+    assertThat(summary.getCheckpoint(), is("m3"));
+    assertThat(summary.getProcessed(), is(3L));
+    assertThat(summary.getFailed(), is(0L));
+    assertThat(summary.getImpactedMeasures().size(), is(1));
+    assertThat(summary.getImpactedMeasures().get(0).getMeasureId(), is("m2"));
+    assertThat(summary.getImpactedMeasures().get(0).getMeasureOwner(), is("john"));
+    assertThat(summary.getImpactedMeasures().get(0).getImpactedTestCasesCount(), is(1));
+  }
+
+  @Test
+  void revalidateNeverRunsMoreMeasuresAtOnceThanConcurrencyLimit() throws Exception {
+    when(measureRepository.streamActiveMeasureIds(true, null))
+        .thenReturn(Stream.of("m1", "m2", "m3", "m4", "m5"));
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    when(testCaseService.updateTestCaseValidResourcesWithReport(anyString(), any(), any()))
+        .thenAnswer(
+            invocation -> {
+              maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+              Thread.sleep(20);
+              running.decrementAndGet();
+              return report(invocation.getArgument(0), "set-1", false);
+            });
+
+    MeasureTestCaseValidationLine summary =
+        testCaseRevalidationService.revalidate(true, null, null, "token", line -> true);
+
+    assertThat(summary.getProcessed(), is(5L));
+    assertThat(maxRunning.get() <= 2, is(true));
+  }
+
+  @Test
+  void revalidateCheckpointWaitsForEarlierMeasures() throws Exception {
+    when(measureRepository.streamActiveMeasureIds(true, "m0")).thenReturn(Stream.of("m1", "m2"));
+    CountDownLatch m2Reported = new CountDownLatch(1);
+    when(testCaseService.updateTestCaseValidResourcesWithReport(eq("m1"), any(), any()))
+        .thenAnswer(
+            invocation -> {
+              m2Reported.await(5, TimeUnit.SECONDS);
+              return report("m1", "set-1", false);
+            });
+    when(testCaseService.updateTestCaseValidResourcesWithReport(eq("m2"), any(), any()))
+        .thenReturn(report("m2", "set-1", false));
+    List<MeasureTestCaseValidationLine> lines = new ArrayList<>();
+
+    testCaseRevalidationService.revalidate(
+        true,
+        null,
+        "m0",
+        "token",
+        line -> {
+          lines.add(line);
+          m2Reported.countDown();
+          return true;
+        });
+
+    assertThat(lines.get(0).getReport().getMeasureId(), is("m2"));
+    assertThat(lines.get(0).getCheckpoint(), is("m0"));
+    assertThat(lines.get(1).getReport().getMeasureId(), is("m1"));
+    assertThat(lines.get(1).getCheckpoint(), is("m2"));
+  }
+
+  @Test
+  void revalidateReportsMeasureThatFailed() throws Exception {
+    when(measureRepository.streamActiveMeasureIds(false, null)).thenReturn(Stream.of("m1"));
+    when(testCaseService.updateTestCaseValidResourcesWithReport(eq("m1"), any(), any()))
+        .thenThrow(new IllegalStateException("no connection"));
+    List<MeasureTestCaseValidationLine> lines = new ArrayList<>();
+
+    MeasureTestCaseValidationLine summary =
+        testCaseRevalidationService.revalidate(false, null, null, "token", lines::add);
+
+    assertThat(lines.get(0).getReport().getJobStatus(), is(JobStatus.FAILED));
+    assertThat(summary.getFailed(), is(1L));
+    verify(measureSetService, never()).findAllByMeasureSetIds(any());
+  }
+
+  @Test
+  void revalidateStopsWhenListenerReturnsFalse() throws Exception {
+    Stream<String> measureIds = Stream.of("m1", "m2", "m3", "m4");
+    AtomicInteger closed = new AtomicInteger();
+    when(measureRepository.streamActiveMeasureIds(true, null))
+        .thenReturn(measureIds.onClose(closed::incrementAndGet));
+    when(testCaseService.updateTestCaseValidResourcesWithReport(anyString(), any(), any()))
+        .thenAnswer(invocation -> report(invocation.getArgument(0), "set-1", false));
+
+    MeasureTestCaseValidationLine summary =
+        testCaseRevalidationService.revalidate(true, null, null, "token", line -> false);
+
+    assertThat(summary, is(nullValue()));
+    assertThat(closed.get(), is(1));
+    verify(testCaseService, never())
+        .updateTestCaseValidResourcesWithReport(eq("m4"), any(), anyString());
+  }
+
+  @Test
+  void getValidatedBeforeIsConfiguredTimeWhenSelective() {
+    assertThat(
+        testCaseRevalidationService.getValidatedBefore(true),
+        is(Instant.parse("2024-01-01T00:00:00Z")));
+    assertThat(testCaseRevalidationService.getValidatedBefore(false), is(nullValue()));
+  }
+
+  @Test
+  void getValidatedBeforeRejectsSelectiveWhenNotConfigured() {
+    TestCaseRevalidationService unconfigured =
+        new TestCaseRevalidationService(
+            measureRepository, measureSetService, testCaseService, 1, "");
+    try {
+      assertThrows(InvalidRequestException.class, () -> unconfigured.getValidatedBefore(true));
+    } finally {
+      unconfigured.shutdown();
+    }
+  }
+
+  private MeasureTestCaseValidationReport report(
+      String measureId, String measureSetId, boolean impacted) {
+    return MeasureTestCaseValidationReport.builder()
+        .measureId(measureId)
+        .measureSetId(measureSetId)
+        .jobStatus(JobStatus.COMPLETED)
+        .testCaseValidationReport(
+            TestCaseValidationReport.builder()
+                .testCaseId(measureId + "-tc")
+                .previousValidResource(true)
+                .currentValidResource(!impacted)
+                .build())
+        .build();
+  }
+}
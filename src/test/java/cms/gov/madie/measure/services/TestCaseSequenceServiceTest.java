@@ -44,6 +44,15 @@ public class TestCaseSequenceServiceTest {
     assertEquals(1, result);
   }
 
+  @Test
+  void generateSequencesReturnsFirstOfReservedBlock() {
+    when(mongoOperations.findAndModify(
+            any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class), any()))
+        .thenReturn(TestCaseSequence.builder().sequence(110).build());
+    var result = testCaseSequenceService.generateSequences("measureId", 10);
+    assertEquals(101, result);
+  }
+
   @Test
   void resetSequence() {
     TestCaseSequence sequence = TestCaseSequence.builder().sequence(1).build();
@@ -0,0 +1,246 @@
+package cms.gov.madie.measure.services;
+
+import gov.cms.madie.models.measure.TestCase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+class ValidationFanOutServiceTest {
+
+  private ValidationFanOutService validationFanOutService;
+
+  @BeforeEach
+  void setUp() {
+    validationFanOutService = new ValidationFanOutService(2, 200);
+  }
+
+  @AfterEach
+  void tearDown() {
+    validationFanOutService.shutdown();
+  }
+
+  @Test
+  void validateAllReturnsResultsInItemOrder() {
+    List<Integer> output =
+        validationFanOutService.validateAll(
+            List.of(5, 1, 3, 0),
+            item -> {
+              sleep(item * 10L);
+              return item * 2;
+            },
+            (item, ex) -> -1);
+
+    assertThat(output, is(equalTo(List.of(10, 2, 6, 0))));
+  }
+
+  @Test
+  void validateAllUsesFallbackForFailedValidation() {
+    List<String> output =
+        validationFanOutService.validateAll(
+            List.of("valid", "broken"),
+            item -> {
+              if ("broken".equals(item)) {
+                throw new IllegalStateException("invalid");
+              }
+              return item;
+            },
+            (item, ex) -> ex.getClass().getSimpleName());
+
+    assertThat(output, is(equalTo(List.of("valid", "IllegalStateException"))));
+  }
+
+  @Test
+  void validateAllUsesFallbackForTimedOutValidation() {
+    List<String> output =
+        validationFanOutService.validateAll(
+            List.of("slow", "fast"),
+            item -> {
+              if ("slow".equals(item)) {
+                sleep(1000);
+              }
+              return item;
+            },
+            (item, ex) -> ex instanceof TimeoutException ? "timed out" : "failed");
+
+    assertThat(output, is(equalTo(List.of("timed out", "fast"))));
+  }
+
+  @Test
+  void validateAllRunsValidationsUnderDeadlineOfRequest() {
+    RequestDeadline.start(60_000);
+    try {
+      List<Boolean> output =
+          validationFanOutService.validateAll(
+              List.of("a", "b"),
+              item -> RequestDeadline.remainingMillis(Long.MAX_VALUE) <= 60_000,
+              (item, ex) -> false);
+
+      assertThat(output, is(equalTo(List.of(true, true))));
+    } finally {
+      RequestDeadline.clear();
+    }
+  }
+
+  @Test
+  void validateAllDoesNotQueueAllItemsOfOneCallerAheadOfOthers() throws Exception {
+    CompletableFuture<List<Integer>> large =
+        CompletableFuture.supplyAsync(
+            () ->
+                validationFanOutService.validateAll(
+                    Collections.nCopies(20, 50),
+                    item -> {
+                      sleep(item);
+                      return item;
+                    },
+                    (item, ex) -> -1));
+    sleep(20);
+
+    long start = System.nanoTime();
+    List<Integer> small =
+        validationFanOutService.validateAll(List.of(1), item -> item, (item, ex) -> -1);
+    long tookMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    assertThat(small, is(equalTo(List.of(1))));
+    assertThat(tookMillis < 300, is(true));
+    assertThat(large.get(), is(equalTo(Collections.nCopies(20, 50))));
+  }
+
+  @Test
+  void validateAllKeepsPermitsOfTimedOutValidationsUntilTheyReturn() throws Exception {
+    CountDownLatch hung = new CountDownLatch(1);
+    CompletableFuture<List<Integer>> large =
+        CompletableFuture.supplyAsync(
+            () ->
+                validationFanOutService.validateAll(
+                    Collections.nCopies(10, 150),
+                    item -> {
+                      if (hung.getCount() > 0) {
+                        await(hung);
+                      } else {
+                        sleep(item);
+                      }
+                      return item;
+                    },
+                    (item, ex) -> -1));
+    // the first two validations of the large caller time out, but keep running
+    sleep(300);
+    CompletableFuture<List<Integer>> small =
+        CompletableFuture.supplyAsync(
+            () -> validationFanOutService.validateAll(List.of(1), item -> item, (item, ex) -> -1));
+    sleep(100);
+
+    long start = System.nanoTime();
+    hung.countDown();
+    assertThat(small.get(), is(equalTo(List.of(1))));
+    long tookMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    assertThat(tookMillis < 100, is(true));
+    assertThat(large.get().subList(0, 2), is(equalTo(List.of(-1, -1))));
+    assertThat(large.get().subList(2, 10), is(equalTo(Collections.nCopies(8, 150))));
+  }
+
+  @Test
+  void validateAllUsesFallbackForValidationThatDoesNotFitInTheQueue() throws Exception {
+    validationFanOutService.shutdown();
+    validationFanOutService = new ValidationFanOutService(1, 5000);
+    CountDownLatch hung = new CountDownLatch(1);
+    ExecutorService callers = Executors.newFixedThreadPool(17);
+    try {
+      // one validation running and 16 waiting fill the pool
+      List<CompletableFuture<List<String>>> others =
+          IntStream.range(0, 17)
+              .mapToObj(
+                  i ->
+                      CompletableFuture.supplyAsync(
+                          () ->
+                              validationFanOutService.validateAll(
+                                  List.of("other"),
+                                  item -> {
+                                    await(hung);
+                                    return item;
+                                  },
+                                  (item, ex) -> "failed"),
+                          callers))
+              .toList();
+      sleep(300);
+
+      List<String> output =
+          validationFanOutService.validateAll(
+              List.of("rejected"),
+              item -> item,
+              (item, ex) -> ex instanceof RejectedExecutionException ? "rejected" : "failed");
+
+      hung.countDown();
+      assertThat(output, is(equalTo(List.of("rejected"))));
+      for (CompletableFuture<List<String>> other : others) {
+        assertThat(other.get(), is(equalTo(List.of("other"))));
+      }
+    } finally {
+      hung.countDown();
+      callers.shutdown();
+    }
+  }
+
+  @Test
+  void validateTestCasesMarksTestCasesThatFailedValidationInvalid() {
+    TestCase valid = TestCase.builder().id("valid").build();
+    TestCase slow = TestCase.builder().id("slow").build();
+    TestCase broken = TestCase.builder().id("broken").build();
+
+    List<TestCase> output =
+        validationFanOutService.validateTestCases(
+            List.of(valid, slow, broken),
+            testCase -> {
+              if ("broken".equals(testCase.getId())) {
+                throw new IllegalStateException("invalid");
+              }
+              if ("slow".equals(testCase.getId())) {
+                sleep(1000);
+              }
+              return testCase.toBuilder().validResource(true).build();
+            });
+
+    assertThat(output.get(0).isValidResource(), is(true));
+    assertThat(output.get(1).isValidResource(), is(false));
+    assertThat(output.get(1).getHapiOperationOutcome().getCode(), is(504));
+    assertThat(
+        output.get(1).getHapiOperationOutcome().getMessage(),
+        is(ValidationFanOutService.TIMED_OUT_MESSAGE));
+    assertThat(output.get(2).isValidResource(), is(false));
+    assertThat(output.get(2).getHapiOperationOutcome().getCode(), is(500));
+    assertThat(
+        output.get(2).getHapiOperationOutcome().getMessage(),
+        is(ValidationFanOutService.FAILED_MESSAGE));
+  }
+
+  private void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package cms.gov.madie.measure.services;
 
+import cms.gov.madie.measure.dto.MeasureTestCase;
 import cms.gov.madie.measure.dto.PackageDto;
 import cms.gov.madie.measure.exceptions.BadVersionRequestException;
 import cms.gov.madie.measure.exceptions.BundleOperationException;
@@ -10,6 +11,7 @@ import cms.gov.madie.measure.exceptions.UnauthorizedException;
 import cms.gov.madie.measure.repositories.CqmMeasureRepository;
 import cms.gov.madie.measure.repositories.ExportRepository;
 import cms.gov.madie.measure.repositories.MeasureRepository;
+import cms.gov.madie.measure.repositories.TestCaseRepository;
 import gov.cms.madie.models.common.ModelType;
 import gov.cms.madie.models.common.Version;
 import gov.cms.madie.models.cqm.CqmMeasure;
@@ -25,6 +27,7 @@ import gov.cms.madie.models.measure.*;
 import org.bson.types.ObjectId;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -32,6 +35,7 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.ResponseEntity;
 
@@ -55,6 +59,7 @@ import static org.mockito.Mockito.*;
 public class VersionServiceTest {
 
   @Mock private MeasureRepository measureRepository;
+  @Mock private TestCaseRepository testCaseRepository;
   @Mock private CqmMeasureRepository cqmMeasureRepository;
   @Mock private ExportRepository exportRepository;
 
@@ -68,6 +73,8 @@ public class VersionServiceTest {
 
   @Mock ElmTranslatorClient elmTranslatorClient;
   @Mock FhirServicesClient fhirServicesClient;
+  @Spy ValidationFanOutService validationFanOutService = new ValidationFanOutService(2, 5000);
+  @Mock HapiOperationOutcomeCache hapiOperationOutcomeCache;
 
   @Captor private ArgumentCaptor<Measure> measureCaptor;
   @Captor private ArgumentCaptor<CqmMeasure> cqmMeasureCaptor;
@@ -171,9 +178,24 @@ public class VersionServiceTest {
     factory.close();
   }
 
+  @BeforeEach
+  public void setUp() {
+    // pass validations straight through to the FHIR service stubs
+    lenient()
+        .when(hapiOperationOutcomeCache.validate(any(), any(), any()))
+        .thenAnswer(
+            invocation ->
+                fhirServicesClient
+                    .validateBundle(
+                        invocation.getArgument(0),
+                        invocation.getArgument(1),
+                        invocation.getArgument(2))
+                    .getBody());
+  }
+
   @Test
   public void testCheckValidVersioningThrowsResourceNotFoundException() {
-    when(measureService.findMeasureById(anyString())).thenReturn(null);
+    when(measureService.findMeasureMetaDataById(anyString())).thenReturn(null);
 
     assertThrows(
         ResourceNotFoundException.class,
@@ -207,7 +229,7 @@ public class VersionServiceTest {
   @Test
   public void testCheckValidVersioningThrowsBadVersionRequestExceptionForInvalidVersionType() {
     Measure existingMeasure = Measure.builder().id("testMeasureId").createdBy("testUser").build();
-    when(measureService.findMeasureById(anyString())).thenReturn(existingMeasure);
+    when(measureService.findMeasureMetaDataById(anyString())).thenReturn(existingMeasure);
 
     assertThrows(
         BadVersionRequestException.class,
@@ -220,7 +242,7 @@ public class VersionServiceTest {
   public void testCheckValidVersioningThrowsUnauthorizedExceptionForNonOwner() {
     Measure existingMeasure =
         Measure.builder().id("testMeasureId").createdBy("anotherUser").build();
-    when(measureService.findMeasureById(anyString())).thenReturn(existingMeasure);
+    when(measureService.findMeasureMetaDataById(anyString())).thenReturn(existingMeasure);
     doThrow(new UnauthorizedException("Measure", "testMeasureId", "testUser"))
         .when(measureService)
         .verifyAuthorization(anyString(), any(Measure.class));
@@ -272,7 +294,7 @@ public class VersionServiceTest {
     metaData.setDraft(false);
     existingMeasure.setMeasureMetaData(metaData);
 
-    when(measureService.findMeasureById(anyString())).thenReturn(existingMeasure);
+    when(measureService.findMeasureMetaDataById(anyString())).thenReturn(existingMeasure);
 
     assertThrows(
         BadVersionRequestException.class,
@@ -309,7 +331,7 @@ public class VersionServiceTest {
     metaData.setDraft(true);
     existingMeasure.setMeasureMetaData(metaData);
 
-    when(measureService.findMeasureById(anyString())).thenReturn(existingMeasure);
+    when(measureService.findMeasureMetaDataById(anyString())).thenReturn(existingMeasure);
 
     assertThrows(
         BadVersionRequestException.class,
@@ -381,7 +403,7 @@ public class VersionServiceTest {
     metaData.setDraft(true);
     existingMeasure.setMeasureMetaData(metaData);
 
-    when(measureService.findMeasureById(anyString())).thenReturn(existingMeasure);
+    when(measureService.findMeasureMetaDataById(anyString())).thenReturn(existingMeasure);
 
     ElmJson elmJson = ElmJson.builder().json(ELMJON_ERROR).build();
     when(elmTranslatorClient.getElmJson(anyString(), anyString(), anyString())).thenReturn(elmJson);
@@ -406,10 +428,10 @@ public class VersionServiceTest {
     MeasureMetaData metaData = new MeasureMetaData();
     metaData.setDraft(true);
     existingMeasure.setMeasureMetaData(metaData);
-    List<TestCase> testCases = List.of(TestCase.builder().validResource(false).build());
-    existingMeasure.setTestCases(testCases);
 
-    when(measureService.findMeasureById(anyString())).thenReturn(existingMeasure);
+    when(measureService.findMeasureMetaDataById(anyString())).thenReturn(existingMeasure);
+    when(testCaseRepository.existsByMeasureIdAndTestCaseValidResource("testMeasureId", false))
+        .thenReturn(true);
 
     ElmJson elmJson = ElmJson.builder().json(ELMJON_NO_ERROR).build();
     when(elmTranslatorClient.getElmJson(anyString(), anyString(), anyString())).thenReturn(elmJson);
@@ -432,7 +454,7 @@ public class VersionServiceTest {
     metaData.setDraft(true);
     existingMeasure.setMeasureMetaData(metaData);
 
-    when(measureService.findMeasureById(anyString())).thenReturn(existingMeasure);
+    when(measureService.findMeasureMetaDataById(anyString())).thenReturn(existingMeasure);
 
     ElmJson elmJson = ElmJson.builder().json(ELMJON_NO_ERROR).build();
     when(elmTranslatorClient.getElmJson(anyString(), anyString(), anyString())).thenReturn(elmJson);
@@ -480,9 +502,7 @@ public class VersionServiceTest {
     when(elmTranslatorClient.getElmJson(anyString(), anyString(), anyString())).thenReturn(elmJson);
     when(elmTranslatorClient.hasErrors(any())).thenReturn(false);
 
-    Version newVersion = Version.builder().major(2).minor(2).revisionNumber(2).build();
-    when(measureRepository.findMaxVersionByMeasureSetId(anyString()))
-        .thenReturn(Optional.of(newVersion));
+    when(measureRepository.allocateMajorVersion(anyString())).thenReturn(3);
 
     String measureBundleJson =
         """
@@ -508,6 +528,15 @@ public class VersionServiceTest {
         is(
             equalTo(
                 "An error occurred while bundling Measure with ID testMeasureId. Please try again later or contact a System Administrator if this continues to occur.")));
+    verify(measureRepository, never()).save(any(Measure.class));
+    verify(measureRepository, times(1))
+        .releaseVersion(
+            eq("testMeasureSetId"),
+            argThat(
+                released ->
+                    released.getMajor() == 3
+                        && released.getMinor() == 0
+                        && released.getRevisionNumber() == 0));
   }
 
   @Test
@@ -533,9 +562,7 @@ public class VersionServiceTest {
     when(elmTranslatorClient.getElmJson(anyString(), anyString(), anyString())).thenReturn(elmJson);
     when(elmTranslatorClient.hasErrors(any())).thenReturn(false);
 
-    Version newVersion = Version.builder().major(2).minor(2).revisionNumber(2).build();
-    when(measureRepository.findMaxVersionByMeasureSetId(anyString()))
-        .thenReturn(Optional.of(newVersion));
+    when(measureRepository.allocateMajorVersion(anyString())).thenReturn(3);
 
     Measure updatedMeasure = existingMeasure.toBuilder().build();
     Version updatedVersion = Version.builder().major(3).minor(0).revisionNumber(0).build();
@@ -600,9 +627,7 @@ public class VersionServiceTest {
     when(elmTranslatorClient.getElmJson(anyString(), anyString(), anyString())).thenReturn(elmJson);
     when(elmTranslatorClient.hasErrors(any())).thenReturn(false);
 
-    Version newVersion = Version.builder().major(2).minor(3).revisionNumber(2).build();
-    when(measureRepository.findMaxMinorVersionByMeasureSetIdAndVersionMajor(anyString(), anyInt()))
-        .thenReturn(Optional.of(newVersion));
+    when(measureRepository.allocateMinorVersion(anyString(), eq(2))).thenReturn(4);
 
     Measure updatedMeasure = existingMeasure.toBuilder().build();
     Version updatedVersion = Version.builder().major(2).minor(4).revisionNumber(0).build();
@@ -666,10 +691,7 @@ public class VersionServiceTest {
     when(elmTranslatorClient.getElmJson(anyString(), anyString(), anyString())).thenReturn(elmJson);
     when(elmTranslatorClient.hasErrors(any())).thenReturn(false);
 
-    Version newVersion = Version.builder().major(2).minor(3).revisionNumber(1).build();
-    when(measureRepository.findMaxRevisionNumberByMeasureSetIdAndVersionMajorAndMinor(
-            anyString(), anyInt(), anyInt()))
-        .thenReturn(Optional.of(newVersion));
+    when(measureRepository.allocateRevisionNumber(anyString(), eq(2), eq(3))).thenReturn(2);
 
     Measure updatedMeasure = existingMeasure.toBuilder().build();
     Version updatedVersion = Version.builder().major(2).minor(3).revisionNumber(2).build();
@@ -1134,5 +1156,11 @@ public class VersionServiceTest {
         draft.getTestCases().get(0).getGroupPopulations().get(0).getGroupId(),
         is(equalTo("clonedGroupId1")));
     assertThat(draft.getTestCases().get(0).getCaseNumber(), is(equalTo(1)));
+    verify(measureRepository, times(1)).save(any(Measure.class));
+    verify(testCaseRepository, times(1))
+        .insert(
+            draft.getTestCases().stream()
+                .map(draftTestCase -> MeasureTestCase.of("2", draftTestCase))
+                .toList());
   }
 }
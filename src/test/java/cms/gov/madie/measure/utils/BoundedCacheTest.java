@@ -0,0 +1,68 @@
+package cms.gov.madie.measure.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BoundedCacheTest {
+
+  @Test
+  void putDropsLeastRecentlyUsedEntryWhenFull() {
+    BoundedCache<String, String> cache = new BoundedCache<>(2);
+    cache.put("one", "1");
+    cache.put("two", "2");
+    cache.get("one");
+    cache.put("three", "3");
+
+    assertThat(cache.size(), is(2));
+    assertThat(cache.get("one"), is("1"));
+    assertThat(cache.get("two"), is(nullValue()));
+    assertThat(cache.get("three"), is("3"));
+  }
+
+  @Test
+  void entriesExpireAfterTimeToLive() {
+    Instant now = Instant.parse("2024-01-01T00:00:00Z");
+    Clock clock = mock(Clock.class);
+    when(clock.instant()).thenReturn(now);
+    BoundedCache<String, String> cache = new BoundedCache<>(10, Duration.ofMinutes(5), clock);
+    cache.put("one", "1");
+
+    when(clock.instant()).thenReturn(now.plus(Duration.ofMinutes(5)));
+    assertThat(cache.get("one"), is("1"));
+
+    when(clock.instant()).thenReturn(now.plus(Duration.ofMinutes(5)).plusMillis(1));
+    assertThat(cache.get("one"), is(nullValue()));
+    assertThat(cache.size(), is(0));
+  }
+
+  @Test
+  void putWithGenerationIsDroppedAfterEvict() {
+    BoundedCache<String, String> cache = new BoundedCache<>(10);
+    long generation = cache.generation();
+    cache.evict("one");
+
+    assertThat(cache.put("one", "stale", generation), is(false));
+    assertThat(cache.get("one"), is(nullValue()));
+    assertThat(cache.put("one", "1", cache.generation()), is(true));
+    assertThat(cache.get("one"), is("1"));
+  }
+
+  @Test
+  void putWithGenerationIsDroppedAfterClear() {
+    BoundedCache<String, String> cache = new BoundedCache<>(10);
+    long generation = cache.generation();
+    cache.clear();
+
+    assertThat(cache.put("one", "stale", generation), is(false));
+    assertThat(cache.size(), is(0));
+  }
+}
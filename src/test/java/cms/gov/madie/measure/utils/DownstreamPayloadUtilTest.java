@@ -0,0 +1,69 @@
+package cms.gov.madie.measure.utils;
+
+import gov.cms.madie.models.measure.HapiOperationOutcome;
+import gov.cms.madie.models.measure.Measure;
+import gov.cms.madie.models.measure.QdmMeasure;
+import gov.cms.madie.models.measure.TestCase;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+class DownstreamPayloadUtilTest {
+
+  @Test
+  void withoutTestCasesKeepsModelAndLeavesMeasureAsItIs() {
+    Measure measure =
+        QdmMeasure.builder()
+            .id("m1")
+            .cql("library Test version '1.0.000'")
+            .elmJson("{}")
+            .testCases(List.of(TestCase.builder().id("tc-1").build()))
+            .build();
+
+    Measure payload = DownstreamPayloadUtil.withoutTestCases(measure);
+
+    assertThat(payload, is(instanceOf(QdmMeasure.class)));
+    assertThat(payload.getId(), is("m1"));
+    assertThat(payload.getCql(), is(measure.getCql()));
+    assertThat(payload.getElmJson(), is("{}"));
+    assertThat(payload.getTestCases().isEmpty(), is(true));
+    assertThat(measure.getTestCases().size(), is(1));
+  }
+
+  @Test
+  void withExportedTestCasesKeepsOnlyExportedTestCasesWithoutOutcome() {
+    TestCase exported =
+        TestCase.builder()
+            .id("tc-1")
+            .json("{\"resourceType\":\"Bundle\"}")
+            .hapiOperationOutcome(HapiOperationOutcome.builder().code(200).build())
+            .build();
+    Measure measure =
+        Measure.builder()
+            .id("m1")
+            .testCases(List.of(exported, TestCase.builder().id("tc-2").build()))
+            .build();
+
+    Measure payload = DownstreamPayloadUtil.withExportedTestCases(measure, List.of("tc-1"));
+
+    assertThat(payload.getTestCases().size(), is(1));
+    assertThat(payload.getTestCases().get(0).getJson(), is(exported.getJson()));
+    assertThat(payload.getTestCases().get(0).getHapiOperationOutcome(), is(nullValue()));
+    assertThat(exported.getHapiOperationOutcome().getCode(), is(200));
+  }
+
+  @Test
+  void withExportedTestCasesHandlesMeasureWithoutTestCases() {
+    Measure payload =
+        DownstreamPayloadUtil.withExportedTestCases(
+            Measure.builder().id("m1").build(), List.of("tc-1"));
+
+    assertThat(payload.getTestCases().isEmpty(), is(true));
+    assertThat(DownstreamPayloadUtil.withoutTestCases(null), is(nullValue()));
+  }
+}
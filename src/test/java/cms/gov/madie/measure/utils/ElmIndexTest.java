@@ -0,0 +1,72 @@
+package cms.gov.madie.measure.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ElmIndexTest implements ResourceUtil {
+
+  @Test
+  void parseIndexesDefinitionsFunctionsAndTerminology() throws JsonProcessingException {
+    ElmIndex elmIndex = ElmIndex.parse(getData("/test_elm.json"));
+
+    assertThat(elmIndex.getDefinitionReturnTypes().get("Initial Population"), is("Encounter"));
+    assertThat(elmIndex.getDefinitionReturnTypes().get("SDE Sex"), is("Code"));
+    assertThat(elmIndex.getDefinitionReturnTypes().get("SDE Payer"), is("NA"));
+    assertThat(elmIndex.hasDefinition("fun23"), is(true));
+    assertThat(elmIndex.hasDefinition("fun34"), is(false));
+
+    assertThat(elmIndex.getObservationPopulationBases().size(), is(2));
+    assertThat(elmIndex.getObservationPopulationBases().get("fun"), is("Encounter"));
+    assertThat(elmIndex.getObservationPopulationBases().get("fun23"), is("NA"));
+
+    assertThat(elmIndex.getValueSetIds().size(), is(6));
+    assertThat(
+        elmIndex.getValueSetIds().get(0),
+        is("http://cts.nlm.nih.gov/fhir/ValueSet/2.16.840.1.113762.1.4.1110.48"));
+    assertThat(elmIndex.getCodes().size(), is(3));
+    assertThat(elmIndex.getCodes().get(0).id(), is("10-9"));
+    assertThat(elmIndex.getCodes().get(0).codeSystemName(), is("LOINC"));
+    assertThat(elmIndex.getCodeSystem("LOINC").id(), is("http://loinc.org"));
+    assertThat(elmIndex.getCodeSystem("ICD10CM"), is(nullValue()));
+    assertThat(elmIndex.hasErrors(), is(false));
+  }
+
+  @Test
+  void parseCountsErrorExceptions() throws JsonProcessingException {
+    ElmIndex elmIndex =
+        ElmIndex.parse("{\"errorExceptions\": [{\"errorSeverity\": \"Error\"}], \"library\": {}}");
+
+    assertThat(elmIndex.hasErrors(), is(true));
+    assertThat(elmIndex.getDefinitionReturnTypes().isEmpty(), is(true));
+  }
+
+  @Test
+  void parseFunctionWithoutParametersIsBooleanObservation() throws JsonProcessingException {
+    ElmIndex elmIndex =
+        ElmIndex.parse(
+            "{\"library\": {\"statements\": {\"def\": [{\"name\": \"boolFunc\", "
+                + "\"type\": \"FunctionDef\", \"expression\": {\"type\": \"Literal\"}, "
+                + "\"operand\": []}]}}}");
+
+    assertThat(elmIndex.getObservationPopulationBases().get("boolFunc"), is("Boolean"));
+    assertThat(elmIndex.getDefinitionReturnTypes().get("boolFunc"), is("NA"));
+  }
+
+  @Test
+  void parseReturnsEmptyIndexForBlankElm() throws JsonProcessingException {
+    assertThat(ElmIndex.parse(null), is(sameInstance(ElmIndex.EMPTY)));
+    assertThat(ElmIndex.parse(" "), is(sameInstance(ElmIndex.EMPTY)));
+    assertThat(ElmIndex.EMPTY.getValueSetIds().isEmpty(), is(true));
+  }
+
+  @Test
+  void parseThrowsForMalformedElm() {
+    assertThrows(JsonProcessingException.class, () -> ElmIndex.parse("{ curroped: json"));
+  }
+}
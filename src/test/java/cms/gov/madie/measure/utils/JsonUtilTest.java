@@ -4,6 +4,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import cms.gov.madie.measure.dto.ImportedTestCaseBundle;
 import gov.cms.madie.models.measure.Group;
 import gov.cms.madie.models.measure.MeasureScoring;
 import gov.cms.madie.models.measure.QdmMeasure;
@@ -508,6 +509,41 @@ public class JsonUtilTest implements ResourceUtil {
     assertEquals(modifiedJson, json);
   }
 
+  @Test
+  void testReadImportedQiCoreBundleMatchesTreeBasedHelpers() throws JsonProcessingException {
+    final String importJson = getData("/test_case_exported_json.json");
+
+    ImportedTestCaseBundle bundle = JsonUtil.readImportedQiCoreBundle(importJson);
+
+    assertThat(bundle.getJson(), is(equalTo(JsonUtil.removeMeasureReportFromJson(importJson))));
+    assertThat(bundle.getPatientId(), is(equalTo(JsonUtil.getPatientId(importJson))));
+    assertThat(bundle.getFamilyName(), is(equalTo("IPPass")));
+    assertThat(bundle.getGivenName(), is(equalTo("IPPass")));
+    assertThat(bundle.getDescription(), is(equalTo(JsonUtil.getTestDescription(importJson))));
+    assertThat(
+        JsonUtil.getTestCaseGroupPopulationsFromMeasureReport(bundle.getMeasureReport(), true),
+        is(equalTo(JsonUtil.getTestCaseGroupPopulationsFromMeasureReport(importJson, true))));
+  }
+
+  @Test
+  void testReadImportedQiCoreBundleWithoutEntries() throws JsonProcessingException {
+    ImportedTestCaseBundle bundle = JsonUtil.readImportedQiCoreBundle(json_noEntries);
+
+    assertTrue(JsonUtil.isValidJson(bundle.getJson()));
+    assertThat(bundle.getJson().contains("62c880eb0111a60120dc21eb"), is(true));
+    assertNull(bundle.getGivenName());
+    assertNull(bundle.getMeasureReport());
+  }
+
+  @Test
+  void testReadImportedQiCoreBundleThrowsForMalformedJson() {
+    assertThrows(
+        JsonProcessingException.class, () -> JsonUtil.readImportedQiCoreBundle(malformedJson));
+    assertThrows(
+        JsonProcessingException.class,
+        () -> JsonUtil.readImportedQiCoreBundle("{\"resourceType\": \"Bundle\", \"entry\": ["));
+  }
+
   @Test
   public void testRemoveMeasureReportFromJsonThrowsException() {
     assertThrows(RuntimeException.class, () -> JsonUtil.removeMeasureReportFromJson(null));
@@ -519,6 +555,41 @@ public class JsonUtilTest implements ResourceUtil {
     assertTrue(StringUtils.isAllBlank(str));
   }
 
+  @Test
+  void testNormalizeQiCoreBundleMatchesSeparateTransforms() {
+    TestCase tc = testCase.toBuilder().json(json).build();
+    String expected = JsonUtil.enforcePatientId(tc, baseUrl);
+    expected = JsonUtil.updateResourceFullUrls(tc.toBuilder().json(expected).build(), baseUrl);
+    expected = JsonUtil.replacePatientRefs(expected, tc.getPatientId().toString());
+
+    String output = JsonUtil.normalizeQiCoreBundle(tc, baseUrl);
+
+    assertTrue(JsonUtil.isValidJson(output));
+    assertThat(output.replaceAll("\\s", ""), is(equalTo(expected.replaceAll("\\s", ""))));
+    assertThat(output.contains("\"Patient/1\""), is(false));
+    assertThat(output.contains("\"Practitioner/30164\""), is(true));
+    assertThat(output.contains(baseUrl + "Patient/" + tc.getPatientId()), is(true));
+    assertThat(output.contains(baseUrl + "Encounter/2"), is(true));
+  }
+
+  @Test
+  void testNormalizeQiCoreBundleReturnsEmptyJson() {
+    TestCase tc = testCase.toBuilder().json("").build();
+    assertThat(JsonUtil.normalizeQiCoreBundle(tc, baseUrl), is(equalTo("")));
+  }
+
+  @Test
+  void testNormalizeQiCoreBundleOnlyReplacesReferencesInMalformedJson() {
+    String malformed = "{ \"reference\" : \"Patient/1\", \"entry\": [ }";
+    TestCase tc = testCase.toBuilder().json(malformed).build();
+
+    String output = JsonUtil.normalizeQiCoreBundle(tc, baseUrl);
+
+    assertThat(
+        output,
+        is(equalTo(JsonUtil.replacePatientRefs(malformed, tc.getPatientId().toString()))));
+  }
+
   @Test
   void updateResourceFullUrlsIfTestResourcesAvailable() {
     final String json = getData("/bundles/qicore_json_util_fullurl.json");
@@ -10,6 +10,7 @@ import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -18,6 +19,7 @@ import cms.gov.madie.measure.exceptions.InvalidFhirGroupException;
 import cms.gov.madie.measure.exceptions.InvalidGroupException;
 import cms.gov.madie.measure.exceptions.InvalidReturnTypeException;
 import cms.gov.madie.measure.exceptions.InvalidReturnTypeForQdmException;
+import cms.gov.madie.measure.services.ElmIndexCache;
 import cms.gov.madie.measure.utils.ResourceUtil;
 import gov.cms.madie.models.measure.DefDescPair;
 import gov.cms.madie.models.measure.Group;
@@ -29,6 +31,8 @@ import gov.cms.madie.models.measure.Stratification;
 @ExtendWith(MockitoExtension.class)
 class CqlDefinitionReturnTypeServiceTest implements ResourceUtil {
 
+  @Spy private ElmIndexCache elmIndexCache = new ElmIndexCache(10);
+
   @InjectMocks private CqlDefinitionReturnTypeService qlDefinitionReturnTypeService;
 
   @Test
@@ -2,6 +2,7 @@ package cms.gov.madie.measure.validations;
 
 import cms.gov.madie.measure.exceptions.InvalidMeasureObservationException;
 import cms.gov.madie.measure.exceptions.InvalidReturnTypeException;
+import cms.gov.madie.measure.services.ElmIndexCache;
 import cms.gov.madie.measure.utils.ResourceUtil;
 import gov.cms.madie.models.measure.Group;
 import gov.cms.madie.models.measure.MeasureObservation;
@@ -16,6 +17,7 @@ import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -23,6 +25,8 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 @ExtendWith(MockitoExtension.class)
 public class CqlObservationFunctionServiceTest implements ResourceUtil {
 
+  @Spy private ElmIndexCache elmIndexCache = new ElmIndexCache(10);
+
   @InjectMocks private CqlObservationFunctionService cqlObservationFunctionService;
 
   @Test